@@ -300,6 +300,15 @@ public class AdobepassAuthentication implements IAuthentication {
                 AuthenticationConstants.ERROR_CAUSE, throwable);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getUserId() {
+
+        return null;
+    }
+
     /**
      * This method cancels all requests associated with the any context.
      */
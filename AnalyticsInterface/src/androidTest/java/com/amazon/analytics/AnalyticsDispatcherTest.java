@@ -0,0 +1,277 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.analytics;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import android.app.Activity;
+import android.content.Context;
+import android.support.test.runner.AndroidJUnit4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the {@link AnalyticsDispatcher} class
+ */
+@RunWith(AndroidJUnit4.class)
+public class AnalyticsDispatcherTest {
+
+    private static final String KEY_INDEX = "index";
+
+    private AnalyticsDispatcher mDispatcher;
+
+    @After
+    public void tearDown() throws Exception {
+
+        if (mDispatcher != null) {
+            mDispatcher.shutdown();
+        }
+    }
+
+    /**
+     * Analytics implementation that records the tracked action indexes and, in
+     * {@link #mEvents}, every call with the thread it was made on. A batch waits until
+     * {@link #mRelease} is counted down; {@link #mBatchStarted} is counted down when the first
+     * batch arrives.
+     */
+    private static class RecordingAnalytics implements IBatchAnalytics {
+
+        final List<Object> mIndexes = Collections.synchronizedList(new ArrayList<>());
+
+        final List<String> mEvents = Collections.synchronizedList(new ArrayList<>());
+
+        final List<Thread> mThreads = Collections.synchronizedList(new ArrayList<>());
+
+        final CountDownLatch mRelease = new CountDownLatch(1);
+
+        final CountDownLatch mBatchStarted = new CountDownLatch(1);
+
+        final CountDownLatch mDelivered;
+
+        RecordingAnalytics(int expectedCount) {
+
+            mDelivered = new CountDownLatch(expectedCount);
+        }
+
+        @Override
+        public void trackActions(List<HashMap<String, Object>> actions) {
+
+            mBatchStarted.countDown();
+            try {
+                mRelease.await(5, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (HashMap<String, Object> action : actions) {
+                mIndexes.add(action.get(KEY_INDEX));
+                record("action " + action.get(KEY_INDEX));
+            }
+        }
+
+        void record(String event) {
+
+            mEvents.add(event);
+            mThreads.add(Thread.currentThread());
+            mDelivered.countDown();
+        }
+
+        @Override
+        public void configure(Context context) {
+
+        }
+
+        @Override
+        public void collectLifeCycleData(Activity activity, boolean active) {
+
+            record("lifecycle " + active);
+        }
+
+        @Override
+        public void trackAction(HashMap<String, Object> data) {
+
+            trackActions(Collections.singletonList(data));
+        }
+
+        @Override
+        public void trackState(String screen) {
+
+            record("state " + screen);
+        }
+
+        @Override
+        public void trackCaughtError(String errorMessage, Throwable t) {
+
+            record("error " + errorMessage);
+        }
+    }
+
+    /**
+     * Create the data of an action.
+     */
+    private static HashMap<String, Object> action(int index) {
+
+        HashMap<String, Object> data = new HashMap<>();
+        data.put(KEY_INDEX, index);
+        return data;
+    }
+
+    /**
+     * Tests that actions are delivered in order on the consumer thread.
+     */
+    @Test
+    public void testDeliversInOrder() throws Exception {
+
+        mDispatcher = new AnalyticsDispatcher(100, 8, AnalyticsDispatcher.OverflowPolicy
+                .DROP_NEWEST);
+        RecordingAnalytics analytics = new RecordingAnalytics(50);
+        analytics.mRelease.countDown();
+        mDispatcher.setAnalytics(analytics);
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(mDispatcher.dispatch(action(i)));
+        }
+        assertTrue(analytics.mDelivered.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, analytics.mIndexes.get(i));
+        }
+        assertEquals(0, mDispatcher.getDroppedCount());
+    }
+
+    /**
+     * Tests that the newest actions are dropped from a full queue with
+     * {@link AnalyticsDispatcher.OverflowPolicy#DROP_NEWEST}.
+     */
+    @Test
+    public void testDropNewest() throws Exception {
+
+        mDispatcher = new AnalyticsDispatcher(2, 1, AnalyticsDispatcher.OverflowPolicy
+                .DROP_NEWEST);
+        RecordingAnalytics analytics = new RecordingAnalytics(3);
+        mDispatcher.setAnalytics(analytics);
+
+        // The consumer takes the first action and waits in the analytics implementation.
+        assertTrue(mDispatcher.dispatch(action(0)));
+        assertTrue(analytics.mBatchStarted.await(5, TimeUnit.SECONDS));
+        assertTrue(mDispatcher.dispatch(action(1)));
+        assertTrue(mDispatcher.dispatch(action(2)));
+        assertFalse(mDispatcher.dispatch(action(3)));
+        analytics.mRelease.countDown();
+
+        assertTrue(analytics.mDelivered.await(5, TimeUnit.SECONDS));
+        assertEquals(1, mDispatcher.getDroppedCount());
+        assertEquals(0, analytics.mIndexes.get(0));
+        assertEquals(1, analytics.mIndexes.get(1));
+        assertEquals(2, analytics.mIndexes.get(2));
+    }
+
+    /**
+     * Tests that the oldest queued actions are dropped from a full queue with
+     * {@link AnalyticsDispatcher.OverflowPolicy#DROP_OLDEST}.
+     */
+    @Test
+    public void testDropOldest() throws Exception {
+
+        mDispatcher = new AnalyticsDispatcher(2, 1, AnalyticsDispatcher.OverflowPolicy
+                .DROP_OLDEST);
+        RecordingAnalytics analytics = new RecordingAnalytics(3);
+        mDispatcher.setAnalytics(analytics);
+
+        assertTrue(mDispatcher.dispatch(action(0)));
+        assertTrue(analytics.mBatchStarted.await(5, TimeUnit.SECONDS));
+        assertTrue(mDispatcher.dispatch(action(1)));
+        assertTrue(mDispatcher.dispatch(action(2)));
+        assertTrue(mDispatcher.dispatch(action(3)));
+        analytics.mRelease.countDown();
+
+        assertTrue(analytics.mDelivered.await(5, TimeUnit.SECONDS));
+        assertEquals(1, mDispatcher.getDroppedCount());
+        assertEquals(0, analytics.mIndexes.get(0));
+        assertEquals(2, analytics.mIndexes.get(1));
+        assertEquals(3, analytics.mIndexes.get(2));
+    }
+
+    /**
+     * Tests that screens and life cycle data are never dropped from a full queue, even with
+     * {@link AnalyticsDispatcher.OverflowPolicy#DROP_OLDEST}.
+     */
+    @Test
+    public void testKeepsCallsInFullQueue() throws Exception {
+
+        mDispatcher = new AnalyticsDispatcher(2, 1, AnalyticsDispatcher.OverflowPolicy
+                .DROP_OLDEST);
+        RecordingAnalytics analytics = new RecordingAnalytics(5);
+        mDispatcher.setAnalytics(analytics);
+
+        assertTrue(mDispatcher.dispatch(action(0)));
+        assertTrue(analytics.mBatchStarted.await(5, TimeUnit.SECONDS));
+        assertTrue(mDispatcher.dispatchState("Home"));
+        assertTrue(mDispatcher.dispatch(action(1)));
+        assertTrue(mDispatcher.dispatch(action(2)));
+        assertTrue(mDispatcher.dispatch(action(3)));
+        assertTrue(mDispatcher.dispatchLifeCycleData(null, false));
+        assertEquals(2, mDispatcher.getQueuedCount());
+        analytics.mRelease.countDown();
+
+        assertTrue(analytics.mDelivered.await(5, TimeUnit.SECONDS));
+        assertEquals(1, mDispatcher.getDroppedCount());
+        assertEquals(Arrays.asList("action 0", "state Home", "action 2", "action 3",
+                                   "lifecycle false"), analytics.mEvents);
+    }
+
+    /**
+     * Tests that screens, life cycle data and errors are delivered in order with the actions, all
+     * on the consumer thread.
+     */
+    @Test
+    public void testDeliversCallsInOrder() throws Exception {
+
+        mDispatcher = new AnalyticsDispatcher(100, 8, AnalyticsDispatcher.OverflowPolicy
+                .DROP_NEWEST);
+        RecordingAnalytics analytics = new RecordingAnalytics(5);
+        analytics.mRelease.countDown();
+        mDispatcher.setAnalytics(analytics);
+
+        assertTrue(mDispatcher.dispatchLifeCycleData(null, true));
+        assertTrue(mDispatcher.dispatchState("Home"));
+        assertTrue(mDispatcher.dispatch(action(0)));
+        assertTrue(mDispatcher.dispatch(action(1)));
+        assertTrue(mDispatcher.dispatchCaughtError("failed", null));
+        assertTrue(mDispatcher.dispatchLifeCycleData(null, false));
+        assertTrue(analytics.mDelivered.await(5, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList("lifecycle true", "state Home", "action 0", "action 1",
+                                   "error failed", "lifecycle false"), analytics.mEvents);
+        for (Thread thread : analytics.mThreads) {
+            assertEquals(analytics.mThreads.get(0), thread);
+        }
+        assertFalse(analytics.mThreads.get(0) == Thread.currentThread());
+        assertEquals(6, mDispatcher.getDeliveredCount());
+    }
+}
@@ -31,6 +31,8 @@ import android.support.test.runner.AndroidJUnit4;
 import android.util.Log;
 
 import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static com.amazon.android.utils.Helpers.checkConsole;
 import static junit.framework.Assert.assertEquals;
@@ -162,6 +164,7 @@ public class AnalyticsManagerTest {
     @Test
     public void testOnActivityResumed() throws Exception {
 
+        final CountDownLatch collected = new CountDownLatch(1);
         IAnalytics iAnalytics = new IAnalytics() {
             @Override
             public void configure(Context context) {
@@ -177,6 +180,7 @@ public class AnalyticsManagerTest {
                 else {
                     Log.d(TAG, LOG_END_TRACKING);
                 }
+                collected.countDown();
             }
 
             @Override
@@ -201,6 +205,8 @@ public class AnalyticsManagerTest {
         assertTrue("onActivityResumed() should record tracking status in logs", checkConsole
                 (LOGCAT_COMMAND_DEBUG, LOG_ACTIVITY_RESUMED));
 
+        // Life cycle data is delivered on the analytics dispatcher thread.
+        assertTrue(collected.await(5, TimeUnit.SECONDS));
         assertTrue("Checking for collectLifeCycleData() execution (active = true):", checkConsole
                 (LOGCAT_COMMAND_TEST_DEBUG, LOG_START_TRACKING));
 
@@ -214,6 +220,7 @@ public class AnalyticsManagerTest {
     @Test
     public void testOnActivityPaused() throws Exception {
 
+        final CountDownLatch collected = new CountDownLatch(1);
         IAnalytics iAnalytics = new IAnalytics() {
             @Override
             public void configure(Context context) {
@@ -229,6 +236,7 @@ public class AnalyticsManagerTest {
                 else {
                     Log.d(TAG, LOG_END_TRACKING);
                 }
+                collected.countDown();
             }
 
             @Override
@@ -253,6 +261,8 @@ public class AnalyticsManagerTest {
         assertTrue("onActivityPause() should record tracking status in logs",
                    checkConsole(LOGCAT_COMMAND_DEBUG, LOG_ACTIVITY_PAUSED));
 
+        // Life cycle data is delivered on the analytics dispatcher thread.
+        assertTrue(collected.await(5, TimeUnit.SECONDS));
         assertTrue("Checking for collectLifeCycleData() execution (active = false):",
                    checkConsole(LOGCAT_COMMAND_TEST_DEBUG, LOG_END_TRACKING));
     }
@@ -0,0 +1,540 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.analytics;
+
+import android.app.Activity;
+import android.os.Process;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers tracked actions to the {@link IAnalytics} implementation on a background thread, so
+ * slow analytics SDKs do not add to the latency of the calling thread. Actions are kept in a
+ * bounded lock-free queue and delivered in order by a single consumer thread, in batches of up
+ * to {@link #getMaxBatchSize()} events. Implementations of {@link IBatchAnalytics} get the
+ * actions of a batch in one call.
+ *
+ * Screens, life cycle data and caught errors go through the same queue, so the implementation is
+ * only ever called from the consumer thread, after it was configured, and sees all events in the
+ * order they were dispatched. These events do not count against the capacity and are never
+ * dropped for room: they are few, and a dropped resume or pause would leave the life cycle
+ * tracking of the implementation unpaired.
+ *
+ * When the queue is full of actions, the {@link OverflowPolicy} decides which action is dropped.
+ * The number of dropped events and of events that waited longer than {@link #DELAY_THRESHOLD_MS}
+ * in the queue are counted.
+ */
+public class AnalyticsDispatcher {
+
+    /**
+     * Debug tag.
+     */
+    private static final String TAG = AnalyticsDispatcher.class.getSimpleName();
+
+    /**
+     * Default maximum number of queued actions.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * Default maximum number of events delivered in one batch.
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 32;
+
+    /**
+     * Time an event may wait in the queue before it is counted as delayed.
+     */
+    public static final long DELAY_THRESHOLD_MS = 1000;
+
+    /**
+     * What to do with a new action when the queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Drop the new action.
+         */
+        DROP_NEWEST,
+        /**
+         * Drop the oldest queued action to make room for the new one.
+         */
+        DROP_OLDEST
+    }
+
+    /**
+     * A call of the analytics implementation other than {@link IAnalytics#trackAction(HashMap)}.
+     */
+    private interface Call {
+
+        /**
+         * Make the call.
+         *
+         * @param analytics The analytics implementation.
+         */
+        void run(IAnalytics analytics);
+    }
+
+    /**
+     * A queued event: an action, or another call of the analytics implementation.
+     */
+    private static class Event {
+
+        /**
+         * The action data, null if the event is a call.
+         */
+        final HashMap<String, Object> mData;
+
+        /**
+         * The call, null if the event is an action.
+         */
+        final Call mCall;
+
+        /**
+         * Time the event was queued, from {@link System#nanoTime()}.
+         */
+        final long mQueuedNanos;
+
+        /**
+         * Constructor.
+         *
+         * @param data        The action data, null if the event is a call.
+         * @param call        The call, null if the event is an action.
+         * @param queuedNanos Time the event was queued.
+         */
+        Event(HashMap<String, Object> data, Call call, long queuedNanos) {
+
+            mData = data;
+            mCall = call;
+            mQueuedNanos = queuedNanos;
+        }
+    }
+
+    /**
+     * The queued events.
+     */
+    private final ConcurrentLinkedQueue<Event> mQueue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Number of queued actions. The queue does not keep its size, so the bound is kept here.
+     */
+    private final AtomicInteger mSize = new AtomicInteger();
+
+    /**
+     * Maximum number of queued actions.
+     */
+    private final int mCapacity;
+
+    /**
+     * Maximum number of events delivered in one batch.
+     */
+    private final int mMaxBatchSize;
+
+    /**
+     * What to do with a new action when the queue is full.
+     */
+    private volatile OverflowPolicy mOverflowPolicy;
+
+    /**
+     * The implementation the events are delivered to.
+     */
+    private volatile IAnalytics mAnalytics;
+
+    /**
+     * True while the consumer thread waits for events.
+     */
+    private final AtomicBoolean mConsumerWaiting = new AtomicBoolean();
+
+    /**
+     * True once the dispatcher was shut down.
+     */
+    private volatile boolean mShutdown;
+
+    /**
+     * Number of delivered events.
+     */
+    private final AtomicLong mDeliveredCount = new AtomicLong();
+
+    /**
+     * Number of dropped events.
+     */
+    private final AtomicLong mDroppedCount = new AtomicLong();
+
+    /**
+     * Number of events delivered later than {@link #DELAY_THRESHOLD_MS} after they were queued.
+     */
+    private final AtomicLong mDelayedCount = new AtomicLong();
+
+    /**
+     * The consumer thread.
+     */
+    private final Thread mConsumer;
+
+    /**
+     * Constructor. Starts the consumer thread.
+     *
+     * @param capacity       Maximum number of queued actions.
+     * @param maxBatchSize   Maximum number of events delivered in one batch.
+     * @param overflowPolicy What to do with a new action when the queue is full.
+     */
+    public AnalyticsDispatcher(int capacity, int maxBatchSize, OverflowPolicy overflowPolicy) {
+
+        if (capacity <= 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("capacity and maxBatchSize must be positive");
+        }
+        mCapacity = capacity;
+        mMaxBatchSize = maxBatchSize;
+        mOverflowPolicy = overflowPolicy;
+        mConsumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                consume();
+            }
+        }, TAG);
+        mConsumer.setDaemon(true);
+        mConsumer.start();
+    }
+
+    /**
+     * Set the implementation the events are delivered to.
+     *
+     * @param analytics The analytics implementation.
+     */
+    public void setAnalytics(IAnalytics analytics) {
+
+        mAnalytics = analytics;
+    }
+
+    /**
+     * Queue an action for delivery. Never blocks.
+     *
+     * @param data The action data, see {@link IAnalytics#trackAction(HashMap)}. It must not be
+     *             modified afterwards.
+     * @return True if the action was queued; false if it was dropped.
+     */
+    public boolean dispatch(HashMap<String, Object> data) {
+
+        return enqueue(new Event(data, null, System.nanoTime()));
+    }
+
+    /**
+     * Queue a screen for {@link IAnalytics#trackState(String)}. Never blocks.
+     *
+     * @param screen The screen that is displayed.
+     * @return True if the screen was queued; false if the dispatcher was shut down.
+     */
+    public boolean dispatchState(final String screen) {
+
+        return enqueue(new Event(null, new Call() {
+            @Override
+            public void run(IAnalytics analytics) {
+
+                analytics.trackState(screen);
+            }
+        }, System.nanoTime()));
+    }
+
+    /**
+     * Queue life cycle data for {@link IAnalytics#collectLifeCycleData(Activity, boolean)}. Never
+     * blocks.
+     *
+     * The event keeps a reference to the activity until it is delivered, as implementations like
+     * Omniture pass the activity itself to their SDK. This is safe: the event is never dropped
+     * for room, the consumer delivers it right after the events queued before it, and the
+     * reference is released on delivery, like a message posted to a handler for the activity.
+     *
+     * @param activity The activity to collect lifecycle data on.
+     * @param active   True if data collecting should be active; false if collecting should be
+     *                 paused.
+     * @return True if the data was queued; false if the dispatcher was shut down.
+     */
+    public boolean dispatchLifeCycleData(final Activity activity, final boolean active) {
+
+        return enqueue(new Event(null, new Call() {
+            @Override
+            public void run(IAnalytics analytics) {
+
+                analytics.collectLifeCycleData(activity, active);
+            }
+        }, System.nanoTime()));
+    }
+
+    /**
+     * Queue a caught error for {@link IAnalytics#trackCaughtError(String, Throwable)}. Never
+     * blocks.
+     *
+     * @param errorMessage The error message corresponding for this error.
+     * @param t            The error that needs to be tracked.
+     * @return True if the error was queued; false if the dispatcher was shut down.
+     */
+    public boolean dispatchCaughtError(final String errorMessage, final Throwable t) {
+
+        return enqueue(new Event(null, new Call() {
+            @Override
+            public void run(IAnalytics analytics) {
+
+                analytics.trackCaughtError(errorMessage, t);
+            }
+        }, System.nanoTime()));
+    }
+
+    /**
+     * Queue an event. If the event is an action and the queue is full, drop an action.
+     *
+     * @param event The event.
+     * @return True if the event was queued; false if it was dropped.
+     */
+    private boolean enqueue(Event event) {
+
+        if (mShutdown) {
+            mDroppedCount.incrementAndGet();
+            return false;
+        }
+        // Only actions count against the capacity, the other events are never dropped for room.
+        if (event.mCall == null && mSize.incrementAndGet() > mCapacity) {
+            if (mOverflowPolicy == OverflowPolicy.DROP_NEWEST) {
+                mSize.decrementAndGet();
+                mDroppedCount.incrementAndGet();
+                return false;
+            }
+            dropOldestAction();
+        }
+        mQueue.offer(event);
+        if (mConsumerWaiting.get()) {
+            LockSupport.unpark(mConsumer);
+        }
+        return true;
+    }
+
+    /**
+     * Drop the oldest queued action to make room for a new one.
+     */
+    private void dropOldestAction() {
+
+        for (Event queued : mQueue) {
+            if (queued.mCall == null) {
+                // The consumer may have taken the action meanwhile, then there is room.
+                if (mQueue.remove(queued)) {
+                    mSize.decrementAndGet();
+                    mDroppedCount.incrementAndGet();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stop the consumer thread. Queued events are not delivered and later events are dropped.
+     */
+    public void shutdown() {
+
+        mShutdown = true;
+        LockSupport.unpark(mConsumer);
+    }
+
+    /**
+     * Loop of the consumer thread: take up to a batch of events and deliver them, wait if there
+     * are none.
+     */
+    private void consume() {
+
+        List<Event> batch = new ArrayList<>(mMaxBatchSize);
+        while (!mShutdown) {
+            Event event;
+            while (batch.size() < mMaxBatchSize && (event = mQueue.poll()) != null) {
+                if (event.mCall == null) {
+                    mSize.decrementAndGet();
+                }
+                batch.add(event);
+            }
+            if (batch.isEmpty()) {
+                // Publish the wait before checking the queue again; a producer that queues after
+                // the check sees the flag and wakes the thread.
+                mConsumerWaiting.set(true);
+                if (mQueue.isEmpty() && !mShutdown) {
+                    LockSupport.park(this);
+                }
+                mConsumerWaiting.set(false);
+                continue;
+            }
+            deliver(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Deliver a batch of events to the analytics implementation, in order. The actions between
+     * two calls are tracked together. Events queued before an implementation is set are dropped.
+     *
+     * @param batch The events.
+     */
+    private void deliver(List<Event> batch) {
+
+        long now = System.nanoTime();
+        long delayThresholdNanos = TimeUnit.MILLISECONDS.toNanos(DELAY_THRESHOLD_MS);
+        for (Event event : batch) {
+            if (now - event.mQueuedNanos > delayThresholdNanos) {
+                mDelayedCount.incrementAndGet();
+            }
+        }
+
+        IAnalytics analytics = mAnalytics;
+        if (analytics == null) {
+            mDroppedCount.addAndGet(batch.size());
+            return;
+        }
+        List<HashMap<String, Object>> actions = new ArrayList<>(batch.size());
+        for (Event event : batch) {
+            if (event.mCall == null) {
+                actions.add(event.mData);
+                continue;
+            }
+            trackActions(analytics, actions);
+            actions.clear();
+            try {
+                event.mCall.run(analytics);
+                mDeliveredCount.incrementAndGet();
+            }
+            catch (RuntimeException e) {
+                // Keep the consumer alive, the analytics implementation failing must not stop it.
+                Log.e(TAG, "Analytics implementation failed", e);
+                mDroppedCount.incrementAndGet();
+            }
+        }
+        trackActions(analytics, actions);
+    }
+
+    /**
+     * Track actions with the analytics implementation, in one call if it supports batches.
+     *
+     * @param analytics The analytics implementation.
+     * @param actions   The action data, may be empty.
+     */
+    private void trackActions(IAnalytics analytics, List<HashMap<String, Object>> actions) {
+
+        if (actions.isEmpty()) {
+            return;
+        }
+        try {
+            if (analytics instanceof IBatchAnalytics) {
+                ((IBatchAnalytics) analytics).trackActions(new ArrayList<>(actions));
+            }
+            else {
+                for (HashMap<String, Object> data : actions) {
+                    analytics.trackAction(data);
+                }
+            }
+            mDeliveredCount.addAndGet(actions.size());
+        }
+        catch (RuntimeException e) {
+            // Keep the consumer alive, the analytics implementation failing must not stop it.
+            Log.e(TAG, "Analytics implementation failed to track " + actions.size() + " actions",
+                  e);
+            mDroppedCount.addAndGet(actions.size());
+        }
+    }
+
+    /**
+     * Get the maximum number of queued actions.
+     *
+     * @return The capacity.
+     */
+    public int getCapacity() {
+
+        return mCapacity;
+    }
+
+    /**
+     * Get the maximum number of events delivered in one batch.
+     *
+     * @return The maximum batch size.
+     */
+    public int getMaxBatchSize() {
+
+        return mMaxBatchSize;
+    }
+
+    /**
+     * Get what is done with a new action when the queue is full.
+     *
+     * @return The overflow policy.
+     */
+    public OverflowPolicy getOverflowPolicy() {
+
+        return mOverflowPolicy;
+    }
+
+    /**
+     * Set what is done with a new action when the queue is full.
+     *
+     * @param overflowPolicy The overflow policy.
+     */
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+
+        mOverflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Get the number of queued actions.
+     *
+     * @return The number of actions waiting for delivery.
+     */
+    public int getQueuedCount() {
+
+        return Math.max(0, mSize.get());
+    }
+
+    /**
+     * Get the number of delivered events.
+     *
+     * @return The delivered count.
+     */
+    public long getDeliveredCount() {
+
+        return mDeliveredCount.get();
+    }
+
+    /**
+     * Get the number of dropped events: actions that did not fit in the queue, and events that
+     * were queued before an analytics implementation was set, after shutdown, or failed in the
+     * implementation.
+     *
+     * @return The dropped count.
+     */
+    public long getDroppedCount() {
+
+        return mDroppedCount.get();
+    }
+
+    /**
+     * Get the number of events delivered later than {@link #DELAY_THRESHOLD_MS} after they were
+     * queued.
+     *
+     * @return The delayed count.
+     */
+    public long getDelayedCount() {
+
+        return mDelayedCount.get();
+    }
+}
@@ -29,7 +29,9 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * This class handles common analytics tasks and tracks Activity lifecycle events.
+ * This class handles common analytics tasks and tracks Activity lifecycle events. The
+ * {@link IAnalytics} interface is configured on the thread that sets it; after that it is only
+ * called from the thread of the {@link AnalyticsDispatcher}, in the order of the events.
  */
 public class AnalyticsManager implements Application.ActivityLifecycleCallbacks {
 
@@ -71,7 +73,15 @@ public class AnalyticsManager implements Application.ActivityLifecycleCallbacks
     /**
      * Analytics interface reference.
      */
-    private IAnalytics mIAnalytics;
+    private volatile IAnalytics mIAnalytics;
+
+    /**
+     * Delivers the tracked events to the analytics interface off of the calling thread.
+     */
+    private final AnalyticsDispatcher mDispatcher =
+            new AnalyticsDispatcher(AnalyticsDispatcher.DEFAULT_CAPACITY,
+                                    AnalyticsDispatcher.DEFAULT_MAX_BATCH_SIZE,
+                                    AnalyticsDispatcher.OverflowPolicy.DROP_OLDEST);
 
     /**
      * Local broadcast receiver.
@@ -85,7 +95,7 @@ public class AnalyticsManager implements Application.ActivityLifecycleCallbacks
                 HashMap<String, Object> data = intent.getParcelableExtra
                         (ANALYTICS_INTENT_ACTION_DATA);
                 if (mIAnalytics != null) {
-                    mIAnalytics.trackAction(data);
+                    mDispatcher.dispatch(data);
                 }
             }
         }
@@ -138,9 +148,23 @@ public class AnalyticsManager implements Application.ActivityLifecycleCallbacks
         if (mIAnalytics == null) {
             mIAnalytics = iAnalytics;
             mIAnalytics.configure(mAppContext);
+            mDispatcher.setAnalytics(iAnalytics);
         }
     }
 
+    /**
+     * Get the dispatcher that delivers tracked events to the {@link IAnalytics} interface on a
+     * background thread. Events must be tracked through it rather than directly, so the
+     * analytics implementation does not run on the calling thread and is never called from two
+     * threads at once.
+     *
+     * @return The analytics dispatcher.
+     */
+    public AnalyticsDispatcher getDispatcher() {
+
+        return mDispatcher;
+    }
+
     /**
      * Get {@link IAnalytics} interface.
      *
@@ -190,12 +214,12 @@ public class AnalyticsManager implements Application.ActivityLifecycleCallbacks
         String activityName = getActivityName(activity);
         Log.d(TAG, activityName + " onActivityResumed, analytics tracking.");
         if (mIAnalytics != null) {
-            mIAnalytics.collectLifeCycleData(activity, true);
+            mDispatcher.dispatchLifeCycleData(activity, true);
 
             // Track state through analytics.
             String analyticsConstant = mAnalyticsConstantMap.get(activityName);
             if (analyticsConstant != null) {
-                mIAnalytics.trackState(analyticsConstant);
+                mDispatcher.dispatchState(analyticsConstant);
             }
         }
     }
@@ -209,7 +233,7 @@ public class AnalyticsManager implements Application.ActivityLifecycleCallbacks
         String activityName = getActivityName(activity);
         Log.d(TAG, activityName + " onActivityPaused, analytics tracking.");
         if (mIAnalytics != null) {
-            mIAnalytics.collectLifeCycleData(activity, false);
+            mDispatcher.dispatchLifeCycleData(activity, false);
         }
     }
 
@@ -292,6 +316,7 @@ public class AnalyticsManager implements Application.ActivityLifecycleCallbacks
     @VisibleForTesting
     void reset() {
 
+        mDispatcher.shutdown();
         sInstance = null;
     }
 }
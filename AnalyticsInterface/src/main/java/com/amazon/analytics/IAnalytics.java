@@ -22,6 +22,10 @@ import java.util.HashMap;
 /**
  * The Analytics Interface. This class should be used throughout the
  * application to collect analytics.
+ *
+ * {@link #configure(Context)} is called first, on the thread that sets up analytics. All other
+ * methods are then called from the single thread of the {@link AnalyticsDispatcher}, one at a
+ * time, so implementations do not need to synchronize.
  */
 public interface IAnalytics {
 
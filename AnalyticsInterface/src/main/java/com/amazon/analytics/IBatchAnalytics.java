@@ -0,0 +1,33 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.analytics;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Analytics implementations that can track several actions in one call implement this interface.
+ * The {@link AnalyticsDispatcher} then hands them the queued actions in batches instead of calling
+ * {@link IAnalytics#trackAction(HashMap)} for each action.
+ */
+public interface IBatchAnalytics extends IAnalytics {
+
+    /**
+     * Tracks several actions within the app, in the order they happened.
+     *
+     * @param actions The data of the actions, see {@link IAnalytics#trackAction(HashMap)}.
+     */
+    void trackActions(List<HashMap<String, Object>> actions);
+}
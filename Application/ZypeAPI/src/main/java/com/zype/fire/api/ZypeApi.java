@@ -13,6 +13,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.prefs.Preferences;
 
+import okhttp3.Authenticator;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Response;
@@ -53,28 +55,74 @@ public class ZypeApi {
     public static final int PER_PAGE_DEFAULT = 20;
 
     private static ZypeApi instance;
-    private static Retrofit retrofit;
-    private static IZypeApi apiImpl;
+    private static volatile Retrofit retrofit;
+    private static volatile IZypeApi apiImpl;
+
+    // Access token handling installed by the auth component
+    private static Interceptor accessTokenInterceptor;
+    private static Authenticator accessTokenAuthenticator;
+    // Base url of the API, replaced by the stand-in server in performance tests
+    private static String baseUrl = BASE_URL;
 
     private ZypeApi() {}
 
     public static synchronized ZypeApi getInstance() {
         if (instance == null) {
             instance = new ZypeApi();
+            buildApi();
+        }
+        return instance;
+    }
+
+    /**
+     * Install the interceptor and authenticator that keep the access token passed in
+     * the 'access_token' query parameter valid. The interceptor may refresh a token that is about
+     * to expire before the request is sent, the authenticator refreshes the token and replays the
+     * request on 401 response. The API client is rebuilt with the new handlers.
+     *
+     * @param interceptor   Access token interceptor, may be null
+     * @param authenticator Access token authenticator, may be null
+     */
+    public static synchronized void setAccessTokenHandlers(Interceptor interceptor, Authenticator authenticator) {
+        accessTokenInterceptor = interceptor;
+        accessTokenAuthenticator = authenticator;
+        if (instance != null) {
+            buildApi();
+        }
+    }
 
-            // Needs to log retrofit calls
-            HttpLoggingInterceptor interceptor = new HttpLoggingInterceptor();
-            interceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-            OkHttpClient client = new OkHttpClient.Builder().addInterceptor(interceptor).build();
+    /**
+     * Point the API client to another server, e.g. a local stand-in server used to benchmark
+     * the catalog load path. Absolute urls like the OAuth and player endpoints are not affected.
+     *
+     * @param url Base url, or null to restore the default one
+     */
+    public static synchronized void setBaseUrl(String url) {
+        baseUrl = url != null ? url : BASE_URL;
+        if (instance != null) {
+            buildApi();
+        }
+    }
 
-            retrofit = new Retrofit.Builder()
-                    .baseUrl(BASE_URL)
-                    .client(client)
-                    .addConverterFactory(GsonConverterFactory.create())
-                    .build();
-            apiImpl = retrofit.create(IZypeApi.class);
+    private static void buildApi() {
+        // Needs to log retrofit calls
+        HttpLoggingInterceptor interceptor = new HttpLoggingInterceptor();
+        interceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
+        OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder();
+        if (accessTokenInterceptor != null) {
+            clientBuilder.addInterceptor(accessTokenInterceptor);
         }
-        return instance;
+        if (accessTokenAuthenticator != null) {
+            clientBuilder.authenticator(accessTokenAuthenticator);
+        }
+        OkHttpClient client = clientBuilder.addInterceptor(interceptor).build();
+
+        retrofit = new Retrofit.Builder()
+                .baseUrl(baseUrl)
+                .client(client)
+                .addConverterFactory(GsonConverterFactory.create())
+                .build();
+        apiImpl = retrofit.create(IZypeApi.class);
     }
 
     public Retrofit retrofit() {
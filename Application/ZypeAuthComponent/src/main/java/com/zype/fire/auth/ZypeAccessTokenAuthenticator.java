@@ -0,0 +1,103 @@
+package com.zype.fire.auth;
+
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.amazon.android.utils.Preferences;
+import com.amazon.auth.IAuthentication;
+import com.zype.fire.api.ZypeApi;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Authenticator;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.Route;
+
+/**
+ * Keeps the access token passed to the Zype API in the 'access_token' query parameter valid.
+ *
+ * As an interceptor it refreshes a token that is about to expire before the request is sent.
+ * As an authenticator it refreshes the token on 401 response and replays the request once
+ * with the new token. Requests to the OAuth host and the requests made by the refresh itself
+ * are passed through as is.
+ */
+class ZypeAccessTokenAuthenticator implements Authenticator, Interceptor {
+    private static final String TAG = ZypeAccessTokenAuthenticator.class.getSimpleName();
+
+    private static final String OAUTH_HOST = "login.zype.com";
+
+    /**
+     * The interceptor refreshes the access token if it expires within this time.
+     */
+    private static final long EXPIRATION_MARGIN_MS = TimeUnit.SECONDS.toMillis(30);
+
+    private final ZypeTokenManager manager;
+
+    ZypeAccessTokenAuthenticator(ZypeTokenManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (isAccessTokenRequest(request)
+                && ZypeTokenManager.getAccessTokenExpiresAt() > 0
+                && manager.isAccessTokenExpiring(EXPIRATION_MARGIN_MS)) {
+            Log.d(TAG, "intercept(): access token is about to expire, refreshing");
+            manager.refreshAccessToken();
+            Request updatedRequest = withCurrentAccessToken(request);
+            if (updatedRequest != null) {
+                request = updatedRequest;
+            }
+        }
+        return chain.proceed(request);
+    }
+
+    @Override
+    public Request authenticate(Route route, Response response) throws IOException {
+        Request request = response.request();
+        if (!isAccessTokenRequest(request) || response.priorResponse() != null) {
+            return null;
+        }
+        String sentToken = request.url().queryParameter(ZypeApi.ACCESS_TOKEN);
+        if (TextUtils.equals(sentToken, Preferences.getString(IAuthentication.ACCESS_TOKEN))) {
+            // Token was not refreshed by another request yet
+            Log.d(TAG, "authenticate(): access token rejected, refreshing");
+            if (manager.refreshAccessToken() == null) {
+                return null;
+            }
+        }
+        return withCurrentAccessToken(request);
+    }
+
+    /**
+     * Check if the request is authorized with the consumer access token and may trigger a refresh.
+     */
+    private boolean isAccessTokenRequest(Request request) {
+        HttpUrl url = request.url();
+        return !TextUtils.isEmpty(url.queryParameter(ZypeApi.ACCESS_TOKEN))
+                && !OAUTH_HOST.equalsIgnoreCase(url.host())
+                && !manager.isRefreshingOnCurrentThread();
+    }
+
+    /**
+     * Rebuild the request with the stored access token.
+     *
+     * @return Updated request, or null if the stored token is empty or the same as in the request
+     */
+    private Request withCurrentAccessToken(Request request) {
+        String accessToken = Preferences.getString(IAuthentication.ACCESS_TOKEN);
+        HttpUrl url = request.url();
+        if (TextUtils.isEmpty(accessToken)
+                || accessToken.equals(url.queryParameter(ZypeApi.ACCESS_TOKEN))) {
+            return null;
+        }
+        return request.newBuilder()
+                .url(url.newBuilder().setQueryParameter(ZypeApi.ACCESS_TOKEN, accessToken).build())
+                .build();
+    }
+}
@@ -15,7 +15,6 @@ import com.zype.fire.api.Model.ConsumerData;
 import com.zype.fire.api.Model.ConsumerResponse;
 import com.zype.fire.api.ZypeApi;
 
-import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -35,9 +34,9 @@ public class ZypeAuthentication implements IAuthentication {
     public static final String PREFERENCE_CONSUMER_ID = "ZypeConsumerId";
     public static final String PREFERENCE_CONSUMER_PASSWORD = "ZypeConsumerPassword";
 
-    private static final String RESPONSE_ACCESS_TOKEN = "ResponseAccessToken";
-    private static final String RESPONSE_ACCESS_TOKEN_INFO = "ResponseAccessTokenInfo";
-    private static final String RESPONSE_CONSUMER = "ResponseConsumer";
+    static final String RESPONSE_ACCESS_TOKEN = "ResponseAccessToken";
+    static final String RESPONSE_ACCESS_TOKEN_INFO = "ResponseAccessTokenInfo";
+    static final String RESPONSE_CONSUMER = "ResponseConsumer";
 
     /**
      * The access token is used to see if the user is authenticated or not.
@@ -59,6 +58,8 @@ public class ZypeAuthentication implements IAuthentication {
         if (BuildConfig.DEBUG) {
             Log.d(TAG, "Previous access token is: " + accessToken);
         }
+        // Refresh the access token ahead of its expiration and on 401 responses
+        ZypeTokenManager.getInstance().install();
     }
 
     /**
@@ -105,8 +106,7 @@ public class ZypeAuthentication implements IAuthentication {
             responseHandler.onFailure(bundle);
         }
         else {
-            long currentTime = Calendar.getInstance().getTimeInMillis();
-            if (currentTime - Preferences.getLong(PREFERENCE_ACCESS_TOKEN_CREATED_AT) * 1000 > Preferences.getLong(PREFERENCE_ACCESS_TOKEN_EXPIRES_IN) * 1000) {
+            if (ZypeTokenManager.getInstance().isAccessTokenExpiring(0)) {
                 handleRefreshToken(responseHandler);
             }
             else {
@@ -135,6 +135,7 @@ public class ZypeAuthentication implements IAuthentication {
      */
     @Override
     public void logout(Context context, ResponseHandler responseHandler) {
+        ZypeTokenManager.getInstance().onLogout();
         accessToken = "";
         Preferences.setString(IAuthentication.ACCESS_TOKEN, accessToken);
         Preferences.setLong(ZypeAuthentication.PREFERENCE_ACCESS_TOKEN_CREATED_AT, 0);
@@ -146,6 +147,16 @@ public class ZypeAuthentication implements IAuthentication {
         responseHandler.onSuccess(new Bundle());
     }
 
+    /**
+     * Get the id of the logged in consumer.
+     *
+     * @return The consumer id, or null if no consumer is logged in
+     */
+    @Override
+    public String getUserId() {
+        return Preferences.getString(ZypeAuthentication.PREFERENCE_CONSUMER_ID);
+    }
+
     /**
      * This method cancels all requests
      */
@@ -184,8 +195,7 @@ public class ZypeAuthentication implements IAuthentication {
             protected void onPostExecute(Map response) {
                 super.onPostExecute(response);
                 if (response != null) {
-                    // Successful refresh token.
-                    saveAccessToken(response);
+                    // Successful refresh token. The token manager has already saved the new token.
                     responseHandler.onSuccess(new Bundle());
                 }
                 else {
@@ -195,31 +205,12 @@ public class ZypeAuthentication implements IAuthentication {
 
             @Override
             protected Map<String, Object> doInBackground(Void... params) {
-                return refreshToken(responseHandler);
+                // Joins a refresh that is already in flight
+                return ZypeTokenManager.getInstance().refreshAccessToken();
             }
         }).execute();
     }
 
-    private Map<String, Object> refreshToken(ResponseHandler responseHandler) {
-        AccessTokenResponse responseAccessToken = ZypeApi.getInstance().refreshAccessToken(Preferences.getString(PREFERENCE_REFRESH_TOKEN));
-        AccessTokenInfoResponse responseAccessTokenInfo = null;
-        ConsumerResponse responseConsumer = null;
-        if (responseAccessToken != null) {
-            responseAccessTokenInfo = ZypeApi.getInstance().getAccessTokenInfo(responseAccessToken.getAccessToken());
-            if (responseAccessTokenInfo != null) {
-                responseConsumer = ZypeApi.getInstance().getConsumer(responseAccessTokenInfo.resourceOwnerId, responseAccessToken.getAccessToken());
-            }
-        }
-        else {
-            return null;
-        }
-        Map<String, Object> result = new HashMap<>();
-        result.put(RESPONSE_ACCESS_TOKEN, responseAccessToken);
-        result.put(RESPONSE_ACCESS_TOKEN_INFO, responseAccessTokenInfo);
-        result.put(RESPONSE_CONSUMER, responseConsumer);
-        return result;
-    }
-
     public static void saveAccessToken(Map<String, Object> data) {
         String accessToken = ((AccessTokenResponse) data.get(RESPONSE_ACCESS_TOKEN)).getAccessToken();
         String refreshToken = ((AccessTokenResponse) data.get(RESPONSE_ACCESS_TOKEN)).getRefreshToken();
@@ -251,5 +242,7 @@ public class ZypeAuthentication implements IAuthentication {
         Preferences.setLong(ZypeAuthentication.PREFERENCE_CONSUMER_SUBSCRIPTION_COUNT, consumer.subscriptionCount);
         Preferences.setString(ZypeAuthentication.PREFERENCE_CONSUMER_EMAIL, consumer.email);
         Preferences.setString(ZypeAuthentication.PREFERENCE_CONSUMER_ID, consumer.id);
+
+        ZypeTokenManager.getInstance().scheduleRefresh();
     }
 }
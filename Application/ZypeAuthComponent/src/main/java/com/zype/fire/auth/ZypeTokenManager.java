@@ -0,0 +1,254 @@
+package com.zype.fire.auth;
+
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.amazon.android.utils.Preferences;
+import com.amazon.auth.IAuthentication;
+import com.zype.fire.api.Model.AccessTokenInfoResponse;
+import com.zype.fire.api.Model.AccessTokenResponse;
+import com.zype.fire.api.Model.ConsumerResponse;
+import com.zype.fire.api.ZypeApi;
+
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the Zype OAuth access token valid.
+ *
+ * The refresh is scheduled ahead of the token expiration time stored in
+ * {@link ZypeAuthentication#PREFERENCE_ACCESS_TOKEN_EXPIRES_IN}, so requests on the play path
+ * normally never wait for it. Concurrent refresh requests are collapsed into a single refresh
+ * (refresh token, token info and consumer calls) and all callers get its result.
+ * {@link ZypeAccessTokenAuthenticator} uses the manager to refresh the token on 401 responses.
+ */
+public class ZypeTokenManager {
+    private static final String TAG = ZypeTokenManager.class.getSimpleName();
+
+    /**
+     * The scheduled refresh runs this long before the access token expires.
+     */
+    public static final long REFRESH_AHEAD_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private static ZypeTokenManager instance;
+
+    private final Object lock = new Object();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    // Refresh in flight, shared by all callers
+    private FutureTask<Map<String, Object>> refreshTask;
+    private ScheduledFuture<?> scheduledRefresh;
+    // Incremented on logout. A refresh started before a logout must not save its token.
+    private int logoutCount;
+    // Set while the current thread performs the refresh calls
+    private final ThreadLocal<Boolean> refreshingThread = new ThreadLocal<>();
+
+    private ZypeTokenManager() {}
+
+    public static synchronized ZypeTokenManager getInstance() {
+        if (instance == null) {
+            instance = new ZypeTokenManager();
+        }
+        return instance;
+    }
+
+    /**
+     * Plug the access token handling into the Zype API client and schedule the refresh of the
+     * stored access token.
+     */
+    public void install() {
+        ZypeAccessTokenAuthenticator authenticator = new ZypeAccessTokenAuthenticator(this);
+        ZypeApi.setAccessTokenHandlers(authenticator, authenticator);
+        scheduleRefresh();
+    }
+
+    /**
+     * Get the time the stored access token expires at.
+     *
+     * @return Expiration time in milliseconds, or 0 if it is unknown
+     */
+    public static long getAccessTokenExpiresAt() {
+        long createdAt = Preferences.getLong(ZypeAuthentication.PREFERENCE_ACCESS_TOKEN_CREATED_AT);
+        long expiresIn = Preferences.getLong(ZypeAuthentication.PREFERENCE_ACCESS_TOKEN_EXPIRES_IN);
+        if (createdAt <= 0 || expiresIn <= 0) {
+            return 0;
+        }
+        return (createdAt + expiresIn) * 1000;
+    }
+
+    /**
+     * Check if the stored access token expires within the given time.
+     *
+     * @param aheadMs Time in milliseconds
+     * @return True if there is an access token and it expires within the given time or its
+     * expiration time is unknown
+     */
+    public boolean isAccessTokenExpiring(long aheadMs) {
+        if (TextUtils.isEmpty(Preferences.getString(IAuthentication.ACCESS_TOKEN))) {
+            return false;
+        }
+        long expiresAt = getAccessTokenExpiresAt();
+        return expiresAt <= 0 || Calendar.getInstance().getTimeInMillis() + aheadMs >= expiresAt;
+    }
+
+    /**
+     * Check if the current thread is performing the refresh calls. Requests made by the refresh
+     * itself must not trigger another refresh.
+     */
+    boolean isRefreshingOnCurrentThread() {
+        return Boolean.TRUE.equals(refreshingThread.get());
+    }
+
+    /**
+     * Refresh the access token and save it to preferences. Blocks until the refresh is completed.
+     * If a refresh is already in flight the call waits for it instead of starting a new one.
+     *
+     * @return Refresh result in the format of {@link ZypeAuthentication#getAccessToken(String, String)},
+     * or null if the refresh failed
+     */
+    public Map<String, Object> refreshAccessToken() {
+        FutureTask<Map<String, Object>> task;
+        boolean owner = false;
+        synchronized (lock) {
+            if (refreshTask == null) {
+                refreshTask = new FutureTask<>(this::performRefresh);
+                owner = true;
+            }
+            task = refreshTask;
+        }
+        if (owner) {
+            try {
+                task.run();
+            }
+            finally {
+                synchronized (lock) {
+                    // Logout may have dropped this task and a new refresh may be in flight
+                    if (refreshTask == task) {
+                        refreshTask = null;
+                    }
+                }
+            }
+        }
+        else {
+            Log.d(TAG, "refreshAccessToken(): joining refresh in flight");
+        }
+        try {
+            return task.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        catch (CancellationException e) {
+            Log.d(TAG, "refreshAccessToken(): cancelled by logout");
+            return null;
+        }
+        catch (ExecutionException e) {
+            Log.e(TAG, "refreshAccessToken(): failed", e.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * Schedule the refresh of the stored access token {@link #REFRESH_AHEAD_MS} before it expires.
+     * Replaces a previously scheduled refresh.
+     */
+    public void scheduleRefresh() {
+        synchronized (lock) {
+            cancelScheduledRefresh();
+            if (TextUtils.isEmpty(Preferences.getString(ZypeAuthentication.PREFERENCE_REFRESH_TOKEN))) {
+                return;
+            }
+            long expiresAt = getAccessTokenExpiresAt();
+            if (expiresAt <= 0) {
+                return;
+            }
+            long delay = Math.max(0, expiresAt - REFRESH_AHEAD_MS - Calendar.getInstance().getTimeInMillis());
+            Log.d(TAG, "scheduleRefresh(): refresh in " + delay + " ms");
+            scheduledRefresh = scheduler.schedule((Runnable) this::refreshAccessToken, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stop refreshing the access token when the user logs out. Cancels the scheduled refresh and
+     * the refresh in flight. A refresh that already got its token does not save it, so it cannot
+     * log the user back in. Must be called before the stored tokens are cleared.
+     */
+    public void onLogout() {
+        synchronized (lock) {
+            logoutCount++;
+            cancelScheduledRefresh();
+            if (refreshTask != null) {
+                // Not interrupted, the calls finish on their thread and the result is dropped
+                refreshTask.cancel(false);
+                refreshTask = null;
+            }
+        }
+    }
+
+    /**
+     * Cancel the scheduled refresh.
+     */
+    public void cancelScheduledRefresh() {
+        synchronized (lock) {
+            if (scheduledRefresh != null) {
+                scheduledRefresh.cancel(false);
+                scheduledRefresh = null;
+            }
+        }
+    }
+
+    private Map<String, Object> performRefresh() {
+        int startLogoutCount;
+        synchronized (lock) {
+            startLogoutCount = logoutCount;
+        }
+        String refreshToken = Preferences.getString(ZypeAuthentication.PREFERENCE_REFRESH_TOKEN);
+        if (TextUtils.isEmpty(refreshToken)) {
+            return null;
+        }
+        refreshingThread.set(true);
+        try {
+            AccessTokenResponse responseAccessToken = ZypeApi.getInstance().refreshAccessToken(refreshToken);
+            if (responseAccessToken == null) {
+                Log.e(TAG, "performRefresh(): refresh token request failed");
+                return null;
+            }
+            AccessTokenInfoResponse responseAccessTokenInfo = ZypeApi.getInstance().getAccessTokenInfo(responseAccessToken.getAccessToken());
+            if (responseAccessTokenInfo == null) {
+                Log.e(TAG, "performRefresh(): token info request failed");
+                return null;
+            }
+            ConsumerResponse responseConsumer = ZypeApi.getInstance().getConsumer(responseAccessTokenInfo.resourceOwnerId, responseAccessToken.getAccessToken());
+            if (responseConsumer == null || responseConsumer.consumerData == null) {
+                Log.e(TAG, "performRefresh(): consumer request failed");
+                return null;
+            }
+            Map<String, Object> result = new HashMap<>();
+            result.put(ZypeAuthentication.RESPONSE_ACCESS_TOKEN, responseAccessToken);
+            result.put(ZypeAuthentication.RESPONSE_ACCESS_TOKEN_INFO, responseAccessTokenInfo);
+            result.put(ZypeAuthentication.RESPONSE_CONSUMER, responseConsumer);
+            synchronized (lock) {
+                // Saving under the lock keeps a logout from clearing the tokens in between
+                if (logoutCount != startLogoutCount) {
+                    Log.d(TAG, "performRefresh(): user logged out, dropping the new token");
+                    return null;
+                }
+                // Saving the new token also schedules its refresh
+                ZypeAuthentication.saveAccessToken(result);
+            }
+            return result;
+        }
+        finally {
+            refreshingThread.remove();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.performance;
+
+import com.amazon.android.contentbrowser.ContentLoader;
+import com.amazon.android.model.content.ContentContainer;
+import com.amazon.android.model.content.constants.ExtraKeys;
+import com.amazon.android.model.translators.ZypeContentContainerTranslator;
+import com.amazon.android.recipe.Recipe;
+import com.amazon.dataloader.datadownloader.IDataLoader;
+import com.amazon.dataloader.datadownloader.ZypeDataDownloader;
+import com.amazon.dynamicparser.DynamicParser;
+import com.amazon.testresources.ZypeStandInServer;
+import com.amazon.utils.model.Data;
+import com.zype.fire.api.ZypeApi;
+import com.zype.fire.api.ZypeSettings;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rx.Observable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Benchmarks the catalog load path against {@link ZypeStandInServer}, so network path changes
+ * can be measured without api.zype.com.
+ *
+ * For every catalog size the driver runs the same steps as the app on start up:
+ * {@link ZypeDataDownloader} fetches the playlists and the first videos, the
+ * {@link DynamicParser} builds the playlist containers from the feed and
+ * {@link ContentLoader#getLoadContentsObservable(Observable, Recipe)} loads and parses the videos
+ * of every playlist. Wall time, request count and bytes of every phase are written to the log
+ * with the {@value #TAG} tag.
+ *
+ * Latency and bandwidth of the stand-in server can be passed as instrumentation arguments, e.g.
+ * {@code -e standInLatencyMs 150 -e standInBytesPerSecond 262144}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CatalogLoadBenchmark {
+
+    private static final String TAG = "CatalogLoadBenchmark";
+
+    private static final String ARG_LATENCY_MS = "standInLatencyMs";
+    private static final String ARG_BYTES_PER_SECOND = "standInBytesPerSecond";
+
+    private static final int[] CATALOG_SIZES = {10, 100, 1000, 10000};
+
+    private static final String DATA_LOADER_RECIPE = "recipes/ZypeDataLoaderRecipe.json";
+    private static final String CATEGORIES_RECIPE = "recipes/ZypeCategoriesRecipe.json";
+    private static final String VIDEOS_RECIPE = "recipes/ZypeSearchContentsRecipe.json";
+
+    @Test(timeout = 3600000)
+    public void testCatalogLoad() throws Exception {
+
+        Context context = InstrumentationRegistry.getTargetContext();
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        long latencyMs = Long.parseLong(arguments.getString(ARG_LATENCY_MS, "100"));
+        long bytesPerSecond = Long.parseLong(arguments.getString(ARG_BYTES_PER_SECOND, "0"));
+
+        for (int size : CATALOG_SIZES) {
+            ZypeStandInServer server = new ZypeStandInServer(size);
+            server.setLatency(latencyMs);
+            server.setBandwidth(bytesPerSecond);
+            server.start();
+            try {
+                runCatalogLoad(context, server);
+            }
+            finally {
+                server.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Run the load path once and report the measurements of every phase.
+     */
+    private void runCatalogLoad(Context context, ZypeStandInServer server) throws Exception {
+
+        // Phase 1: data downloader
+        server.resetCounters();
+        long start = System.currentTimeMillis();
+        String feed = fetchFeed(context);
+        assertNotNull("Data downloader returned no feed", feed);
+        report(server, "fetch", System.currentTimeMillis() - start);
+
+        // Phase 2: playlist containers
+        server.resetCounters();
+        start = System.currentTimeMillis();
+        List<ContentContainer> playlists = parsePlaylists(context, feed);
+        report(server, "parse", System.currentTimeMillis() - start);
+        assertEquals(server.getPlaylistCount(), playlists.size());
+
+        // Phase 3: videos of every playlist
+        server.resetCounters();
+        start = System.currentTimeMillis();
+        ContentLoader.getInstance(context)
+                     .getLoadContentsObservable(Observable.from(playlists),
+                                                Recipe.newInstance(context, VIDEOS_RECIPE))
+                     .toBlocking()
+                     .lastOrDefault(null);
+        report(server, "videos", System.currentTimeMillis() - start);
+
+        int expectedContents = 0;
+        int contents = 0;
+        for (ContentContainer playlist : playlists) {
+            expectedContents += Math.min(ZypeApi.PER_PAGE_DEFAULT, playlist.getExtraValueAsInt(
+                    ContentContainer.EXTRA_PLAYLIST_ITEM_COUNT));
+            contents += playlist.getContentCount();
+        }
+        Log.i(TAG, String.format("size=%d: %d playlists, %d contents loaded",
+                                 server.getVideoCount(), playlists.size(), contents));
+        assertEquals(expectedContents, contents);
+    }
+
+    /**
+     * Run the Zype data downloader the same way the data load manager does, bypassing the cache.
+     */
+    private String fetchFeed(Context context) throws Exception {
+
+        final Data[] result = new Data[1];
+        ZypeDataDownloader.createInstance(context).loadData(
+                Recipe.newInstance(context, DATA_LOADER_RECIPE), null,
+                new IDataLoader.IDataLoadRequestHandler() {
+                    @Override
+                    public void onSuccess(Recipe dataLoadRecipe, String[] params, Data data) {
+
+                        result[0] = data;
+                    }
+
+                    @Override
+                    public void onFailure(Recipe dataLoadRecipe, String[] params,
+                                          Throwable throwable) {
+
+                        Log.e(TAG, "Data downloader failed", throwable);
+                    }
+                });
+        return result[0] != null ? result[0].getContent().getPayload() : null;
+    }
+
+    /**
+     * Parse the playlists under the root playlist and prepare them for loading their videos like
+     * {@link ContentLoader} does. My Library playlists are skipped, they need a logged in consumer.
+     */
+    private List<ContentContainer> parsePlaylists(Context context, String feed) {
+
+        DynamicParser parser = new DynamicParser();
+        ZypeContentContainerTranslator translator = new ZypeContentContainerTranslator();
+        parser.addTranslatorImpl(translator.getName(), translator);
+
+        List<Object> parsed = parser.cookRecipeObservable(
+                Recipe.newInstance(context, CATEGORIES_RECIPE), feed, null,
+                new String[]{ZypeSettings.ROOT_PLAYLIST_ID})
+                                    .toList()
+                                    .toBlocking()
+                                    .single();
+        List<ContentContainer> playlists = new ArrayList<>();
+        for (Object object : parsed) {
+            ContentContainer playlist = (ContentContainer) object;
+            if (playlist == null || ZypeSettings.ROOT_MY_LIBRARY_PLAYLIST_ID.equals(
+                    playlist.getExtraStringValue(Recipe.KEY_DATA_TYPE_TAG))) {
+                continue;
+            }
+            playlist.setExtraValue(ExtraKeys.NEXT_PAGE, playlist.getExtraValueAsInt(
+                    ContentContainer.EXTRA_PLAYLIST_ITEM_COUNT) > 0 ? 1 : -1);
+            playlists.add(playlist);
+        }
+        return playlists;
+    }
+
+    private static void report(ZypeStandInServer server, String phase, long wallTimeMs) {
+
+        Log.i(TAG, String.format("size=%d phase=%s: %d ms, %d requests, %d bytes",
+                                 server.getVideoCount(), phase, wallTimeMs,
+                                 server.getRequestCount(), server.getBytesServed()));
+    }
+}
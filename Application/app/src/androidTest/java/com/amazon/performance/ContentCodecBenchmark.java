@@ -0,0 +1,254 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.performance;
+
+import com.amazon.android.model.content.Content;
+import com.amazon.android.model.content.ContentCodec;
+import com.amazon.android.model.content.ContentContainer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import android.os.Parcel;
+import android.os.SystemClock;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Round trip benchmark of a synthetic catalog of {@link #CATALOG_SIZE} contents in
+ * {@link #PLAYLIST_COUNT} playlists. It compares {@link ContentCodec}, parceling the root container
+ * and, as the baseline, default Java serialization of a tree of plain serializable objects with the
+ * same fields. Times and sizes are written to the log with the {@value #TAG} tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ContentCodecBenchmark {
+
+    private static final String TAG = "ContentCodecBenchmark";
+
+    private static final int CATALOG_SIZE = 5000;
+
+    private static final int PLAYLIST_COUNT = 100;
+
+    private static final int ROUNDS = 5;
+
+    private static final String[] TAGS = {"drama", "comedy", "news", "sports", "kids", "music"};
+
+    @Test(timeout = 600000)
+    public void testRoundTrip() throws Exception {
+
+        ContentContainer root = createCatalog();
+        SerializableContainer baselineRoot = SerializableContainer.from(root);
+
+        long codecTime = Long.MAX_VALUE;
+        long parcelTime = Long.MAX_VALUE;
+        long javaTime = Long.MAX_VALUE;
+        int codecSize = 0;
+        int javaSize = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            byte[] data = ContentCodec.encode(root);
+            ContentContainer decoded = ContentCodec.decodeContainer(data);
+            codecTime = Math.min(codecTime, SystemClock.elapsedRealtimeNanos() - start);
+            codecSize = data.length;
+            assertEquals(PLAYLIST_COUNT, decoded.getContentContainerCount());
+
+            start = SystemClock.elapsedRealtimeNanos();
+            Parcel parcel = Parcel.obtain();
+            parcel.writeParcelable(root, 0);
+            parcel.setDataPosition(0);
+            decoded = parcel.readParcelable(ContentContainer.class.getClassLoader());
+            parcel.recycle();
+            parcelTime = Math.min(parcelTime, SystemClock.elapsedRealtimeNanos() - start);
+            assertEquals(PLAYLIST_COUNT, decoded.getContentContainerCount());
+
+            start = SystemClock.elapsedRealtimeNanos();
+            data = javaSerialize(baselineRoot);
+            SerializableContainer baselineDecoded = (SerializableContainer) javaDeserialize(data);
+            javaTime = Math.min(javaTime, SystemClock.elapsedRealtimeNanos() - start);
+            javaSize = data.length;
+            assertEquals(PLAYLIST_COUNT, baselineDecoded.mContainers.size());
+        }
+
+        Log.i(TAG, String.format("codec: %d ms, %d bytes", codecTime / 1000000, codecSize));
+        Log.i(TAG, String.format("parcel: %d ms", parcelTime / 1000000));
+        Log.i(TAG, String.format("java serialization: %d ms, %d bytes", javaTime / 1000000,
+                                 javaSize));
+        Log.i(TAG, String.format("speedup: %.1fx", (double) javaTime / codecTime));
+    }
+
+    /**
+     * Create a catalog with the fields and extras the Zype content translator sets. Every content
+     * is in one playlist, every tenth also in a second one.
+     */
+    private static ContentContainer createCatalog() throws Exception {
+
+        ContentContainer root = new ContentContainer("Root");
+        List<ContentContainer> playlists = new ArrayList<>();
+        for (int i = 0; i < PLAYLIST_COUNT; i++) {
+            ContentContainer playlist = new ContentContainer("Playlist " + i);
+            playlist.setExtraValue("keyDataType", String.format("5b%022x", i));
+            root.addContentContainer(playlist);
+            playlists.add(playlist);
+        }
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            Content content = createContent(i);
+            playlists.get(i % PLAYLIST_COUNT).addContent(content);
+            if (i % 10 == 0) {
+                playlists.get((i + 1) % PLAYLIST_COUNT).addContent(content);
+            }
+        }
+        return root;
+    }
+
+    private static Content createContent(int index) throws Exception {
+
+        String id = String.format("5a%022x", index);
+        Content content = new Content("Video " + index);
+        content.setId(id);
+        content.setDescription("Description of video " + index);
+        content.setUrl("https://player.zype.com/embed/" + id + ".json");
+        content.setCardImageUrl("https://image.zype.com/5a/" + id + "/thumbnail/240.jpg");
+        content.setBackgroundImageUrl("https://image.zype.com/5a/" + id + "/thumbnail/1080.jpg");
+        content.setSubscriptionRequired(index % 2 == 0);
+        content.setDuration(60000L * (index % 90));
+        content.setTags("[\"" + TAGS[index % TAGS.length] + "\",\"" +
+                                TAGS[(index / 7) % TAGS.length] + "\"]");
+        content.setExtraValue(Content.EXTRA_PLAYLIST_ID,
+                              String.format("5b%022x", index % PLAYLIST_COUNT));
+        content.setExtraValue(Content.EXTRA_THUMBNAIL_POSTER_URL,
+                              "https://image.zype.com/5a/" + id + "/poster/160.jpg");
+        content.setExtraValue(Content.EXTRA_PASS_REQUIRED, false);
+        content.setExtraValue(Content.EXTRA_PURCHASE_REQUIRED, index % 10 == 0);
+        content.setExtraValue(Content.EXTRA_RENTAL_REQUIRED, false);
+        content.setExtraValue(Content.LIVE_TAG, false);
+        return content;
+    }
+
+    private static byte[] javaSerialize(Object object) throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(object);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    private static Object javaDeserialize(byte[] data) throws Exception {
+
+        return new ObjectInputStream(new ByteArrayInputStream(data)).readObject();
+    }
+
+    /**
+     * Content fields as plain serializable object, like contents were serialized before.
+     */
+    private static class SerializableContent implements Serializable {
+
+        String mId;
+        String mTitle;
+        String mSubtitle;
+        String mUrl;
+        String mDescription;
+        String mCardImageUrl;
+        String mBackgroundImageUrl;
+        boolean mSubscriptionRequired;
+        String mStudio;
+        String mAvailableDate;
+        String mChannelId;
+        long mDuration;
+        String mFormat;
+        List<Integer> mAdCuePoints;
+        List<String> mCloseCaptionUrls;
+        String mTags;
+        String mRecommendations = "[]";
+        Locale mLocale;
+        HashMap<String, Object> mExtras;
+
+        static SerializableContent from(Content content) {
+
+            SerializableContent copy = new SerializableContent();
+            copy.mId = content.getId();
+            copy.mTitle = content.getTitle();
+            copy.mSubtitle = content.getSubtitle();
+            copy.mUrl = content.getUrl();
+            copy.mDescription = content.getDescription();
+            copy.mCardImageUrl = content.getCardImageUrl();
+            copy.mBackgroundImageUrl = content.getBackgroundImageUrl();
+            copy.mSubscriptionRequired = content.isSubscriptionRequired();
+            copy.mStudio = content.getStudio();
+            copy.mAvailableDate = content.getAvailableDate();
+            copy.mChannelId = content.getChannelId();
+            copy.mDuration = content.getDuration();
+            copy.mFormat = content.getFormat();
+            copy.mAdCuePoints = content.getAdCuePoints();
+            copy.mCloseCaptionUrls = content.getCloseCaptionUrls();
+            copy.mTags = content.getTags().toString();
+            copy.mLocale = content.getLocale();
+            copy.mExtras = content.getExtras() != null ? new HashMap<>(content.getExtras())
+                                                       : null;
+            return copy;
+        }
+    }
+
+    /**
+     * Container as plain serializable object.
+     */
+    private static class SerializableContainer implements Serializable {
+
+        String mName;
+        HashMap<String, Object> mExtras = new HashMap<>();
+        ArrayList<SerializableContent> mContents = new ArrayList<>();
+        ArrayList<SerializableContainer> mContainers = new ArrayList<>();
+
+        static SerializableContainer from(ContentContainer container) {
+
+            return from(container, new HashMap<>());
+        }
+
+        private static SerializableContainer from(ContentContainer container,
+                                                  Map<Content, SerializableContent> copies) {
+
+            SerializableContainer copy = new SerializableContainer();
+            copy.mName = container.getName();
+            copy.mExtras.put("keyDataType", container.getExtraStringValue("keyDataType"));
+            for (Content content : container.getContents()) {
+                SerializableContent contentCopy = copies.get(content);
+                if (contentCopy == null) {
+                    contentCopy = SerializableContent.from(content);
+                    copies.put(content, contentCopy);
+                }
+                copy.mContents.add(contentCopy);
+            }
+            for (ContentContainer subContainer : container.getContentContainers()) {
+                copy.mContainers.add(from(subContainer, copies));
+            }
+            return copy;
+        }
+    }
+}
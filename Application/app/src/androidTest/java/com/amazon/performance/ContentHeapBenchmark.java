@@ -0,0 +1,134 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.performance;
+
+import com.amazon.android.model.content.Content;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the heap used by a synthetic catalog of {@link #CATALOG_SIZE} {@link Content} objects
+ * with the fields and extras the Zype content translator sets.
+ *
+ * For comparison the same extras and tags are also built the way they were stored before the
+ * compact representation: a hash map per content and the tags as a JSON string. The bytes per item
+ * of both are written to the log with the {@value #TAG} tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ContentHeapBenchmark {
+
+    private static final String TAG = "ContentHeapBenchmark";
+
+    private static final int CATALOG_SIZE = 10000;
+
+    private static final int PLAYLIST_SIZE = 50;
+
+    private static final String[] TAGS = {"drama", "comedy", "news", "sports", "kids", "music"};
+
+    @Test(timeout = 600000)
+    public void testContentHeap() throws Exception {
+
+        long before = usedHeap();
+        List<Content> contents = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            contents.add(createContent(i));
+        }
+        long contentBytes = usedHeap() - before;
+
+        before = usedHeap();
+        List<Object[]> baseline = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            baseline.add(createBaselineExtrasAndTags(i));
+        }
+        long baselineBytes = usedHeap() - before;
+
+        Log.i(TAG, String.format("%d contents: %d bytes, %d bytes per item", contents.size(),
+                                 contentBytes, contentBytes / CATALOG_SIZE));
+        Log.i(TAG, String.format("hash map extras and JSON tags alone: %d bytes per item",
+                                 baselineBytes / baseline.size()));
+        assertTrue(contentBytes > 0);
+    }
+
+    /**
+     * Create a content with the fields and extras set by the Zype content translator.
+     */
+    private static Content createContent(int index) throws Exception {
+
+        String id = String.format("5a%022x", index);
+        Content content = new Content("Video " + index);
+        content.setId(id);
+        content.setDescription("Description of video " + index);
+        content.setUrl("https://player.zype.com/embed/" + id + ".json");
+        content.setCardImageUrl("https://image.zype.com/5a/" + id + "/thumbnail/240.jpg");
+        content.setBackgroundImageUrl("https://image.zype.com/5a/" + id + "/thumbnail/1080.jpg");
+        content.setSubscriptionRequired(index % 2 == 0);
+        content.setTags(createTags(index));
+        for (Map.Entry<String, Object> extra : createExtras(index).entrySet()) {
+            content.setExtraValue(extra.getKey(), extra.getValue());
+        }
+        return content;
+    }
+
+    /**
+     * Build the extras and tags of a content as a hash map and a JSON string.
+     */
+    private static Object[] createBaselineExtrasAndTags(int index) {
+
+        return new Object[]{createExtras(index), createTags(index)};
+    }
+
+    private static Map<String, Object> createExtras(int index) {
+
+        String id = String.format("5a%022x", index);
+        Map<String, Object> extras = new HashMap<>();
+        extras.put(Content.EXTRA_PLAYLIST_ID, String.format("5b%022x", index / PLAYLIST_SIZE));
+        extras.put(Content.EXTRA_THUMBNAIL_POSTER_URL,
+                   "https://image.zype.com/5a/" + id + "/poster/160.jpg");
+        extras.put(Content.EXTRA_IMAGE_POSTER_URL, "null");
+        extras.put(Content.EXTRA_PASS_REQUIRED, false);
+        extras.put(Content.EXTRA_PURCHASE_REQUIRED, index % 10 == 0);
+        extras.put(Content.EXTRA_RENTAL_REQUIRED, false);
+        extras.put(Content.LIVE_TAG, false);
+        return extras;
+    }
+
+    private static String createTags(int index) {
+
+        return "[\"" + TAGS[index % TAGS.length] + "\",\"" + TAGS[(index / 7) % TAGS.length] +
+                "\"]";
+    }
+
+    private static long usedHeap() throws InterruptedException {
+
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            runtime.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,378 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.testresources;
+
+import com.google.gson.Gson;
+import com.zype.fire.api.Model.Pagination;
+import com.zype.fire.api.Model.PlaylistData;
+import com.zype.fire.api.Model.PlaylistsResponse;
+import com.zype.fire.api.Model.Thumbnail;
+import com.zype.fire.api.Model.VideoData;
+import com.zype.fire.api.Model.VideoEntitlementsResponse;
+import com.zype.fire.api.Model.VideosResponse;
+import com.zype.fire.api.ZypeApi;
+import com.zype.fire.api.ZypeSettings;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * In-process stand-in for api.zype.com used to benchmark the catalog load path offline.
+ *
+ * The server answers the catalog endpoints the app uses on start up: '/playlists',
+ * '/playlists/{id}/videos', '/videos' and '/consumer/videos'. Responses are generated from a
+ * synthetic catalog of the requested size, built from the Zype API model classes so they parse
+ * exactly like real ones. A recorded response body can be registered for any path to replay a
+ * real catalog instead. Latency and bandwidth of every response are configurable, and the server
+ * counts the requests and the body bytes it served.
+ *
+ * Typical use:
+ * <pre>
+ * ZypeStandInServer server = new ZypeStandInServer(1000);
+ * server.setLatency(150);
+ * server.setBandwidth(256 * 1024);
+ * server.start();
+ * // ... run the load path ...
+ * server.shutdown();
+ * </pre>
+ */
+public class ZypeStandInServer {
+
+    private static final String TAG = ZypeStandInServer.class.getSimpleName();
+
+    /**
+     * Default number of videos in a single playlist of the synthetic catalog.
+     */
+    public static final int DEFAULT_VIDEOS_PER_PLAYLIST = 25;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String PLAYLISTS = "playlists";
+    private static final String VIDEOS = "videos";
+    private static final String CONSUMER = "consumer";
+    private static final String PAGE = "page";
+
+    private final MockWebServer mServer = new MockWebServer();
+    private final Gson mGson = new Gson();
+
+    private final List<PlaylistData> mPlaylists = new ArrayList<>();
+    private final Map<String, List<VideoData>> mPlaylistVideos = new HashMap<>();
+    private final List<VideoData> mVideos = new ArrayList<>();
+
+    // Recorded response bodies by encoded path without query
+    private final Map<String, String> mRecordedResponses =
+            Collections.synchronizedMap(new HashMap<>());
+
+    private final AtomicInteger mRequestCount = new AtomicInteger();
+    private final AtomicLong mBytesServed = new AtomicLong();
+
+    private volatile long mLatencyMs = 0;
+    private volatile long mBytesPerSecond = 0;
+
+    /**
+     * Create a server with a synthetic catalog of the given size and
+     * {@link #DEFAULT_VIDEOS_PER_PLAYLIST} videos per playlist.
+     *
+     * @param videoCount Number of videos in the catalog, e.g. from 10 to 10,000.
+     */
+    public ZypeStandInServer(int videoCount) {
+
+        this(videoCount, DEFAULT_VIDEOS_PER_PLAYLIST);
+    }
+
+    /**
+     * Create a server with a synthetic catalog of the given size.
+     *
+     * @param videoCount        Number of videos in the catalog.
+     * @param videosPerPlaylist Number of videos in a single playlist.
+     */
+    public ZypeStandInServer(int videoCount, int videosPerPlaylist) {
+
+        buildCatalog(videoCount, Math.max(1, videosPerPlaylist));
+        mServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+
+                return respond(request);
+            }
+        });
+    }
+
+    /**
+     * Start the server and point the Zype API client to it.
+     *
+     * @throws IOException If the server could not be started.
+     */
+    public void start() throws IOException {
+
+        mServer.start();
+        ZypeApi.setBaseUrl(mServer.url("/").toString());
+        Log.d(TAG, "Started at " + mServer.url("/") + ", playlists=" + mPlaylists.size() +
+                ", videos=" + mVideos.size());
+    }
+
+    /**
+     * Stop the server and point the Zype API client back to the real API.
+     *
+     * @throws IOException If the server could not be stopped.
+     */
+    public void shutdown() throws IOException {
+
+        ZypeApi.setBaseUrl(null);
+        mServer.shutdown();
+    }
+
+    /**
+     * Set the time every response waits before its body is sent.
+     *
+     * @param latencyMs Latency in milliseconds, 0 for none.
+     */
+    public void setLatency(long latencyMs) {
+
+        mLatencyMs = latencyMs;
+    }
+
+    /**
+     * Limit the rate the response bodies are sent at.
+     *
+     * @param bytesPerSecond Bandwidth in bytes per second, 0 for unlimited.
+     */
+    public void setBandwidth(long bytesPerSecond) {
+
+        mBytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Serve a recorded body for a path instead of the synthetic catalog, e.g. a response captured
+     * from the real API. Paging query parameters are ignored for recorded responses.
+     *
+     * @param path Path without query, e.g. "/playlists".
+     * @param body Response body.
+     */
+    public void setRecordedResponse(String path, String body) {
+
+        mRecordedResponses.put(path, body);
+    }
+
+    /**
+     * Reset the request and byte counters.
+     */
+    public void resetCounters() {
+
+        mRequestCount.set(0);
+        mBytesServed.set(0);
+    }
+
+    /**
+     * Get the number of requests served since the last reset.
+     *
+     * @return Request count.
+     */
+    public int getRequestCount() {
+
+        return mRequestCount.get();
+    }
+
+    /**
+     * Get the number of response body bytes served since the last reset.
+     *
+     * @return Byte count.
+     */
+    public long getBytesServed() {
+
+        return mBytesServed.get();
+    }
+
+    /**
+     * Get the number of videos in the catalog.
+     *
+     * @return Video count.
+     */
+    public int getVideoCount() {
+
+        return mVideos.size();
+    }
+
+    /**
+     * Get the number of playlists in the catalog under the root playlist.
+     *
+     * @return Playlist count.
+     */
+    public int getPlaylistCount() {
+
+        return mPlaylists.size();
+    }
+
+    private void buildCatalog(int videoCount, int videosPerPlaylist) {
+
+        int playlistCount = (videoCount + videosPerPlaylist - 1) / videosPerPlaylist;
+        for (int i = 0; i < playlistCount; i++) {
+            PlaylistData playlist = new PlaylistData();
+            playlist.id = String.format("%024x", i + 1);
+            playlist.parentId = ZypeSettings.ROOT_PLAYLIST_ID;
+            playlist.title = "Playlist " + (i + 1);
+            playlist.description = "Stand-in playlist " + (i + 1);
+            playlist.thumbnailLayout = "landscape";
+            playlist.priority = i;
+            playlist.thumbnails.add(createThumbnail("playlist" + i));
+            mPlaylists.add(playlist);
+            mPlaylistVideos.put(playlist.id, new ArrayList<>());
+        }
+        for (int i = 0; i < videoCount; i++) {
+            VideoData video = new VideoData();
+            video.Id = String.format("v%023x", i + 1);
+            video.active = true;
+            video.title = "Video " + (i + 1);
+            video.description = "Stand-in video " + (i + 1) + " of the benchmark catalog";
+            video.duration = 60 + i % 3600;
+            video.keywords.add("tag" + i % 50);
+            video.thumbnails.add(createThumbnail("video" + i));
+            video.purchaseRequired = i % 10 == 0;
+            video.subscriptionRequired = i % 4 == 0;
+            mVideos.add(video);
+            PlaylistData playlist = mPlaylists.get(i / videosPerPlaylist);
+            mPlaylistVideos.get(playlist.id).add(video);
+            playlist.playlistItemCount++;
+        }
+    }
+
+    private static Thumbnail createThumbnail(String name) {
+
+        Thumbnail thumbnail = new Thumbnail();
+        thumbnail.name = name;
+        thumbnail.width = 640;
+        thumbnail.height = 360;
+        thumbnail.aspectRatio = 1.78f;
+        thumbnail.url = "https://localhost/thumbnails/" + name + ".jpg";
+        return thumbnail;
+    }
+
+    private MockResponse respond(RecordedRequest request) {
+
+        mRequestCount.incrementAndGet();
+        HttpUrl url = HttpUrl.parse("http://localhost" + request.getPath());
+        if (url == null) {
+            return new MockResponse().setResponseCode(400);
+        }
+        String body = mRecordedResponses.get(url.encodedPath());
+        if (body == null) {
+            body = generate(url);
+        }
+        if (body == null) {
+            Log.w(TAG, "No stand-in response for " + request.getPath());
+            return new MockResponse().setResponseCode(404);
+        }
+        byte[] bytes = body.getBytes(UTF_8);
+        mBytesServed.addAndGet(bytes.length);
+
+        MockResponse response = new MockResponse()
+                .setHeader("Content-Type", "application/json; charset=utf-8")
+                .setBody(body);
+        if (mLatencyMs > 0) {
+            response.setBodyDelay(mLatencyMs, TimeUnit.MILLISECONDS);
+        }
+        if (mBytesPerSecond > 0) {
+            // Send the body in 10 chunks per second
+            response.throttleBody(Math.max(1, mBytesPerSecond / 10), 100, TimeUnit.MILLISECONDS);
+        }
+        return response;
+    }
+
+    private String generate(HttpUrl url) {
+
+        List<String> segments = url.pathSegments();
+        int page = parseInt(url.queryParameter(PAGE), 1);
+        int perPage = parseInt(url.queryParameter(ZypeApi.PER_PAGE), ZypeApi.PER_PAGE_DEFAULT);
+
+        if (segments.size() == 1 && PLAYLISTS.equals(segments.get(0))) {
+            PlaylistsResponse response = new PlaylistsResponse();
+            response.pagination = paginate(mPlaylists, page, perPage, response.response);
+            return mGson.toJson(response);
+        }
+        if (segments.size() == 3 && PLAYLISTS.equals(segments.get(0))
+                && VIDEOS.equals(segments.get(2))) {
+            List<VideoData> videos = mPlaylistVideos.get(segments.get(1));
+            if (videos == null) {
+                return null;
+            }
+            VideosResponse response = new VideosResponse();
+            response.pagination = paginate(videos, page, perPage, response.videoData);
+            return mGson.toJson(response);
+        }
+        if (segments.size() == 1 && VIDEOS.equals(segments.get(0))) {
+            VideosResponse response = new VideosResponse();
+            response.pagination = paginate(mVideos, page, perPage, response.videoData);
+            return mGson.toJson(response);
+        }
+        if (segments.size() == 2 && CONSUMER.equals(segments.get(0))
+                && VIDEOS.equals(segments.get(1))) {
+            // The stand-in consumer has no purchased videos
+            VideoEntitlementsResponse response = new VideoEntitlementsResponse();
+            response.pagination = paginate(Collections.emptyList(), page, perPage,
+                                           new ArrayList<>());
+            return mGson.toJson(response);
+        }
+        return null;
+    }
+
+    private static <T> Pagination paginate(List<T> items, int page, int perPage, List<T> out) {
+
+        // Like the real API, out of range values fall back to the first page and default size
+        if (page < 1) {
+            page = 1;
+        }
+        if (perPage < 1) {
+            perPage = ZypeApi.PER_PAGE_DEFAULT;
+        }
+        int pages = (int) Math.max(1, (items.size() + perPage - 1L) / perPage);
+        int from = (int) Math.min(items.size(), (page - 1L) * perPage);
+        int to = from + Math.min(items.size() - from, perPage);
+        out.addAll(items.subList(from, to));
+
+        Pagination pagination = new Pagination();
+        pagination.current = page;
+        pagination.previous = page > 1 ? page - 1 : null;
+        pagination.next = page < pages ? page + 1 : null;
+        pagination.perPage = perPage;
+        pagination.pages = pages;
+        return pagination;
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+
+        try {
+            return value != null ? Integer.parseInt(value) : defaultValue;
+        }
+        catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -40,6 +40,15 @@ public class MockAuthentication implements IAuthentication {
     private final int STATUS_UNAUTHORIZED = 401;
     private final int STATUS_UNKNOWN = 520;
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getUserId() {
+
+        return null;
+    }
+
     /**
      * {@inheritDoc}
      */
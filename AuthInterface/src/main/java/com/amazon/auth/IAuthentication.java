@@ -87,6 +87,14 @@ public interface IAuthentication {
      */
     void logout(Context context, ResponseHandler responseHandler);
 
+    /**
+     * Get the id of the logged in user. It keeps state cached for one user, like resource
+     * authorizations, apart from the state of another user.
+     *
+     * @return The user id, or null if the implementation does not tell users apart.
+     */
+    String getUserId();
+
     /**
      * This method cancels all requests
      */
@@ -25,14 +25,20 @@ import static com.amazon.android.utils.Helpers.sleep;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
 import android.support.test.InstrumentationRegistry;
+import android.util.Log;
 import android.support.test.runner.AndroidJUnit4;
 
 import java.io.File;
 import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -119,6 +125,158 @@ public class ContentDatabaseHelperTest {
 
     }
 
+    /**
+     * Tests that the playback position journal coalesces positions of a content, returns the
+     * pending position before it is written, and writes it when flushed.
+     */
+    @Test
+    public void testPlaybackPositionJournal() throws Exception {
+
+        ContentDatabaseHelper contentDatabase =
+                ContentDatabaseHelper.getInstance(InstrumentationRegistry.getContext());
+        assertNotNull(contentDatabase);
+        contentDatabase.clearDatabase();
+
+        long currentTime = DateAndTimeHelper.getCurrentDate().getTime();
+        PlaybackPositionJournal journal = contentDatabase.getPlaybackPositionJournal();
+        journal.record("ContentId1", 10, false, currentTime);
+        journal.record("ContentId1", 20, false, currentTime);
+        journal.record("ContentId2", 30, true, currentTime);
+
+        assertEquals("Pending position should be returned before it is written.",
+                     20, contentDatabase.getRecent("ContentId1").getPlaybackLocation());
+        assertTrue(contentDatabase.recentRecordExists("ContentId2"));
+
+        assertTrue(journal.flushAndWait(5000));
+        assertNull(journal.getPending("ContentId1"));
+        assertEquals(2, contentDatabase.getRecentCount());
+
+        RecentRecord record = contentDatabase.getRecent("ContentId1");
+        assertEquals(20, record.getPlaybackLocation());
+        assertFalse(record.isPlaybackComplete());
+        assertTrue(contentDatabase.getRecent("ContentId2").isPlaybackComplete());
+
+        contentDatabase.close();
+    }
+
+    /**
+     * Tests that a journal write in flight does not write back a position whose recent record
+     * was deleted after the write took it.
+     */
+    @Test
+    public void testPlaybackPositionJournalDeleteDuringWrite() throws Exception {
+
+        ContentDatabaseHelper contentDatabase =
+                ContentDatabaseHelper.getInstance(InstrumentationRegistry.getContext());
+        assertNotNull(contentDatabase);
+        contentDatabase.clearDatabase();
+
+        long currentTime = DateAndTimeHelper.getCurrentDate().getTime();
+        PlaybackPositionJournal journal = contentDatabase.getPlaybackPositionJournal();
+        journal.record("ContentId1", 10, false, currentTime);
+        journal.record("ContentId2", 20, false, currentTime);
+
+        // The positions a write took before the record of ContentId1 was deleted.
+        List<RecentRecord> records = Arrays.asList(journal.getPending("ContentId1"),
+                                                   journal.getPending("ContentId2"));
+        contentDatabase.deleteRecent("ContentId1");
+        assertTrue(contentDatabase.addRecents(records));
+
+        assertFalse("Deleted record should not be written back.",
+                    contentDatabase.recentRecordExists("ContentId1"));
+        assertEquals(1, contentDatabase.getRecentCount());
+
+        contentDatabase.clearDatabase();
+        assertTrue(contentDatabase.addRecents(Collections.singletonList(records.get(1))));
+        assertEquals(0, contentDatabase.getRecentCount());
+
+        contentDatabase.close();
+    }
+
+    /**
+     * Tests that recent records read from memory follow the writes and deletes of the database.
+     */
+    @Test
+    public void testRecentCache() throws Exception {
+
+        ContentDatabaseHelper contentDatabase =
+                ContentDatabaseHelper.getInstance(InstrumentationRegistry.getContext());
+        assertNotNull(contentDatabase);
+        contentDatabase.clearDatabase();
+        contentDatabase.preloadRecents();
+
+        long currentTime = DateAndTimeHelper.getCurrentDate().getTime();
+        assertTrue(contentDatabase.addRecent("ContentId1", 10, false, currentTime));
+        assertEquals(10, contentDatabase.getRecent("ContentId1").getPlaybackLocation());
+
+        assertTrue(contentDatabase.addRecent("ContentId1", 40, true, currentTime));
+        RecentRecord record = contentDatabase.getRecent("ContentId1");
+        assertEquals(40, record.getPlaybackLocation());
+        assertTrue(record.isPlaybackComplete());
+        assertEquals(record.getPlaybackLocation(),
+                     RecentTable.read(contentDatabase.getWritableDatabase(), "ContentId1")
+                                .getPlaybackLocation());
+
+        assertTrue(contentDatabase.deleteRecent("ContentId1"));
+        assertFalse(contentDatabase.recentRecordExists("ContentId1"));
+        assertNull(contentDatabase.getRecent("ContentId1"));
+
+        contentDatabase.close();
+    }
+
+    /**
+     * Tests that recent records are looked up by the content id index. Logs the lookup times of
+     * the first and the last of 10000 records, they do not depend on the position of the record.
+     */
+    @Test
+    public void testRecentLookupBenchmark() throws Exception {
+
+        ContentDatabaseHelper contentDatabase =
+                ContentDatabaseHelper.getInstance(InstrumentationRegistry.getContext());
+        assertNotNull(contentDatabase);
+        contentDatabase.clearDatabase();
+
+        int recordCount = 10000;
+        SQLiteDatabase db = contentDatabase.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < recordCount; i++) {
+                RecentTable.write(db, new RecentRecord("ContentId" + i, i, false, i));
+            }
+            db.setTransactionSuccessful();
+        }
+        finally {
+            db.endTransaction();
+        }
+        assertEquals(recordCount, contentDatabase.getRecentCount());
+
+        Cursor plan = db.rawQuery("EXPLAIN QUERY PLAN SELECT _id FROM recent WHERE content_id=?",
+                                  new String[]{"ContentId0"});
+        StringBuilder planDetails = new StringBuilder();
+        while (plan.moveToNext()) {
+            planDetails.append(plan.getString(plan.getColumnCount() - 1));
+        }
+        plan.close();
+        assertTrue("Lookup should use the content id index: " + planDetails,
+                   planDetails.toString().contains("INDEX"));
+
+        int lookups = 200;
+        long firstStart = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            assertNotNull(RecentTable.read(db, "ContentId0"));
+        }
+        long firstNanos = System.nanoTime() - firstStart;
+        long lastStart = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            assertNotNull(RecentTable.read(db, "ContentId" + (recordCount - 1)));
+        }
+        long lastNanos = System.nanoTime() - lastStart;
+        Log.i("ContentDatabaseHelperTest", "Recent lookup of " + recordCount + " records: " +
+                "first " + firstNanos / lookups + "ns, last " + lastNanos / lookups + "ns");
+
+        contentDatabase.close();
+    }
+
     /**
      * Tests deleting recent records from the database.
      */
@@ -278,6 +436,41 @@ public class ContentDatabaseHelperTest {
 
     }
 
+    /**
+     * Tests writing a batch of recommendation changes to the database.
+     */
+    @Test
+    public void testRecommendationBatch() throws Exception {
+
+        ContentDatabaseHelper contentDatabase =
+                ContentDatabaseHelper.getInstance(InstrumentationRegistry.getContext());
+        assertNotNull(contentDatabase);
+        contentDatabase.clearDatabase();
+
+        contentDatabase.addRecommendation("ContentId1", 1, "type");
+        contentDatabase.addRecommendation("ContentId2", 2, "type");
+
+        RecommendationRecord fingerprinted = new RecommendationRecord("ContentId3", 3, "type");
+        fingerprinted.setFingerprint("fingerprint");
+        RecommendationBatch batch = new RecommendationBatch()
+                .update(new RecommendationRecord("ContentId1", 1, "type2"))
+                .delete(2)
+                .insert(fingerprinted)
+                .insert(null, 4, "type");
+        assertTrue("Batch should have been written to database.",
+                   contentDatabase.applyRecommendationBatch(batch));
+
+        assertEquals("type2", contentDatabase.getRecommendationByContentId("ContentId1")
+                                             .getType());
+        assertFalse("ContentId2 record should have been deleted.",
+                    contentDatabase.recommendationWithContentIdExists("ContentId2"));
+        assertEquals("fingerprint", contentDatabase.getRecommendationByContentId("ContentId3")
+                                                   .getFingerprint());
+        assertEquals(2, contentDatabase.getRecommendationsCount());
+
+        contentDatabase.close();
+    }
+
     /**
      * Tests reading all of one type of recommendation from the database.
      */
@@ -18,8 +18,11 @@ import com.amazon.android.contentbrowser.database.ContentDatabaseHelper;
 import com.amazon.android.contentbrowser.database.RecentRecord;
 import com.amazon.android.contentbrowser.helper.AnalyticsHelper;
 import com.amazon.android.contentbrowser.helper.AuthHelper;
+import com.amazon.android.contentbrowser.helper.EntitlementCache;
 import com.amazon.android.contentbrowser.helper.ErrorHelper;
 import com.amazon.android.contentbrowser.helper.LauncherIntegrationManager;
+import com.amazon.android.contentbrowser.helper.PlaybackPrefetcher;
+import com.amazon.android.contentbrowser.helper.PlaylistPageLoader;
 import com.amazon.android.contentbrowser.helper.PurchaseHelper;
 import com.amazon.android.contentbrowser.recommendations.RecommendationManager;
 import com.amazon.android.interfaces.ICancellableLoad;
@@ -27,6 +30,7 @@ import com.amazon.android.interfaces.IContentBrowser;
 import com.amazon.android.model.Action;
 import com.amazon.android.model.content.Content;
 import com.amazon.android.model.content.ContentContainer;
+import com.amazon.android.model.content.RelatedContentIndex;
 import com.amazon.android.model.content.constants.ExtraKeys;
 import com.amazon.android.model.content.constants.PreferencesConstants;
 import com.amazon.android.model.event.ActionUpdateEvent;
@@ -34,8 +38,10 @@ import com.amazon.android.navigator.Navigator;
 import com.amazon.android.navigator.NavigatorModel;
 import com.amazon.android.navigator.UINode;
 import com.amazon.android.recipe.Recipe;
-import com.amazon.android.search.ISearchAlgo;
+import com.amazon.android.recipe.RecipeRegistry;
 import com.amazon.android.search.ISearchResult;
+import com.amazon.android.search.IUpdatableSearchResult;
+import com.amazon.android.search.SearchIndex;
 import com.amazon.android.search.SearchManager;
 import com.amazon.android.ui.fragments.AlertDialogFragment;
 import com.amazon.android.ui.fragments.LogoutSettingsFragment;
@@ -44,6 +50,7 @@ import com.amazon.android.ui.fragments.SlideShowSettingFragment;
 import com.amazon.android.utils.ErrorUtils;
 import com.amazon.android.utils.Preferences;
 import com.amazon.utils.DateAndTimeHelper;
+import com.amazon.utils.ObservableUtils;
 import com.amazon.utils.StringManipulation;
 
 import org.greenrobot.eventbus.EventBus;
@@ -52,6 +59,7 @@ import android.app.Activity;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Parcelable;
 import android.support.v4.content.LocalBroadcastManager;
 import android.util.Log;
 
@@ -59,7 +67,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Stack;
 
 import rx.Observable;
 import rx.Subscription;
@@ -269,9 +276,15 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
     private static final String DEFAULT_SEARCH_ALGO_NAME = "basic";
 
     /**
-     * Content reload timeout in seconds.
+     * Content reload timeout in seconds. A catalog loaded longer ago than this is not used any
+     * more.
      */
-    private static final int CONTENT_RELOAD_TIMEOUT = 14400; // Equals 4 hours.
+    public static final int CONTENT_RELOAD_TIMEOUT = 14400; // Equals 4 hours.
+
+    /**
+     * Maximum number of recommended contents of the details screen.
+     */
+    private static final int MAX_RECOMMENDED_CONTENTS = 20;
 
     /**
      * Constant for grace time in milliseconds
@@ -303,11 +316,57 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
      */
     private final SearchManager<ContentContainer, Content> mSearchManager = new SearchManager<>();
 
+    /**
+     * Search index of the contents of the root content container, used by the default search.
+     */
+    private final SearchIndex<Content> mSearchIndex = new SearchIndex<>(
+            content -> new String[]{content.getTitle(), content.getDescription()});
+
+    /**
+     * Keeps {@link #mSearchIndex} up to date with the contents of the root content container.
+     */
+    private final ContentContainer.IContentListener mSearchIndexListener =
+            new ContentContainer.IContentListener() {
+                @Override
+                public void onContentAdded(Content content) {
+
+                    mSearchIndex.add(content);
+                }
+
+                @Override
+                public void onContentRemoved(Content content) {
+
+                    mSearchIndex.remove(content);
+                }
+            };
+
+    /**
+     * The root content container {@link #mSearchIndex} was built from.
+     */
+    private ContentContainer mSearchIndexRoot;
+
+    /**
+     * Tag index of the contents of the root content container, used for the recommended contents
+     * of the details screen.
+     */
+    private final RelatedContentIndex mRelatedContentIndex = new RelatedContentIndex();
+
     /**
      * Custom search handler reference.
      */
     private ICustomSearchHandler mICustomSearchHandler;
 
+    /**
+     * Query of the local search that waits for the missing first pages of the catalog, or null.
+     */
+    private String mPendingLocalSearchQuery;
+
+    /**
+     * Callback of the local search that waits for the missing first pages of the catalog, or
+     * null.
+     */
+    private IUpdatableSearchResult mPendingLocalSearchResult;
+
     /**
      * Root content container listener.
      */
@@ -409,6 +468,21 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
      */
     private RecommendationManager mRecommendationManager;
 
+    /**
+     * Playback prefetcher instance.
+     */
+    private final PlaybackPrefetcher mPlaybackPrefetcher;
+
+    /**
+     * Entitlement cache instance.
+     */
+    private final EntitlementCache mEntitlementCache;
+
+    /**
+     * Playlist page loader instance.
+     */
+    private final PlaylistPageLoader mPlaylistPageLoader;
+
     /* Zype, Evgeny Cherkasov */
     private boolean userLoggedIn = false;
 
@@ -540,6 +614,36 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
         updateUserSubscribed();
 
         mContentLoader = ContentLoader.getInstance(mAppContext);
+        mPlaybackPrefetcher = new PlaybackPrefetcher(mAppContext);
+        mEntitlementCache = new EntitlementCache();
+        mPlaylistPageLoader = new PlaylistPageLoader(mAppContext, mContentLoader,
+                                                     new PlaylistPageLoader.IPageLoadListener() {
+            @Override
+            public void onPageLoaded(ContentContainer contentContainer) {
+
+                // This broadcast is handled by the browse screens to update their rows
+                LocalBroadcastManager.getInstance(mAppContext)
+                                     .sendBroadcast(new Intent("DataUpdated"));
+                searchPendingLocalQuery();
+            }
+
+            @Override
+            public void onPageLoadFailed(ContentContainer contentContainer, Throwable throwable,
+                                         boolean userRequested) {
+
+                searchPendingLocalQuery();
+                if (userRequested) {
+                    ErrorHelper.injectErrorFragment(
+                            mNavigator.getActiveActivity(),
+                            ErrorUtils.ERROR_CATEGORY.FEED_ERROR,
+                            (errorDialogFragment, errorButtonType, errorCategory) -> {
+                                if (errorButtonType == ErrorUtils.ERROR_BUTTON_TYPE.EXIT_APP) {
+                                    mNavigator.getActiveActivity().finishAffinity();
+                                }
+                            });
+                }
+            }
+        });
 
         mIAPDisabled = mAppContext.getResources().getBoolean(R.bool.is_iap_disabled);
         /* Zype, Evgeny Cherkasov */
@@ -561,18 +665,9 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
         setupLogoutAction();
         setupMyLibraryAction();
 
-        mSearchManager.addSearchAlgo(DEFAULT_SEARCH_ALGO_NAME, new ISearchAlgo<Content>() {
-            @Override
-            public boolean onCompare(String query, Content content) {
-
-                return content.searchInFields(query, new String[]{
-                        Content.TITLE_FIELD_NAME,
-                        Content.DESCRIPTION_FIELD_NAME
-                });
-            }
-        });
+        mSearchManager.addSearchAlgo(DEFAULT_SEARCH_ALGO_NAME, mSearchIndex);
         /* Zype, Evgeny Cherkasov */
-        setCustomSearchHandler(new ZypeSearchManager(Recipe.newInstance(mAppContext, "recipes/ZypeSearchContentsRecipe.json")));
+        setCustomSearchHandler(new ZypeSearchManager(RecipeRegistry.getRecipe(mAppContext, "recipes/ZypeSearchContentsRecipe.json")));
 
         mNavigator.setINavigationListener(new Navigator.INavigationListener() {
 
@@ -692,8 +787,15 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
         /* Zype, Evgeny Cherkasov */
         // Update user logged in and subscription flags
         // TODO: Consider other way to get subscription count preference to avoid dependency of ZypeAuthComponent
+        boolean wasUserLoggedIn = userLoggedIn;
         userLoggedIn = authenticationStatusUpdateEvent.isUserAuthenticated();
         updateUserSubscribed();
+        // The event is also sent by every authentication check, so drop the prefetched player
+        // data and entitlements only when the user actually logged in or out.
+        if (wasUserLoggedIn != userLoggedIn) {
+            mPlaybackPrefetcher.clear();
+            mEntitlementCache.clear();
+        }
 
         updateLoginAction();
     }
@@ -732,8 +834,31 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
         }
 
         mRecommendationManager = new RecommendationManager(mAppContext);
-        // First reading of the database upon app launch. Created off of main thread.
-        mRecommendationManager.cleanDatabase();
+    }
+
+    /**
+     * Remove the expired recommendations. This is the first reading of the database upon app
+     * launch and is not needed for the first screen, so it is called off of the main thread once
+     * the splash screen is shown.
+     */
+    public void cleanRecommendations() {
+
+        if (mRecommendationManager != null) {
+            mRecommendationManager.cleanDatabase();
+        }
+    }
+
+    /**
+     * Read the playback progress of all recently watched contents into memory, so the details
+     * screens and the recommendations read it without touching the database. Called off of the
+     * main thread once the splash screen is shown.
+     */
+    public void preloadResumeStates() {
+
+        ContentDatabaseHelper database = ContentDatabaseHelper.getInstance(mAppContext);
+        if (database != null) {
+            database.preloadRecents();
+        }
     }
 
     /**
@@ -1055,6 +1180,7 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
     /**
      * Get recommended list of a content as content container.
      * If there are no items with similar tags, this method returns items from the same category.
+     * Both are limited to {@link #MAX_RECOMMENDED_CONTENTS} items the user can watch.
      *
      * TODO: DEVTECH-2635
      *
@@ -1066,11 +1192,20 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
         ContentContainer recommendedContentContainer =
                 new ContentContainer(mAppContext.getString(R.string.recommended_contents_header));
 
-        for (Content c : mContentLoader.getRootContentContainer()) {
-            if (content.hasSimilarTags(c) && !StringManipulation.areStringsEqual(c.getId(), content
-                    .getId())) {
-                recommendedContentContainer.addContent(c);
-            }
+        /* Zype, Evgeny Cherkasov */
+        // If current video is on subscription it mean we already checked user credentials
+        // and can add all videos. Otherwise only a logged in user with subscription gets
+        // subscription videos.
+        final boolean allowSubscription = content.isSubscriptionRequired() ||
+                (userLoggedIn && isUserSubscribed());
+        RelatedContentIndex.IContentFilter filter = relatedContent ->
+                allowSubscription || !relatedContent.isSubscriptionRequired();
+
+        mRelatedContentIndex.setRoot(mContentLoader.getRootContentContainer());
+        for (Content c : mRelatedContentIndex.getRelatedContents(content,
+                                                                 MAX_RECOMMENDED_CONTENTS,
+                                                                 filter)) {
+            recommendedContentContainer.addContent(c);
         }
 
         // Use items from the same category as recommended contents
@@ -1081,51 +1216,17 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
             ContentContainer parentContainer = getContainerForContent(content);
 
             if (parentContainer != null) {
-
-//                for (Content relatedContent : parentContainer.getContents()) {
-//                    if (!StringManipulation.areStringsEqual(content.getId(), relatedContent.getId
-//                            ())) {
-//                        recommendedContentContainer.addContent(relatedContent);
-                if (!content.isSubscriptionRequired()) {
-                    /* Zype, Evgeny Cherkasov */
-                    // Check is user logged in and has subscription.
-                    if (userLoggedIn) {
-                        // User is logged in and has subscription. Add all videos
-                        if (isUserSubscribed()) {
-                            for (Content relatedContent : parentContainer.getContents()) {
-                                if (!StringManipulation.areStringsEqual(content.getId(), relatedContent.getId())) {
-                                    recommendedContentContainer.addContent(relatedContent);
-                                }
-                            }
-                        }
-                        else {
-                            // User is logged in but has no subscription. Add onlu not subscription videos
-                            for (Content relatedContent : parentContainer.getContents()) {
-                                if (!StringManipulation.areStringsEqual(content.getId(), relatedContent.getId()) && !relatedContent.isSubscriptionRequired()) {
-                                    recommendedContentContainer.addContent(relatedContent);
-                                }
-                            }
-                        }
+                for (Content relatedContent : parentContainer.getContents()) {
+                    if (recommendedContentContainer.getContentCount() >=
+                            MAX_RECOMMENDED_CONTENTS) {
+                        break;
                     }
-                    else {
-                        // User id not logged in. Add only not subscription videos
-                        for (Content relatedContent : parentContainer.getContents()) {
-                            if (!StringManipulation.areStringsEqual(content.getId(), relatedContent.getId()) && !relatedContent.isSubscriptionRequired()) {
-                                recommendedContentContainer.addContent(relatedContent);
-                            }
-                        }
-                    }
-                }
-                else {
-                    // If current video is on subscription it mean we already checked user credentials
-                    // and can add all content from the category
-                    for (Content relatedContent : parentContainer.getContents()) {
-                        if (!StringManipulation.areStringsEqual(content.getId(), relatedContent.getId())) {
-                            recommendedContentContainer.addContent(relatedContent);
-                        }
+                    if (!StringManipulation.areStringsEqual(content.getId(),
+                                                            relatedContent.getId()) &&
+                            filter.accept(relatedContent)) {
+                        recommendedContentContainer.addContent(relatedContent);
                     }
                 }
-
             }
             else {
                 Log.w(TAG, "The content's container could not be found! " + content.toString());
@@ -1142,40 +1243,16 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
      */
     private ContentContainer getContainerForContent(Content content) {
 
-        // Container that contains the current content
-        ContentContainer parentContainer = null;
-
-        // Stack of all content containers from root container.
-        Stack<ContentContainer> contentContainerStack = new Stack<>();
-
-        contentContainerStack.push(mContentLoader.getRootContentContainer());
-
-        while (!contentContainerStack.isEmpty()) {
-            // Get a sub container.
-            ContentContainer contentContainer = contentContainerStack.pop();
+        ContentContainer rootContentContainer = mContentLoader.getRootContentContainer();
 
-            /* Zype, Evgeny Cherkasov */
-            // The video may be included in multiple playlists. So we should check the video
-            // playlistId rather than videoId
-//            for (Content c : contentContainer.getContents()) {
-//                if (StringManipulation.areStringsEqual(c.getId(), content.getId())) {
-//                    parentContainer = contentContainer;
-//                }
-//            }
-            String playlistId = (String) contentContainer.getExtraStringValue("keyDataType");
-            if (playlistId != null && playlistId.equals(content.getExtraValue("playlistId"))) {
-                parentContainer = contentContainer;
-                break;
-            }
-
-            // Add all the sub containers.
-            if (contentContainer.hasSubContainers()) {
-                for (ContentContainer cc : contentContainer.getContentContainers()) {
-                    contentContainerStack.push(cc);
-                }
-            }
+        /* Zype, Evgeny Cherkasov */
+        // The video may be included in multiple playlists. So we should check the video
+        // playlistId rather than videoId
+        String playlistId = content.getExtraValueAsString(Content.EXTRA_PLAYLIST_ID);
+        if (playlistId != null) {
+            return rootContentContainer.findContentContainerById(playlistId);
         }
-        return parentContainer;
+        return rootContentContainer.findParentContainerByContentId(content.getId());
     }
 
 //    /* Zype, Evgeny Cherkasov */
@@ -1226,10 +1303,69 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
             mICustomSearchHandler.onSearchRequested(query, iSearchResult);
         }
         else {
+            updateSearchIndexRoot(mContentLoader.getRootContentContainer());
             mSearchManager.syncSearch(DEFAULT_SEARCH_ALGO_NAME,
                                       query,
                                       iSearchResult,
                                       mContentLoader.getRootContentContainer());
+            // Rows below the top ones get their videos only when they come into view. Load the
+            // missing first pages, and search again once they are loaded if the results can be
+            // replaced.
+            mPlaylistPageLoader.loadMissingFirstPages(mContentLoader.getRootContentContainer());
+            if (iSearchResult instanceof IUpdatableSearchResult &&
+                    mPlaylistPageLoader.isLoading()) {
+                mPendingLocalSearchQuery = query;
+                mPendingLocalSearchResult = (IUpdatableSearchResult) iSearchResult;
+            }
+            else {
+                mPendingLocalSearchQuery = null;
+                mPendingLocalSearchResult = null;
+            }
+        }
+    }
+
+    /**
+     * Run the local search that waits for the missing first pages of the catalog again, once no
+     * page is loading any more. Its results replace the ones delivered before.
+     */
+    private void searchPendingLocalQuery() {
+
+        if (mPendingLocalSearchResult == null || mPlaylistPageLoader.isLoading()) {
+            return;
+        }
+        String query = mPendingLocalSearchQuery;
+        IUpdatableSearchResult iSearchResult = mPendingLocalSearchResult;
+        mPendingLocalSearchQuery = null;
+        mPendingLocalSearchResult = null;
+        iSearchResult.onSearchResultsCleared();
+        updateSearchIndexRoot(mContentLoader.getRootContentContainer());
+        mSearchManager.syncSearch(DEFAULT_SEARCH_ALGO_NAME,
+                                  query,
+                                  iSearchResult,
+                                  mContentLoader.getRootContentContainer());
+    }
+
+    /**
+     * Point the search index at the current root content container. The index is built once from
+     * the contents of a new root and then kept up to date by listening to the root's changes.
+     *
+     * @param root The root content container.
+     */
+    private synchronized void updateSearchIndexRoot(ContentContainer root) {
+
+        if (root == mSearchIndexRoot) {
+            return;
+        }
+        if (mSearchIndexRoot != null) {
+            mSearchIndexRoot.removeContentListener(mSearchIndexListener);
+        }
+        mSearchIndex.clear();
+        mSearchIndexRoot = root;
+        if (root != null) {
+            root.addContentListener(mSearchIndexListener);
+            for (Content content : root) {
+                mSearchIndex.add(content);
+            }
         }
     }
 
@@ -1337,7 +1473,8 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
                             switchToScreen(ContentBrowser.CONTENT_SUBMENU_SCREEN);
                         }
                         else {
-                            mAuthHelper.handleAuthChain(extra -> mNavigator.startActivity(CONTENT_HOME_SCREEN, intent -> {
+                            mAuthHelper.handleAuthChain(contentContainer.getId(),
+                                    extra -> mNavigator.startActivity(CONTENT_HOME_SCREEN, intent -> {
                             }));
                         }
                     });
@@ -1426,11 +1563,12 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
             ContentDatabaseHelper database = ContentDatabaseHelper.getInstance(mAppContext);
 
             // Check database for stored playback position of content.
-            if (!liveContent && database != null && database.recentRecordExists(content.getId())) {
-                RecentRecord record = database.getRecent(content.getId());
+            RecentRecord record = !liveContent && database != null ?
+                    database.getRecent(content.getId()) : null;
+            if (record != null) {
 
                 // Add "Resume" button if content playback is not complete.
-                if (record != null && !record.isPlaybackComplete()) {
+                if (!record.isPlaybackComplete()) {
                     contentActionList.add(new Action().setId(CONTENT_ACTION_RESUME)
                             .setLabel1(mAppContext.getResources().getString(R.string.resume_1))
                             .setLabel2(mAppContext.getResources().getString(R.string.resume_2)));
@@ -1522,7 +1660,7 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
     }
 
     /**
-     * Verify screen switch.
+     * Verify screen switch. The screen is the resource the user needs to be authorized for.
      *
      * @param screenName            Screen name
      * @param iScreenSwitchListener Screen switch listener.
@@ -1530,13 +1668,26 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
     public void verifyScreenSwitch(String screenName,
                                     IScreenSwitchListener iScreenSwitchListener) {
 
+        verifyScreenSwitch(screenName, screenName, iScreenSwitchListener);
+    }
+
+    /**
+     * Verify screen switch.
+     *
+     * @param screenName            Screen name
+     * @param resourceId            Id of the resource the user needs to be authorized for.
+     * @param iScreenSwitchListener Screen switch listener.
+     */
+    public void verifyScreenSwitch(String screenName, String resourceId,
+                                    IScreenSwitchListener iScreenSwitchListener) {
+
         UINode uiNode = (UINode) mNavigator.getNodeObjectByScreenName(screenName);
         Log.d(TAG, "VerifyScreenSwitch called in:" + screenName);
         Log.d(TAG, "isVerifyScreenAccess needed:" + uiNode.isVerifyScreenAccess());
         if (uiNode.isVerifyScreenAccess()) {
 
             if (!mAuthHelper.getIAuthentication().isAuthenticationCanBeDoneLater()) {
-                mAuthHelper.handleAuthChain(iScreenSwitchListener::onScreenSwitch);
+                mAuthHelper.handleAuthChain(resourceId, iScreenSwitchListener::onScreenSwitch);
             }
             else {
                 // Never show login later alert
@@ -1548,7 +1699,7 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
                     mAuthHelper.isAuthenticated().subscribe(extras -> {
                         if (extras.getBoolean(AuthHelper.RESULT)) {
                             mAuthHelper.handleAuthChain(
-                                    iScreenSwitchListener::onScreenSwitch);
+                                    resourceId, iScreenSwitchListener::onScreenSwitch);
                         }
                         else {
                             AlertDialogFragment.createAndShowAlertDialogFragment(
@@ -1564,6 +1715,7 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
                                                 AlertDialogFragment alertDialogFragment) {
 
                                             mAuthHelper.handleAuthChain(
+                                                    resourceId,
                                                     iScreenSwitchListener::onScreenSwitch);
                                         }
 
@@ -1673,20 +1825,24 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
      */
     public void switchToRendererScreen(Content content, int actionId) {
 
-        switchToScreen(ContentBrowser.CONTENT_RENDERER_SCREEN, intent -> {
-            intent.putExtra(Content.class.getSimpleName(), content);
-
-            // Reset saved seek position if watching content from beginning.
-            if (actionId == CONTENT_ACTION_WATCH_FROM_BEGINNING) {
-                ContentDatabaseHelper database = ContentDatabaseHelper.getInstance(mAppContext);
-                if (database == null) {
-                    Log.e(TAG, "Error retrieving database. Recent not saved.");
-                    return;
-                }
-                database.addRecent(content.getId(), 0, false,
-                                   DateAndTimeHelper.getCurrentDate().getTime());
-            }
-        });
+        // The user needs to be authorized for the content, not just for the screen.
+        verifyScreenSwitch(CONTENT_RENDERER_SCREEN, content.getId(), extra ->
+                mNavigator.startActivity(CONTENT_RENDERER_SCREEN, intent -> {
+                    intent.putExtra(Content.class.getSimpleName(), (Parcelable) content);
+
+                    // Reset saved seek position if watching content from beginning.
+                    if (actionId == CONTENT_ACTION_WATCH_FROM_BEGINNING) {
+                        ContentDatabaseHelper database =
+                                ContentDatabaseHelper.getInstance(mAppContext);
+                        if (database == null) {
+                            Log.e(TAG, "Error retrieving database. Recent not saved.");
+                            return;
+                        }
+                        database.addRecent(content.getId(), 0, false,
+                                           DateAndTimeHelper.getCurrentDate().getTime());
+                    }
+                })
+        );
     }
 
     /**
@@ -1757,8 +1913,9 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
                             }
                             // In other cases switch to login screen
                             else {
-                                mAuthHelper.handleAuthChain(extra -> mNavigator.startActivity(CONTENT_DETAILS_SCREEN, intent -> {
-                                    intent.putExtra(Content.class.getSimpleName(), content);
+                                mAuthHelper.handleAuthChain(content.getId(),
+                                        extra -> mNavigator.startActivity(CONTENT_DETAILS_SCREEN, intent -> {
+                                    intent.putExtra(Content.class.getSimpleName(), (Parcelable) content);
                                 }));
                             }
                         }
@@ -2091,8 +2248,8 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
 //        // Add any extra configurations that the parser recipe needs from the navigator recipe.
 //        if (recipe.getRecipeConfig() != null) {
 //            // Add if the recipe is for live feed data.
-//            dynamicParserRecipeForContents.getMap().put(Recipe.LIVE_FEED_TAG,
-//                    recipe.getRecipeConfig().liveContent);
+//            dynamicParserRecipeForContents = dynamicParserRecipeForContents.withItem(
+//                    Recipe.LIVE_FEED_TAG, recipe.getRecipeConfig().liveContent);
 //        }
 //
 //        String hardCodedCategoryName = recipe.getCategories().name;
@@ -2110,18 +2267,37 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
      */
     public void runGlobalRecipes(Activity activity, ICancellableLoad cancellable) {
 
+        // Pages still loading belong to the previous catalog.
+        mPlaylistPageLoader.cancelAll();
         final ContentContainer root = new ContentContainer("Root");
+        int recipeCount = mNavigator.getNavigatorModel().getGlobalRecipes().size();
+        // Every recipe loads into its own container, so recipes can run in parallel and their
+        // rows still end up in the root in recipe order.
+        final List<ContentContainer> recipeRoots = new ArrayList<>(recipeCount);
+        for (int i = 0; i < recipeCount; i++) {
+            recipeRoots.add(new ContentContainer("Root"));
+        }
         Subscription subscription =
-                Observable.range(0, mNavigator.getNavigatorModel().getGlobalRecipes().size())
+                Observable.range(0, recipeCount)
                           // Do this first to make sure were running in new thread right a way.
                           .subscribeOn(Schedulers.newThread())
-                          .concatMap(index -> mContentLoader.runGlobalRecipeAtIndex(index, root))
-                          .onBackpressureBuffer() // This must be right after concatMap.
+                          .compose(ObservableUtils.<Integer, Object>concatMapEager(
+                                  index -> mContentLoader.runGlobalRecipeAtIndex(
+                                          index, recipeRoots.get(index)),
+                                  mContentLoader.getRecipeConcurrency(),
+                                  Schedulers.io()))
+                          .onBackpressureBuffer() // This must be right after concatMapEager.
                           .doOnNext(o -> {
                               if (DEBUG_RECIPE_CHAIN) {
                                   Log.d(TAG, "doOnNext");
                               }
                           })
+                          .doOnCompleted(() -> {
+                              mergeRecipeRoots(root, recipeRoots);
+                              // Keep the catalog for the recommendation service. Only the top
+                              // rows are loaded yet, the service loads the others.
+                              mContentLoader.saveCatalogSnapshot(root);
+                          })
                           // This should be last so the rest is running on a separate thread.
                           .observeOn(AndroidSchedulers.mainThread())
                           .subscribe(objectPair -> {
@@ -2147,6 +2323,7 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
                               root.removeEmptySubContainers();
 
                               mContentLoader.setRootContentContainer(root);
+                              mRelatedContentIndex.setRoot(root);
                               if (mIRootContentContainerListener != null) {
                                   mIRootContentContainerListener.onRootContentContainerPopulated
                                           (mContentLoader.getRootContentContainer());
@@ -2161,70 +2338,7 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
                               if (mLauncherIntegrationManager != null && activity != null &&
                                       LauncherIntegrationManager
                                               .isCallFromLauncher(activity.getIntent())) {
-
-                                  Log.d(TAG, "Call from launcher with intent " +
-                                          activity.getIntent());
-                                  String contentId = null;
-                                  try {
-                                      contentId = LauncherIntegrationManager
-                                              .getContentIdToPlay(mAppContext,
-                                                                  activity.getIntent());
-
-                                      Content content =
-                                              getRootContentContainer().findContentById(contentId);
-                                      if (content == null) {
-                                          mRecommendationManager.dismissRecommendation(contentId);
-                                          throw new IllegalArgumentException("No content exist " +
-                                                                                     "for " +
-                                                                                     "contentId "
-                                                                                     + contentId);
-                                      }
-                                      AnalyticsHelper.trackLauncherRequest(contentId, content,
-                                             getSourceOfContentPlayRequest(activity.getIntent()));
-                                      Intent intent = new Intent();
-                                      intent.putExtra(Content.class.getSimpleName(), content);
-                                      intent.putExtra(REQUEST_FROM_LAUNCHER, true);
-                                      intent.putExtra(PreferencesConstants.CONTENT_ID,
-                                                      content.getId());
-                                      switchToHomeScreen(intent);
-
-                                  }
-                                  catch (Exception e) {
-                                      Log.e(TAG, e.getLocalizedMessage(), e);
-                                      AnalyticsHelper.trackLauncherRequest(contentId, null,
-                                             getSourceOfContentPlayRequest(activity.getIntent()));
-                                      AlertDialogFragment.createAndShowAlertDialogFragment
-                                              (mNavigator.getActiveActivity(),
-                                               "Error",
-                                               "The selected content is no longer available",
-                                               null,
-                                               mAppContext.getString(R.string.ok),
-                                               new AlertDialogFragment.IAlertDialogListener() {
-
-                                                   @Override
-                                                   public void onDialogPositiveButton
-                                                           (AlertDialogFragment
-                                                                    alertDialogFragment) {
-
-                                                   }
-
-                                                   @Override
-                                                   public void onDialogNegativeButton
-                                                           (AlertDialogFragment
-                                                                    alertDialogFragment) {
-
-                                                       alertDialogFragment.dismiss();
-                                                       if (cancellable != null &&
-                                                               cancellable.isLoadingCancelled()) {
-                                                           Log.d(TAG, "switchToHomeScreen after " +
-                                                                   "launcher integration " +
-                                                                   "exception cancelled");
-                                                           return;
-                                                       }
-                                                       switchToHomeScreen();
-                                                   }
-                                               });
-                                  }
+                                  openContentFromLauncher(activity, cancellable);
                               }
                               else {
                                   if (cancellable != null &&
@@ -2233,6 +2347,9 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
                                       return;
                                   }
 
+                                  // Start the home screen before the recommendations, they are
+                                  // not needed for its first frame.
+                                  switchToHomeScreen();
                                   // Send recommendations if authentication is not required, or if
                                   // the user is logged in.
                                   if (!Navigator.isScreenAccessVerificationRequired(
@@ -2244,13 +2361,38 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
                                       mRecommendationManager
                                               .updateGlobalRecommendations(mAppContext);
                                   }
-                                  switchToHomeScreen();
                               }
                           });
 
         mCompositeSubscription.add(subscription);
     }
 
+    /**
+     * Move the containers the global recipes loaded into their own roots to the root, in recipe
+     * order. The contents of a container with the name of one an earlier recipe loaded are
+     * appended to that container.
+     *
+     * @param root        The root container.
+     * @param recipeRoots The roots of the recipes, in recipe order.
+     */
+    private static void mergeRecipeRoots(ContentContainer root,
+                                         List<ContentContainer> recipeRoots) {
+
+        for (ContentContainer recipeRoot : recipeRoots) {
+            for (ContentContainer contentContainer : recipeRoot.getContentContainersSnapshot()) {
+                ContentContainer existingContentContainer =
+                        root.findContentContainerByName(contentContainer.getName());
+                if (existingContentContainer == null) {
+                    root.addContentContainer(contentContainer);
+                }
+                else {
+                    existingContentContainer.getContents()
+                                            .addAll(contentContainer.getContentsSnapshot());
+                }
+            }
+        }
+    }
+
     /* Zype, Evgeny Cherkasov */
     public void runGlobalRecipesForLastSelected(Activity activity, ICancellableLoad cancellable) {
         final ContentContainer root = getLastSelectedContentContainer();
@@ -2260,7 +2402,7 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
                         .subscribeOn(Schedulers.newThread())
                         .concatMap(index -> {
                             NavigatorModel.GlobalRecipes recipe = mNavigator.getNavigatorModel().getGlobalRecipes().get(index);
-                            Recipe recipeDynamicParserVideos = Recipe.newInstance(mAppContext, "recipes/ZypeSearchContentsRecipe.json");
+                            Recipe recipeDynamicParserVideos = RecipeRegistry.getRecipe(mAppContext, "recipes/ZypeSearchContentsRecipe.json");
                             return mContentLoader.runZypeGlobalRecipeAtIndex(recipe, recipeDynamicParserVideos, index, root);
                         })
                         .onBackpressureBuffer() // This must be right after concatMap.
@@ -2310,70 +2452,7 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
                             if (mLauncherIntegrationManager != null && activity != null &&
                                     LauncherIntegrationManager
                                             .isCallFromLauncher(activity.getIntent())) {
-
-                                Log.d(TAG, "Call from launcher with intent " +
-                                        activity.getIntent());
-                                String contentId = null;
-                                try {
-                                    contentId = LauncherIntegrationManager
-                                            .getContentIdToPlay(mAppContext,
-                                                    activity.getIntent());
-
-                                    Content content =
-                                            getRootContentContainer().findContentById(contentId);
-                                    if (content == null) {
-                                        mRecommendationManager.dismissRecommendation(contentId);
-                                        throw new IllegalArgumentException("No content exist " +
-                                                "for " +
-                                                "contentId "
-                                                + contentId);
-                                    }
-                                    AnalyticsHelper.trackLauncherRequest(contentId, content,
-                                            getSourceOfContentPlayRequest(activity.getIntent()));
-                                    Intent intent = new Intent();
-                                    intent.putExtra(Content.class.getSimpleName(), content);
-                                    intent.putExtra(REQUEST_FROM_LAUNCHER, true);
-                                    intent.putExtra(PreferencesConstants.CONTENT_ID,
-                                            content.getId());
-                                    switchToHomeScreen(intent);
-
-                                }
-                                catch (Exception e) {
-                                    Log.e(TAG, e.getLocalizedMessage(), e);
-                                    AnalyticsHelper.trackLauncherRequest(contentId, null,
-                                            getSourceOfContentPlayRequest(activity.getIntent()));
-                                    AlertDialogFragment.createAndShowAlertDialogFragment
-                                            (mNavigator.getActiveActivity(),
-                                                    "Error",
-                                                    "The selected content is no longer available",
-                                                    null,
-                                                    mAppContext.getString(R.string.ok),
-                                                    new AlertDialogFragment.IAlertDialogListener() {
-
-                                                        @Override
-                                                        public void onDialogPositiveButton
-                                                                (AlertDialogFragment
-                                                                         alertDialogFragment) {
-
-                                                        }
-
-                                                        @Override
-                                                        public void onDialogNegativeButton
-                                                                (AlertDialogFragment
-                                                                         alertDialogFragment) {
-
-                                                            alertDialogFragment.dismiss();
-                                                            if (cancellable != null &&
-                                                                    cancellable.isLoadingCancelled()) {
-                                                                Log.d(TAG, "switchToHomeScreen after " +
-                                                                        "launcher integration " +
-                                                                        "exception cancelled");
-                                                                return;
-                                                            }
-                                                            switchToHomeScreen();
-                                                        }
-                                                    });
-                                }
+                                openContentFromLauncher(activity, cancellable);
                             }
 //                            if (mLauncherIntegrationManager != null && activity != null &&
 //                                    LauncherIntegrationManager
@@ -2458,6 +2537,94 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
         mCompositeSubscription.add(subscription);
     }
 
+    /**
+     * Open the content a launcher recommendation asks for. Only the top rows of the catalog get
+     * their videos with it, so a content that is not loaded yet is fetched by id before an error
+     * is shown. The recommendation is not dismissed here: a failed fetch may be a network error,
+     * and stale recommendations are removed by the recommendation updates.
+     *
+     * @param activity    The activity started by the launcher.
+     * @param cancellable The load that can be cancelled by the user, may be null.
+     */
+    private void openContentFromLauncher(Activity activity, ICancellableLoad cancellable) {
+
+        Log.d(TAG, "Call from launcher with intent " + activity.getIntent());
+        String contentId;
+        try {
+            contentId = LauncherIntegrationManager.getContentIdToPlay(mAppContext,
+                                                                      activity.getIntent());
+        }
+        catch (Exception e) {
+            Log.e(TAG, e.getLocalizedMessage(), e);
+            showLauncherContentError(activity, null, cancellable);
+            return;
+        }
+        ContentContainer root = getRootContentContainer();
+        Subscription subscription =
+                Observable.defer(() -> Observable.just(
+                        mContentLoader.findOrFetchContentById(root, contentId)))
+                          .subscribeOn(Schedulers.io())
+                          .observeOn(AndroidSchedulers.mainThread())
+                          .subscribe(content -> {
+                              if (content == null) {
+                                  Log.e(TAG, "No content exist for contentId " + contentId);
+                                  showLauncherContentError(activity, contentId, cancellable);
+                                  return;
+                              }
+                              AnalyticsHelper.trackLauncherRequest(contentId, content,
+                                      getSourceOfContentPlayRequest(activity.getIntent()));
+                              Intent intent = new Intent();
+                              intent.putExtra(Content.class.getSimpleName(), (Parcelable) content);
+                              intent.putExtra(REQUEST_FROM_LAUNCHER, true);
+                              intent.putExtra(PreferencesConstants.CONTENT_ID, content.getId());
+                              switchToHomeScreen(intent);
+                          }, throwable -> {
+                              Log.e(TAG, "Unable to get content " + contentId, throwable);
+                              showLauncherContentError(activity, contentId, cancellable);
+                          });
+        mCompositeSubscription.add(subscription);
+    }
+
+    /**
+     * Tell the user that the content a launcher recommendation asks for is not available, and
+     * switch to the home screen once the dialog is closed.
+     *
+     * @param activity    The activity started by the launcher.
+     * @param contentId   The content id, or null if the intent did not have one.
+     * @param cancellable The load that can be cancelled by the user, may be null.
+     */
+    private void showLauncherContentError(Activity activity, String contentId,
+                                          ICancellableLoad cancellable) {
+
+        AnalyticsHelper.trackLauncherRequest(contentId, null,
+                                             getSourceOfContentPlayRequest(activity.getIntent()));
+        AlertDialogFragment.createAndShowAlertDialogFragment(
+                mNavigator.getActiveActivity(),
+                "Error",
+                "The selected content is no longer available",
+                null,
+                mAppContext.getString(R.string.ok),
+                new AlertDialogFragment.IAlertDialogListener() {
+
+                    @Override
+                    public void onDialogPositiveButton(AlertDialogFragment alertDialogFragment) {
+
+                    }
+
+                    @Override
+                    public void onDialogNegativeButton(AlertDialogFragment alertDialogFragment) {
+
+                        alertDialogFragment.dismiss();
+                        if (cancellable != null && cancellable.isLoadingCancelled()) {
+                            Log.d(TAG, "switchToHomeScreen after launcher integration " +
+                                    "exception cancelled");
+                            return;
+                        }
+                        switchToHomeScreen();
+                    }
+                });
+    }
+
     public void loadPlaylistVideos(String playlistId) {
         ContentContainer contentContainer = getRootContentContainer().findContentContainerById(playlistId);
         if (contentContainer == null) {
@@ -2465,37 +2632,10 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
             return;
         }
 
-        Observable<Object> observable = Observable.just(contentContainer);
-        Recipe recipeDynamicParserVideos = Recipe.newInstance(mAppContext, "recipes/ZypeSearchContentsRecipe.json");
-        Subscription subscription = observable
-                .subscribeOn(Schedulers.newThread())
-                .concatMap(contentContainerAsObject -> {
-                    return mContentLoader.getLoadContentsObservable(Observable.just(contentContainerAsObject), recipeDynamicParserVideos);
-                })
-                .onBackpressureBuffer() // This must be right after concatMap.
-                .doOnNext(o -> { })
-                .observeOn(AndroidSchedulers.mainThread())
-                .subscribe(
-                    objectPair -> {
-                    },
-                    throwable -> {
-                        Log.e(TAG, "loadPlaylistVideos(): failed: ", throwable);
-                        ErrorHelper.injectErrorFragment(
-                                mNavigator.getActiveActivity(),
-                                ErrorUtils.ERROR_CATEGORY.FEED_ERROR,
-                                (errorDialogFragment, errorButtonType, errorCategory) -> {
-                                    if (errorButtonType == ErrorUtils.ERROR_BUTTON_TYPE.EXIT_APP) {
-                                        mNavigator.getActiveActivity().finishAffinity();
-                                    }
-                                });
-                    },
-                    () -> {
-                        Log.v(TAG, "loadPlaylistVideos(): completed");
-                        // TODO: Consider to use event bus instead of broadcast
-                        // This broadcast is handled in ZypePlaylistContentBrowseFragment to update content
-                        LocalBroadcastManager.getInstance(mNavigator.getActiveActivity()).sendBroadcast(new Intent("DataUpdated"));
-                    });
-        mCompositeSubscription.add(subscription);
+        // The page may be prefetched already, the loader requests every page once
+        if (!mPlaylistPageLoader.loadNextPage(contentContainer, true)) {
+            Log.d(TAG, "loadPlaylistVideos(): no page to load or already loading, playlistId=" + playlistId);
+        }
     }
     //
 
@@ -2571,6 +2711,36 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
         return mRecommendationManager;
     }
 
+    /**
+     * Get the playback prefetcher instance.
+     *
+     * @return The playback prefetcher.
+     */
+    public PlaybackPrefetcher getPlaybackPrefetcher() {
+
+        return mPlaybackPrefetcher;
+    }
+
+    /**
+     * Get the entitlement cache instance.
+     *
+     * @return The entitlement cache.
+     */
+    public EntitlementCache getEntitlementCache() {
+
+        return mEntitlementCache;
+    }
+
+    /**
+     * Get the playlist page loader instance.
+     *
+     * @return The playlist page loader.
+     */
+    public PlaylistPageLoader getPlaylistPageLoader() {
+
+        return mPlaylistPageLoader;
+    }
+
     /* Zype, Evgeny Cherkasov */
     public boolean isUserLoggedIn() {
         return userLoggedIn;
@@ -14,8 +14,10 @@
  */
 package com.amazon.android.contentbrowser;
 
+import com.amazon.android.contentbrowser.helper.PlaylistPageLoader;
 import com.amazon.android.interfaces.ICancellableLoad;
 import com.amazon.android.model.content.Content;
+import com.amazon.android.model.content.ContentCodec;
 import com.amazon.android.model.content.ContentContainer;
 import com.amazon.android.model.content.constants.ExtraKeys;
 import com.amazon.android.model.translators.ContentContainerTranslator;
@@ -26,10 +28,13 @@ import com.amazon.android.navigator.Navigator;
 import com.amazon.android.navigator.NavigatorModel;
 import com.amazon.android.navigator.NavigatorModelParser;
 import com.amazon.android.recipe.Recipe;
+import com.amazon.android.recipe.RecipeRegistry;
 import com.amazon.android.utils.Preferences;
+import com.amazon.dataloader.datadownloader.ZypeDataDownloader;
 import com.amazon.dataloader.datadownloader.ZypeDataDownloaderHelper;
 import com.amazon.dataloader.dataloadmanager.DataLoadManager;
 import com.amazon.dynamicparser.DynamicParser;
+import com.amazon.utils.ObservableUtils;
 import com.amazon.utils.model.Data;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -48,7 +53,16 @@ import android.text.TextUtils;
 import android.util.Log;
 import android.util.Pair;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
@@ -81,11 +95,27 @@ public class ContentLoader {
      */
     private static final boolean CAUSE_A_FEED_ERROR_FOR_DEBUGGING = false;
 
+    /**
+     * Name of the file in the cache directory that keeps the last loaded catalog.
+     */
+    private static final String CATALOG_SNAPSHOT_FILE = "catalog_snapshot.bin";
+
+    /**
+     * Number of playlists loaded at the same time if the navigator configuration does not set
+     * it.
+     */
+    private static final int DEFAULT_RECIPE_CONCURRENCY = 4;
+
     /**
      * Singleton instance of ContentLoader.
      */
     private static ContentLoader sInstance;
 
+    /**
+     * The application context.
+     */
+    private final Context mContext;
+
     /**
      * The NavigatorModel that will contain the recipes.
      */
@@ -112,9 +142,10 @@ public class ContentLoader {
     private boolean mContentLoaded = false;
 
     /**
-     * Root content container reference.
+     * Root content container reference. A reload builds a new root off the main thread and
+     * publishes it with {@link #setRootContentContainer(ContentContainer)}.
      */
-    private ContentContainer mRootContentContainer = new ContentContainer("Root");
+    private volatile ContentContainer mRootContentContainer = new ContentContainer("Root");
 
     /**
      * Constructor. Initializes the {@link NavigatorModel}, {@link DataLoadManager}, and
@@ -124,6 +155,7 @@ public class ContentLoader {
      */
     private ContentLoader(Context context) {
 
+        mContext = context.getApplicationContext();
         mNavigatorModel = NavigatorModelParser.parse(context, Navigator.NAVIGATOR_FILE);
 
         try {
@@ -257,16 +289,19 @@ public class ContentLoader {
                 })
                 /* Zype, Evgeny Cherkasov */
                 // Get all nested playlists for each playlist in root
-                .concatMap(contentContainer -> getSubCategoriesObservable(contentContainer, dataLoaderRecipeForCategories, dynamicParserRecipeForCategories));
+                .compose(ObservableUtils.<ContentContainer, Object>concatMapEager(
+                        contentContainer -> getSubCategoriesObservable(contentContainer, dataLoaderRecipeForCategories, dynamicParserRecipeForCategories),
+                        getRecipeConcurrency(),
+                        Schedulers.io()));
     }
 
     /* Zype, Evgeny Cherkasov */
     private Observable<Object> getSubCategoriesObservable(ContentContainer parentContentContainer,
                                                           Recipe dataLoaderRecipeForCategories,
                                                           Recipe dynamicParserRecipeForCategories) {
-        parentContentContainer.getContentContainers().clear();
         if (Integer.valueOf(parentContentContainer.getExtraStringValue("playlistItemCount")) > 0) {
             // If playlist contains videos just return itself and ignore nested playlists
+            parentContentContainer.replaceContentContainers(new ArrayList<>());
             return Observable.just(parentContentContainer);
         }
         else {
@@ -295,16 +330,21 @@ public class ContentLoader {
                                 else {
                                     contentSubContainer.setExtraValue(ExtraKeys.NEXT_PAGE, -1);
                                 }
-                                parentContentContainer.getContentContainers().add(contentSubContainer);
-                                return parentContentContainer;
-//                                if (Integer.valueOf(contentSubContainer.getExtraStringValue("playlistItemCount")) > 0) {
-//                                    return parentContentContainer;
-//                                }
-//                                else {
-//                                    return parentContentContainer;
-//                                }
+                                return contentSubContainer;
+                            })
+                            // Publish all nested playlists at once, readers keep seeing the
+                            // previous ones until then
+                            .toList()
+                            .concatMap(contentSubContainers -> {
+                                List<ContentContainer> subContainers = new ArrayList<>();
+                                for (Object contentSubContainer : contentSubContainers) {
+                                    subContainers.add((ContentContainer) contentSubContainer);
+                                }
+                                parentContentContainer.replaceContentContainers(subContainers);
+                                return subContainers.isEmpty()
+                                        ? Observable.<Object>empty()
+                                        : Observable.<Object>just(parentContentContainer);
                             })
-                            .distinct()
             );
         }
     }
@@ -321,7 +361,8 @@ public class ContentLoader {
                                                      Recipe dataLoaderRecipeForContents,
                                                      Recipe dynamicParserRecipeForContents) {
 
-        return observable.concatMap(contentContainerAsObject -> {
+        // Containers are fetched and parsed in parallel, their results are emitted in order.
+        return observable.compose(ObservableUtils.<Object, Object>concatMapEager(contentContainerAsObject -> {
             ContentContainer contentContainer = (ContentContainer) contentContainerAsObject;
             if (DEBUG_RECIPE_CHAIN) {
                 Log.d(TAG, "ContentContainer:" + contentContainer.getName());
@@ -330,39 +371,62 @@ public class ContentLoader {
                     dataLoaderRecipeForContents,
                     null,
                     null,
-                    null).map(
+                    null).concatMap(
                     feedDataForContent -> {
                         if (DEBUG_RECIPE_CHAIN) {
                             Log.d(TAG, "Feed for container complete");
                         }
-                        return Pair.create(contentContainerAsObject, feedDataForContent);
-                    });
-        }).concatMap(objectPair -> {
-            ContentContainer contentContainer = (ContentContainer) objectPair.first;
-            /* Zype, Evgeny Cherkasov */
-            // Clear content list to avoid duplicate contents for nested playlist (subcategory)
-            contentContainer.getContents().clear();
 
-            String feed = (String) objectPair.second;
+                        String[] params = new String[]{(String) contentContainer
+                                .getExtraStringValue(Recipe.KEY_DATA_TYPE_TAG)
+                        };
 
-            String[] params = new String[]{(String) contentContainer
-                    .getExtraStringValue(Recipe.KEY_DATA_TYPE_TAG)
-            };
+                        /* Zype, Evgeny Cherkasov */
+                        // Replace content list to avoid duplicate contents for nested playlist
+                        // (subcategory)
+                        return publishContents(contentContainer,
+                                               mDynamicParser.cookRecipeObservable(
+                                                       dynamicParserRecipeForContents,
+                                                       feedDataForContent,
+                                                       null,
+                                                       params),
+                                               true);
+                    });
+        }, getRecipeConcurrency(), Schedulers.io()));
+    }
 
-            return mDynamicParser.cookRecipeObservable(
-                    dynamicParserRecipeForContents,
-                    feed,
-                    null,
-                    params).map(contentAsObject -> {
+    /**
+     * Collect the contents parsed for a container and publish them to the container in one step
+     * once parsing is done, so the UI never sees a partly loaded or partly cleared container.
+     *
+     * @param contentContainer   The container.
+     * @param contentsObservable Observable of the parsed contents.
+     * @param replace            True to replace the contents of the container, false to append.
+     * @return Observable of a pair of the container and each parsed content.
+     */
+    private Observable<Object> publishContents(ContentContainer contentContainer,
+                                               Observable<Object> contentsObservable,
+                                               boolean replace) {
+
+        return contentsObservable.toList().concatMap(contentsAsObjects -> {
+            List<Content> contents = new ArrayList<>(contentsAsObjects.size());
+            List<Object> results = new ArrayList<>(contentsAsObjects.size());
+            for (Object contentAsObject : contentsAsObjects) {
                 if (DEBUG_RECIPE_CHAIN) {
                     Log.d(TAG, "Parser got an content");
                 }
-                Content content = (Content) contentAsObject;
-                if (content != null) {
-                    contentContainer.addContent(content);
+                if (contentAsObject != null) {
+                    contents.add((Content) contentAsObject);
                 }
-                return Pair.create(contentContainer, contentAsObject);
-            });
+                results.add(Pair.create(contentContainer, contentAsObject));
+            }
+            if (replace) {
+                contentContainer.replaceContents(contents);
+            }
+            else {
+                contentContainer.getContents().addAll(contents);
+            }
+            return Observable.from(results);
         });
     }
 
@@ -420,14 +484,7 @@ public class ContentLoader {
         Recipe dataLoaderRecipeForContents = recipe.getContents().dataLoaderRecipe;
 
         Recipe dynamicParserRecipeForCategories = recipe.getCategories().dynamicParserRecipe;
-        Recipe dynamicParserRecipeForContents = recipe.getContents().dynamicParserRecipe;
-
-        // Add any extra configurations that the parser recipe needs from the navigator recipe.
-        if (recipe.getRecipeConfig() != null) {
-            // Add if the recipe is for live feed data.
-            dynamicParserRecipeForContents.getMap().put(Recipe.LIVE_FEED_TAG,
-                                                        recipe.getRecipeConfig().liveContent);
-        }
+        Recipe dynamicParserRecipeForContents = getDynamicParserRecipeForContents(recipe);
 
         String hardCodedCategoryName = recipe.getCategories().name;
 
@@ -581,6 +638,125 @@ public class ContentLoader {
         mRootContentContainer = rootContentContainer;
     }
 
+    /**
+     * Write a catalog to the cache directory in the {@link ContentCodec} format, so a later
+     * process, like the recommendation update service, can use it without loading the feeds
+     * again. Does disk I/O, call it off the main thread.
+     *
+     * @param root The root content container of the catalog.
+     */
+    public void saveCatalogSnapshot(ContentContainer root) {
+
+        File file = new File(mContext.getCacheDir(), CATALOG_SNAPSHOT_FILE);
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            ContentCodec.writeContainer(out, root);
+        }
+        catch (IOException e) {
+            Log.e(TAG, "Failed to write catalog snapshot", e);
+            tempFile.delete();
+            return;
+        }
+        if (!tempFile.renameTo(file)) {
+            Log.e(TAG, "Failed to replace catalog snapshot");
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * Read the catalog written by {@link #saveCatalogSnapshot(ContentContainer)}. Does disk I/O,
+     * call it off the main thread.
+     *
+     * @param maxAgeMs Maximum age of the catalog in milliseconds; an older catalog is not read.
+     * @return The root content container of the catalog, or null if there is none or it is too
+     * old.
+     */
+    public ContentContainer loadCatalogSnapshot(long maxAgeMs) {
+
+        File file = new File(mContext.getCacheDir(), CATALOG_SNAPSHOT_FILE);
+        if (!file.exists()) {
+            return null;
+        }
+        if (System.currentTimeMillis() - file.lastModified() > maxAgeMs) {
+            Log.d(TAG, "Catalog snapshot is older than " + maxAgeMs + "ms");
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            ContentContainer root = new ContentContainer();
+            ContentCodec.readContainer(in, root);
+            return root;
+        }
+        catch (IOException e) {
+            Log.e(TAG, "Failed to read catalog snapshot", e);
+            return null;
+        }
+    }
+
+    /**
+     * Find a content of a catalog by id. Only the top rows of the catalog get their videos with
+     * it, so a content that is not loaded yet is fetched from the API. Does network I/O, call it
+     * off the main thread.
+     *
+     * @param root      The root content container of the catalog, may be null.
+     * @param contentId The content id.
+     * @return The content, or null if it was not found or could not be fetched.
+     */
+    public Content findOrFetchContentById(ContentContainer root, String contentId) {
+
+        if (TextUtils.isEmpty(contentId)) {
+            return null;
+        }
+        if (root != null) {
+            Content content = root.findContentById(contentId);
+            if (content != null) {
+                return content;
+            }
+        }
+        return fetchContentById(contentId);
+    }
+
+    /**
+     * Fetch a content from the API by id. Does network I/O, call it off the main thread.
+     *
+     * @param contentId The content id.
+     * @return The content, or null if it could not be fetched.
+     */
+    public Content fetchContentById(String contentId) {
+
+        VideoResponse response = ZypeApi.getInstance().getVideo(contentId);
+        if (response == null || response.videoData == null) {
+            Log.e(TAG, "fetchContentById(): error loading video, id=" + contentId);
+            return null;
+        }
+        VideoData videoData = response.videoData;
+        if (TextUtils.isEmpty(videoData.description) || videoData.description.equals("null")) {
+            videoData.description = " ";
+        }
+        // Like a search result, the video does not belong to a loaded playlist.
+        videoData.playlistId = "";
+        videoData.playerUrl = "null";
+        String feed = new GsonBuilder().create().toJson(Collections.singletonList(videoData));
+        Recipe recipe = RecipeRegistry.getRecipe(mContext, "recipes/ZypeSearchContentsRecipe.json");
+        try {
+            List<Object> contents = mDynamicParser
+                    .cookRecipeObservable(recipe, feed, null, new String[] { "" })
+                    .toList()
+                    .toBlocking()
+                    .single();
+            for (Object contentAsObject : contents) {
+                if (contentAsObject != null) {
+                    return (Content) contentAsObject;
+                }
+            }
+        }
+        catch (RuntimeException e) {
+            Log.e(TAG, "fetchContentById(): error parsing video, id=" + contentId, e);
+        }
+        return null;
+    }
+
     /**
      * Get the number of global recommendations that should be sent, as specified in the
      * navigator configuration file.
@@ -603,64 +779,127 @@ public class ContentLoader {
         return mNavigatorModel.getConfig().numberOfRelatedRecommendations;
     }
 
+    /**
+     * Get the maximum number of playlists and recipes that are loaded at the same time, as
+     * specified in the navigator configuration file.
+     *
+     * @return The maximum number of concurrent loads.
+     */
+    public int getRecipeConcurrency() {
+
+        int recipeConcurrency = mNavigatorModel.getConfig().recipeConcurrency;
+        return recipeConcurrency > 0 ? recipeConcurrency : DEFAULT_RECIPE_CONCURRENCY;
+    }
+
+    /**
+     * Get an observable that loads the first page of every playlist of a catalog where it is
+     * still missing. The catalog loads the videos of its top rows only, the browse screens load
+     * the other rows as they come into view; this fills in the rows for a process that has no
+     * browse screens, like the recommendation update service. My Library is left out, its videos
+     * belong to the user.
+     *
+     * @param root The root content container of the catalog.
+     * @return RX Observable.
+     */
+    public Observable<Object> getLoadMissingFirstPagesObservable(ContentContainer root) {
+
+        return getLoadFirstPagesObservable(findMissingFirstPages(root));
+    }
+
+    /**
+     * Get an observable that loads the first page of playlists, at most
+     * {@link #getRecipeConcurrency()} at the same time.
+     *
+     * @param contentContainers The containers of the playlists.
+     * @return RX Observable.
+     */
+    public Observable<Object> getLoadFirstPagesObservable(
+            List<ContentContainer> contentContainers) {
+
+        if (contentContainers.isEmpty()) {
+            return Observable.empty();
+        }
+        Log.d(TAG, "Loading the first page of " + contentContainers.size() + " playlists");
+        Recipe recipe = RecipeRegistry.getRecipe(mContext, "recipes/ZypeSearchContentsRecipe.json");
+        return getLoadContentsObservable(Observable.<Object>from(contentContainers), recipe);
+    }
+
+    /**
+     * Find the playlists of a catalog whose first page is missing, see
+     * {@link #getLoadMissingFirstPagesObservable(ContentContainer)}. My Library is left out.
+     *
+     * @param root The root content container of the catalog.
+     * @return The containers of the playlists.
+     */
+    public List<ContentContainer> findMissingFirstPages(ContentContainer root) {
+
+        List<ContentContainer> contentContainers = new ArrayList<>();
+        collectMissingFirstPages(root, contentContainers);
+        return contentContainers;
+    }
+
+    /**
+     * Collect the playlists of a catalog whose first page is missing.
+     *
+     * @param contentContainer  The container to look in.
+     * @param contentContainers The list the playlists are added to.
+     */
+    private void collectMissingFirstPages(ContentContainer contentContainer,
+                                          List<ContentContainer> contentContainers) {
+
+        for (ContentContainer child : contentContainer.getContentContainers()) {
+            if (PlaylistPageLoader.isFirstPageMissing(child) &&
+                    !ZypeSettings.MY_LIBRARY_PLAYLIST_ID.equals(
+                            child.getExtraStringValue(Recipe.KEY_DATA_TYPE_TAG))) {
+                contentContainers.add(child);
+            }
+            collectMissingFirstPages(child, contentContainers);
+        }
+    }
+
     /*
      * Zype, Evgeny Cherkasov
      */
     public Observable<Object> getLoadContentsObservable(Observable<Object> observable, Recipe recipeDynamicParser) {
+        // Playlists are loaded in parallel, their results are emitted in order.
         return observable
-                .map(contentContainerAsObject -> {
-                    ContentContainer contentContainer = (ContentContainer) contentContainerAsObject;
-                    if (contentContainer.getExtraStringValue(Recipe.KEY_DATA_TYPE_TAG).equals(ZypeSettings.MY_LIBRARY_PLAYLIST_ID)) {
-                        ContentContainer rootMyLibrary = getRootContentContainer().findContentContainerByName(ZypeSettings.ROOT_MY_LIBRARY_PLAYLIST_ID);
-                        if (rootMyLibrary.getExtraValueAsInt(ExtraKeys.NEXT_PAGE) == 1) {
-                            contentContainer.getContents().clear();
-                        }
-                    }
-                    else {
-                        if (contentContainer.getExtraValueAsInt(ExtraKeys.NEXT_PAGE) == 1) {
-                            contentContainer.getContents().clear();
-                        }
-                    }
-                    return contentContainerAsObject;
-                })
-                .concatMap(contentContainerAsObject -> {
+                .compose(ObservableUtils.<Object, Object>concatMapEager(contentContainerAsObject -> {
                     ContentContainer contentContainer = (ContentContainer) contentContainerAsObject;
                     if (DEBUG_RECIPE_CHAIN) {
                         Log.d(TAG, "getLoadContentsObservable:" + contentContainer.getName());
                     }
+                    // The first page replaces the contents of the container, next pages are appended
+                    boolean firstPage;
+                    Observable<Pair> feedObservable;
                     if (contentContainer.getExtraStringValue(Recipe.KEY_DATA_TYPE_TAG).equals(ZypeSettings.MY_LIBRARY_PLAYLIST_ID)) {
+                        ContentContainer rootMyLibrary = getRootContentContainer().findContentContainerByName(ZypeSettings.ROOT_MY_LIBRARY_PLAYLIST_ID);
+                        firstPage = rootMyLibrary.getExtraValueAsInt(ExtraKeys.NEXT_PAGE) == 1;
                         // TODO: Move videos loading code to ZypeDataDownloader and use its method here
                         // Loading My Library videos
-                        return getMyLibraryVideosObservable(contentContainerAsObject);
+                        feedObservable = getMyLibraryVideosObservable(contentContainerAsObject);
                     }
                     else {
+                        firstPage = contentContainer.getExtraValueAsInt(ExtraKeys.NEXT_PAGE) == 1;
                         // Loading playlist videos
-                        return getPlaylistVideosFeedObservable(contentContainerAsObject);
+                        feedObservable = getPlaylistVideosFeedObservable(contentContainerAsObject);
                     }
-                })
-                .concatMap(objectPair -> {
-                    ContentContainer contentContainer = (ContentContainer) objectPair.first;
-                    String feed = (String) objectPair.second;
-                    String[] params = new String[] { contentContainer.getExtraStringValue(Recipe.KEY_DATA_TYPE_TAG) };
+                    return feedObservable.concatMap(objectPair -> {
+                        String feed = (String) objectPair.second;
+                        String[] params = new String[] { contentContainer.getExtraStringValue(Recipe.KEY_DATA_TYPE_TAG) };
 
-                    if (TextUtils.isEmpty(feed)) {
-                        return Observable.just(Pair.create(contentContainer, null));
-                    }
-                    else {
-                        return mDynamicParser
-                                .cookRecipeObservable(recipeDynamicParser, feed, null, params)
-                                .map(contentAsObject -> {
-                                    if (DEBUG_RECIPE_CHAIN) {
-                                        Log.d(TAG, "Parser got an content");
-                                    }
-                                    Content content = (Content) contentAsObject;
-                                    if (content != null) {
-                                        contentContainer.addContent(content);
-                                    }
-                                    return Pair.create(contentContainer, contentAsObject);
-                                });
-                    }
-                });
+                        if (TextUtils.isEmpty(feed)) {
+                            if (firstPage) {
+                                contentContainer.replaceContents(new ArrayList<>());
+                            }
+                            return Observable.<Object>just(Pair.create(contentContainer, null));
+                        }
+                        else {
+                            return publishContents(contentContainer,
+                                                   mDynamicParser.cookRecipeObservable(recipeDynamicParser, feed, null, params),
+                                                   firstPage);
+                        }
+                    });
+                }, getRecipeConcurrency(), Schedulers.io()));
     }
 
     public Observable<Pair> getPlaylistVideosFeedObservable(Object contentContainerAsObject) {
@@ -741,20 +980,33 @@ public class ContentLoader {
         }
     }
 
+    /**
+     * Get the parser recipe for the contents of a global recipe, with the extra configurations it
+     * needs from the navigator recipe. The parser recipe is shared by recipes and playlists that
+     * load in parallel, so the configurations go into a copy rather than into the shared recipe.
+     *
+     * @param recipe The global recipe.
+     * @return The parser recipe for the contents.
+     */
+    private Recipe getDynamicParserRecipeForContents(NavigatorModel.GlobalRecipes recipe) {
+
+        Recipe dynamicParserRecipeForContents = recipe.getContents().dynamicParserRecipe;
+        if (recipe.getRecipeConfig() != null) {
+            // Add if the recipe is for live feed data.
+            dynamicParserRecipeForContents =
+                    dynamicParserRecipeForContents.withItem(Recipe.LIVE_FEED_TAG,
+                                                            recipe.getRecipeConfig().liveContent);
+        }
+        return dynamicParserRecipeForContents;
+    }
+
     public Observable<Object> runZypeGlobalRecipeAtIndex(NavigatorModel.GlobalRecipes recipe, Recipe recipeDynamicParserVideos,
                                                          int index, ContentContainer root) {
         Recipe dataLoaderRecipeForCategories = recipe.getCategories().dataLoaderRecipe;
         Recipe dataLoaderRecipeForContents = recipe.getContents().dataLoaderRecipe;
 
         Recipe dynamicParserRecipeForCategories = recipe.getCategories().dynamicParserRecipe;
-        Recipe dynamicParserRecipeForContents = recipe.getContents().dynamicParserRecipe;
-
-        // Add any extra configurations that the parser recipe needs from the navigator recipe.
-        if (recipe.getRecipeConfig() != null) {
-            // Add if the recipe is for live feed data.
-            dynamicParserRecipeForContents.getMap().put(Recipe.LIVE_FEED_TAG,
-                    recipe.getRecipeConfig().liveContent);
-        }
+        Recipe dynamicParserRecipeForContents = getDynamicParserRecipeForContents(recipe);
 
         String hardCodedCategoryName = recipe.getCategories().name;
 
@@ -787,7 +1039,12 @@ public class ContentLoader {
                     });
         }
 
-        return getLoadContentsObservable(observable, dynamicParserRecipeForContents);
+        // Load the first page of the top rows only, the browse screen loads the other rows when
+        // they come into view
+        return observable.publish(rows -> Observable.merge(
+                getLoadContentsObservable(rows.take(ZypeDataDownloader.INITIAL_ROW_COUNT),
+                                          dynamicParserRecipeForContents),
+                rows.skip(ZypeDataDownloader.INITIAL_ROW_COUNT)));
     }
 
     public interface ILoadContentForContentContainer {
@@ -819,7 +1076,7 @@ public class ContentLoader {
                         Gson gson = builder.create();
                         String feed = gson.toJson(response.body().videoData);
                         // TODO: Rename the recipe file
-                        Recipe recipe = Recipe.newInstance(context, "recipes/ZypeSearchContentsRecipe.json");
+                        Recipe recipe = RecipeRegistry.getRecipe(context, "recipes/ZypeSearchContentsRecipe.json");
                         Subscription subscription = getContentsForContentContainerObservable(feed, recipe, contentContainer)
                                 .subscribeOn(Schedulers.newThread())
                                 .observeOn(AndroidSchedulers.mainThread())
@@ -905,16 +1162,8 @@ public class ContentLoader {
         String[] params = new String[] { contentContainer.getExtraStringValue(Recipe.KEY_DATA_TYPE_TAG) };
         return Observable
                 .just(contentContainer)
-                .concatMap(o -> mDynamicParser.cookRecipeObservable(recipeDynamicParserVideos, feed, null, params)
-                        .map(contentAsObject -> {
-                            Content content = (Content) contentAsObject;
-                            if (content != null) {
-                                if (DEBUG_RECIPE_CHAIN) {
-                                    Log.d(TAG, "getContentsForContentContainerObservable(): " + content.getTitle());
-                                }
-                                contentContainer.addContent(content);
-                            }
-                            return content;
-                        }));
+                .concatMap(o -> publishContents(contentContainer,
+                                                mDynamicParser.cookRecipeObservable(recipeDynamicParserVideos, feed, null, params),
+                                                false));
     }
 }
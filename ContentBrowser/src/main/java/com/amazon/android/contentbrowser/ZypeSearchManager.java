@@ -14,6 +14,7 @@ import com.amazon.android.model.translators.ZypeContentTranslator;
 import com.amazon.android.navigator.NavigatorModel;
 import com.amazon.android.recipe.Recipe;
 import com.amazon.android.search.ISearchResult;
+import com.amazon.android.search.IUpdatableSearchResult;
 import com.amazon.android.ui.fragments.AlertDialogFragment;
 import com.amazon.android.utils.ErrorUtils;
 import com.amazon.dynamicparser.DynamicParser;
@@ -26,7 +27,13 @@ import com.zype.fire.api.Model.VideosResponse;
 import com.zype.fire.api.ZypeApi;
 import com.zype.fire.api.ZypeSettings;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -43,22 +50,88 @@ import rx.schedulers.Schedulers;
 public class ZypeSearchManager implements ContentBrowser.ICustomSearchHandler {
     private static final String TAG = ZypeSearchManager.class.getSimpleName();
 
+    /**
+     * Number of recent queries whose results are kept.
+     */
+    private static final int CACHE_SIZE = 20;
+
+    private static final Gson GSON = new GsonBuilder().create();
+
     Recipe recipeSearchContents;
 
+    /**
+     * Parser of the search results, set up once and shared by all queries.
+     */
+    private final DynamicParser mParser;
+
+    /**
+     * Results of recent queries by normalized query, in access order.
+     */
+    private final Map<String, List<Content>> mCache =
+            new LinkedHashMap<String, List<Content>>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, List<Content>> eldest) {
+
+                    return size() > CACHE_SIZE;
+                }
+            };
+
+    /**
+     * Request of the current query, if it is in flight.
+     */
+    private Call<VideosResponse> mCall;
+
+    /**
+     * Parsing of the current query results, if it is running.
+     */
+    private Subscription mSubscription;
+
+    /**
+     * Number of the current query. Results of earlier queries are dropped.
+     */
+    private int mGeneration;
+
     public ZypeSearchManager(Recipe recipeSearchContents) {
         this.recipeSearchContents = recipeSearchContents;
+
+        mParser = new DynamicParser();
+        ZypeContentTranslator zypeContentTranslator = new ZypeContentTranslator();
+        mParser.addTranslatorImpl(zypeContentTranslator.getName(), zypeContentTranslator);
     }
 
+    /**
+     * Search is requested on the main thread, after the search fragment debounced the key
+     * strokes. A new query cancels the request of the previous one, and cached results are
+     * delivered without a request. While the request is in flight, results of a cached broader
+     * query are filtered locally and delivered as provisional results.
+     */
     @Override
     public void onSearchRequested(String query, ISearchResult iSearchResult) {
+        cancel();
+        final int generation = ++mGeneration;
+        final String key = normalize(query);
+
+        List<Content> cached = mCache.get(key);
+        if (cached != null) {
+            Log.d(TAG, "onSearchRequested(): Cached results for " + key);
+            deliver(cached, iSearchResult);
+            return;
+        }
+        final boolean provisional = deliverProvisional(key, iSearchResult);
+
         HashMap<String, String> params = new HashMap<>();
         params.put(ZypeApi.APP_KEY, ZypeSettings.APP_KEY);
         params.put(ZypeApi.PER_PAGE, String.valueOf(ZypeApi.PER_PAGE_DEFAULT));
         params.put(ZypeApi.QUERY, query);
 
-        ZypeApi.getInstance().getApi().getVideos(1, params).enqueue(new Callback<VideosResponse>() {
+        mCall = ZypeApi.getInstance().getApi().getVideos(1, params);
+        mCall.enqueue(new Callback<VideosResponse>() {
             @Override
             public void onResponse(Call<VideosResponse> call, Response<VideosResponse> response) {
+                if (generation != mGeneration) {
+                    return;
+                }
+                mCall = null;
                 if (response.isSuccessful()) {
                     if (!response.body().videoData.isEmpty()) {
                         Log.d(TAG, "onResponse(): size=" + response.body().videoData.size());
@@ -69,51 +142,159 @@ public class ZypeSearchManager implements ContentBrowser.ICustomSearchHandler {
                             videoData.playlistId = "";
                             videoData.playerUrl = "null";
                         }
-                        GsonBuilder builder = new GsonBuilder();
-                        Gson gson = builder.create();
-                        String feed = gson.toJson(response.body().videoData);
-                        Subscription subscription = getSearchContentsObservable(feed, iSearchResult)
-                                .subscribeOn(Schedulers.newThread())
+                        String feed = GSON.toJson(response.body().videoData);
+                        mSubscription = getSearchContentsObservable(feed)
+                                .subscribeOn(Schedulers.computation())
                                 .observeOn(AndroidSchedulers.mainThread())
-                                .subscribe(result -> {
+                                .subscribe(contents -> {
+                                            if (generation != mGeneration) {
+                                                return;
+                                            }
+                                            mSubscription = null;
+                                            mCache.put(key, contents);
+                                            deliverFinal(contents, provisional, iSearchResult);
                                         },
                                         throwable -> {
-                                        },
-                                        () -> {
-                                            iSearchResult.onSearchResult(null, true);
+                                            if (generation != mGeneration) {
+                                                return;
+                                            }
+                                            mSubscription = null;
+                                            Log.e(TAG, "Parsing search results failed", throwable);
+                                            deliverFinal(Collections.emptyList(), provisional,
+                                                         iSearchResult);
                                         });
                     }
                     else {
                         Log.d(TAG, "onResponse(): No videos found");
-                        iSearchResult.onSearchResult(null, true);
+                        mCache.put(key, Collections.emptyList());
+                        deliverFinal(Collections.emptyList(), provisional, iSearchResult);
                     }
                 }
                 else {
                     Log.d(TAG, "onResponse(): Error: " + response.message());
-                    iSearchResult.onSearchResult(null, true);
+                    deliverFinal(Collections.emptyList(), provisional, iSearchResult);
                 }
             }
 
             @Override
             public void onFailure(Call<VideosResponse> call, Throwable t) {
-                iSearchResult.onSearchResult(null, true);
+                if (generation != mGeneration || call.isCanceled()) {
+                    return;
+                }
+                mCall = null;
+                deliverFinal(Collections.emptyList(), provisional, iSearchResult);
             }
         });
     }
 
-    private Observable<Object> getSearchContentsObservable(String feed, ISearchResult iSearchResult) {
-        DynamicParser parser = new DynamicParser();
-        ZypeContentTranslator zypeContentTranslator = new ZypeContentTranslator();
-        parser.addTranslatorImpl(zypeContentTranslator.getName(), zypeContentTranslator);
+    /**
+     * Cancel the request and the parsing of the current query.
+     */
+    private void cancel() {
+
+        if (mCall != null) {
+            mCall.cancel();
+            mCall = null;
+        }
+        if (mSubscription != null) {
+            mSubscription.unsubscribe();
+            mSubscription = null;
+        }
+    }
 
+    /**
+     * Deliver provisional results for a query, filtered from the cached results of the longest
+     * cached query it starts with.
+     *
+     * @param key           Normalized query.
+     * @param iSearchResult Search result listener.
+     * @return True if provisional results were delivered.
+     */
+    private boolean deliverProvisional(String key, ISearchResult iSearchResult) {
+
+        if (!(iSearchResult instanceof IUpdatableSearchResult)) {
+            return false;
+        }
+        String broaderKey = null;
+        for (String cachedKey : mCache.keySet()) {
+            if (key.startsWith(cachedKey) &&
+                    (broaderKey == null || cachedKey.length() > broaderKey.length())) {
+                broaderKey = cachedKey;
+            }
+        }
+        if (broaderKey == null) {
+            return false;
+        }
+        List<Content> filtered = new ArrayList<>();
+        for (Content content : mCache.get(broaderKey)) {
+            if (matches(content.getTitle(), key) || matches(content.getDescription(), key)) {
+                filtered.add(content);
+            }
+        }
+        Log.d(TAG, "deliverProvisional(): " + filtered.size() + " results from " + broaderKey);
+        deliver(filtered, iSearchResult);
+        return true;
+    }
+
+    /**
+     * Deliver the final results of a query, replacing the provisional ones.
+     *
+     * @param contents      The results.
+     * @param provisional   True if provisional results were delivered before.
+     * @param iSearchResult Search result listener.
+     */
+    private void deliverFinal(List<Content> contents, boolean provisional,
+                              ISearchResult iSearchResult) {
+
+        if (provisional) {
+            ((IUpdatableSearchResult) iSearchResult).onSearchResultsCleared();
+        }
+        deliver(contents, iSearchResult);
+    }
+
+    /**
+     * Deliver results and mark the search done.
+     *
+     * @param contents      The results.
+     * @param iSearchResult Search result listener.
+     */
+    @SuppressWarnings("unchecked")
+    private void deliver(List<Content> contents, ISearchResult iSearchResult) {
+
+        for (Content content : contents) {
+            iSearchResult.onSearchResult(content, false);
+        }
+        iSearchResult.onSearchResult(null, true);
+    }
+
+    /**
+     * Normalize a query for the cache.
+     *
+     * @param query The query.
+     * @return The trimmed lower case query.
+     */
+    private static String normalize(String query) {
+
+        return query.trim().toLowerCase(Locale.getDefault());
+    }
+
+    /**
+     * Check whether a text contains a normalized query.
+     *
+     * @param text The text, may be null.
+     * @param key  Normalized query.
+     * @return True if the text contains the query, ignoring case.
+     */
+    private static boolean matches(String text, String key) {
+
+        return text != null && text.toLowerCase(Locale.getDefault()).contains(key);
+    }
+
+    private Observable<List<Content>> getSearchContentsObservable(String feed) {
         String[] params = new String[] { (String) "" };
-        return parser.cookRecipeObservable(recipeSearchContents, feed, null, params)
-                .map(contentAsObject -> {
-                    Content content = (Content) contentAsObject;
-                    if (content != null) {
-                        iSearchResult.onSearchResult(content, false);
-                    }
-                    return content;
-                });
+        return mParser.cookRecipeObservable(recipeSearchContents, feed, null, params)
+                .filter(contentAsObject -> contentAsObject != null)
+                .map(contentAsObject -> (Content) contentAsObject)
+                .toList();
     }
 }
@@ -117,13 +117,16 @@ public class ContentBrowserApplication extends ModularApplication {
      */
     @Override
     public void onModulesLoaded() {
+        // The implementations are created with their first use; configure them there. Heavy ones
+        // are warmed up in the background after this method returned.
+
         // Setup Ads.
-        IAds ads = (IAds) ModuleManager.getInstance()
-                                       .getModule(IAds.class.getSimpleName())
-                                       .getImpl(true);
-        ads.setExtra(new Bundle());
+        ModuleManager.getInstance()
+                     .getModule(IAds.class.getSimpleName())
+                     .setImplListener(ads -> ((IAds) ads).setExtra(new Bundle()));
 
-        // Setup Analytics.
+        // Setup Analytics. It is set up here, on the main thread, so no event of the app
+        // entry or the first activity is lost.
         IAnalytics analytics =
                 (IAnalytics) ModuleManager.getInstance()
                                           .getModule(IAnalytics.class.getSimpleName())
@@ -134,11 +137,10 @@ public class ContentBrowserApplication extends ModularApplication {
         AnalyticsHelper.trackAppEntry();
 
         // Init authentication module.
-        IAuthentication authentication =
-                (IAuthentication) ModuleManager.getInstance()
-                                               .getModule(IAuthentication.class.getSimpleName())
-                                               .getImpl(true);
-        authentication.init(this);
+        ModuleManager.getInstance()
+                     .getModule(IAuthentication.class.getSimpleName())
+                     .setImplListener(authentication -> ((IAuthentication) authentication)
+                             .init(this));
 
         // Last call.
         postModulesLoaded();
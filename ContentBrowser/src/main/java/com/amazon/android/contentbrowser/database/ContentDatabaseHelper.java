@@ -18,12 +18,15 @@ import com.amazon.utils.DateAndTimeHelper;
 import com.amazon.utils.StringManipulation;
 
 import android.content.Context;
+import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
 import android.util.Log;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -48,7 +51,7 @@ public class ContentDatabaseHelper extends SQLiteOpenHelper {
      * The database version. If this is changed onUpgrade will be called. Put any logic needed to
      * change or maintain database in that method.
      */
-    private static int DATABASE_VERSION = 1;
+    private static int DATABASE_VERSION = 3;
 
     /**
      * The SQLiteDatabase instance.
@@ -60,6 +63,16 @@ public class ContentDatabaseHelper extends SQLiteOpenHelper {
      */
     private static ContentDatabaseHelper sInstance;
 
+    /**
+     * In-memory copy of the recent table.
+     */
+    private final ResumeStateCache mResumeStateCache = new ResumeStateCache();
+
+    /**
+     * Journal that writes playback positions behind the player.
+     */
+    private final PlaybackPositionJournal mPlaybackPositionJournal;
+
     /**
      * Get the content database helper instance.
      *
@@ -90,6 +103,20 @@ public class ContentDatabaseHelper extends SQLiteOpenHelper {
     private ContentDatabaseHelper(Context context) {
 
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        // Playback writes and recommendation reads run on different threads, with write-ahead
+        // logging readers do not wait for writers and commits do not rewrite the main file.
+        setWriteAheadLoggingEnabled(true);
+        mPlaybackPositionJournal = new PlaybackPositionJournal(context, this, mResumeStateCache);
+    }
+
+    /**
+     * Get the journal that writes playback positions to the recent table in the background.
+     *
+     * @return The playback position journal.
+     */
+    public PlaybackPositionJournal getPlaybackPositionJournal() {
+
+        return mPlaybackPositionJournal;
     }
 
     /**
@@ -129,6 +156,13 @@ public class ContentDatabaseHelper extends SQLiteOpenHelper {
         Log.i(TAG, "Upgrading database from version " + oldVersion + " to " + newVersion);
         // Insert logic here if you need to update database. Please try not to destroy all old
         // user data.
+        if (oldVersion < 2) {
+            db.execSQL(RecommendationTable.SQL_ADD_FINGERPRINT_COLUMN);
+        }
+        if (oldVersion < 3) {
+            RecommendationTable.createIndexes(db);
+            RecentTable.createIndexes(db);
+        }
     }
 
     /**
@@ -142,6 +176,8 @@ public class ContentDatabaseHelper extends SQLiteOpenHelper {
         try {
             db.execSQL(RecommendationTable.SQL_CREATE_TABLE);
             db.execSQL(RecentTable.SQL_CREATE_TABLE);
+            RecommendationTable.createIndexes(db);
+            RecentTable.createIndexes(db);
         }
         catch (Exception e) {
             Log.e(TAG, "Error creating database tables: " + e);
@@ -162,6 +198,8 @@ public class ContentDatabaseHelper extends SQLiteOpenHelper {
         Log.i(TAG, "deleteDatabase: " + databasePath.getAbsolutePath() + ", exists = " +
                 databasePath.exists());
 
+        mPlaybackPositionJournal.discardAll();
+        mResumeStateCache.invalidate();
         return !databasePath.exists() || context.deleteDatabase(DATABASE_NAME);
     }
 
@@ -171,8 +209,12 @@ public class ContentDatabaseHelper extends SQLiteOpenHelper {
     public void clearDatabase() {
 
         SQLiteDatabase db = getDatabaseInstance();
+        mPlaybackPositionJournal.discardAll();
         RecommendationTable.deleteAll(db);
-        RecentTable.deleteAll(db);
+        synchronized (mResumeStateCache) {
+            RecentTable.deleteAll(db);
+            mResumeStateCache.clear();
+        }
     }
 
     /**
@@ -183,9 +225,17 @@ public class ContentDatabaseHelper extends SQLiteOpenHelper {
      */
     public boolean recentRecordExists(String contentId) {
 
-        SQLiteDatabase db = getDatabaseInstance();
-        long rowId = RecentTable.findRowId(db, contentId);
-        return (rowId != -1);
+        return !StringManipulation.isNullOrEmpty(contentId) && getRecent(contentId) != null;
+    }
+
+    /**
+     * Read all recent records into memory with one query, so later reads of playback progress do
+     * not touch the database. Call it off of the main thread; otherwise the records are read on
+     * the first use.
+     */
+    public void preloadRecents() {
+
+        mResumeStateCache.load(getDatabaseInstance());
     }
 
     /**
@@ -205,13 +255,58 @@ public class ContentDatabaseHelper extends SQLiteOpenHelper {
             return false;
         }
         SQLiteDatabase db = getDatabaseInstance();
-
-        long rowId = RecentTable.write(db, new RecentRecord(contentId, playbackLocation,
-                                                            playbackCompleted, lastWatchedTime));
+        RecentRecord record = new RecentRecord(contentId, playbackLocation, playbackCompleted,
+                                               lastWatchedTime);
+        // The journal must not overwrite this record with an older position.
+        mPlaybackPositionJournal.discard(contentId);
+
+        long rowId;
+        synchronized (mResumeStateCache) {
+            rowId = RecentTable.write(db, record);
+            if (rowId != -1) {
+                mResumeStateCache.put(record);
+            }
+        }
 
         return rowId != -1;
     }
 
+    /**
+     * Store or update several recently played contents of the playback position journal in one
+     * transaction. A record the journal no longer has pending was deleted or replaced since the
+     * journal took it and is skipped; the check and the write hold the lock of the recent table,
+     * so a record deleted meanwhile is not written back.
+     *
+     * @param records The recent records.
+     * @return True if all records were written; false otherwise.
+     */
+    boolean addRecents(Collection<RecentRecord> records) {
+
+        SQLiteDatabase db = getDatabaseInstance();
+        synchronized (mResumeStateCache) {
+            db.beginTransaction();
+            try {
+                for (RecentRecord record : records) {
+                    if (!mPlaybackPositionJournal.isPending(record)) {
+                        continue;
+                    }
+                    if (RecentTable.write(db, record) == -1) {
+                        return false;
+                    }
+                }
+                db.setTransactionSuccessful();
+                return true;
+            }
+            catch (SQLException e) {
+                Log.e(TAG, "Error writing recent records", e);
+                return false;
+            }
+            finally {
+                db.endTransaction();
+            }
+        }
+    }
+
     /**
      * Delete a recent record found using the given content id.
      *
@@ -225,11 +320,17 @@ public class ContentDatabaseHelper extends SQLiteOpenHelper {
                     "database");
             return false;
         }
-        return RecentTable.delete(getDatabaseInstance(), contentId);
+        mPlaybackPositionJournal.discard(contentId);
+        synchronized (mResumeStateCache) {
+            mResumeStateCache.remove(contentId);
+            return RecentTable.delete(getDatabaseInstance(), contentId);
+        }
     }
 
     /**
-     * Get the recent record from the database using the given content id.
+     * Get the recent record from the database using the given content id. The record is read
+     * from memory once the recent records are loaded, see {@link #preloadRecents()}. The returned
+     * record is shared and must not be modified.
      *
      * @param contentId The content id.
      * @return The recent record or null.
@@ -240,10 +341,13 @@ public class ContentDatabaseHelper extends SQLiteOpenHelper {
             Log.e(TAG, "Content id cannot be null when reading a recent content from database.");
             return null;
         }
+        // A position recorded by the journal is newer than the one in the database.
+        RecentRecord pending = mPlaybackPositionJournal.getPending(contentId);
+        if (pending != null) {
+            return pending;
+        }
 
-        SQLiteDatabase db = getDatabaseInstance();
-
-        return RecentTable.read(db, contentId);
+        return mResumeStateCache.get(getDatabaseInstance(), contentId);
     }
 
     /**
@@ -257,6 +361,27 @@ public class ContentDatabaseHelper extends SQLiteOpenHelper {
      */
     public boolean addRecommendation(String contentId, int recommendationId, String type) {
 
+        if (!isValidRecommendation(contentId, recommendationId, type)) {
+            return false;
+        }
+        SQLiteDatabase db = getDatabaseInstance();
+
+        long rowId = RecommendationTable.write(db, new RecommendationRecord(contentId,
+                                                                            recommendationId,
+                                                                            type));
+        return rowId != -1;
+    }
+
+    /**
+     * Check the parameters of a recommendation that is saved to the database.
+     *
+     * @param contentId        The content id.
+     * @param recommendationId The recommendation id.
+     * @param type             The recommendation type.
+     * @return True if the recommendation can be saved; false otherwise.
+     */
+    private boolean isValidRecommendation(String contentId, int recommendationId, String type) {
+
         if (StringManipulation.isNullOrEmpty(contentId) || recommendationId <= 0 ||
                 StringManipulation.isNullOrEmpty(type)) {
             Log.e(TAG, "Parameters cannot be null or 0 when saving a recommendation to " +
@@ -264,12 +389,64 @@ public class ContentDatabaseHelper extends SQLiteOpenHelper {
                     + ", type=" + type);
             return false;
         }
+        return true;
+    }
+
+    /**
+     * Write a batch of recommendation changes in one transaction. Invalid records are left out
+     * of the batch, as {@link #addRecommendation(String, int, String)} does for single records.
+     * If writing fails, none of the changes is written.
+     *
+     * @param batch The changes.
+     * @return True if the changes were written; false otherwise.
+     */
+    public boolean applyRecommendationBatch(RecommendationBatch batch) {
+
+        removeInvalidRecommendations(batch.getInserts());
+        removeInvalidRecommendations(batch.getUpdates());
+        if (batch.isEmpty()) {
+            return true;
+        }
         SQLiteDatabase db = getDatabaseInstance();
+        db.beginTransaction();
+        try {
+            RecommendationTable.applyBatch(db, batch);
+            db.setTransactionSuccessful();
+            return true;
+        }
+        catch (SQLException e) {
+            Log.e(TAG, "Error writing recommendation batch to database", e);
+            return false;
+        }
+        finally {
+            db.endTransaction();
+        }
+    }
 
-        long rowId = RecommendationTable.write(db, new RecommendationRecord(contentId,
-                                                                            recommendationId,
-                                                                            type));
-        return rowId != -1;
+    /**
+     * Clear the fingerprints of the recommendation records. Call when the posted notifications
+     * were removed without the records, e.g. after a reboot, so all of them are posted again.
+     */
+    public void clearRecommendationFingerprints() {
+
+        RecommendationTable.clearFingerprints(getDatabaseInstance());
+    }
+
+    /**
+     * Remove the records that can not be saved from a list.
+     *
+     * @param records The records.
+     */
+    private void removeInvalidRecommendations(List<RecommendationRecord> records) {
+
+        Iterator<RecommendationRecord> iterator = records.iterator();
+        while (iterator.hasNext()) {
+            RecommendationRecord record = iterator.next();
+            if (!isValidRecommendation(record.getContentId(), record.getRecommendationId(),
+                                       record.getType())) {
+                iterator.remove();
+            }
+        }
     }
 
     /**
@@ -396,8 +573,7 @@ public class ContentDatabaseHelper extends SQLiteOpenHelper {
 
         SQLiteDatabase db = getDatabaseInstance();
 
-        return RecommendationTable.readMultipleRecords(db, RecommendationTable
-                .getRecommendationTableSelectTypeQuery(type));
+        return RecommendationTable.readRecordsWithType(db, type);
     }
 
     /**
@@ -423,8 +599,9 @@ public class ContentDatabaseHelper extends SQLiteOpenHelper {
 
         List<RecommendationRecord> matchingRecords = new ArrayList<>();
         for (String contentId : contentIds) {
-            if (recommendationWithContentIdExists(contentId)) {
-                matchingRecords.add(getRecommendationByContentId(contentId));
+            RecommendationRecord record = getRecommendationByContentId(contentId);
+            if (record != null) {
+                matchingRecords.add(record);
             }
         }
         return matchingRecords;
@@ -474,7 +651,14 @@ public class ContentDatabaseHelper extends SQLiteOpenHelper {
     public boolean removeExpiredRecords() {
 
         SQLiteDatabase db = getDatabaseInstance();
-        return RecentTable.purge(db) && RecommendationTable.purge(db);
+        boolean recentsRemoved;
+        synchronized (mResumeStateCache) {
+            recentsRemoved = RecentTable.purge(db);
+            if (recentsRemoved) {
+                mResumeStateCache.invalidate();
+            }
+        }
+        return RecommendationTable.purge(db) | recentsRemoved;
 
     }
 
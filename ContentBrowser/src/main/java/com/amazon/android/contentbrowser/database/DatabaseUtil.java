@@ -15,10 +15,12 @@
 package com.amazon.android.contentbrowser.database;
 
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 
 /**
- * Util class for database functionality.
+ * Util class for database functionality. Queries use constant SQL with bound arguments, so the
+ * database connection compiles each of them once and reuses the statement from its cache.
  */
 class DatabaseUtil {
 
@@ -27,11 +29,12 @@ class DatabaseUtil {
      *
      * @param db    The database to query.
      * @param query The query to run.
+     * @param args  The arguments bound to the query.
      * @return The row id, or -1 if the query resulted in zero results.
      */
-    static long findRowId(SQLiteDatabase db, String query) {
+    static long findRowId(SQLiteDatabase db, String query, String... args) {
 
-        Cursor cursor = db.rawQuery(query, null);
+        Cursor cursor = db.rawQuery(query, args);
 
         long rowId = -1;
 
@@ -58,7 +61,7 @@ class DatabaseUtil {
     static boolean deleteByContentId(String tableName, String column, SQLiteDatabase db,
                                      String contentId) {
 
-        int affectedRows = db.delete(tableName, column + "='" + contentId + "'", null);
+        int affectedRows = db.delete(tableName, column + "=?", new String[]{contentId});
 
         return (affectedRows > 0);
     }
@@ -75,7 +78,8 @@ class DatabaseUtil {
     static boolean deleteExpired(SQLiteDatabase db, String tableName, String expireColumn, long
             currentTime) {
 
-        int affectedRows = db.delete(tableName, expireColumn + " - " + currentTime + " <= 0", null);
+        int affectedRows = db.delete(tableName, expireColumn + "<=?",
+                                     new String[]{String.valueOf(currentTime)});
 
         return (affectedRows > 0);
     }
@@ -89,13 +93,22 @@ class DatabaseUtil {
      */
     static int getCount(SQLiteDatabase db, String tableName) {
 
-        int count = -1;
-        Cursor cursor = db.rawQuery("SELECT * FROM " + tableName, null);
-        if (cursor != null) {
-            count = cursor.getCount();
-            cursor.close();
+        return (int) DatabaseUtils.queryNumEntries(db, tableName);
+    }
 
-        }
-        return count;
+    /**
+     * Remove the rows with a duplicate value in a column, keeping the last written row of each
+     * value. Needed before a unique index is created on the column of an existing table.
+     *
+     * @param db        The database.
+     * @param tableName The table name.
+     * @param idColumn  The row id column.
+     * @param column    The column.
+     */
+    static void deleteDuplicates(SQLiteDatabase db, String tableName, String idColumn,
+                                 String column) {
+
+        db.execSQL("DELETE FROM " + tableName + " WHERE " + idColumn + " NOT IN (SELECT MAX(" +
+                           idColumn + ") FROM " + tableName + " GROUP BY " + column + ")");
     }
 }
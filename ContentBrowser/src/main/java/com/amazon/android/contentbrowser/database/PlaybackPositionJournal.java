@@ -0,0 +1,288 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.database;
+
+import com.amazon.utils.StringManipulation;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Write-behind journal of playback positions. Recorded positions are kept in memory, one per
+ * content id so that rapid updates of the same content collapse into one write, and are written
+ * to the {@link RecentTable} in one transaction on a background thread. A write is scheduled
+ * {@link #FLUSH_INTERVAL_MS} after the first position recorded since the last write, and
+ * {@link #flush()} writes right away, e.g. when the player is stopped.
+ *
+ * The journal listens to the memory trim callbacks of the app and writes the pending positions
+ * before the process can be killed in the background. A recorded position is stored in the
+ * {@link ResumeStateCache} right away and, until it is written, also returned by
+ * {@link ContentDatabaseHelper#getRecent(String)}, so readers never see an older position.
+ */
+public class PlaybackPositionJournal implements ComponentCallbacks2 {
+
+    /**
+     * Debug tag.
+     */
+    private static final String TAG = PlaybackPositionJournal.class.getSimpleName();
+
+    /**
+     * Delay between the first recorded position and the write of the pending positions.
+     */
+    static final long FLUSH_INTERVAL_MS = 5000;
+
+    /**
+     * Maximum time to block the calling thread for a write when the process may be killed.
+     */
+    private static final long FINAL_FLUSH_TIMEOUT_MS = 2000;
+
+    /**
+     * The database the positions are written to.
+     */
+    private final ContentDatabaseHelper mDatabase;
+
+    /**
+     * The in-memory copy of the recent table.
+     */
+    private final ResumeStateCache mResumeStateCache;
+
+    /**
+     * Single thread that writes the positions, so writes never run concurrently.
+     */
+    private final ScheduledExecutorService mExecutor =
+            Executors.newSingleThreadScheduledExecutor();
+
+    /**
+     * Positions that are not written yet, by content id. Guarded by this.
+     */
+    private final LinkedHashMap<String, RecentRecord> mPending = new LinkedHashMap<>();
+
+    /**
+     * True if a write is scheduled. Guarded by this.
+     */
+    private boolean mFlushScheduled;
+
+    /**
+     * Task that writes the pending positions.
+     */
+    private final Runnable mFlushTask = new Runnable() {
+        @Override
+        public void run() {
+
+            writePending();
+        }
+    };
+
+    /**
+     * Constructor.
+     *
+     * @param context          The context.
+     * @param database         The database the positions are written to.
+     * @param resumeStateCache The in-memory copy of the recent table.
+     */
+    PlaybackPositionJournal(Context context, ContentDatabaseHelper database,
+                            ResumeStateCache resumeStateCache) {
+
+        mDatabase = database;
+        mResumeStateCache = resumeStateCache;
+        context.getApplicationContext().registerComponentCallbacks(this);
+    }
+
+    /**
+     * Record the playback position of a content. The position replaces a pending position of the
+     * same content and is written to the database later.
+     *
+     * @param contentId         The content id.
+     * @param playbackLocation  The playback location.
+     * @param playbackCompleted True if the user played the whole content; false otherwise.
+     * @param lastWatchedTime   The time the content was watched in milliseconds (EPOCH).
+     */
+    public void record(String contentId, long playbackLocation, boolean playbackCompleted,
+                       long lastWatchedTime) {
+
+        if (StringManipulation.isNullOrEmpty(contentId)) {
+            Log.e(TAG, "Content id cannot be null when recording a playback position.");
+            return;
+        }
+        RecentRecord record = new RecentRecord(contentId, playbackLocation, playbackCompleted,
+                                               lastWatchedTime);
+        synchronized (this) {
+            mPending.put(contentId, record);
+            scheduleFlush();
+        }
+        mResumeStateCache.put(record);
+    }
+
+    /**
+     * Write the pending positions on the background thread without waiting.
+     *
+     * @return The future of the write.
+     */
+    public Future<?> flush() {
+
+        return mExecutor.submit(mFlushTask);
+    }
+
+    /**
+     * Write the pending positions and wait for the write to finish.
+     *
+     * @param timeoutMs Maximum time to wait in milliseconds.
+     * @return True if the write finished in time; false otherwise.
+     */
+    public boolean flushAndWait(long timeoutMs) {
+
+        try {
+            flush().get(timeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException | TimeoutException e) {
+            Log.e(TAG, "Playback positions were not written in time", e);
+        }
+        return false;
+    }
+
+    /**
+     * Get the pending position of a content.
+     *
+     * @param contentId The content id.
+     * @return The position that is not written yet, or null.
+     */
+    synchronized RecentRecord getPending(String contentId) {
+
+        return mPending.get(contentId);
+    }
+
+    /**
+     * Check whether a position is still pending, i.e. it was neither replaced nor dropped.
+     *
+     * @param record The position.
+     * @return True if the position is pending.
+     */
+    synchronized boolean isPending(RecentRecord record) {
+
+        return mPending.get(record.getContentId()) == record;
+    }
+
+    /**
+     * Drop the pending position of a content. A write in flight skips it as well.
+     *
+     * @param contentId The content id.
+     */
+    synchronized void discard(String contentId) {
+
+        mPending.remove(contentId);
+    }
+
+    /**
+     * Drop all pending positions. A write in flight skips them as well.
+     */
+    synchronized void discardAll() {
+
+        mPending.clear();
+    }
+
+    /**
+     * Schedule a write of the pending positions if none is scheduled. Must be called holding the
+     * lock of this.
+     */
+    private void scheduleFlush() {
+
+        if (!mFlushScheduled) {
+            mFlushScheduled = true;
+            mExecutor.schedule(mFlushTask, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Write the pending positions in one transaction. The positions stay pending while they are
+     * written and are only dropped if they were not replaced in the meantime. Positions dropped
+     * after they were taken, e.g. because the recent record was deleted, are not written. If the
+     * write fails they are retried with the next write.
+     */
+    private void writePending() {
+
+        List<RecentRecord> records;
+        synchronized (this) {
+            mFlushScheduled = false;
+            if (mPending.isEmpty()) {
+                return;
+            }
+            records = new ArrayList<>(mPending.values());
+        }
+        boolean written = mDatabase.addRecents(records);
+        synchronized (this) {
+            if (written) {
+                for (RecentRecord record : records) {
+                    if (mPending.get(record.getContentId()) == record) {
+                        mPending.remove(record.getContentId());
+                    }
+                }
+            }
+            else {
+                Log.e(TAG, "Unable to write " + records.size() + " playback positions, retrying");
+                scheduleFlush();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Writes the pending positions when the app is hidden. Once the process is in the background
+     * list it may be killed at any time, so the calling thread waits for the write.
+     */
+    @Override
+    public void onTrimMemory(int level) {
+
+        if (level >= TRIM_MEMORY_BACKGROUND) {
+            flushAndWait(FINAL_FLUSH_TIMEOUT_MS);
+        }
+        else if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            flush();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onLowMemory() {
+
+        flushAndWait(FINAL_FLUSH_TIMEOUT_MS);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+
+    }
+}
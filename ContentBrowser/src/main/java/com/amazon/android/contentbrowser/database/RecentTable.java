@@ -22,7 +22,9 @@ import android.database.sqlite.SQLiteDatabase;
 import android.provider.BaseColumns;
 import android.util.Log;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 /**
  * This class represents the database table that holds records for recently watched content. It
@@ -84,6 +86,14 @@ class RecentTable implements BaseColumns {
                     COLUMN_COMPLETED + " INTEGER, " +
                     COLUMN_EXPIRATION + " INTEGER, " +
                     COLUMN_LAST_WATCHED + " INTEGER)";
+
+    /**
+     * The string used in a SQL query to create the unique content id index.
+     */
+    static final String SQL_CREATE_CONTENT_ID_INDEX =
+            "CREATE UNIQUE INDEX IF NOT EXISTS " + TABLE_NAME + "_" + COLUMN_CONTENT_ID +
+                    " ON " + TABLE_NAME + " (" + COLUMN_CONTENT_ID + ")";
+
     /**
      * The string used in a SQL query to drop the table.
      */
@@ -101,6 +111,31 @@ class RecentTable implements BaseColumns {
             COLUMN_LAST_WATCHED +
             " FROM " + TABLE_NAME;
 
+    /**
+     * The string used in a SQL query to select the row id of a content id.
+     */
+    private static final String SQL_SELECT_ROW_ID_BY_CONTENT_ID = "SELECT " + _ID +
+            " FROM " + TABLE_NAME +
+            " WHERE " + COLUMN_CONTENT_ID + "=?";
+
+    /**
+     * The string used in a SQL query to select all the columns of a content id.
+     */
+    private static final String SQL_SELECT_BY_CONTENT_ID = SQL_SELECT_ALL_COLUMNS +
+            " WHERE " + COLUMN_CONTENT_ID + "=?";
+
+    /**
+     * Create the indexes of the table. Duplicate content ids written before the indexes existed
+     * are removed first, keeping the last written record.
+     *
+     * @param db The database.
+     */
+    static void createIndexes(SQLiteDatabase db) {
+
+        DatabaseUtil.deleteDuplicates(db, TABLE_NAME, _ID, COLUMN_CONTENT_ID);
+        db.execSQL(SQL_CREATE_CONTENT_ID_INDEX);
+    }
+
     /**
      * Find a record in the database containing the given content id.
      *
@@ -110,14 +145,12 @@ class RecentTable implements BaseColumns {
      */
     static long findRowId(SQLiteDatabase db, String contentId) {
 
-        return DatabaseUtil.findRowId(db, "SELECT " + _ID +
-                " FROM " + TABLE_NAME +
-                " WHERE " + COLUMN_CONTENT_ID + "='" + contentId + "' ");
+        return DatabaseUtil.findRowId(db, SQL_SELECT_ROW_ID_BY_CONTENT_ID, contentId);
     }
 
     /**
-     * Writes a recent record to the database. It first tries to find an existing record to update.
-     * If no record was found, a new record is inserted into the database.
+     * Writes a recent record to the database. It first tries to update the existing record of the
+     * content id. If no record was found, a new record is inserted into the database.
      *
      * @param db     The database.
      * @param record The recent record to write.
@@ -138,14 +171,12 @@ class RecentTable implements BaseColumns {
         contentValues.put(COLUMN_EXPIRATION, expiration.getTime());// 12 days (in seconds)
         contentValues.put(COLUMN_LAST_WATCHED, record.getLastWatched());
 
-        // Check if the row exists
-        long rowId = findRowId(db, record.getContentId());
-        if (rowId == -1) {
+        // Update the row if it exists, the content id index finds it.
+        long rowId = db.update(TABLE_NAME, contentValues, COLUMN_CONTENT_ID + "=?",
+                               new String[]{record.getContentId()});
+        if (rowId == 0) {
             rowId = db.insert(TABLE_NAME, null, contentValues);
         }
-        else {
-            rowId = db.update(TABLE_NAME, contentValues, _ID + "=" + rowId, null);
-        }
 
         return rowId;
     }
@@ -172,21 +203,13 @@ class RecentTable implements BaseColumns {
      */
     static RecentRecord read(SQLiteDatabase db, String contentId) {
 
-        Cursor cursor = db.rawQuery(SQL_SELECT_ALL_COLUMNS + " WHERE " + COLUMN_CONTENT_ID + "='" +
-                                            contentId + "' ", null);
+        Cursor cursor = db.rawQuery(SQL_SELECT_BY_CONTENT_ID, new String[]{contentId});
 
         RecentRecord record = null;
 
-        int column = 1; // skipping 0 since that's the row id and we don't need it right now.
-
         if (cursor != null && cursor.moveToFirst()) {
 
-            record = new RecentRecord();
-
-            record.setContentId(cursor.getString(column++));
-            record.setPlaybackLocation(cursor.getLong(column++));
-            record.setPlaybackComplete(cursor.getInt(column++) > 0);
-            record.setLastWatched(cursor.getLong(column));
+            record = readRecord(cursor);
 
             Log.d(TAG, "read record: " + record.toString());
         }
@@ -198,6 +221,46 @@ class RecentTable implements BaseColumns {
         return record;
     }
 
+    /**
+     * Read all recent records from the database with one query.
+     *
+     * @param db The database.
+     * @return The recent records.
+     */
+    static List<RecentRecord> readAll(SQLiteDatabase db) {
+
+        Cursor cursor = db.rawQuery(SQL_SELECT_ALL_COLUMNS, null);
+        List<RecentRecord> records = new ArrayList<>();
+        if (cursor != null) {
+            while (cursor.moveToNext()) {
+                records.add(readRecord(cursor));
+            }
+            cursor.close();
+        }
+        return records;
+    }
+
+    /**
+     * Read the recent record at the current position of a cursor that selects all the columns.
+     *
+     * @param cursor The cursor.
+     * @return The recent record.
+     */
+    private static RecentRecord readRecord(Cursor cursor) {
+
+        RecentRecord record = new RecentRecord();
+
+        int column = 1; // skipping 0 since that's the row id and we don't need it right now.
+
+        record.setContentId(cursor.getString(column++));
+        record.setPlaybackLocation(cursor.getLong(column++));
+        record.setPlaybackComplete(cursor.getInt(column++) > 0);
+        column++; // skipping the expiration.
+        record.setLastWatched(cursor.getLong(column));
+
+        return record;
+    }
+
     /**
      * Deletes all records in the table.
      *
@@ -0,0 +1,133 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A set of recommendation record changes that is written to the database in one transaction with
+ * {@link ContentDatabaseHelper#applyRecommendationBatch(RecommendationBatch)}. Updates are applied
+ * first, then deletes, then inserts.
+ */
+public class RecommendationBatch {
+
+    /**
+     * Records to write as new recommendations.
+     */
+    private final List<RecommendationRecord> mInserts = new ArrayList<>();
+
+    /**
+     * Records to update.
+     */
+    private final List<RecommendationRecord> mUpdates = new ArrayList<>();
+
+    /**
+     * Recommendation ids of the records to delete.
+     */
+    private final List<Integer> mDeletes = new ArrayList<>();
+
+    /**
+     * Add a new recommendation. If a record with the same content id exists, it is updated
+     * instead.
+     *
+     * @param contentId        The content id.
+     * @param recommendationId The recommendation id.
+     * @param type             The recommendation type.
+     * @return This batch.
+     */
+    public RecommendationBatch insert(String contentId, int recommendationId, String type) {
+
+        mInserts.add(new RecommendationRecord(contentId, recommendationId, type));
+        return this;
+    }
+
+    /**
+     * Add a new recommendation. If a record with the same content id exists, it is updated
+     * instead.
+     *
+     * @param record The record.
+     * @return This batch.
+     */
+    public RecommendationBatch insert(RecommendationRecord record) {
+
+        mInserts.add(record);
+        return this;
+    }
+
+    /**
+     * Update a recommendation, found by its content id.
+     *
+     * @param record The record.
+     * @return This batch.
+     */
+    public RecommendationBatch update(RecommendationRecord record) {
+
+        mUpdates.add(record);
+        return this;
+    }
+
+    /**
+     * Delete a recommendation.
+     *
+     * @param recommendationId The recommendation id.
+     * @return This batch.
+     */
+    public RecommendationBatch delete(int recommendationId) {
+
+        mDeletes.add(recommendationId);
+        return this;
+    }
+
+    /**
+     * Check whether the batch has no changes.
+     *
+     * @return True if there are no changes; false otherwise.
+     */
+    public boolean isEmpty() {
+
+        return mInserts.isEmpty() && mUpdates.isEmpty() && mDeletes.isEmpty();
+    }
+
+    /**
+     * Get the records to insert.
+     *
+     * @return The records.
+     */
+    List<RecommendationRecord> getInserts() {
+
+        return mInserts;
+    }
+
+    /**
+     * Get the records to update.
+     *
+     * @return The records.
+     */
+    List<RecommendationRecord> getUpdates() {
+
+        return mUpdates;
+    }
+
+    /**
+     * Get the recommendation ids of the records to delete.
+     *
+     * @return The recommendation ids.
+     */
+    List<Integer> getDeletes() {
+
+        return mDeletes;
+    }
+}
@@ -45,6 +45,11 @@ public class RecommendationRecord {
      */
     private String mType;
 
+    /**
+     * Fingerprint of the data the posted notification was built from, null if unknown.
+     */
+    private String mFingerprint;
+
     /**
      * The recommendation record constructor.
      */
@@ -126,6 +131,26 @@ public class RecommendationRecord {
         mType = type;
     }
 
+    /**
+     * Get the fingerprint of the data the posted notification was built from.
+     *
+     * @return The fingerprint, or null if it is unknown.
+     */
+    public String getFingerprint() {
+
+        return mFingerprint;
+    }
+
+    /**
+     * Set the fingerprint of the data the posted notification was built from.
+     *
+     * @param fingerprint The fingerprint.
+     */
+    public void setFingerprint(String fingerprint) {
+
+        mFingerprint = fingerprint;
+    }
+
     @Override
     public boolean equals(Object object) {
 
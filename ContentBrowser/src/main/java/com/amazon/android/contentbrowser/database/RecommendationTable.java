@@ -19,6 +19,7 @@ import com.amazon.utils.DateAndTimeHelper;
 import android.content.ContentValues;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 import android.provider.BaseColumns;
 import android.util.Log;
 
@@ -64,6 +65,11 @@ class RecommendationTable implements BaseColumns {
      */
     private static final String COLUMN_EXPIRATION = "expiration";
 
+    /**
+     * The fingerprint column. Fingerprint of the data the posted notification was built from.
+     */
+    private static final String COLUMN_FINGERPRINT = "fingerprint";
+
     /**
      * Time to live value for database records in seconds. (5 days)
      */
@@ -78,7 +84,15 @@ class RecommendationTable implements BaseColumns {
                     COLUMN_CONTENT_ID + " TEXT, " +
                     COLUMN_RECOMMENDATION_ID + " INTEGER, " +
                     COLUMN_TYPE + " TEXT, " +
-                    COLUMN_EXPIRATION + " INTEGER)";
+                    COLUMN_EXPIRATION + " INTEGER, " +
+                    COLUMN_FINGERPRINT + " TEXT)";
+
+    /**
+     * The string used in a SQL query to add the fingerprint column to a table of database
+     * version 1.
+     */
+    static final String SQL_ADD_FINGERPRINT_COLUMN =
+            "ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + COLUMN_FINGERPRINT + " TEXT";
 
     /**
      * The string used to select the recommendation id column.
@@ -95,40 +109,112 @@ class RecommendationTable implements BaseColumns {
             COLUMN_CONTENT_ID + ", " +
             COLUMN_RECOMMENDATION_ID + ", " +
             COLUMN_TYPE + ", " +
-            COLUMN_EXPIRATION +
+            COLUMN_EXPIRATION + ", " +
+            COLUMN_FINGERPRINT +
             " FROM " + TABLE_NAME;
 
     /**
-     * Returns a query string that selects the given type of recommendations from the database
-     * in ascending order.
-     *
-     * @param type The recommendation type.
-     * @return The SQL query.
+     * The string used in a SQL query to select the given type of recommendations in ascending
+     * order of expiration.
      */
-    static String getRecommendationTableSelectTypeQuery(String type) {
+    private static final String SQL_SELECT_BY_TYPE = SQL_SELECT_ALL_COLUMNS +
+            " WHERE " + COLUMN_TYPE + "=?" +
+            " ORDER BY " + COLUMN_EXPIRATION + " ASC";
 
-        return SQL_SELECT_ALL_COLUMNS +
-                " WHERE " + COLUMN_TYPE + "='" +
-                type + "' ORDER BY " + COLUMN_EXPIRATION + " ASC ";
-    }
+    /**
+     * The string used in a SQL query to select expired recommendations.
+     */
+    private static final String SQL_SELECT_EXPIRED = SQL_SELECT_ALL_COLUMNS +
+            " WHERE " + COLUMN_EXPIRATION + "<=?";
 
     /**
-     * Returns a query string that selects expired recommendations.
-     *
-     * @param currentTime The time to use to calculate if the recommendation is expired.
-     * @return The SQL query.
+     * The string used in a SQL query to select all the columns of a content id.
      */
-    private static String getSqlSelectExpiredQuery(long currentTime) {
+    private static final String SQL_SELECT_BY_CONTENT_ID = SQL_SELECT_ALL_COLUMNS +
+            " WHERE " + COLUMN_CONTENT_ID + "=?";
 
-        return SQL_SELECT_ALL_COLUMNS +
-                " WHERE " + COLUMN_EXPIRATION + " - " + currentTime + " <= 0";
-    }
+    /**
+     * The string used in a SQL query to select all the columns of a recommendation id.
+     */
+    private static final String SQL_SELECT_BY_REC_ID = SQL_SELECT_ALL_COLUMNS +
+            " WHERE " + COLUMN_RECOMMENDATION_ID + "=?";
+
+    /**
+     * The string used in a SQL query to select the row id of a content id.
+     */
+    private static final String SQL_SELECT_ROW_ID_BY_CONTENT_ID = "SELECT " + _ID +
+            " FROM " + TABLE_NAME +
+            " WHERE " + COLUMN_CONTENT_ID + "=?";
+
+    /**
+     * The string used in a SQL query to select the row id of a recommendation id.
+     */
+    private static final String SQL_SELECT_ROW_ID_BY_REC_ID = "SELECT " + _ID +
+            " FROM " + TABLE_NAME +
+            " WHERE " + COLUMN_RECOMMENDATION_ID + "=?";
+
+    /**
+     * The string used in a SQL query to create the unique content id index.
+     */
+    static final String SQL_CREATE_CONTENT_ID_INDEX =
+            "CREATE UNIQUE INDEX IF NOT EXISTS " + TABLE_NAME + "_" + COLUMN_CONTENT_ID +
+                    " ON " + TABLE_NAME + " (" + COLUMN_CONTENT_ID + ")";
+
+    /**
+     * The string used in a SQL query to create the unique recommendation id index.
+     */
+    static final String SQL_CREATE_REC_ID_INDEX =
+            "CREATE UNIQUE INDEX IF NOT EXISTS " + TABLE_NAME + "_" + COLUMN_RECOMMENDATION_ID +
+                    " ON " + TABLE_NAME + " (" + COLUMN_RECOMMENDATION_ID + ")";
+
+    /**
+     * The statement used to update a record by content id. A record that has the recommendation
+     * id is replaced, recommendation ids are unique.
+     */
+    private static final String SQL_UPDATE_BY_CONTENT_ID = "UPDATE OR REPLACE " + TABLE_NAME +
+            " SET " +
+            COLUMN_RECOMMENDATION_ID + "=?, " +
+            COLUMN_TYPE + "=?, " +
+            COLUMN_EXPIRATION + "=?, " +
+            COLUMN_FINGERPRINT + "=?" +
+            " WHERE " + COLUMN_CONTENT_ID + "=?";
+
+    /**
+     * The statement used to insert a record. A record that has the recommendation id is
+     * replaced, recommendation ids are unique.
+     */
+    private static final String SQL_INSERT = "INSERT OR REPLACE INTO " + TABLE_NAME + " (" +
+            COLUMN_CONTENT_ID + ", " +
+            COLUMN_RECOMMENDATION_ID + ", " +
+            COLUMN_TYPE + ", " +
+            COLUMN_EXPIRATION + ", " +
+            COLUMN_FINGERPRINT + ") VALUES (?, ?, ?, ?, ?)";
+
+    /**
+     * The statement used to delete a record by recommendation id.
+     */
+    private static final String SQL_DELETE_BY_REC_ID = "DELETE FROM " + TABLE_NAME +
+            " WHERE " + COLUMN_RECOMMENDATION_ID + "=?";
 
     /**
      * The string used in a SQL query to drop the table.
      */
     static final String SQL_DROP_TABLE = "DROP TABLE IF EXISTS " + TABLE_NAME;
 
+    /**
+     * Create the indexes of the table. Duplicate content ids and recommendation ids written
+     * before the indexes existed are removed first, keeping the last written record.
+     *
+     * @param db The database.
+     */
+    static void createIndexes(SQLiteDatabase db) {
+
+        DatabaseUtil.deleteDuplicates(db, TABLE_NAME, _ID, COLUMN_CONTENT_ID);
+        DatabaseUtil.deleteDuplicates(db, TABLE_NAME, _ID, COLUMN_RECOMMENDATION_ID);
+        db.execSQL(SQL_CREATE_CONTENT_ID_INDEX);
+        db.execSQL(SQL_CREATE_REC_ID_INDEX);
+    }
+
     /**
      * Find the record in the database containing the content id.
      *
@@ -138,9 +224,7 @@ class RecommendationTable implements BaseColumns {
      */
     static long findRowId(SQLiteDatabase db, String contentId) {
 
-        return DatabaseUtil.findRowId(db, "SELECT " + _ID +
-                " FROM " + TABLE_NAME +
-                " WHERE " + COLUMN_CONTENT_ID + "='" + contentId + "' ");
+        return DatabaseUtil.findRowId(db, SQL_SELECT_ROW_ID_BY_CONTENT_ID, contentId);
     }
 
     /**
@@ -152,17 +236,15 @@ class RecommendationTable implements BaseColumns {
      */
     static long findRowId(SQLiteDatabase db, long recommendationId) {
 
-        return DatabaseUtil.findRowId(db, "SELECT " + _ID +
-                " FROM " + TABLE_NAME +
-                " WHERE " + COLUMN_RECOMMENDATION_ID + "='"
-                + recommendationId + "' ");
+        return DatabaseUtil.findRowId(db, SQL_SELECT_ROW_ID_BY_REC_ID,
+                                      String.valueOf(recommendationId));
     }
 
     /**
      * Writes a recommendation record to the database. This method adds the expiration to the
-     * record. It tries to find an existing row in the database based on content id. If the row
-     * exists, the record is just updated with the new info. If the row does not exist, a new row
-     * is inserted in the database.
+     * record. It tries to update the existing row of the content id. If the row does not exist, a
+     * new row is inserted in the database. A row that has the recommendation id of the record is
+     * replaced, recommendation ids are unique.
      *
      * @param db             The database.
      * @param recommendation The recommendation to write.
@@ -175,25 +257,122 @@ class RecommendationTable implements BaseColumns {
         contentValues.put(COLUMN_CONTENT_ID, recommendation.getContentId());
         contentValues.put(COLUMN_RECOMMENDATION_ID, recommendation.getRecommendationId());
         contentValues.put(COLUMN_TYPE, recommendation.getType());
+        contentValues.put(COLUMN_FINGERPRINT, recommendation.getFingerprint());
 
         int ttl = RECORD_TTL;
         Date expiration = DateAndTimeHelper.addSeconds(DateAndTimeHelper.getCurrentDate(), ttl);
         contentValues.put(COLUMN_EXPIRATION, expiration.getTime());
 
-        // Check if the row exists
-        long rowId = findRowId(db, recommendation.getContentId());
-        if (rowId == -1) {
-            rowId = db.insert(TABLE_NAME, null, contentValues);
+        // Update the row if it exists, the content id index finds it.
+        long rowId = db.updateWithOnConflict(TABLE_NAME, contentValues, COLUMN_CONTENT_ID + "=?",
+                                             new String[]{recommendation.getContentId()},
+                                             SQLiteDatabase.CONFLICT_REPLACE);
+        if (rowId == 0) {
+            rowId = db.insertWithOnConflict(TABLE_NAME, null, contentValues,
+                                            SQLiteDatabase.CONFLICT_REPLACE);
             Log.d(TAG, "record inserted to database: " + recommendation.toString());
         }
         else {
-            rowId = db.update(TABLE_NAME, contentValues, _ID + "=" + rowId, null);
             Log.d(TAG, "record updated in database: " + recommendation.toString());
         }
 
         return rowId;
     }
 
+    /**
+     * Writes a batch of recommendation changes with compiled statements. Records are written like
+     * {@link #write(SQLiteDatabase, RecommendationRecord)} does, by content id. The caller owns
+     * the transaction the batch is written in.
+     *
+     * @param db    The database.
+     * @param batch The changes.
+     */
+    static void applyBatch(SQLiteDatabase db, RecommendationBatch batch) {
+
+        long expiration = DateAndTimeHelper.addSeconds(DateAndTimeHelper.getCurrentDate(),
+                                                       RECORD_TTL).getTime();
+        SQLiteStatement update = db.compileStatement(SQL_UPDATE_BY_CONTENT_ID);
+        SQLiteStatement insert = db.compileStatement(SQL_INSERT);
+        SQLiteStatement delete = db.compileStatement(SQL_DELETE_BY_REC_ID);
+        try {
+            for (RecommendationRecord record : batch.getUpdates()) {
+                write(update, insert, record, expiration);
+            }
+            for (Integer recommendationId : batch.getDeletes()) {
+                delete.bindLong(1, recommendationId);
+                delete.executeUpdateDelete();
+            }
+            for (RecommendationRecord record : batch.getInserts()) {
+                write(update, insert, record, expiration);
+            }
+        }
+        finally {
+            update.close();
+            insert.close();
+            delete.close();
+        }
+        Log.d(TAG, "batch written to database: " + batch.getUpdates().size() + " updated, " +
+                batch.getDeletes().size() + " deleted, " + batch.getInserts().size() +
+                " inserted");
+    }
+
+    /**
+     * Writes a recommendation record with compiled statements. The record with the same content
+     * id is updated, a new row is inserted if there is none.
+     *
+     * @param update         The update by content id statement.
+     * @param insert         The insert statement.
+     * @param recommendation The recommendation to write.
+     * @param expiration     The expiration of the record.
+     */
+    private static void write(SQLiteStatement update, SQLiteStatement insert,
+                              RecommendationRecord recommendation, long expiration) {
+
+        update.bindLong(1, recommendation.getRecommendationId());
+        update.bindString(2, recommendation.getType());
+        update.bindLong(3, expiration);
+        bindNullableString(update, 4, recommendation.getFingerprint());
+        update.bindString(5, recommendation.getContentId());
+        if (update.executeUpdateDelete() == 0) {
+            insert.bindString(1, recommendation.getContentId());
+            insert.bindLong(2, recommendation.getRecommendationId());
+            insert.bindString(3, recommendation.getType());
+            insert.bindLong(4, expiration);
+            bindNullableString(insert, 5, recommendation.getFingerprint());
+            insert.executeInsert();
+        }
+    }
+
+    /**
+     * Bind a string that may be null to a statement.
+     *
+     * @param statement The statement.
+     * @param index     The index of the parameter.
+     * @param value     The value.
+     */
+    private static void bindNullableString(SQLiteStatement statement, int index, String value) {
+
+        if (value == null) {
+            statement.bindNull(index);
+        }
+        else {
+            statement.bindString(index, value);
+        }
+    }
+
+    /**
+     * Clear the fingerprints of all records, so their notifications are posted again on the next
+     * update.
+     *
+     * @param db The database.
+     */
+    static void clearFingerprints(SQLiteDatabase db) {
+
+        ContentValues contentValues = new ContentValues();
+        contentValues.putNull(COLUMN_FINGERPRINT);
+        db.update(TABLE_NAME, contentValues, null, null);
+    }
+
     /**
      * Delete the record by content id.
      *
@@ -216,8 +395,8 @@ class RecommendationTable implements BaseColumns {
      */
     static boolean delete(SQLiteDatabase db, long recommendationId) {
 
-        int affectedRows = db.delete(TABLE_NAME, COLUMN_RECOMMENDATION_ID + "=" +
-                recommendationId + " ", null);
+        int affectedRows = db.delete(TABLE_NAME, COLUMN_RECOMMENDATION_ID + "=?",
+                                     new String[]{String.valueOf(recommendationId)});
         Log.d(TAG, "deleting recommendation with id " + recommendationId);
         return (affectedRows > 0);
     }
@@ -232,7 +411,7 @@ class RecommendationTable implements BaseColumns {
     static boolean deleteRecommendationAllWithType(SQLiteDatabase db, String type) {
 
         Log.d(TAG, "deleting all recommendation records with type " + type);
-        int affectedRows = db.delete(TABLE_NAME, COLUMN_TYPE + "='" + type + "' ", null);
+        int affectedRows = db.delete(TABLE_NAME, COLUMN_TYPE + "=?", new String[]{type});
 
         return (affectedRows > 0);
     }
@@ -246,8 +425,7 @@ class RecommendationTable implements BaseColumns {
      */
     static RecommendationRecord read(SQLiteDatabase db, String contentId) {
 
-        Cursor cursor = db.rawQuery(SQL_SELECT_ALL_COLUMNS + " WHERE " + COLUMN_CONTENT_ID + "='" +
-                                            contentId + "' ", null);
+        Cursor cursor = db.rawQuery(SQL_SELECT_BY_CONTENT_ID, new String[]{contentId});
 
         return readRecommendationRecord(cursor);
     }
@@ -261,8 +439,8 @@ class RecommendationTable implements BaseColumns {
      */
     static RecommendationRecord read(SQLiteDatabase db, long recommendationId) {
 
-        Cursor cursor = db.rawQuery(SQL_SELECT_ALL_COLUMNS + " WHERE " + COLUMN_RECOMMENDATION_ID
-                                            + "=" + recommendationId + " ", null);
+        Cursor cursor = db.rawQuery(SQL_SELECT_BY_REC_ID,
+                                    new String[]{String.valueOf(recommendationId)});
 
         return readRecommendationRecord(cursor);
     }
@@ -272,13 +450,15 @@ class RecommendationTable implements BaseColumns {
      *
      * @param db    The database.
      * @param query The query
+     * @param args  The arguments bound to the query.
      * @return List of recommendation records.
      */
-    static List<RecommendationRecord> readMultipleRecords(SQLiteDatabase db, String query) {
+    private static List<RecommendationRecord> readMultipleRecords(SQLiteDatabase db, String query,
+                                                                  String... args) {
 
         List<RecommendationRecord> records = new ArrayList<>();
 
-        Cursor cursor = db.rawQuery(query, null);
+        Cursor cursor = db.rawQuery(query, args);
 
         if (cursor != null && cursor.moveToFirst()) {
 
@@ -337,7 +517,9 @@ class RecommendationTable implements BaseColumns {
 
         record.setContentId(cursor.getString(column++));
         record.setRecommendationId(cursor.getInt(column++));
-        record.setType(cursor.getString(column));
+        record.setType(cursor.getString(column++));
+        column++; // skipping the expiration.
+        record.setFingerprint(cursor.getString(column));
 
         Log.d(TAG, "read record: " + record.toString());
 
@@ -403,7 +585,19 @@ class RecommendationTable implements BaseColumns {
     static List<RecommendationRecord> getExpiredRecommendations(SQLiteDatabase db,
                                                                 long currentTime) {
 
-        return readMultipleRecords(db, getSqlSelectExpiredQuery(currentTime));
+        return readMultipleRecords(db, SQL_SELECT_EXPIRED, String.valueOf(currentTime));
+    }
+
+    /**
+     * Read the recommendation records of the given type in ascending order of expiration.
+     *
+     * @param db   The database.
+     * @param type The recommendation type.
+     * @return List of recommendation records.
+     */
+    static List<RecommendationRecord> readRecordsWithType(SQLiteDatabase db, String type) {
+
+        return readMultipleRecords(db, SQL_SELECT_BY_TYPE, type);
     }
 
     /**
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.database;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * In-memory copy of the {@link RecentTable}, keyed by content id. All records are read with one
+ * query the first time the cache is used, or earlier with {@link #load(SQLiteDatabase)}, after
+ * which playback progress is read without touching the database.
+ *
+ * The cache is write-through: every change of the recent table goes through the cache. Changes
+ * made before the cache is loaded are newer than the database and are kept by the load.
+ */
+class ResumeStateCache {
+
+    /**
+     * Debug tag.
+     */
+    private static final String TAG = ResumeStateCache.class.getSimpleName();
+
+    /**
+     * Records by content id. Guarded by this.
+     */
+    private final HashMap<String, RecentRecord> mRecords = new HashMap<>();
+
+    /**
+     * True once the records were read from the database. Guarded by this.
+     */
+    private boolean mLoaded;
+
+    /**
+     * Read all records from the database if they were not read yet.
+     *
+     * @param db The database.
+     */
+    synchronized void load(SQLiteDatabase db) {
+
+        if (mLoaded) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        List<RecentRecord> records = RecentTable.readAll(db);
+        for (RecentRecord record : records) {
+            if (!mRecords.containsKey(record.getContentId())) {
+                mRecords.put(record.getContentId(), record);
+            }
+        }
+        mLoaded = true;
+        Log.d(TAG, "Loaded " + records.size() + " recent records in " +
+                (System.currentTimeMillis() - startTime) + "ms");
+    }
+
+    /**
+     * Get the record of a content. The returned record is shared and must not be modified.
+     *
+     * @param db        The database, read if the cache is not loaded yet.
+     * @param contentId The content id.
+     * @return The record, or null if there is none.
+     */
+    synchronized RecentRecord get(SQLiteDatabase db, String contentId) {
+
+        load(db);
+        return mRecords.get(contentId);
+    }
+
+    /**
+     * Store the record of a content.
+     *
+     * @param record The record.
+     */
+    synchronized void put(RecentRecord record) {
+
+        mRecords.put(record.getContentId(), record);
+    }
+
+    /**
+     * Remove the record of a content.
+     *
+     * @param contentId The content id.
+     */
+    synchronized void remove(String contentId) {
+
+        mRecords.remove(contentId);
+    }
+
+    /**
+     * Remove all records. The cache stays loaded, the database is empty as well.
+     */
+    synchronized void clear() {
+
+        mRecords.clear();
+        mLoaded = true;
+    }
+
+    /**
+     * Drop all records, they are read again from the database on the next use.
+     */
+    synchronized void invalidate() {
+
+        mRecords.clear();
+        mLoaded = false;
+    }
+}
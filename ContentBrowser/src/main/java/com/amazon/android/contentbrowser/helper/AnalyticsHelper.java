@@ -16,7 +16,6 @@
 package com.amazon.android.contentbrowser.helper;
 
 import com.amazon.analytics.ExtraContentAttributes;
-import com.amazon.analytics.IAnalytics;
 import com.amazon.android.contentbrowser.ContentBrowser;
 import com.amazon.android.contentbrowser.R;
 import com.amazon.android.contentbrowser.app.ContentBrowserApplication;
@@ -114,7 +113,8 @@ public class AnalyticsHelper {
     }
 
     /**
-     * Send the data to the analytics module.
+     * Send the data to the analytics module. The data is queued and delivered on the analytics
+     * dispatcher's thread, this method does not wait for the analytics implementation.
      *
      * @param data Data to send to the analytics module.
      */
@@ -122,15 +122,10 @@ public class AnalyticsHelper {
 
         // This check is made in case AnalyticsManager is not used. This is possible when we
         // try to test individual components that rely on ContentBrowser.
-        if (AnalyticsManager.getInstance(ContentBrowserApplication.getInstance()) != null) {
-
-            IAnalytics analyticsInterface =
-                    AnalyticsManager.getInstance(ContentBrowserApplication.getInstance())
-                                    .getIAnalytics();
-
-            if (analyticsInterface != null) {
-                analyticsInterface.trackAction(data);
-            }
+        AnalyticsManager analyticsManager =
+                AnalyticsManager.getInstance(ContentBrowserApplication.getInstance());
+        if (analyticsManager != null && analyticsManager.getIAnalytics() != null) {
+            analyticsManager.getDispatcher().dispatch(data);
         }
     }
 
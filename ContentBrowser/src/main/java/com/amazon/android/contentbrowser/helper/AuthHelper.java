@@ -43,12 +43,16 @@ import android.content.Intent;
 import android.content.IntentFilter;
 import android.graphics.drawable.ColorDrawable;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.support.v4.content.ContextCompat;
 import android.support.v4.content.LocalBroadcastManager;
 import android.util.Log;
 import android.view.View;
 import android.widget.ImageView;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import rx.Observable;
 import rx.Subscriber;
 import rx.operators.OperatorIfThen;
@@ -131,6 +135,12 @@ public class AuthHelper {
      */
     private static final String DEFAULT_MVPD_URL = "DEFAULT_MVPD_URL";
 
+    /**
+     * Time in milliseconds a successful resource authorization is reused without asking the
+     * authentication implementation again.
+     */
+    private static final long AUTHORIZATION_TTL_MS = 5 * 60 * 1000;
+
     /**
      * Authentication implementation reference.
      */
@@ -151,6 +161,12 @@ public class AuthHelper {
      */
     private final RxLauncher mRxLauncher = RxLauncher.getInstance();
 
+    /**
+     * Times of the successful resource authorizations by user and resource id, see
+     * {@link SystemClock#elapsedRealtime()}. Guarded by itself.
+     */
+    private final Map<String, Long> mAuthorizations = new HashMap<>();
+
     /**
      * Authorized handler interface.
      */
@@ -205,6 +221,9 @@ public class AuthHelper {
      */
     private void broadcastAuthenticationStatus(boolean authenticationStatus) {
 
+        if (!authenticationStatus) {
+            invalidateAuthorization();
+        }
         mContentBrowser.onAuthenticationStatusUpdateEvent(
                 new AuthenticationStatusUpdateEvent(authenticationStatus));
         EventBus.getDefault().post(new AuthenticationStatusUpdateEvent(authenticationStatus));
@@ -325,21 +344,35 @@ public class AuthHelper {
     }
 
     /**
-     * Is authorized Observable.
+     * Is authorized Observable for a resource. A successful authorization of the current user
+     * for the resource is reused for {@link #AUTHORIZATION_TTL_MS}.
      *
+     * @param resourceId The resource id.
      * @return RX Observable.
      */
-    public Observable<Bundle> isAuthorized() {
+    public Observable<Bundle> isAuthorized(String resourceId) {
 
+        String key = mIAuthentication.getUserId() + "/" + resourceId;
+        if (isAuthorizationCached(key)) {
+            Log.d(TAG, "Resource Authorization cached");
+            Bundle extras = new Bundle();
+            extras.putBoolean(RESULT, true);
+            return Observable.just(extras);
+        }
         return Observable.create(subscriber -> {
             // Check if user is logged in. If not, show authentication activity.
-            mIAuthentication.isResourceAuthorized(mAppContext, "",
+            mIAuthentication.isResourceAuthorized(mAppContext, resourceId,
                                                   new IAuthentication.ResponseHandler() {
                                                       @Override
                                                       public void onSuccess(Bundle extras) {
 
                                                           Log.d(TAG, "Resource Authorization " +
                                                                   "success");
+                                                          synchronized (mAuthorizations) {
+                                                              mAuthorizations.put(key,
+                                                                      SystemClock
+                                                                              .elapsedRealtime());
+                                                          }
                                                           handleSuccessCase(subscriber, extras);
                                                       }
 
@@ -348,12 +381,47 @@ public class AuthHelper {
 
                                                           Log.e(TAG, "Resource Authorization " +
                                                                   "failed");
+                                                          synchronized (mAuthorizations) {
+                                                              mAuthorizations.remove(key);
+                                                          }
                                                           handleFailureCase(subscriber, extras);
                                                       }
                                                   });
         });
     }
 
+    /**
+     * Check whether a successful resource authorization is cached and not expired.
+     *
+     * @param key The user and resource id.
+     * @return True if the authorization can be reused.
+     */
+    private boolean isAuthorizationCached(String key) {
+
+        synchronized (mAuthorizations) {
+            Long authorizedAt = mAuthorizations.get(key);
+            if (authorizedAt == null) {
+                return false;
+            }
+            if (SystemClock.elapsedRealtime() - authorizedAt < AUTHORIZATION_TTL_MS) {
+                return true;
+            }
+            mAuthorizations.remove(key);
+            return false;
+        }
+    }
+
+    /**
+     * Drop the cached resource authorizations, so the next check asks the authentication
+     * implementation again. Called when the user logs in or out.
+     */
+    public void invalidateAuthorization() {
+
+        synchronized (mAuthorizations) {
+            mAuthorizations.clear();
+        }
+    }
+
     /**
      * Handle authentication activity result bundle.
      *
@@ -406,6 +474,8 @@ public class AuthHelper {
                                   resultBundle = activityResult.data.getExtras();
                               }
                               handleAuthenticationActivityResultBundle(resultBundle);
+                              // A new login may be authorized for different resources.
+                              invalidateAuthorization();
 
                               if (resultBundle != null) {
                                   resultBundle.putBoolean(RESULT, activityResult.isOk());
@@ -419,9 +489,10 @@ public class AuthHelper {
     /**
      * Authenticate Observable.
      *
+     * @param resourceId Id of the resource to authorize once the user is authenticated.
      * @return RX Observable.
      */
-    private Observable<Bundle> authenticate() {
+    private Observable<Bundle> authenticate(String resourceId) {
 
         return isAuthenticated().flatMap(
                 // With isAuthenticated result bundle do
@@ -431,7 +502,7 @@ public class AuthHelper {
                                                   // isAuthorized.
                                                   () -> isAuthenticatedResultBundle.getBoolean
                                                           (RESULT),
-                                                  isAuthorized(),
+                                                  isAuthorized(resourceId),
                                                   // If isAuthenticated failed then do
                                                   // authenticateWithActivity.
                                                   // Warning!!! After this point all the
@@ -446,13 +517,14 @@ public class AuthHelper {
     /**
      * Handle Authentication Chain.
      *
+     * @param resourceId         Id of the resource the user needs to be authorized for.
      * @param iAuthorizedHandler Authorized handler.
      */
 
-    public void handleAuthChain(IAuthorizedHandler iAuthorizedHandler) {
+    public void handleAuthChain(String resourceId, IAuthorizedHandler iAuthorizedHandler) {
 
         // Check authentication first.
-        authenticate()
+        authenticate(resourceId)
                 .subscribe(resultBundle -> {
                     if(resultBundle == null) {
                         Log.w(TAG, "resultBundle is null, user probably pressed back on login screen");
@@ -462,16 +534,17 @@ public class AuthHelper {
                         // Check if we are authorized in upcoming activity context.
                         mContentBrowser
                                 .getNavigator()
-                                .runOnUpcomingActivity(() -> isAuthorized().subscribe(bundle -> {
-                                    // If we were authorized return success.
-                                    if (resultBundle.getBoolean(RESULT)) {
-                                        iAuthorizedHandler.onAuthorized(resultBundle);
-                                    }
-                                    else {
-                                        // If we were not authorized return show error.
-                                        handleErrorBundle(resultBundle);
-                                    }
-                                }));
+                                .runOnUpcomingActivity(() -> isAuthorized(resourceId)
+                                        .subscribe(bundle -> {
+                                            // If we were authorized return success.
+                                            if (resultBundle.getBoolean(RESULT)) {
+                                                iAuthorizedHandler.onAuthorized(resultBundle);
+                                            }
+                                            else {
+                                                // If we were not authorized return show error.
+                                                handleErrorBundle(resultBundle);
+                                            }
+                                        }));
                     }
                     else if (resultBundle.getBoolean(RESULT)) {
                         // If we were logged in and authorized return success.
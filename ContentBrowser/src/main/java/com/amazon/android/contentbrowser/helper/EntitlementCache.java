@@ -0,0 +1,360 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.helper;
+
+import com.amazon.android.model.content.Content;
+import com.amazon.android.utils.Preferences;
+import com.zype.fire.api.ZypeApi;
+import com.zype.fire.api.ZypeSettings;
+import com.zype.fire.auth.ZypeAuthentication;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.text.TextUtils;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Caches the results of the Zype video entitlement check ('/videos/{video_id}/entitled') by
+ * consumer and video id. The entitlement of the contents in the focused row is checked in the
+ * background, so opening an already checked content does not wait for the network. Only
+ * definitive results are cached. They expire after {@link #ENTITLEMENT_TTL_MS} and are dropped
+ * when the user logs in or out or makes a purchase.
+ *
+ * All methods except {@link #clear()} must be called on the main thread. Retrofit delivers the
+ * callbacks of enqueued calls on the main thread as well, so the cache does not need any further
+ * synchronization.
+ */
+public class EntitlementCache {
+
+    /**
+     * Debug tag.
+     */
+    private static final String TAG = EntitlementCache.class.getSimpleName();
+
+    /**
+     * Time in milliseconds an entitlement result is considered fresh.
+     */
+    public static final long ENTITLEMENT_TTL_MS = 5 * 60 * 1000;
+
+    /**
+     * Time in milliseconds a row needs to keep the focus before the entitlement of its contents
+     * is checked. Avoids firing requests for every row the user scrolls over.
+     */
+    private static final long FOCUS_PREFETCH_DELAY_MS = 600;
+
+    /**
+     * Maximum number of entitlement checks started by a single row prefetch.
+     */
+    private static final int MAX_BATCH_SIZE = 10;
+
+    /**
+     * Maximum number of cached entitlement results.
+     */
+    private static final int MAX_ENTRIES = 200;
+
+    /**
+     * Response code of the entitlement check if the consumer is not entitled to the video.
+     */
+    private static final int HTTP_FORBIDDEN = 403;
+
+    /**
+     * Entitlement listener interface.
+     */
+    public interface IEntitlementListener {
+
+        /**
+         * Called when the entitlement of the content is known.
+         *
+         * @param entitled True if the consumer is entitled to the content.
+         */
+        void onEntitlementResolved(boolean entitled);
+    }
+
+    /**
+     * Main thread handler used to delay focus driven prefetches.
+     */
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Cache entries by consumer and video id, in access order.
+     */
+    private final Map<String, Entry> mEntries =
+            new LinkedHashMap<String, Entry>(MAX_ENTRIES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+
+                    return size() > MAX_ENTRIES;
+                }
+            };
+
+    /**
+     * Pending focus driven prefetch.
+     */
+    private Runnable mPendingRowPrefetch;
+
+    /**
+     * Entitlement check state of a single video.
+     */
+    private static class Entry {
+
+        /**
+         * The entitlement call.
+         */
+        Call<ResponseBody> call;
+
+        /**
+         * The result, null while the call is in flight.
+         */
+        Boolean entitled;
+
+        /**
+         * Time the result was received, see {@link SystemClock#elapsedRealtime()}.
+         */
+        long resolvedAt;
+
+        /**
+         * Listeners waiting for the call that is in flight.
+         */
+        final List<IEntitlementListener> waiters = new ArrayList<>();
+
+        boolean isFresh() {
+
+            return entitled != null
+                    && SystemClock.elapsedRealtime() - resolvedAt < ENTITLEMENT_TTL_MS;
+        }
+
+        boolean isInFlight() {
+
+            return entitled == null && call != null;
+        }
+    }
+
+    /**
+     * Check if the entitlement of a content needs to be known before its details are shown.
+     *
+     * @param content The content.
+     * @return True if the content requires a purchase and universal TVOD is enabled.
+     */
+    public static boolean isEntitlementRequired(Content content) {
+
+        return ZypeSettings.UNIVERSAL_TVOD
+                && content != null
+                && content.getExtraValueAsBoolean(Content.EXTRA_PURCHASE_REQUIRED);
+    }
+
+    /**
+     * Get the entitlement of a content. The listener is called right away if a fresh result is
+     * cached, otherwise when the request in flight or a new request completes. The result is also
+     * stored in the {@link Content#EXTRA_ENTITLED} extra of the content.
+     *
+     * @param content  The content.
+     * @param listener The listener.
+     */
+    public void getEntitlement(Content content, IEntitlementListener listener) {
+
+        String key = getKey(content.getId());
+        Entry entry = getValidEntry(key);
+        if (entry == null) {
+            entry = startRequest(key, content);
+        }
+        else if (entry.isFresh()) {
+            Log.d(TAG, "Using cached entitlement, videoId=" + content.getId());
+            content.setExtraValue(Content.EXTRA_ENTITLED, entry.entitled);
+            listener.onEntitlementResolved(entry.entitled);
+            return;
+        }
+        entry.waiters.add(listener);
+    }
+
+    /**
+     * Check the entitlement of the contents of a row once it has kept the focus for
+     * {@link #FOCUS_PREFETCH_DELAY_MS}. A later call replaces the pending one.
+     *
+     * @param contents The contents of the focused row.
+     */
+    public void prefetchOnFocus(List<Content> contents) {
+
+        cancelPendingPrefetch();
+        if (contents == null || contents.isEmpty()) {
+            return;
+        }
+        mPendingRowPrefetch = () -> {
+            mPendingRowPrefetch = null;
+            prefetch(contents);
+        };
+        mHandler.postDelayed(mPendingRowPrefetch, FOCUS_PREFETCH_DELAY_MS);
+    }
+
+    /**
+     * Cancel a pending focus driven prefetch.
+     */
+    public void cancelPendingPrefetch() {
+
+        if (mPendingRowPrefetch != null) {
+            mHandler.removeCallbacks(mPendingRowPrefetch);
+            mPendingRowPrefetch = null;
+        }
+    }
+
+    /**
+     * Check the entitlement of the contents that require it and are neither cached nor in flight.
+     * At most {@link #MAX_BATCH_SIZE} requests are started.
+     *
+     * @param contents The contents.
+     */
+    public void prefetch(List<Content> contents) {
+
+        int started = 0;
+        for (Content content : contents) {
+            if (started >= MAX_BATCH_SIZE) {
+                break;
+            }
+            if (!isEntitlementRequired(content) || TextUtils.isEmpty(content.getId())) {
+                continue;
+            }
+            String key = getKey(content.getId());
+            Entry entry = getValidEntry(key);
+            if (entry != null) {
+                if (entry.isFresh()) {
+                    content.setExtraValue(Content.EXTRA_ENTITLED, entry.entitled);
+                }
+                continue;
+            }
+            startRequest(key, content);
+            started++;
+        }
+        if (started > 0) {
+            Log.d(TAG, "Prefetching entitlement of " + started + " contents");
+        }
+    }
+
+    /**
+     * Drop all cached results, e.g. when the user logs in or out or makes a purchase. Requests in
+     * flight still notify their waiting listeners. May be called from any thread.
+     */
+    public void clear() {
+
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            mHandler.post(this::clear);
+            return;
+        }
+        cancelPendingPrefetch();
+        mEntries.clear();
+    }
+
+    /**
+     * Get the cache entry for a key if it is fresh or in flight. Stale entries are removed.
+     *
+     * @param key The cache key.
+     * @return The entry or null.
+     */
+    private Entry getValidEntry(String key) {
+
+        Entry entry = mEntries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isFresh() || entry.isInFlight()) {
+            return entry;
+        }
+        mEntries.remove(key);
+        return null;
+    }
+
+    /**
+     * Start an entitlement request and register its cache entry.
+     *
+     * @param key     The cache key.
+     * @param content The content.
+     * @return The new entry.
+     */
+    private Entry startRequest(String key, Content content) {
+
+        Entry entry = new Entry();
+        HashMap<String, String> params = new HashMap<>();
+        params.put(ZypeApi.ACCESS_TOKEN, Preferences.getString(ZypeAuthentication.ACCESS_TOKEN));
+        entry.call = ZypeApi.getInstance().getApi().checkVideoEntitlement(content.getId(), params);
+        mEntries.put(key, entry);
+        entry.call.enqueue(new Callback<ResponseBody>() {
+            @Override
+            public void onResponse(Call<ResponseBody> call, Response<ResponseBody> response) {
+
+                Log.d(TAG, "Check video entitlement: videoId=" + content.getId() + ", code=" +
+                        response.code());
+                // Only a success or a 403 is a definitive answer. Other errors, like an expired
+                // token or a server error, are not cached.
+                resolve(key, entry, content, response.isSuccessful(),
+                        response.isSuccessful() || response.code() == HTTP_FORBIDDEN);
+            }
+
+            @Override
+            public void onFailure(Call<ResponseBody> call, Throwable t) {
+
+                Log.e(TAG, "Check video entitlement failed, videoId=" + content.getId(), t);
+                // Network errors are not cached, the next attempt checks again.
+                resolve(key, entry, content, false, false);
+            }
+        });
+        return entry;
+    }
+
+    /**
+     * Store the result of a request and notify the waiting listeners.
+     *
+     * @param key      The cache key.
+     * @param entry    The entry of the request.
+     * @param content  The content.
+     * @param entitled The entitlement.
+     * @param cache    True to keep the result in the cache.
+     */
+    private void resolve(String key, Entry entry, Content content, boolean entitled,
+                         boolean cache) {
+
+        entry.entitled = entitled;
+        entry.resolvedAt = SystemClock.elapsedRealtime();
+        if (!cache && mEntries.get(key) == entry) {
+            mEntries.remove(key);
+        }
+        content.setExtraValue(Content.EXTRA_ENTITLED, entitled);
+        List<IEntitlementListener> waiters = new ArrayList<>(entry.waiters);
+        entry.waiters.clear();
+        for (IEntitlementListener waiter : waiters) {
+            waiter.onEntitlementResolved(entitled);
+        }
+    }
+
+    /**
+     * Get the cache key of a video for the current consumer.
+     *
+     * @param videoId The video id.
+     * @return The cache key.
+     */
+    private static String getKey(String videoId) {
+
+        return Preferences.getString(ZypeAuthentication.PREFERENCE_CONSUMER_ID) + "/" + videoId;
+    }
+}
@@ -30,6 +30,41 @@ import java.util.HashMap;
  */
 public class FontManager {
 
+    /**
+     * Directories the fonts are searched in.
+     */
+    private static final String[] FONT_DIRS = {"/system/fonts", "/system/font", "/data/fonts"};
+
+    /**
+     * All fonts of the system, enumerated with the first lookup that needed them.
+     */
+    private static HashMap<String, String> sFonts;
+
+    /**
+     * Find the absolute file name of a system font. Font files are usually named after the font,
+     * e.g. "Roboto-Light.ttf" for "Roboto Light", so that file is checked first; only if it does
+     * not exist or has another font name all fonts are enumerated, once per process.
+     *
+     * @param fontName The font literal name.
+     * @return The font absolute file name, or null if there is no such font.
+     */
+    public static synchronized String findFont(String fontName) {
+
+        if (sFonts == null) {
+            TTFAnalyzer analyzer = new TTFAnalyzer();
+            String fileName = fontName.replace(' ', '-') + ".ttf";
+            for (String fontdir : FONT_DIRS) {
+                String path = new File(fontdir, fileName).getAbsolutePath();
+                if (new File(path).exists() && fontName.equals(analyzer.getTtfFontName(path))) {
+                    return path;
+                }
+            }
+            HashMap<String, String> fonts = enumerateFonts();
+            sFonts = fonts != null ? fonts : new HashMap<>();
+        }
+        return sFonts.get(fontName);
+    }
+
     /**
      * This function enumerates all fonts on Android system.
      *
@@ -37,11 +72,10 @@ public class FontManager {
      */
     public static HashMap<String, String> enumerateFonts() {
 
-        String[] fontdirs = {"/system/fonts", "/system/font", "/data/fonts"};
         HashMap<String, String> fonts = new HashMap();
         TTFAnalyzer analyzer = new TTFAnalyzer();
 
-        for (String fontdir : fontdirs) {
+        for (String fontdir : FONT_DIRS) {
             File dir = new File(fontdir);
 
             if (!dir.exists())
@@ -0,0 +1,369 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.helper;
+
+import com.amazon.android.model.content.Content;
+import com.amazon.android.utils.Preferences;
+import com.zype.fire.api.IZypeApi;
+import com.zype.fire.api.Model.PlayerResponse;
+import com.zype.fire.api.Util.AdMacrosHelper;
+import com.zype.fire.api.ZypeApi;
+import com.zype.fire.api.ZypeSettings;
+import com.zype.fire.auth.ZypeAuthentication;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.text.TextUtils;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Resolves the Zype player data (stream url and ad schedule) of a video before the user presses
+ * play. A request is started when a content card keeps the focus for a moment or when the details
+ * screen is opened, and the result is kept for a short time that stays below the lifetime of the
+ * signed stream url. The playback screen then gets the player data via
+ * {@link #getPlayer(String, Callback)}, which answers from the cache, joins a request that is
+ * still in flight, or falls back to a regular request.
+ *
+ * All methods except {@link #clear()} must be called on the main thread. Retrofit delivers the
+ * callbacks of enqueued calls on the main thread as well, so the cache does not need any further
+ * synchronization.
+ */
+public class PlaybackPrefetcher {
+
+    /**
+     * Debug tag.
+     */
+    private static final String TAG = PlaybackPrefetcher.class.getSimpleName();
+
+    /**
+     * Time in milliseconds a resolved player response is considered fresh. The stream urls
+     * returned by the player endpoint are signed, so the cached response must expire well before
+     * the signature does.
+     */
+    public static final long PLAYER_RESPONSE_TTL_MS = 2 * 60 * 1000;
+
+    /**
+     * Time in milliseconds a content card needs to stay focused before its player data is
+     * prefetched. Avoids firing a request for every card the user scrolls over.
+     */
+    private static final long FOCUS_PREFETCH_DELAY_MS = 600;
+
+    /**
+     * Maximum number of cached player responses.
+     */
+    private static final int MAX_ENTRIES = 8;
+
+    /**
+     * The application context.
+     */
+    private final Context mContext;
+
+    /**
+     * Main thread handler used to delay focus driven prefetches.
+     */
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Cache entries by video id, in access order.
+     */
+    private final Map<String, Entry> mEntries =
+            new LinkedHashMap<String, Entry>(MAX_ENTRIES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+
+                    return size() > MAX_ENTRIES;
+                }
+            };
+
+    /**
+     * Pending focus driven prefetch.
+     */
+    private Runnable mPendingFocusPrefetch;
+
+    /**
+     * Player request state of a single video.
+     */
+    private static class Entry {
+
+        /**
+         * Access token the request was made with; the response depends on the consumer.
+         */
+        final String accessToken;
+
+        /**
+         * The player call.
+         */
+        Call<PlayerResponse> call;
+
+        /**
+         * The successful response, null while the call is in flight.
+         */
+        Response<PlayerResponse> response;
+
+        /**
+         * Time the response was received, see {@link SystemClock#elapsedRealtime()}.
+         */
+        long resolvedAt;
+
+        /**
+         * Callbacks waiting for the call that is in flight.
+         */
+        final List<Callback<PlayerResponse>> waiters = new ArrayList<>();
+
+        Entry(String accessToken) {
+
+            this.accessToken = accessToken;
+        }
+
+        boolean isFresh() {
+
+            return response != null
+                    && SystemClock.elapsedRealtime() - resolvedAt < PLAYER_RESPONSE_TTL_MS;
+        }
+
+        boolean isInFlight() {
+
+            return response == null && call != null;
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param context The context.
+     */
+    public PlaybackPrefetcher(Context context) {
+
+        mContext = context.getApplicationContext();
+    }
+
+    /**
+     * Prefetch the player data of a content once it has kept the focus for
+     * {@link #FOCUS_PREFETCH_DELAY_MS}. A later call replaces the pending one.
+     *
+     * @param content The focused content.
+     */
+    public void prefetchOnFocus(Content content) {
+
+        cancelPendingPrefetch();
+        if (content == null) {
+            return;
+        }
+        mPendingFocusPrefetch = () -> {
+            mPendingFocusPrefetch = null;
+            prefetch(content);
+        };
+        mHandler.postDelayed(mPendingFocusPrefetch, FOCUS_PREFETCH_DELAY_MS);
+    }
+
+    /**
+     * Cancel a pending focus driven prefetch.
+     */
+    public void cancelPendingPrefetch() {
+
+        if (mPendingFocusPrefetch != null) {
+            mHandler.removeCallbacks(mPendingFocusPrefetch);
+            mPendingFocusPrefetch = null;
+        }
+    }
+
+    /**
+     * Prefetch the player data of a content right away, unless a fresh response or a request in
+     * flight already exists for it.
+     *
+     * @param content The content.
+     */
+    public void prefetch(Content content) {
+
+        if (content == null || TextUtils.isEmpty(content.getId())) {
+            return;
+        }
+        Entry entry = getValidEntry(content.getId());
+        if (entry != null) {
+            return;
+        }
+        Log.d(TAG, "Prefetching player data, videoId=" + content.getId());
+        startRequest(content.getId());
+    }
+
+    /**
+     * Get the player data of a video. The callback receives the cached response if it is still
+     * fresh, or the response of the request in flight, or the response of a new request. A cached
+     * response is consumed by this call.
+     *
+     * @param videoId  The video id.
+     * @param callback The callback.
+     */
+    public void getPlayer(String videoId, Callback<PlayerResponse> callback) {
+
+        Entry entry = getValidEntry(videoId);
+        if (entry == null) {
+            entry = startRequest(videoId);
+        }
+        else if (entry.isFresh()) {
+            Log.d(TAG, "Using prefetched player data, videoId=" + videoId);
+            mEntries.remove(videoId);
+            callback.onResponse(entry.call, entry.response);
+            return;
+        }
+        else {
+            Log.d(TAG, "Joining player request in flight, videoId=" + videoId);
+        }
+        entry.waiters.add(callback);
+    }
+
+    /**
+     * Drop all cached player responses, e.g. when the user logs in or out. Requests in flight
+     * still notify their waiting callbacks. May be called from any thread.
+     */
+    public void clear() {
+
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            mHandler.post(this::clear);
+            return;
+        }
+        cancelPendingPrefetch();
+        mEntries.clear();
+    }
+
+    /**
+     * Get the cache entry of a video if it is fresh or in flight and was made for the current
+     * consumer. Stale entries are removed.
+     *
+     * @param videoId The video id.
+     * @return The entry or null.
+     */
+    private Entry getValidEntry(String videoId) {
+
+        Entry entry = mEntries.get(videoId);
+        if (entry == null) {
+            return null;
+        }
+        if (TextUtils.equals(entry.accessToken, getAccessToken())
+                && (entry.isFresh() || entry.isInFlight())) {
+            return entry;
+        }
+        mEntries.remove(videoId);
+        return null;
+    }
+
+    /**
+     * Start a player request and register its cache entry.
+     *
+     * @param videoId The video id.
+     * @return The new entry.
+     */
+    private Entry startRequest(String videoId) {
+
+        String accessToken = getAccessToken();
+        Entry entry = new Entry(accessToken);
+        entry.call = ZypeApi.getInstance().getApi()
+                            .getPlayer(IZypeApi.HEADER_USER_AGENT, videoId,
+                                       buildPlayerParams(accessToken));
+        mEntries.put(videoId, entry);
+        entry.call.enqueue(new Callback<PlayerResponse>() {
+            @Override
+            public void onResponse(Call<PlayerResponse> call, Response<PlayerResponse> response) {
+
+                if (response.isSuccessful() && response.body() != null
+                        && response.body().playerData != null) {
+                    entry.response = response;
+                    entry.resolvedAt = SystemClock.elapsedRealtime();
+                    // A waiting playback session consumes the response.
+                    if (!entry.waiters.isEmpty() && mEntries.get(videoId) == entry) {
+                        mEntries.remove(videoId);
+                    }
+                }
+                else if (mEntries.get(videoId) == entry) {
+                    // Errors like 403 depend on the user state, so they are never cached.
+                    mEntries.remove(videoId);
+                }
+                for (Callback<PlayerResponse> waiter : drainWaiters(entry)) {
+                    waiter.onResponse(call, response);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<PlayerResponse> call, Throwable t) {
+
+                Log.e(TAG, "Player request failed, videoId=" + videoId, t);
+                if (mEntries.get(videoId) == entry) {
+                    mEntries.remove(videoId);
+                }
+                for (Callback<PlayerResponse> waiter : drainWaiters(entry)) {
+                    waiter.onFailure(call, t);
+                }
+            }
+        });
+        return entry;
+    }
+
+    /**
+     * Take the waiting callbacks out of an entry.
+     *
+     * @param entry The entry.
+     * @return The callbacks that were waiting.
+     */
+    private static List<Callback<PlayerResponse>> drainWaiters(Entry entry) {
+
+        List<Callback<PlayerResponse>> waiters = new ArrayList<>(entry.waiters);
+        entry.waiters.clear();
+        return waiters;
+    }
+
+    /**
+     * Build the query parameters of the player request.
+     *
+     * @param accessToken The consumer access token, may be empty.
+     * @return The query parameters.
+     */
+    private HashMap<String, String> buildPlayerParams(String accessToken) {
+
+        HashMap<String, String> params = new HashMap<>();
+        if (!TextUtils.isEmpty(accessToken)) {
+            params.put(ZypeApi.ACCESS_TOKEN, accessToken);
+        }
+        else {
+            params.put(ZypeApi.APP_KEY, ZypeSettings.APP_KEY);
+        }
+        String uuid = AdMacrosHelper.getAdvertisingId(mContext);
+        if (!TextUtils.isEmpty(uuid)) {
+            params.put(ZypeApi.UUID, uuid);
+        }
+        return params;
+    }
+
+    /**
+     * Get the access token of the current consumer.
+     *
+     * @return The access token, may be empty.
+     */
+    private static String getAccessToken() {
+
+        return Preferences.getString(ZypeAuthentication.ACCESS_TOKEN);
+    }
+}
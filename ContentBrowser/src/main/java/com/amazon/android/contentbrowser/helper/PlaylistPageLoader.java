@@ -0,0 +1,298 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.helper;
+
+import com.amazon.android.contentbrowser.ContentLoader;
+import com.amazon.android.model.content.ContentContainer;
+import com.amazon.android.model.content.constants.ExtraKeys;
+import com.amazon.android.recipe.Recipe;
+import com.amazon.android.recipe.RecipeRegistry;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import rx.Observable;
+import rx.Subscription;
+import rx.android.schedulers.AndroidSchedulers;
+import rx.schedulers.Schedulers;
+
+/**
+ * Loads the pages of playlist videos as the browse rows come into view. Only the top rows get
+ * their first page with the catalog; the first page of a row is loaded once the focus comes
+ * within {@link #ROWS_AHEAD} rows of it, and the next page once the focus comes within
+ * {@link #PREFETCH_DISTANCE} items of the end of the row. A click on the "Load more" action goes
+ * through the same loader, so a page is never requested twice.
+ *
+ * All methods but {@link #cancelAll()} must be called on the main thread. The results are
+ * delivered on the main thread as well, so the loader does not need any further synchronization.
+ */
+public class PlaylistPageLoader {
+
+    /**
+     * Debug tag.
+     */
+    private static final String TAG = PlaylistPageLoader.class.getSimpleName();
+
+    /**
+     * Number of rows below the focused row whose first page is loaded ahead.
+     */
+    public static final int ROWS_AHEAD = 2;
+
+    /**
+     * The next page of a row is loaded once the focus is this close to the end of the row.
+     */
+    public static final int PREFETCH_DISTANCE = 5;
+
+    /**
+     * Parser recipe for the playlist videos.
+     */
+    private static final String CONTENTS_RECIPE = "recipes/ZypeSearchContentsRecipe.json";
+
+    /**
+     * Page load listener interface.
+     */
+    public interface IPageLoadListener {
+
+        /**
+         * Called when a page of a playlist was added to its container.
+         *
+         * @param contentContainer The container of the playlist.
+         */
+        void onPageLoaded(ContentContainer contentContainer);
+
+        /**
+         * Called when a page of a playlist could not be loaded.
+         *
+         * @param contentContainer The container of the playlist.
+         * @param throwable        The error.
+         * @param userRequested    True if the user asked for the page.
+         */
+        void onPageLoadFailed(ContentContainer contentContainer, Throwable throwable,
+                              boolean userRequested);
+    }
+
+    /**
+     * The application context.
+     */
+    private final Context mContext;
+
+    /**
+     * The content loader.
+     */
+    private final ContentLoader mContentLoader;
+
+    /**
+     * The listener.
+     */
+    private final IPageLoadListener mListener;
+
+    /**
+     * Loads in flight by playlist id.
+     */
+    private final Map<String, Subscription> mLoads = new HashMap<>();
+
+    /**
+     * Handler of the main thread.
+     */
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Constructor.
+     *
+     * @param context       The context.
+     * @param contentLoader The content loader.
+     * @param listener      The listener.
+     */
+    public PlaylistPageLoader(Context context, ContentLoader contentLoader,
+                              IPageLoadListener listener) {
+
+        mContext = context.getApplicationContext();
+        mContentLoader = contentLoader;
+        mListener = listener;
+    }
+
+    /**
+     * Check whether a playlist has videos but its first page was not loaded yet.
+     *
+     * @param contentContainer The container of the playlist.
+     * @return True if the first page is missing.
+     */
+    public static boolean isFirstPageMissing(ContentContainer contentContainer) {
+
+        return contentContainer.getContentCount() == 0
+                && contentContainer.getExtraValueAsInt(ExtraKeys.NEXT_PAGE) == 1
+                && contentContainer.getExtraValueAsInt(
+                ContentContainer.EXTRA_PLAYLIST_ITEM_COUNT) > 0;
+    }
+
+    /**
+     * Load the first page of the focused row and the {@link #ROWS_AHEAD} rows below it, where
+     * still missing. Call it with index 0 when the rows are shown to load the rows on screen.
+     *
+     * @param rows  The containers of the rows, in row order.
+     * @param index Index of the focused row.
+     */
+    public void onRowFocused(List<ContentContainer> rows, int index) {
+
+        int end = Math.min(rows.size(), index + ROWS_AHEAD + 1);
+        for (int i = Math.max(0, index); i < end; i++) {
+            if (isFirstPageMissing(rows.get(i))) {
+                loadNextPage(rows.get(i), false);
+            }
+        }
+    }
+
+    /**
+     * Load the next page of a row if the focused item is within {@link #PREFETCH_DISTANCE} items
+     * of the end of the row.
+     *
+     * @param contentContainer The container of the row.
+     * @param position         Position of the focused item in the row.
+     * @param itemCount        Number of items in the row, without the "Load more" action.
+     */
+    public void onItemFocused(ContentContainer contentContainer, int position, int itemCount) {
+
+        if (itemCount - 1 - position < PREFETCH_DISTANCE) {
+            loadNextPage(contentContainer, false);
+        }
+    }
+
+    /**
+     * Load the next page of a playlist, unless it has no more pages or a page of it is loading
+     * already.
+     *
+     * @param contentContainer The container of the playlist.
+     * @param userRequested    True if the user asked for the page; the listener shows errors of
+     *                         these loads.
+     * @return True if a load was started.
+     */
+    public boolean loadNextPage(ContentContainer contentContainer, boolean userRequested) {
+
+        String playlistId = contentContainer.getExtraStringValue(Recipe.KEY_DATA_TYPE_TAG);
+        if (playlistId == null || mLoads.containsKey(playlistId) ||
+                contentContainer.getExtraValueAsInt(ExtraKeys.NEXT_PAGE) <= 0) {
+            return false;
+        }
+        Subscription subscription =
+                mContentLoader.getLoadContentsObservable(Observable.<Object>just(contentContainer),
+                                                         RecipeRegistry.getRecipe(mContext,
+                                                                                  CONTENTS_RECIPE))
+                              .subscribeOn(Schedulers.io())
+                              .observeOn(AndroidSchedulers.mainThread())
+                              .subscribe(result -> {
+                              }, throwable -> {
+                                  Log.e(TAG, "Loading a page of " + playlistId + " failed",
+                                        throwable);
+                                  mLoads.remove(playlistId);
+                                  mListener.onPageLoadFailed(contentContainer, throwable,
+                                                             userRequested);
+                              }, () -> {
+                                  mLoads.remove(playlistId);
+                                  mListener.onPageLoaded(contentContainer);
+                              });
+        mLoads.put(playlistId, subscription);
+        return true;
+    }
+
+    /**
+     * Load the first page of every playlist of a catalog where it is still missing, e.g. before
+     * the loaded contents are searched. The pages are loaded by
+     * {@link ContentLoader#getLoadFirstPagesObservable(List)} in a single load with bounded
+     * concurrency; playlists with a load in flight are left out, so calling it again while the
+     * pages are loading starts nothing. The listener is notified with the root container once
+     * all pages are loaded.
+     *
+     * @param contentContainer The root content container of the catalog.
+     * @return True if a load was started.
+     */
+    public boolean loadMissingFirstPages(ContentContainer contentContainer) {
+
+        List<ContentContainer> missing = new ArrayList<>();
+        List<String> playlistIds = new ArrayList<>();
+        for (ContentContainer child : mContentLoader.findMissingFirstPages(contentContainer)) {
+            String playlistId = child.getExtraStringValue(Recipe.KEY_DATA_TYPE_TAG);
+            if (playlistId != null && !mLoads.containsKey(playlistId)) {
+                missing.add(child);
+                playlistIds.add(playlistId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return false;
+        }
+        Subscription subscription =
+                mContentLoader.getLoadFirstPagesObservable(missing)
+                              .subscribeOn(Schedulers.io())
+                              .observeOn(AndroidSchedulers.mainThread())
+                              .subscribe(result -> {
+                              }, throwable -> {
+                                  Log.e(TAG, "Loading the missing first pages failed",
+                                        throwable);
+                                  removeLoads(playlistIds);
+                                  mListener.onPageLoadFailed(contentContainer, throwable, false);
+                              }, () -> {
+                                  removeLoads(playlistIds);
+                                  mListener.onPageLoaded(contentContainer);
+                              });
+        for (String playlistId : playlistIds) {
+            mLoads.put(playlistId, subscription);
+        }
+        return true;
+    }
+
+    /**
+     * Forget the playlists of a finished load.
+     *
+     * @param playlistIds The playlist ids.
+     */
+    private void removeLoads(List<String> playlistIds) {
+
+        for (String playlistId : playlistIds) {
+            mLoads.remove(playlistId);
+        }
+    }
+
+    /**
+     * Check whether any page is loading.
+     *
+     * @return True if a load is in flight.
+     */
+    public boolean isLoading() {
+
+        return !mLoads.isEmpty();
+    }
+
+    /**
+     * Cancel all loads. Unlike the other methods it may be called on any thread, off the main
+     * thread the loads are cancelled on the main thread.
+     */
+    public void cancelAll() {
+
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            mMainHandler.post(this::cancelAll);
+            return;
+        }
+        for (Subscription subscription : mLoads.values()) {
+            subscription.unsubscribe();
+        }
+        mLoads.clear();
+    }
+}
@@ -416,6 +416,8 @@ public class PurchaseHelper {
                     Log.e(TAG, "isPurchaseValid subscribe called");
                     /* Zype, Evgeny Cherkasov */
 //                    mContentBrowser.updateContentActions();
+                    // The purchase may change the entitlement of any video.
+                    mContentBrowser.getEntitlementCache().clear();
                     EventBus.getDefault().post(new SubscriptionPurchaseEvent(resultBundle));
 
                     EventBus.getDefault().post(new ProgressOverlayDismissEvent(true));
@@ -15,6 +15,7 @@
 package com.amazon.android.contentbrowser.recommendations;
 
 import com.amazon.android.contentbrowser.app.ContentBrowserApplication;
+import com.amazon.android.contentbrowser.database.ContentDatabaseHelper;
 
 import android.content.BroadcastReceiver;
 import android.content.Context;
@@ -42,6 +43,13 @@ public class BootCompletedReceiver extends BroadcastReceiver {
         if (intent.getAction().endsWith(Intent.ACTION_BOOT_COMPLETED)
                 || intent.getAction().equals(Intent.ACTION_TIME_CHANGED)
                 || intent.getAction().equals(Intent.ACTION_TIMEZONE_CHANGED)) {
+            if (intent.getAction().endsWith(Intent.ACTION_BOOT_COMPLETED)) {
+                // The recommendations posted before the reboot are gone, post all of them again.
+                ContentDatabaseHelper database = ContentDatabaseHelper.getInstance(context);
+                if (database != null) {
+                    database.clearRecommendationFingerprints();
+                }
+            }
             ContentBrowserApplication.scheduleRecommendationUpdate(context, INITIAL_DELAY);
         }
     }
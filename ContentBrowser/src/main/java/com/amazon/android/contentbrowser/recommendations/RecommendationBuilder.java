@@ -15,7 +15,6 @@
 package com.amazon.android.contentbrowser.recommendations;
 
 import com.amazon.android.contentbrowser.R;
-import com.bumptech.glide.Glide;
 
 import android.app.Notification;
 import android.content.Context;
@@ -38,16 +37,6 @@ class RecommendationBuilder {
      */
     private static final String TAG = RecommendationBuilder.class.getSimpleName();
 
-    /**
-     * Width for large icon bitmap. Wanting 16:9 aspect ratio.
-     */
-    private static final int CARD_WIDTH = 450;
-
-    /**
-     * Height for large icon bitmap. Wanting 16:9 aspect ratio.
-     */
-    private static final int CARD_HEIGHT = 252;
-
     /**
      * The background URL string.
      */
@@ -129,6 +118,11 @@ class RecommendationBuilder {
      */
     private String mLargeIconUrl;
 
+    /**
+     * The large icon, if it was loaded before the notification is built.
+     */
+    private Bitmap mLargeIcon;
+
     /**
      * A flag representing if the content is live.
      */
@@ -205,12 +199,12 @@ class RecommendationBuilder {
      */
     public Notification build() throws ExecutionException, InterruptedException {
 
-        // This line may cause the exceptions if there's an issue with the network or the URL.
-        Bitmap largeIconBitmap = Glide.with(mContext)
-                                      .load(mLargeIconUrl)
-                                      .asBitmap()
-                                      .into(CARD_WIDTH, CARD_HEIGHT)
-                                      .get();
+        Bitmap largeIconBitmap = mLargeIcon;
+        if (largeIconBitmap == null) {
+            // This line may cause the exceptions if there's an issue with the network or the URL.
+            largeIconBitmap = RecommendationImageLoader.requestCardImage(mContext, mLargeIconUrl)
+                                                       .get();
+        }
 
         // Build the basic recommendation.
         ContentRecommendation.Builder builder = new ContentRecommendation.Builder()
@@ -448,6 +442,19 @@ class RecommendationBuilder {
         return this;
     }
 
+    /**
+     * Set the large icon that was loaded before the notification is built. If it is not set,
+     * the icon is loaded from the large icon URL when the notification is built.
+     *
+     * @param largeIcon The large icon.
+     * @return The {@link RecommendationBuilder} instance.
+     */
+    RecommendationBuilder setLargeIcon(Bitmap largeIcon) {
+
+        mLargeIcon = largeIcon;
+        return this;
+    }
+
     /**
      * Set the live content flag. Set it to 1 if the content should be treated as live content,
      * and 0 if its not.
@@ -0,0 +1,201 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.recommendations;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.request.FutureTarget;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Loads the card images of a pass of recommendations before the notifications are built. The
+ * images are requested concurrently, up to {@link #MAX_CONCURRENT_LOADS} at a time, and decoded
+ * at the card size the launcher shows. Glide keeps the decoded card images in its disk cache, so
+ * unchanged images are not downloaded again on the next refresh.
+ *
+ * The loader is used by one thread at a time, the thread that sends the recommendations.
+ */
+class RecommendationImageLoader {
+
+    /**
+     * Debug tag.
+     */
+    private static final String TAG = RecommendationImageLoader.class.getSimpleName();
+
+    /**
+     * Width for large icon bitmap. Wanting 16:9 aspect ratio.
+     */
+    private static final int CARD_WIDTH = 450;
+
+    /**
+     * Height for large icon bitmap. Wanting 16:9 aspect ratio.
+     */
+    private static final int CARD_HEIGHT = 252;
+
+    /**
+     * Maximum number of images loaded at the same time.
+     */
+    private static final int MAX_CONCURRENT_LOADS = 4;
+
+    /**
+     * Time to wait for a single image.
+     */
+    private static final long LOAD_TIMEOUT_SECONDS = 30;
+
+    /**
+     * The app context.
+     */
+    private final Context mContext;
+
+    /**
+     * Loaded images by URL.
+     */
+    private final Map<String, Bitmap> mImages = new HashMap<>();
+
+    /**
+     * URLs whose image could not be loaded.
+     */
+    private final Set<String> mFailedUrls = new HashSet<>();
+
+    /**
+     * Constructor.
+     *
+     * @param context The context.
+     */
+    RecommendationImageLoader(Context context) {
+
+        mContext = context.getApplicationContext();
+    }
+
+    /**
+     * Request the card image of a URL. The request is decoded at the card size and its result is
+     * kept in the disk cache.
+     *
+     * @param context The context.
+     * @param url     The image URL.
+     * @return The future of the image.
+     */
+    static FutureTarget<Bitmap> requestCardImage(Context context, String url) {
+
+        return Glide.with(context)
+                    .load(url)
+                    .asBitmap()
+                    .centerCrop()
+                    .diskCacheStrategy(DiskCacheStrategy.RESULT)
+                    .into(CARD_WIDTH, CARD_HEIGHT);
+    }
+
+    /**
+     * Load the images of the given URLs and keep them until {@link #clear()} is called. Blocks
+     * until all images are loaded or failed.
+     *
+     * @param urls The image URLs. Null and duplicate URLs are skipped.
+     */
+    void prefetch(Collection<String> urls) {
+
+        long startTime = System.currentTimeMillis();
+        Set<String> pendingUrls = new LinkedHashSet<>();
+        for (String url : urls) {
+            if (url != null && !mImages.containsKey(url) && !mFailedUrls.contains(url)) {
+                pendingUrls.add(url);
+            }
+        }
+
+        Queue<String> loadingUrls = new ArrayDeque<>(MAX_CONCURRENT_LOADS);
+        Queue<FutureTarget<Bitmap>> loads = new ArrayDeque<>(MAX_CONCURRENT_LOADS);
+        for (String url : pendingUrls) {
+            if (loads.size() == MAX_CONCURRENT_LOADS) {
+                await(loadingUrls.poll(), loads.poll());
+            }
+            loadingUrls.add(url);
+            loads.add(requestCardImage(mContext, url));
+        }
+        while (!loads.isEmpty()) {
+            await(loadingUrls.poll(), loads.poll());
+        }
+        Log.d(TAG, "Loaded " + pendingUrls.size() + " images in " +
+                (System.currentTimeMillis() - startTime) + "ms, " + mFailedUrls.size() +
+                " failed");
+    }
+
+    /**
+     * Wait for an image load.
+     *
+     * @param url  The image URL.
+     * @param load The load.
+     */
+    private void await(String url, FutureTarget<Bitmap> load) {
+
+        try {
+            mImages.put(url, load.get(LOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            load.cancel(true);
+            mFailedUrls.add(url);
+        }
+        catch (ExecutionException | TimeoutException e) {
+            Log.e(TAG, "Unable to load image " + url, e);
+            load.cancel(true);
+            mFailedUrls.add(url);
+        }
+    }
+
+    /**
+     * Get a loaded image.
+     *
+     * @param url The image URL.
+     * @return The image, or null if it was not loaded.
+     */
+    Bitmap getImage(String url) {
+
+        return mImages.get(url);
+    }
+
+    /**
+     * Check whether the image of a URL could not be loaded.
+     *
+     * @param url The image URL.
+     * @return True if the load failed; false otherwise.
+     */
+    boolean hasFailed(String url) {
+
+        return mFailedUrls.contains(url);
+    }
+
+    /**
+     * Drop the loaded images and failures.
+     */
+    void clear() {
+
+        mImages.clear();
+        mFailedUrls.clear();
+    }
+}
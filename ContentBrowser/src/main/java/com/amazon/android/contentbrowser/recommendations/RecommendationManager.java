@@ -14,6 +14,7 @@
  */
 package com.amazon.android.contentbrowser.recommendations;
 
+import com.amazon.android.contentbrowser.ContentBrowser;
 import com.amazon.android.contentbrowser.ContentLoader;
 import com.amazon.android.contentbrowser.database.ContentDatabaseHelper;
 import com.amazon.android.contentbrowser.database.RecommendationRecord;
@@ -28,6 +29,7 @@ import android.util.Log;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import rx.Observable;
 import rx.Subscription;
@@ -184,6 +186,29 @@ public class RecommendationManager {
         }).execute();
     }
 
+    /**
+     * Executes the task for dismissing the recommendation of a content the user finished watching,
+     * if one was sent. The database is read on a background thread.
+     *
+     * @param content The finished content.
+     */
+    public void executeDismissCompletedContentTask(Content content) {
+
+        (new AsyncTask<Void, Void, Void>() {
+            @Override
+            protected Void doInBackground(Void... params) {
+
+                ContentDatabaseHelper database = ContentDatabaseHelper.getInstance(mContext);
+                if (database != null &&
+                        database.recommendationWithContentIdExists(content.getId())) {
+                    dismissRecommendation(content.getId());
+                    AnalyticsHelper.trackDismissRecommendationForCompleteContent(content);
+                }
+                return null;
+            }
+        }).execute();
+    }
+
     /**
      * Dismisses the recommendation for the given content id.
      *
@@ -280,6 +305,28 @@ public class RecommendationManager {
     private void loadDataForRecommendations(Context context) {
 
         Log.d(TAG, "Loading data for recommendations");
+        // Use the catalog the app loaded last, if any and not outdated, instead of loading all
+        // feeds again.
+        ContentContainer snapshot = mContentLoader.loadCatalogSnapshot(
+                TimeUnit.SECONDS.toMillis(ContentBrowser.CONTENT_RELOAD_TIMEOUT));
+        if (snapshot != null) {
+            Log.d(TAG, "Using catalog snapshot for recommendations");
+            // The app saves the catalog before the rows below the top ones are loaded.
+            Subscription subscription =
+                    mContentLoader.getLoadMissingFirstPagesObservable(snapshot)
+                                  .subscribeOn(Schedulers.newThread())
+                                  .observeOn(AndroidSchedulers.mainThread())
+                                  .subscribe(objectPair -> {
+                                  }, throwable -> {
+                                      // The sender fetches the contents it does not find.
+                                      Log.e(TAG, "Loading the missing playlists failed:",
+                                            throwable);
+                                      sendRecommendationsFromSnapshot(context, snapshot);
+                                  }, () -> sendRecommendationsFromSnapshot(context, snapshot));
+            mCompositeSubscription.add(subscription);
+            return;
+        }
+
         final ContentContainer root = new ContentContainer("Root");
 
         Subscription subscription =
@@ -287,12 +334,17 @@ public class RecommendationManager {
                           // Do this first to make sure were running in new thread right a way.
                           .subscribeOn(Schedulers.newThread())
                           .concatMap(index -> mContentLoader.runGlobalRecipeAtIndex(index, root))
+                          // The recipes load the top rows only.
+                          .concatWith(Observable.defer(
+                                  () -> mContentLoader.getLoadMissingFirstPagesObservable(root)))
                           .onBackpressureBuffer() // This must be right after concatMap.
                           .doOnNext(o -> {
                               if (DEBUG_RECIPE_CHAIN) {
                                   Log.d(TAG, "doOnNext");
                               }
                           })
+                          // Keep the whole catalog for the next update.
+                          .doOnCompleted(() -> mContentLoader.saveCatalogSnapshot(root))
                           // This should be last so the rest is running on a separate thread.
                           .observeOn(AndroidSchedulers.mainThread())
                           .subscribe(objectPair -> {
@@ -317,6 +369,19 @@ public class RecommendationManager {
         mCompositeSubscription.add(subscription);
     }
 
+    /**
+     * Sends the global recommendations for the contents of a catalog snapshot.
+     *
+     * @param context  The context.
+     * @param snapshot The root content container of the snapshot.
+     */
+    private void sendRecommendationsFromSnapshot(Context context, ContentContainer snapshot) {
+
+        snapshot.removeEmptySubContainers();
+        mSender.setRootContentContainer(snapshot);
+        runGlobalRecommendationRecipes(context);
+    }
+
     /**
      * Runs the recipes for global recommendations. Once all recipes are done running, an async
      * task for sending the recommendations is executed.
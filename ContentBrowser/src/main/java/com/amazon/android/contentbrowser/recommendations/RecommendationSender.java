@@ -14,9 +14,11 @@
  */
 package com.amazon.android.contentbrowser.recommendations;
 
+import com.amazon.android.contentbrowser.ContentLoader;
 import com.amazon.android.contentbrowser.R;
 import com.amazon.android.contentbrowser.database.ContentDatabaseHelper;
 import com.amazon.android.contentbrowser.database.RecentRecord;
+import com.amazon.android.contentbrowser.database.RecommendationBatch;
 import com.amazon.android.contentbrowser.database.RecommendationRecord;
 import com.amazon.android.contentbrowser.helper.LauncherIntegrationManager;
 import com.amazon.android.model.content.Content;
@@ -27,10 +29,16 @@ import android.app.NotificationManager;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
+import android.os.Build;
+import android.service.notification.StatusBarNotification;
 import android.util.Log;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static com.amazon.android.contentbrowser.helper.LauncherIntegrationManager.CONTENT_SOURCE;
 import static com.amazon.android.contentbrowser.helper.LauncherIntegrationManager
@@ -40,7 +48,12 @@ import static com.amazon.android.contentbrowser.helper.LauncherIntegrationManage
  * This class contains functionality to send, build, update, and dismiss recommendations. This is a
  * helper class for {@link RecommendationManager}. The method containing the main logic for sending
  * recommendations is {@link #sendRecommendationsForType(ContentDatabaseHelper, String, List, int)}.
- * This class relies heaving on {@link ContentDatabaseHelper} for database transactions.
+ * This class relies heaving on {@link ContentDatabaseHelper} for database transactions. The
+ * database changes of a pass are collected in a {@link RecommendationBatch} and written in one
+ * transaction.
+ *
+ * Each record keeps a fingerprint of the data its notification was built from. Notifications of
+ * existing records whose fingerprint did not change are not built and posted again.
  */
 class RecommendationSender {
 
@@ -50,6 +63,17 @@ class RecommendationSender {
     private Context mContext;
     private boolean mSendToNotificationManager;
 
+    /**
+     * Loads the card images of a pass before the recommendations are built.
+     */
+    private final RecommendationImageLoader mImageLoader;
+
+    /**
+     * Contents fetched by id because they were not loaded in the root content container yet, by
+     * content id. Guarded by itself.
+     */
+    private final Map<String, Content> mFetchedContents = new HashMap<>();
+
 
     /**
      * Constructor.
@@ -66,6 +90,7 @@ class RecommendationSender {
         mRootContentContainer = rootContentContainer;
         mContext = context;
         mSendToNotificationManager = sendToNotificationManager;
+        mImageLoader = new RecommendationImageLoader(context);
 
         if (mSendToNotificationManager) {
             mNotificationManager =
@@ -112,21 +137,132 @@ class RecommendationSender {
                     getRecordsToDelete(database, type, contentIdsOfNewRecs.size(), recsToUpdate,
                                        max);
 
-            updateExistingRecommendations(database, type, recsToUpdate, contentIdsOfNewRecs,
-                                          idsForNewRecs);
+            // Find the existing recommendations whose notification does not change.
+            Map<String, String> fingerprints =
+                    getFingerprints(database, type, contentIdsOfNewRecs);
+            Set<String> unchangedContentIds = getUnchangedContentIds(recsToUpdate, fingerprints);
 
-            deleteRecommendations(database, recsToDelete);
+            // Load the card images of all recommendations of this pass at once instead of one
+            // by one while the recommendations are built.
+            prefetchCardImages(contentIdsOfNewRecs, unchangedContentIds);
 
-            sendNewRecommendations(database, type, idsForNewRecs, contentIdsOfNewRecs);
+            RecommendationBatch batch = new RecommendationBatch();
 
+            updateExistingRecommendations(database, batch, type, recsToUpdate,
+                                          contentIdsOfNewRecs, idsForNewRecs, fingerprints,
+                                          unchangedContentIds);
+
+            deleteRecommendations(batch, recsToDelete);
+
+            sendNewRecommendations(database, batch, type, idsForNewRecs, contentIdsOfNewRecs,
+                                   fingerprints);
+
+            if (!database.applyRecommendationBatch(batch)) {
+                return false;
+            }
         }
         catch (Exception e) {
             Log.e(TAG, "Unable to update recommendation", e);
             return false;
         }
+        finally {
+            mImageLoader.clear();
+        }
         return true;
     }
 
+    /**
+     * Loads the card images of the given contents.
+     *
+     * @param contentIds          The content ids.
+     * @param unchangedContentIds Ids of the contents whose notification is not built again.
+     */
+    private void prefetchCardImages(List<String> contentIds, Set<String> unchangedContentIds) {
+
+        List<String> urls = new ArrayList<>(contentIds.size());
+        for (String contentId : contentIds) {
+            if (unchangedContentIds.contains(contentId)) {
+                continue;
+            }
+            Content content = getContentFromRoot(contentId);
+            if (content != null) {
+                urls.add(content.getCardImageUrl());
+            }
+        }
+        mImageLoader.prefetch(urls);
+    }
+
+    /**
+     * Computes the fingerprints of the recommendations of the given contents. A fingerprint
+     * covers the data of a notification that can change between updates: the type, the title,
+     * the card image and the playback progress.
+     *
+     * @param database   The content database helper instance.
+     * @param type       The type of recommendation.
+     * @param contentIds The content ids.
+     * @return The fingerprints by content id. Contents that are not found have none.
+     */
+    private Map<String, String> getFingerprints(ContentDatabaseHelper database, String type,
+                                                List<String> contentIds) {
+
+        Map<String, String> fingerprints = new HashMap<>();
+        for (String contentId : contentIds) {
+            Content content = getContentFromRoot(contentId);
+            if (content == null) {
+                continue;
+            }
+            RecentRecord recent = database.getRecent(contentId);
+            long playbackProgress = recent != null ? recent.getPlaybackLocation() : 0;
+            fingerprints.put(contentId, type + '\n' + content.getTitle() + '\n' +
+                    content.getCardImageUrl() + '\n' + playbackProgress);
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Gets the ids of the contents whose existing recommendation is posted and was built from
+     * the same data.
+     *
+     * @param recsToUpdate The existing recommendation records.
+     * @param fingerprints The new fingerprints by content id.
+     * @return The content ids.
+     */
+    private Set<String> getUnchangedContentIds(List<RecommendationRecord> recsToUpdate,
+                                               Map<String, String> fingerprints) {
+
+        Set<String> unchangedContentIds = new HashSet<>();
+        Set<Integer> postedIds = getPostedRecommendationIds();
+        for (RecommendationRecord record : recsToUpdate) {
+            String fingerprint = fingerprints.get(record.getContentId());
+            if (fingerprint != null && fingerprint.equals(record.getFingerprint()) &&
+                    (postedIds == null || postedIds.contains(record.getRecommendationId()))) {
+                unchangedContentIds.add(record.getContentId());
+            }
+        }
+        return unchangedContentIds;
+    }
+
+    /**
+     * Gets the ids of the recommendations that are posted to notification manager. Notifications
+     * can be removed without the records, e.g. when the app is force stopped.
+     *
+     * @return The recommendation ids, or null if they can not be found out.
+     */
+    private Set<Integer> getPostedRecommendationIds() {
+
+        if (!mSendToNotificationManager) {
+            return new HashSet<>();
+        }
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return null;
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (StatusBarNotification notification : mNotificationManager.getActiveNotifications()) {
+            ids.add(notification.getId());
+        }
+        return ids;
+    }
+
     /**
      * Creates recommendations, stores them to the database, and sends them to notification
      * manager (if {@link #mSendToNotificationManager} is true. If the list of recommendation ids
@@ -146,6 +282,34 @@ class RecommendationSender {
     boolean sendNewRecommendations(ContentDatabaseHelper database, String type, List<Integer>
             idsForNewRecs, List<String> contentIdsOfNewRecs) {
 
+        if (database == null || contentIdsOfNewRecs == null) {
+            Log.e(TAG, "Parameters should not be null");
+            return false;
+        }
+        RecommendationBatch batch = new RecommendationBatch();
+        return sendNewRecommendations(database, batch, type, idsForNewRecs, contentIdsOfNewRecs,
+                                      getFingerprints(database, type, contentIdsOfNewRecs)) &&
+                database.applyRecommendationBatch(batch);
+    }
+
+    /**
+     * Creates recommendations, adds them to a batch of database changes, and sends them to
+     * notification manager (if {@link #mSendToNotificationManager} is true.
+     *
+     * @param database            The database helper.
+     * @param batch               The database changes.
+     * @param type                The type of recommendation.
+     * @param idsForNewRecs       A list of available content ids.
+     * @param contentIdsOfNewRecs Ids of the content to recommend.
+     * @param fingerprints        The fingerprints of the recommendations by content id.
+     * @return True if recommendations were sent; false otherwise.
+     */
+    private boolean sendNewRecommendations(ContentDatabaseHelper database,
+                                           RecommendationBatch batch, String type,
+                                           List<Integer> idsForNewRecs,
+                                           List<String> contentIdsOfNewRecs,
+                                           Map<String, String> fingerprints) {
+
         if (contentIdsOfNewRecs == null || idsForNewRecs == null || database == null) {
             Log.e(TAG, "Parameters should not be null");
             return false;
@@ -162,7 +326,13 @@ class RecommendationSender {
             Notification notification = buildRecommendation(database, contentId,
                                                             recommendationId, type);
 
-            database.addRecommendation(contentId, recommendationId, type);
+            RecommendationRecord record = new RecommendationRecord(contentId, recommendationId,
+                                                                   type);
+            // Without a notification there is nothing to compare on the next update.
+            if (notification != null) {
+                record.setFingerprint(fingerprints.get(contentId));
+            }
+            batch.insert(record);
 
             if (mSendToNotificationManager) {
                 sendToNotificationManager(mContext, recommendationId, notification);
@@ -185,8 +355,27 @@ class RecommendationSender {
     void deleteRecommendations(ContentDatabaseHelper database, List<RecommendationRecord>
             recsToDelete) {
 
+        if (database == null) {
+            Log.e(TAG, "Database should not be null when deleting recommendations");
+            return;
+        }
+        RecommendationBatch batch = new RecommendationBatch();
+        deleteRecommendations(batch, recsToDelete);
+        database.applyRecommendationBatch(batch);
+    }
+
+    /**
+     * Adds the deletion of the recommendation records to a batch of database changes. Sends
+     * notification manager a cancel request if {@link #mSendToNotificationManager} is true.
+     *
+     * @param batch        The database changes.
+     * @param recsToDelete The recommendations to delete.
+     */
+    private void deleteRecommendations(RecommendationBatch batch, List<RecommendationRecord>
+            recsToDelete) {
+
         for (RecommendationRecord record : recsToDelete) {
-            database.deleteRecommendationByRecId(record.getRecommendationId());
+            batch.delete(record.getRecommendationId());
             if (mSendToNotificationManager) {
                 mNotificationManager.cancel(record.getRecommendationId());
             }
@@ -215,6 +404,43 @@ class RecommendationSender {
                                           List<String> contentIdsOfNewRecs,
                                           List<Integer> idsForNewRecs) {
 
+        if (recsToUpdate == null || database == null || idsForNewRecs == null ||
+                contentIdsOfNewRecs == null) {
+            Log.e(TAG, "Parameters should not be null when updating recommendations");
+            return false;
+        }
+        Map<String, String> fingerprints = getFingerprints(database, type, contentIdsOfNewRecs);
+        RecommendationBatch batch = new RecommendationBatch();
+        return updateExistingRecommendations(database, batch, type, recsToUpdate,
+                                             contentIdsOfNewRecs, idsForNewRecs, fingerprints,
+                                             getUnchangedContentIds(recsToUpdate, fingerprints)) &&
+                database.applyRecommendationBatch(batch);
+    }
+
+    /**
+     * Adds the update of the given recommendation records with a new type to a batch of database
+     * changes. Removes the updated recommendation id from the list of possible ids for new
+     * recommendations. Builds the new notification and sends it to notification manager if
+     * ({@link #mSendToNotificationManager} is true.
+     *
+     * @param database            The content database helper instance.
+     * @param batch               The database changes.
+     * @param type                The type of recommendation.
+     * @param recsToUpdate        The recommendation records to update in the database.
+     * @param contentIdsOfNewRecs A list of content ids that need to be recommended.
+     * @param idsForNewRecs       A list of ids to use for new recommendations.
+     * @param fingerprints        The fingerprints of the recommendations by content id.
+     * @param unchangedContentIds Ids of the contents whose posted notification is kept.
+     * @return False if the parameters were bad; true otherwise.
+     */
+    private boolean updateExistingRecommendations(ContentDatabaseHelper database,
+                                                  RecommendationBatch batch, String type,
+                                                  List<RecommendationRecord> recsToUpdate,
+                                                  List<String> contentIdsOfNewRecs,
+                                                  List<Integer> idsForNewRecs,
+                                                  Map<String, String> fingerprints,
+                                                  Set<String> unchangedContentIds) {
+
         if (recsToUpdate == null || database == null || idsForNewRecs == null ||
                 contentIdsOfNewRecs == null) {
             Log.e(TAG, "Parameters should not be null when updating recommendations");
@@ -223,9 +449,10 @@ class RecommendationSender {
 
         for (RecommendationRecord record : recsToUpdate) {
 
-            // Update the record data. We can use same rec id but should update the type.
+            // Update the record data. We can use same rec id but should update the type. The
+            // write also renews the expiration of unchanged records.
             record.setType(type);
-            database.updateRecommendation(record);
+            batch.update(record);
 
             // Remove the rec id so its not used later.
             idsForNewRecs.remove(Integer.valueOf(record.getRecommendationId()));
@@ -233,10 +460,18 @@ class RecommendationSender {
             // Remove the content id so another recommendation isn't sent later.
             contentIdsOfNewRecs.remove(record.getContentId());
 
+            // Keep the posted notification if it was built from the same data.
+            if (unchangedContentIds.contains(record.getContentId())) {
+                Log.d(TAG, "Recommendation " + record.getRecommendationId() + " is unchanged");
+                continue;
+            }
+
             // Build new notification
             Notification notification = buildRecommendation(database,
                                                             record.getContentId(),
                                                             record.getRecommendationId(), type);
+            record.setFingerprint(notification != null ?
+                                          fingerprints.get(record.getContentId()) : null);
             // Cancel old notification and send the new
             if (mSendToNotificationManager) {
                 mNotificationManager.cancel(record.getRecommendationId());
@@ -309,8 +544,8 @@ class RecommendationSender {
         int playbackProgress = 0;
         long lastWatchedDateTime = 0;
         if (database != null) {
-            if (database.recentRecordExists(contentId)) {
-                RecentRecord record = database.getRecent(contentId);
+            RecentRecord record = database.getRecent(contentId);
+            if (record != null) {
                 playbackProgress = (int) record.getPlaybackLocation();
                 lastWatchedDateTime = record.getLastWatched();
             }
@@ -320,6 +555,12 @@ class RecommendationSender {
                     "null");
         }
 
+        if (mImageLoader.hasFailed(content.getCardImageUrl())) {
+            Log.e(TAG, "Could not build recommendation for content with id " + contentId + " " +
+                    "because its image could not be loaded");
+            return null;
+        }
+
         // Create the recommendation builder.
         RecommendationBuilder builder = new RecommendationBuilder().setContext(mContext);
 
@@ -339,6 +580,7 @@ class RecommendationSender {
                           .setTitle(content.getTitle())
                           .setText(content.getDescription())
                           .setLargeIconUrl(content.getCardImageUrl())
+                          .setLargeIcon(mImageLoader.getImage(content.getCardImageUrl()))
                           .setContentIntent(buildContentIntent(mContext, content.getId()))
                           .setDismissIntent(buildDismissIntent(mContext, recommendationId))
                           .setContentDuration(content.getDuration())
@@ -376,7 +618,9 @@ class RecommendationSender {
     }
 
     /**
-     * Finds the content within the root content container.
+     * Finds the content within the root content container. Only the top rows of the catalog get
+     * their videos with it, so a content that is not loaded yet is fetched by id and kept until
+     * the root changes. Does network I/O, call it off the main thread.
      *
      * @param contentId The id of the content to find.
      * @return The content, or null if it was not found.
@@ -391,6 +635,19 @@ class RecommendationSender {
         }
 
         content = mRootContentContainer.findContentById(contentId);
+        if (content != null) {
+            return content;
+        }
+        synchronized (mFetchedContents) {
+            // Contents that could not be fetched are kept as null, so they are requested once.
+            if (mFetchedContents.containsKey(contentId)) {
+                return mFetchedContents.get(contentId);
+            }
+        }
+        content = ContentLoader.getInstance(mContext).fetchContentById(contentId);
+        synchronized (mFetchedContents) {
+            mFetchedContents.put(contentId, content);
+        }
         return content;
     }
 
@@ -402,6 +659,9 @@ class RecommendationSender {
     void setRootContentContainer(ContentContainer rootContentContainer) {
 
         mRootContentContainer = rootContentContainer;
+        synchronized (mFetchedContents) {
+            mFetchedContents.clear();
+        }
     }
 
     /**
@@ -20,20 +20,26 @@ import org.json.JSONArray;
 import org.json.JSONException;
 
 import android.content.Intent;
+import android.os.BadParcelableException;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.util.Log;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
 /**
  * Content class is a common model for all different type of Contents like video, audio, photo, doc
- * and etc.
+ * and etc. Both serialization and parceling use the compact format of {@link ContentCodec}.
  */
-public class Content implements Serializable {
+public class Content implements Externalizable, Parcelable {
 
     /**
      * Serial version UID.
@@ -121,9 +127,15 @@ public class Content implements Serializable {
     private List<String> mCloseCaptionUrls;
 
     /**
-     * Tags of the content. It is a string representation of Json array of strings.
+     * Empty tags.
      */
-    private String mTags;
+    private static final String[] NO_TAGS = new String[0];
+
+    /**
+     * Tags of the content, parsed once from the string representation of a Json array of strings
+     * passed to {@link #setTags(String)}. The tags are interned as they repeat across contents.
+     */
+    private String[] mTags;
 
     /**
      * A list of content ids to recommend to the user after the content is played. A string
@@ -137,7 +149,7 @@ public class Content implements Serializable {
     private Locale mLocale = Locale.ENGLISH;
 
     /**
-     * Storage for extra data that the content might have.
+     * Storage for extra data that the content might have, see {@link ContentExtras}.
      */
     private Map<String, Object> mExtras;
 
@@ -338,7 +350,7 @@ public class Content implements Serializable {
         mSubscriptionRequired = false;
         mDuration = 0;
         mAvailableDate = "";
-        mTags = "[]";
+        mTags = NO_TAGS;
         mRecommendations = "[]";
     }
 
@@ -360,7 +372,7 @@ public class Content implements Serializable {
      */
     public void toExtra(Intent intent) {
 
-        intent.putExtra(Content.class.getSimpleName(), this);
+        intent.putExtra(Content.class.getSimpleName(), (Parcelable) this);
     }
 
     /**
@@ -560,7 +572,7 @@ public class Content implements Serializable {
      */
     public void setStudio(String studio) {
 
-        mStudio = studio;
+        mStudio = intern(studio);
     }
 
     /**
@@ -600,7 +612,7 @@ public class Content implements Serializable {
      */
     public void setChannelId(String channelId) {
 
-        mChannelId = channelId;
+        mChannelId = intern(channelId);
     }
 
     /**
@@ -620,7 +632,7 @@ public class Content implements Serializable {
      */
     public void setFormat(String format) {
 
-        mFormat = format;
+        mFormat = intern(format);
     }
 
     /**
@@ -727,7 +739,7 @@ public class Content implements Serializable {
     public void setExtraValue(String key, Object value) {
 
         if (mExtras == null) {
-            mExtras = new HashMap<>();
+            mExtras = new ContentExtras();
         }
         mExtras.put(key, value);
     }
@@ -849,36 +861,39 @@ public class Content implements Serializable {
      */
     public List<String> getTags() {
 
-        try {
-            return ListUtils.stringToList(mTags);
-        }
-        catch (ListUtils.ExpectingJsonArrayException e) {
-            Log.e(TAG, "There was an error getting tags.", e);
-            return new ArrayList<>();
-        }
+        return new ArrayList<>(Arrays.asList(mTags));
     }
 
     /**
      * Set content tags. Warning: This method expects the tags value to be in a list format that
-     * can be turned into a {@link JSONArray}. If its not errors may occur.
+     * can be turned into a {@link JSONArray}. If its not the content is left without tags.
      *
      * @param tags Content tags as a string representation of a JSON array.
-     * @throws ListUtils.ExpectingJsonArrayException Thrown if tags is not a JSON array string.
+     * @throws ListUtils.ExpectingJsonArrayException Declared for compatibility, malformed tags
+     *                                               are logged instead.
      */
     public void setTags(String tags) throws ListUtils.ExpectingJsonArrayException {
 
         if (tags == null) {
-            mTags = "[]";
+            mTags = NO_TAGS;
             return;
         }
-        // Make sure tags is a real JSON array string.
         try {
-            new JSONArray(mTags);
+            List<String> tagList = ListUtils.stringToList(tags);
+            if (tagList.isEmpty()) {
+                mTags = NO_TAGS;
+                return;
+            }
+            String[] parsedTags = new String[tagList.size()];
+            for (int i = 0; i < parsedTags.length; i++) {
+                parsedTags[i] = intern(tagList.get(i));
+            }
+            mTags = parsedTags;
         }
-        catch (JSONException e) {
-            throw new ListUtils.ExpectingJsonArrayException(mTags);
+        catch (ListUtils.ExpectingJsonArrayException e) {
+            Log.e(TAG, "There was an error setting tags.", e);
+            mTags = NO_TAGS;
         }
-        mTags = tags;
     }
 
     /**
@@ -921,6 +936,53 @@ public class Content implements Serializable {
         mRecommendations = recommendations;
     }
 
+    /**
+     * Get the parsed tags.
+     *
+     * @return The tags array, not to be modified.
+     */
+    String[] getTagArray() {
+
+        return mTags;
+    }
+
+    /**
+     * Set the parsed tags.
+     *
+     * @param tags The tags.
+     */
+    void setTagArray(String[] tags) {
+
+        if (tags == null || tags.length == 0) {
+            mTags = NO_TAGS;
+            return;
+        }
+        for (int i = 0; i < tags.length; i++) {
+            tags[i] = intern(tags[i]);
+        }
+        mTags = tags;
+    }
+
+    /**
+     * Get the recommendations as set.
+     *
+     * @return The string representation of a JSON array of content ids.
+     */
+    String getRecommendationsString() {
+
+        return mRecommendations;
+    }
+
+    /**
+     * Set the recommendations without validating them.
+     *
+     * @param recommendations The string representation of a JSON array of content ids.
+     */
+    void setRecommendationsString(String recommendations) {
+
+        mRecommendations = recommendations;
+    }
+
     /**
      * Check if a {@link Content} has similar tags.
      *
@@ -928,15 +990,15 @@ public class Content implements Serializable {
      * @return True if they have similar tags; false otherwise.
      */
     public boolean hasSimilarTags(Content givenContent) {
-        // Get list of givenContentTags.
-        List<String> givenContentTags = givenContent.getTags();
+        // Get givenContentTags.
+        String[] givenContentTags = givenContent.mTags;
 
-        // Get list of thisContentTags.
-        List<String> thisContentTags = getTags();
+        // Get thisContentTags.
+        String[] thisContentTags = mTags;
 
         // If any of the lists are empty then return false.
-        if (givenContentTags.size() == 0 ||
-                thisContentTags.size() == 0) {
+        if (givenContentTags.length == 0 ||
+                thisContentTags.length == 0) {
             return false;
         }
 
@@ -1000,6 +1062,75 @@ public class Content implements Serializable {
         return result;
     }
 
+    /**
+     * Deduplicate a string value that repeats across the contents of a catalog.
+     *
+     * @param value The value.
+     * @return The canonical instance of the value, or null.
+     */
+    private static String intern(String value) {
+
+        return value != null ? value.intern() : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+
+        ContentCodec.writeContent(out, this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+
+        ContentCodec.readContent(in, this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int describeContents() {
+
+        return 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+
+        dest.writeByteArray(ContentCodec.encode(this));
+    }
+
+    /**
+     * Creates contents from parcels written by {@link #writeToParcel(Parcel, int)}.
+     */
+    public static final Parcelable.Creator<Content> CREATOR = new Parcelable.Creator<Content>() {
+        @Override
+        public Content createFromParcel(Parcel source) {
+
+            try {
+                return ContentCodec.decodeContent(source.createByteArray());
+            }
+            catch (IOException e) {
+                throw new BadParcelableException(e);
+            }
+        }
+
+        @Override
+        public Content[] newArray(int size) {
+
+            return new Content[size];
+        }
+    };
+
     @Override
     public String toString() {
 
@@ -1019,7 +1150,7 @@ public class Content implements Serializable {
                 ", mFormat='" + mFormat + '\'' +
                 ", mAdCuePoints=" + mAdCuePoints +
                 ", mCloseCaptionUrls=" + mCloseCaptionUrls +
-                ", mTags='" + mTags + '\'' +
+                ", mTags=" + Arrays.toString(mTags) +
                 ", mRecommendations='" + mRecommendations + '\'' +
                 ", mLocale=" + mLocale +
                 ", mExtras=" + mExtras +
@@ -1061,7 +1192,7 @@ public class Content implements Serializable {
                 !getBackgroundImageUrl().equals(content.getBackgroundImageUrl()) :
                 content.getBackgroundImageUrl() != null)
             return false;
-        if (getTags() != null ? !getTags().equals(content.getTags()) : content.getTags() != null)
+        if (!Arrays.equals(mTags, content.mTags))
             return false;
         if (getLocale() != null ? !getLocale().equals(content.getLocale()) : content.getLocale()
                 != null)
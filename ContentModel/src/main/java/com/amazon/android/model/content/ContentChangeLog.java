@@ -0,0 +1,300 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.model.content;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Log of the recent changes of a list of a {@link ContentContainer}. Every added or removed item
+ * increments the version of the log. A view that remembers the version it was built from can ask
+ * for the changes since then and apply exactly these changes to its adapter instead of rebuilding
+ * it.
+ *
+ * Consecutive inserts and removes at the same position are merged, so appending a page of
+ * contents is a single change. Only the most recent {@link #MAX_CHANGES} changes are kept.
+ */
+public class ContentChangeLog {
+
+    /**
+     * Maximum number of changes kept in the log.
+     */
+    private static final int MAX_CHANGES = 32;
+
+    /**
+     * A range of items that was inserted or removed.
+     */
+    public static class Change {
+
+        /**
+         * Type for inserted items.
+         */
+        public static final int INSERTED = 0;
+
+        /**
+         * Type for removed items.
+         */
+        public static final int REMOVED = 1;
+
+        /**
+         * Change type.
+         */
+        private final int mType;
+
+        /**
+         * Position of the first item.
+         */
+        private final int mStart;
+
+        /**
+         * Number of items.
+         */
+        private int mCount;
+
+        /**
+         * Version of the log after the last item of this change.
+         */
+        private int mLastVersion;
+
+        /**
+         * Constructs a change.
+         *
+         * @param type        Change type.
+         * @param start       Position of the first item.
+         * @param count       Number of items.
+         * @param lastVersion Version of the log after the last item of this change.
+         */
+        Change(int type, int start, int count, int lastVersion) {
+
+            mType = type;
+            mStart = start;
+            mCount = count;
+            mLastVersion = lastVersion;
+        }
+
+        /**
+         * Get the change type.
+         *
+         * @return {@link #INSERTED} or {@link #REMOVED}.
+         */
+        public int getType() {
+
+            return mType;
+        }
+
+        /**
+         * Get the position of the first item. The position is valid right after the change, later
+         * changes are not taken into account.
+         *
+         * @return Position of the first item.
+         */
+        public int getStart() {
+
+            return mStart;
+        }
+
+        /**
+         * Get the number of items.
+         *
+         * @return Number of items.
+         */
+        public int getCount() {
+
+            return mCount;
+        }
+
+        /**
+         * Get the version of the log before the first item of this change.
+         *
+         * @return The version.
+         */
+        int getFirstVersion() {
+
+            return mLastVersion - mCount;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+
+            return (mType == INSERTED ? "inserted" : "removed") + " [" + mStart + ", " +
+                    (mStart + mCount) + ")";
+        }
+    }
+
+    /**
+     * The recent changes, oldest first.
+     */
+    private final LinkedList<Change> mChanges = new LinkedList<>();
+
+    /**
+     * Current version.
+     */
+    private int mVersion;
+
+    /**
+     * Oldest version the changes can be reported for.
+     */
+    private int mOldestVersion;
+
+    /**
+     * Current size of the list.
+     */
+    private int mSize;
+
+    /**
+     * Get the current version. It is incremented by every added or removed item.
+     *
+     * @return The version.
+     */
+    public synchronized int getVersion() {
+
+        return mVersion;
+    }
+
+    /**
+     * Get the changes made since a version, oldest first. Applying them in order to a copy of the
+     * list at that version gives the current list.
+     *
+     * @param version The version, see {@link #getVersion()}.
+     * @return The changes, or null if the log does not reach back to the version.
+     */
+    public synchronized List<Change> getChangesSince(int version) {
+
+        return getChangesBetween(version, mVersion);
+    }
+
+    /**
+     * Get the number of items appended to the end of the list since a version.
+     *
+     * @param version The version, see {@link #getVersion()}.
+     * @return The number of appended items, or -1 if the list was changed in any other way or the
+     * log does not reach back to the version.
+     */
+    public synchronized int getAppendedCountSince(int version) {
+
+        return getAppendedCountBetween(version, mVersion, mSize);
+    }
+
+    /**
+     * Get the changes made between two versions, oldest first.
+     *
+     * @param fromVersion The older version.
+     * @param toVersion   The newer version.
+     * @return The changes, or null if the log does not reach back to the older version.
+     */
+    synchronized List<Change> getChangesBetween(int fromVersion, int toVersion) {
+
+        if (fromVersion < mOldestVersion || toVersion > mVersion || fromVersion > toVersion) {
+            return null;
+        }
+        List<Change> changes = new ArrayList<>();
+        for (Change change : mChanges) {
+            if (change.mLastVersion <= fromVersion || change.getFirstVersion() >= toVersion) {
+                continue;
+            }
+            // Part of a merged change may lie outside of the versions.
+            int skippedFirst = Math.max(0, fromVersion - change.getFirstVersion());
+            int skippedLast = Math.max(0, change.mLastVersion - toVersion);
+            int start = change.mType == Change.INSERTED ? change.mStart + skippedFirst
+                                                        : change.mStart;
+            changes.add(new Change(change.mType, start, change.mCount - skippedFirst - skippedLast,
+                                   change.mLastVersion - skippedLast));
+        }
+        return Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * Get the number of items appended to the end of the list between two versions.
+     *
+     * @param fromVersion The older version.
+     * @param toVersion   The newer version.
+     * @param toSize      The size of the list at the newer version.
+     * @return The number of appended items, or -1 if the list was changed in any other way or the
+     * log does not reach back to the older version.
+     */
+    synchronized int getAppendedCountBetween(int fromVersion, int toVersion, int toSize) {
+
+        List<Change> changes = getChangesBetween(fromVersion, toVersion);
+        if (changes == null) {
+            return -1;
+        }
+        int appended = 0;
+        for (Change change : changes) {
+            if (change.getType() != Change.INSERTED) {
+                return -1;
+            }
+            appended += change.getCount();
+        }
+        int end = toSize - appended;
+        for (Change change : changes) {
+            if (change.getStart() != end) {
+                return -1;
+            }
+            end += change.getCount();
+        }
+        return appended;
+    }
+
+    /**
+     * Record inserted items.
+     *
+     * @param start Position of the first item.
+     * @param count Number of items.
+     */
+    synchronized void onInserted(int start, int count) {
+
+        record(Change.INSERTED, start, count);
+        mSize += count;
+    }
+
+    /**
+     * Record removed items.
+     *
+     * @param start Position of the first item.
+     * @param count Number of items.
+     */
+    synchronized void onRemoved(int start, int count) {
+
+        record(Change.REMOVED, start, count);
+        mSize -= count;
+    }
+
+    /**
+     * Add a change, merging it into the last one if possible.
+     */
+    private void record(int type, int start, int count) {
+
+        if (count <= 0) {
+            return;
+        }
+        mVersion += count;
+        Change last = mChanges.peekLast();
+        if (last != null && last.mType == type &&
+                start == (type == Change.INSERTED ? last.mStart + last.mCount : last.mStart)) {
+            last.mCount += count;
+            last.mLastVersion = mVersion;
+            return;
+        }
+        mChanges.add(new Change(type, start, count, mVersion));
+        if (mChanges.size() > MAX_CHANGES) {
+            mOldestVersion = mChanges.removeFirst().mLastVersion;
+        }
+    }
+}
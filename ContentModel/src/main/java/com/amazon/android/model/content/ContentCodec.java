@@ -0,0 +1,715 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.model.content;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compact binary format for {@link Content} and {@link ContentContainer} trees, used by their
+ * {@link java.io.Externalizable} and {@link android.os.Parcelable} implementations and for
+ * keeping a catalog on disk.
+ *
+ * Content fields are written as a field ordinal followed by the value, and only if they differ
+ * from the value a new {@link Content} has. Every string is written once; later occurrences, like
+ * the playlist id or the tags shared by many contents, refer to the first one by index. A content
+ * that is in several containers is written once and referenced afterwards, so decoding restores
+ * the shared instance.
+ */
+public final class ContentCodec {
+
+    /**
+     * Version of the format, written first.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Charset of the strings.
+     */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Content field ordinals. The ordinals are part of the format and must not be changed.
+     */
+    private static final int FIELD_END = 0;
+    private static final int FIELD_ID = 1;
+    private static final int FIELD_TITLE = 2;
+    private static final int FIELD_SUBTITLE = 3;
+    private static final int FIELD_URL = 4;
+    private static final int FIELD_DESCRIPTION = 5;
+    private static final int FIELD_CARD_IMAGE_URL = 6;
+    private static final int FIELD_BACKGROUND_IMAGE_URL = 7;
+    private static final int FIELD_SUBSCRIPTION_REQUIRED = 8;
+    private static final int FIELD_STUDIO = 9;
+    private static final int FIELD_AVAILABLE_DATE = 10;
+    private static final int FIELD_CHANNEL_ID = 11;
+    private static final int FIELD_DURATION = 12;
+    private static final int FIELD_FORMAT = 13;
+    private static final int FIELD_AD_CUE_POINTS = 14;
+    private static final int FIELD_CLOSE_CAPTION_URLS = 15;
+    private static final int FIELD_TAGS = 16;
+    private static final int FIELD_RECOMMENDATIONS = 17;
+    private static final int FIELD_LOCALE = 18;
+    private static final int FIELD_EXTRAS = 19;
+
+    /**
+     * Value types of extras.
+     */
+    private static final int TYPE_NULL = 0;
+    private static final int TYPE_STRING = 1;
+    private static final int TYPE_BOOLEAN = 2;
+    private static final int TYPE_INTEGER = 3;
+    private static final int TYPE_LONG = 4;
+    private static final int TYPE_DOUBLE = 5;
+    private static final int TYPE_LIST = 6;
+    private static final int TYPE_SERIALIZABLE = 7;
+
+    /**
+     * Field values of a new content, fields equal to them are not written.
+     */
+    private static final Content DEFAULTS = new Content();
+
+    /**
+     * Static helper class.
+     */
+    private ContentCodec() {
+
+    }
+
+    /**
+     * Encode a content.
+     *
+     * @param content The content.
+     * @return The encoded content.
+     */
+    public static byte[] encode(Content content) {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try {
+            writeContent(new DataOutputStream(bytes), content);
+        }
+        catch (IOException e) {
+            // Writing to memory does not fail.
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Encode a container and everything below it.
+     *
+     * @param container The container.
+     * @return The encoded container.
+     */
+    public static byte[] encode(ContentContainer container) {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try {
+            writeContainer(new DataOutputStream(bytes), container);
+        }
+        catch (IOException e) {
+            // Writing to memory does not fail.
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a content encoded with {@link #encode(Content)}.
+     *
+     * @param data The encoded content.
+     * @return The content.
+     * @throws IOException If the data is not a valid encoded content.
+     */
+    public static Content decodeContent(byte[] data) throws IOException {
+
+        Content content = new Content();
+        readContent(new DataInputStream(new ByteArrayInputStream(data)), content);
+        return content;
+    }
+
+    /**
+     * Decode a container encoded with {@link #encode(ContentContainer)}.
+     *
+     * @param data The encoded container.
+     * @return The container.
+     * @throws IOException If the data is not a valid encoded container.
+     */
+    public static ContentContainer decodeContainer(byte[] data) throws IOException {
+
+        ContentContainer container = new ContentContainer();
+        readContainer(new DataInputStream(new ByteArrayInputStream(data)), container);
+        return container;
+    }
+
+    /**
+     * Write a content to a stream.
+     *
+     * @param out     The stream.
+     * @param content The content.
+     * @throws IOException If writing fails.
+     */
+    public static void writeContent(DataOutput out, Content content) throws IOException {
+
+        Writer writer = new Writer(out);
+        writeVarInt(out, FORMAT_VERSION);
+        writer.writeContentFields(content);
+    }
+
+    /**
+     * Read a content written with {@link #writeContent(DataOutput, Content)} into a new content.
+     *
+     * @param in      The stream.
+     * @param content The new content to fill.
+     * @throws IOException If reading fails or the data is not valid.
+     */
+    public static void readContent(DataInput in, Content content) throws IOException {
+
+        Reader reader = new Reader(in);
+        reader.readVersion();
+        reader.readContentFields(content);
+    }
+
+    /**
+     * Write a container and everything below it to a stream.
+     *
+     * @param out       The stream.
+     * @param container The container.
+     * @throws IOException If writing fails.
+     */
+    public static void writeContainer(DataOutput out, ContentContainer container)
+            throws IOException {
+
+        Writer writer = new Writer(out);
+        writeVarInt(out, FORMAT_VERSION);
+        writer.writeContainer(container);
+    }
+
+    /**
+     * Read a container written with {@link #writeContainer(DataOutput, ContentContainer)} into a
+     * new container.
+     *
+     * @param in        The stream.
+     * @param container The new container to fill.
+     * @throws IOException If reading fails or the data is not valid.
+     */
+    public static void readContainer(DataInput in, ContentContainer container)
+            throws IOException {
+
+        Reader reader = new Reader(in);
+        reader.readVersion();
+        reader.readContainer(container);
+    }
+
+    /**
+     * Write a non negative number in as few bytes as needed, 7 bits per byte.
+     */
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Read a number written with {@link #writeVarInt(DataOutput, int)}.
+     */
+    private static int readVarInt(DataInput in) throws IOException {
+
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed number");
+    }
+
+    /**
+     * Check if two values are equal, null included.
+     */
+    private static boolean isEqual(Object lhs, Object rhs) {
+
+        return lhs == null ? rhs == null : lhs.equals(rhs);
+    }
+
+    /**
+     * Writes one stream and keeps its string and content tables.
+     */
+    private static class Writer {
+
+        /**
+         * The stream.
+         */
+        private final DataOutput mOut;
+
+        /**
+         * Index of every string written so far.
+         */
+        private final HashMap<String, Integer> mStrings = new HashMap<>();
+
+        /**
+         * Index of every content written so far.
+         */
+        private final IdentityHashMap<Content, Integer> mContents = new IdentityHashMap<>();
+
+        Writer(DataOutput out) {
+
+            mOut = out;
+        }
+
+        /**
+         * Write a string: 0 for null, 1 followed by the bytes for a new string, or the index of
+         * the string plus 2.
+         */
+        void writeString(String value) throws IOException {
+
+            if (value == null) {
+                writeVarInt(mOut, 0);
+                return;
+            }
+            Integer index = mStrings.get(value);
+            if (index != null) {
+                writeVarInt(mOut, index + 2);
+                return;
+            }
+            mStrings.put(value, mStrings.size());
+            byte[] bytes = value.getBytes(UTF_8);
+            writeVarInt(mOut, 1);
+            writeVarInt(mOut, bytes.length);
+            mOut.write(bytes);
+        }
+
+        /**
+         * Write a string field if it differs from its default.
+         */
+        void writeStringField(int field, String value, String defaultValue) throws IOException {
+
+            if (!isEqual(value, defaultValue)) {
+                writeVarInt(mOut, field);
+                writeString(value);
+            }
+        }
+
+        /**
+         * Write the fields of a content.
+         */
+        void writeContentFields(Content content) throws IOException {
+
+            writeStringField(FIELD_ID, content.getId(), DEFAULTS.getId());
+            writeStringField(FIELD_TITLE, content.getTitle(), DEFAULTS.getTitle());
+            writeStringField(FIELD_SUBTITLE, content.getSubtitle(), DEFAULTS.getSubtitle());
+            writeStringField(FIELD_URL, content.getUrl(), DEFAULTS.getUrl());
+            writeStringField(FIELD_DESCRIPTION, content.getDescription(),
+                             DEFAULTS.getDescription());
+            writeStringField(FIELD_CARD_IMAGE_URL, content.getCardImageUrl(),
+                             DEFAULTS.getCardImageUrl());
+            writeStringField(FIELD_BACKGROUND_IMAGE_URL, content.getBackgroundImageUrl(),
+                             DEFAULTS.getBackgroundImageUrl());
+            if (content.isSubscriptionRequired()) {
+                writeVarInt(mOut, FIELD_SUBSCRIPTION_REQUIRED);
+            }
+            writeStringField(FIELD_STUDIO, content.getStudio(), DEFAULTS.getStudio());
+            writeStringField(FIELD_AVAILABLE_DATE, content.getAvailableDate(),
+                             DEFAULTS.getAvailableDate());
+            writeStringField(FIELD_CHANNEL_ID, content.getChannelId(), DEFAULTS.getChannelId());
+            if (content.getDuration() != DEFAULTS.getDuration()) {
+                writeVarInt(mOut, FIELD_DURATION);
+                mOut.writeLong(content.getDuration());
+            }
+            writeStringField(FIELD_FORMAT, content.getFormat(), DEFAULTS.getFormat());
+            if (content.getAdCuePoints() != null) {
+                writeVarInt(mOut, FIELD_AD_CUE_POINTS);
+                writeList(content.getAdCuePoints());
+            }
+            if (content.getCloseCaptionUrls() != null) {
+                writeVarInt(mOut, FIELD_CLOSE_CAPTION_URLS);
+                writeList(content.getCloseCaptionUrls());
+            }
+            String[] tags = content.getTagArray();
+            if (tags.length > 0) {
+                writeVarInt(mOut, FIELD_TAGS);
+                writeVarInt(mOut, tags.length);
+                for (String tag : tags) {
+                    writeString(tag);
+                }
+            }
+            writeStringField(FIELD_RECOMMENDATIONS, content.getRecommendationsString(),
+                             DEFAULTS.getRecommendationsString());
+            if (!isEqual(content.getLocale(), DEFAULTS.getLocale())) {
+                writeVarInt(mOut, FIELD_LOCALE);
+                Locale locale = content.getLocale();
+                writeString(locale != null ? locale.getLanguage() : null);
+                if (locale != null) {
+                    writeString(locale.getCountry());
+                    writeString(locale.getVariant());
+                }
+            }
+            if (content.getExtras() != null) {
+                writeVarInt(mOut, FIELD_EXTRAS);
+                writeMap(content.getExtras());
+            }
+            writeVarInt(mOut, FIELD_END);
+        }
+
+        /**
+         * Write a container, its contents and its sub containers.
+         */
+        void writeContainer(ContentContainer container) throws IOException {
+
+            writeString(container.getName());
+            Map<String, Object> extras = container.getExtras();
+            mOut.writeBoolean(extras != null);
+            if (extras != null) {
+                writeMap(extras);
+            }
+            List<Content> contents = container.getContentsSnapshot();
+            writeVarInt(mOut, contents.size());
+            for (Content content : contents) {
+                Integer index = mContents.get(content);
+                if (index != null) {
+                    writeVarInt(mOut, index + 1);
+                }
+                else {
+                    mContents.put(content, mContents.size());
+                    writeVarInt(mOut, 0);
+                    writeContentFields(content);
+                }
+            }
+            List<ContentContainer> containers = container.getContentContainersSnapshot();
+            writeVarInt(mOut, containers.size());
+            for (ContentContainer subContainer : containers) {
+                writeContainer(subContainer);
+            }
+        }
+
+        /**
+         * Write a map of extras.
+         */
+        void writeMap(Map<String, Object> map) throws IOException {
+
+            writeVarInt(mOut, map.size());
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                writeString(entry.getKey());
+                writeValue(entry.getValue());
+            }
+        }
+
+        /**
+         * Write a list of values.
+         */
+        void writeList(List<?> list) throws IOException {
+
+            writeVarInt(mOut, list.size());
+            for (Object value : list) {
+                writeValue(value);
+            }
+        }
+
+        /**
+         * Write a value with its type. Values of other types than the common ones are written
+         * with Java serialization.
+         */
+        void writeValue(Object value) throws IOException {
+
+            if (value == null) {
+                writeVarInt(mOut, TYPE_NULL);
+            }
+            else if (value instanceof String) {
+                writeVarInt(mOut, TYPE_STRING);
+                writeString((String) value);
+            }
+            else if (value instanceof Boolean) {
+                writeVarInt(mOut, TYPE_BOOLEAN);
+                mOut.writeBoolean((Boolean) value);
+            }
+            else if (value instanceof Integer) {
+                writeVarInt(mOut, TYPE_INTEGER);
+                mOut.writeInt((Integer) value);
+            }
+            else if (value instanceof Long) {
+                writeVarInt(mOut, TYPE_LONG);
+                mOut.writeLong((Long) value);
+            }
+            else if (value instanceof Double) {
+                writeVarInt(mOut, TYPE_DOUBLE);
+                mOut.writeDouble((Double) value);
+            }
+            else if (value instanceof List) {
+                writeVarInt(mOut, TYPE_LIST);
+                writeList((List<?>) value);
+            }
+            else if (value instanceof Serializable) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                ObjectOutputStream objectOut = new ObjectOutputStream(bytes);
+                objectOut.writeObject(value);
+                objectOut.close();
+                writeVarInt(mOut, TYPE_SERIALIZABLE);
+                writeVarInt(mOut, bytes.size());
+                mOut.write(bytes.toByteArray());
+            }
+            else {
+                throw new IOException("Value can't be encoded: " + value.getClass().getName());
+            }
+        }
+    }
+
+    /**
+     * Reads one stream and keeps its string and content tables.
+     */
+    private static class Reader {
+
+        /**
+         * The stream.
+         */
+        private final DataInput mIn;
+
+        /**
+         * Strings read so far, by index.
+         */
+        private final ArrayList<String> mStrings = new ArrayList<>();
+
+        /**
+         * Contents read so far, by index.
+         */
+        private final ArrayList<Content> mContents = new ArrayList<>();
+
+        Reader(DataInput in) {
+
+            mIn = in;
+        }
+
+        /**
+         * Read and check the format version.
+         */
+        void readVersion() throws IOException {
+
+            int version = readVarInt(mIn);
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported format version " + version);
+            }
+        }
+
+        /**
+         * Read a string written with {@link Writer#writeString(String)}.
+         */
+        String readString() throws IOException {
+
+            int reference = readVarInt(mIn);
+            if (reference == 0) {
+                return null;
+            }
+            if (reference == 1) {
+                byte[] bytes = new byte[readVarInt(mIn)];
+                mIn.readFully(bytes);
+                String value = new String(bytes, UTF_8);
+                mStrings.add(value);
+                return value;
+            }
+            if (reference - 2 >= mStrings.size()) {
+                throw new IOException("Unknown string " + reference);
+            }
+            return mStrings.get(reference - 2);
+        }
+
+        /**
+         * Read the fields of a content into a new content.
+         */
+        @SuppressWarnings("unchecked")
+        void readContentFields(Content content) throws IOException {
+
+            for (int field = readVarInt(mIn); field != FIELD_END; field = readVarInt(mIn)) {
+                switch (field) {
+                    case FIELD_ID:
+                        content.setId(readString());
+                        break;
+                    case FIELD_TITLE:
+                        content.setTitle(readString());
+                        break;
+                    case FIELD_SUBTITLE:
+                        content.setSubtitle(readString());
+                        break;
+                    case FIELD_URL:
+                        content.setUrl(readString());
+                        break;
+                    case FIELD_DESCRIPTION:
+                        content.setDescription(readString());
+                        break;
+                    case FIELD_CARD_IMAGE_URL:
+                        content.setCardImageUrl(readString());
+                        break;
+                    case FIELD_BACKGROUND_IMAGE_URL:
+                        content.setBackgroundImageUrl(readString());
+                        break;
+                    case FIELD_SUBSCRIPTION_REQUIRED:
+                        content.setSubscriptionRequired(true);
+                        break;
+                    case FIELD_STUDIO:
+                        content.setStudio(readString());
+                        break;
+                    case FIELD_AVAILABLE_DATE:
+                        content.setAvailableDate(readString());
+                        break;
+                    case FIELD_CHANNEL_ID:
+                        content.setChannelId(readString());
+                        break;
+                    case FIELD_DURATION:
+                        content.setDuration(mIn.readLong());
+                        break;
+                    case FIELD_FORMAT:
+                        content.setFormat(readString());
+                        break;
+                    case FIELD_AD_CUE_POINTS:
+                        content.setAdCuePoints((List<Integer>) (List<?>) readList());
+                        break;
+                    case FIELD_CLOSE_CAPTION_URLS:
+                        content.setCloseCaptionUrls((List<String>) (List<?>) readList());
+                        break;
+                    case FIELD_TAGS:
+                        String[] tags = new String[readVarInt(mIn)];
+                        for (int i = 0; i < tags.length; i++) {
+                            tags[i] = readString();
+                        }
+                        content.setTagArray(tags);
+                        break;
+                    case FIELD_RECOMMENDATIONS:
+                        content.setRecommendationsString(readString());
+                        break;
+                    case FIELD_LOCALE:
+                        String language = readString();
+                        content.setLocale(language != null
+                                          ? new Locale(language, readString(), readString())
+                                          : null);
+                        break;
+                    case FIELD_EXTRAS:
+                        int count = readVarInt(mIn);
+                        for (int i = 0; i < count; i++) {
+                            content.setExtraValue(readString(), readValue());
+                        }
+                        break;
+                    default:
+                        throw new IOException("Unknown content field " + field);
+                }
+            }
+        }
+
+        /**
+         * Read a container into a new container.
+         */
+        void readContainer(ContentContainer container) throws IOException {
+
+            container.setName(readString());
+            if (mIn.readBoolean()) {
+                int count = readVarInt(mIn);
+                for (int i = 0; i < count; i++) {
+                    container.setExtraValue(readString(), readValue());
+                }
+            }
+            int contentCount = readVarInt(mIn);
+            List<Content> contents = new ArrayList<>(contentCount);
+            for (int i = 0; i < contentCount; i++) {
+                int reference = readVarInt(mIn);
+                if (reference == 0) {
+                    Content content = new Content();
+                    readContentFields(content);
+                    mContents.add(content);
+                    contents.add(content);
+                }
+                else if (reference - 1 < mContents.size()) {
+                    contents.add(mContents.get(reference - 1));
+                }
+                else {
+                    throw new IOException("Unknown content " + reference);
+                }
+            }
+            int containerCount = readVarInt(mIn);
+            List<ContentContainer> containers = new ArrayList<>(containerCount);
+            for (int i = 0; i < containerCount; i++) {
+                ContentContainer subContainer = new ContentContainer();
+                readContainer(subContainer);
+                containers.add(subContainer);
+            }
+            container.replaceContents(contents);
+            container.replaceContentContainers(containers);
+        }
+
+        /**
+         * Read a list of values.
+         */
+        List<Object> readList() throws IOException {
+
+            int count = readVarInt(mIn);
+            List<Object> list = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                list.add(readValue());
+            }
+            return list;
+        }
+
+        /**
+         * Read a value written with {@link Writer#writeValue(Object)}.
+         */
+        Object readValue() throws IOException {
+
+            int type = readVarInt(mIn);
+            switch (type) {
+                case TYPE_NULL:
+                    return null;
+                case TYPE_STRING:
+                    return readString();
+                case TYPE_BOOLEAN:
+                    return mIn.readBoolean();
+                case TYPE_INTEGER:
+                    return mIn.readInt();
+                case TYPE_LONG:
+                    return mIn.readLong();
+                case TYPE_DOUBLE:
+                    return mIn.readDouble();
+                case TYPE_LIST:
+                    return readList();
+                case TYPE_SERIALIZABLE:
+                    byte[] bytes = new byte[readVarInt(mIn)];
+                    mIn.readFully(bytes);
+                    try {
+                        return new ObjectInputStream(new ByteArrayInputStream(bytes)).readObject();
+                    }
+                    catch (ClassNotFoundException e) {
+                        throw new IOException("Unknown value class", e);
+                    }
+                default:
+                    throw new IOException("Unknown value type " + type);
+            }
+        }
+    }
+}
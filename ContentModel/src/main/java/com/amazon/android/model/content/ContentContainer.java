@@ -15,21 +15,37 @@
 package com.amazon.android.model.content;
 
 import com.amazon.android.recipe.Recipe;
-import com.amazon.utils.StringManipulation;
 
+import android.os.BadParcelableException;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.util.Log;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
 import java.util.Stack;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * ContentContainer class is a container for {@link Content} objects.
+ * ContentContainer class is a container for {@link Content} objects. Both serialization and
+ * parceling write the container with everything below it in the format of {@link ContentCodec}.
  */
-public class ContentContainer implements Iterable<Content> {
+public class ContentContainer implements Iterable<Content>, Externalizable, Parcelable {
 
     /**
      * Debug TAG.
@@ -49,12 +65,108 @@ public class ContentContainer implements Iterable<Content> {
     /**
      * List of ContentContainers in this ContentContainer.
      */
-    private LinkedList<ContentContainer> mContentContainers = new LinkedList<>();
+    private final ChildList<ContentContainer> mContentContainers = new ChildList<ContentContainer>() {
+        @Override
+        void onAdded(ContentContainer contentContainer) {
+
+            contentContainer.mParent = ContentContainer.this;
+            for (ContentContainerIndex index : getAncestorIndexes()) {
+                index.onContainerAdded(contentContainer);
+            }
+            List<IContentListener> listeners = getAncestorContentListeners();
+            if (!listeners.isEmpty()) {
+                for (Content content : contentContainer) {
+                    for (IContentListener listener : listeners) {
+                        listener.onContentAdded(content);
+                    }
+                }
+            }
+        }
+
+        @Override
+        void onRemoved(ContentContainer contentContainer) {
+
+            if (contentContainer.mParent == ContentContainer.this) {
+                contentContainer.mParent = null;
+            }
+            for (ContentContainerIndex index : getAncestorIndexes()) {
+                index.onContainerRemoved(contentContainer);
+            }
+            List<IContentListener> listeners = getAncestorContentListeners();
+            if (!listeners.isEmpty()) {
+                for (Content content : contentContainer) {
+                    for (IContentListener listener : listeners) {
+                        listener.onContentRemoved(content);
+                    }
+                }
+            }
+        }
+    };
 
     /**
      * List of {@link Content} in this ContentContainer.
      */
-    private LinkedList<Content> mContents = new LinkedList<>();
+    private final ChildList<Content> mContents = new ChildList<Content>() {
+        @Override
+        void onAdded(Content content) {
+
+            for (ContentContainerIndex index : getAncestorIndexes()) {
+                index.onContentAdded(content, ContentContainer.this);
+            }
+            for (IContentListener listener : getAncestorContentListeners()) {
+                listener.onContentAdded(content);
+            }
+        }
+
+        @Override
+        void onRemoved(Content content) {
+
+            for (ContentContainerIndex index : getAncestorIndexes()) {
+                index.onContentRemoved(content);
+            }
+            for (IContentListener listener : getAncestorContentListeners()) {
+                listener.onContentRemoved(content);
+            }
+        }
+    };
+
+    /**
+     * The container this container was last added to, null for the root.
+     */
+    private ContentContainer mParent;
+
+    /**
+     * Id index of everything below this container, created on the first lookup by id.
+     */
+    private ContentContainerIndex mIndex;
+
+    /**
+     * Listeners for contents added anywhere below this container, null until the first one is
+     * added.
+     */
+    private CopyOnWriteArrayList<IContentListener> mContentListeners;
+
+    /**
+     * Listener for contents that are added to or removed from a container or any container below
+     * it. Adding or removing a sub container reports every content below it. The listener is
+     * called on the thread that changes the container.
+     */
+    public interface IContentListener {
+
+        /**
+         * Called after a content was added.
+         *
+         * @param content The content.
+         */
+        void onContentAdded(Content content);
+
+        /**
+         * Called after a content was removed.
+         *
+         * @param content The content.
+         */
+        void onContentRemoved(Content content);
+    }
 
     /**
      * Helper extra data storage.
@@ -159,6 +271,42 @@ public class ContentContainer implements Iterable<Content> {
         return mContents;
     }
 
+    /**
+     * Get an immutable snapshot of the {@link Content} objects that are directly attached to this
+     * container. Unlike {@link #getContents()} the snapshot does not change while a loader keeps
+     * changing the container, and it carries the change log version it was taken at.
+     *
+     * @return The snapshot.
+     */
+    public ContentListSnapshot<Content> getContentsSnapshot() {
+
+        return mContents.getSnapshot();
+    }
+
+    /**
+     * Replace the {@link Content} objects that are directly attached to this container. The new
+     * list is published in one step, so readers see either the old or the new contents.
+     *
+     * @param contents The new contents.
+     * @return The reference to this container.
+     */
+    public ContentContainer replaceContents(Collection<Content> contents) {
+
+        mContents.replace(contents);
+        return this;
+    }
+
+    /**
+     * Get the change log of the list of {@link Content} objects that are directly attached to
+     * this container. Views can use it to apply only the changes made since they were built.
+     *
+     * @return The change log.
+     */
+    public ContentChangeLog getContentChangeLog() {
+
+        return mContents.mChangeLog;
+    }
+
     /**
      * Get list of ContentContainer objects under this container.
      *
@@ -169,6 +317,31 @@ public class ContentContainer implements Iterable<Content> {
         return mContentContainers;
     }
 
+    /**
+     * Get an immutable snapshot of the ContentContainer objects under this container, see
+     * {@link #getContentsSnapshot()}.
+     *
+     * @return The snapshot.
+     */
+    public ContentListSnapshot<ContentContainer> getContentContainersSnapshot() {
+
+        return mContentContainers.getSnapshot();
+    }
+
+    /**
+     * Replace the ContentContainer objects under this container. The new list is published in one
+     * step, so readers see either the old or the new sub containers.
+     *
+     * @param contentContainers The new sub containers.
+     * @return The reference to this container.
+     */
+    public ContentContainer replaceContentContainers(
+            Collection<ContentContainer> contentContainers) {
+
+        mContentContainers.replace(contentContainers);
+        return this;
+    }
+
     /**
      * Get the count of ContentContainer objects which are directly attached to this container.
      *
@@ -218,36 +391,125 @@ public class ContentContainer implements Iterable<Content> {
     }
 
     /**
-     * Find content container by id.
+     * Find content container by id. Sub containers at any depth are searched, the lookup is
+     * answered by the id index of this container.
      *
-     * @param id Container id to be searched.
+     * @param id Container id to be searched, see {@link Recipe#KEY_DATA_TYPE_TAG}.
      * @return Found content container reference.
      */
     public ContentContainer findContentContainerById(String id) {
-        ContentContainer result = null;
-        Iterator<ContentContainer> contentContainerIterator = new FlatContentContainerIterator();
-        while (contentContainerIterator.hasNext()) {
-            ContentContainer contentContainer = contentContainerIterator.next();
-            if (contentContainer.getExtraStringValue(Recipe.KEY_DATA_TYPE_TAG).equals(id)) {
-                return contentContainer;
+
+        if (id == null) {
+            return null;
+        }
+        return getIndex().getContainer(id);
+    }
+
+    /**
+     * Find the container that directly holds the content with the given id. Sub containers at any
+     * depth are searched, the lookup is answered by the id index of this container.
+     *
+     * @param contentId Id of the content.
+     * @return The container, or null if no content with this id is found.
+     */
+    public ContentContainer findParentContainerByContentId(String contentId) {
+
+        if (contentId == null) {
+            return null;
+        }
+        return getIndex().getContentParent(contentId);
+    }
+
+    /**
+     * Get the id index of this container. It is built on the first call and then updated as
+     * contents and containers are added to or removed from this container or its sub containers.
+     *
+     * @return The index.
+     */
+    private synchronized ContentContainerIndex getIndex() {
+
+        if (mIndex == null) {
+            mIndex = new ContentContainerIndex(this);
+        }
+        return mIndex;
+    }
+
+    /**
+     * Get the indexes of this container and of the containers above it that need to learn about
+     * a change of this container.
+     *
+     * @return The indexes.
+     */
+    private List<ContentContainerIndex> getAncestorIndexes() {
+
+        List<ContentContainerIndex> indexes = new ArrayList<>(2);
+        for (ContentContainer container = this; container != null;
+             container = container.mParent) {
+            if (container.mIndex != null) {
+                indexes.add(container.mIndex);
             }
         }
-        return result;
+        return indexes;
     }
 
     /**
-     * Remove empty sub containers from this container.
+     * Add a listener for contents added to or removed from this container or any container below
+     * it. Contents already in the container are not reported.
+     *
+     * @param listener The listener.
      */
-    public void removeEmptySubContainers() {
+    public synchronized void addContentListener(IContentListener listener) {
+
+        if (mContentListeners == null) {
+            mContentListeners = new CopyOnWriteArrayList<>();
+        }
+        mContentListeners.addIfAbsent(listener);
+    }
+
+    /**
+     * Remove a listener added with {@link #addContentListener(IContentListener)}.
+     *
+     * @param listener The listener.
+     */
+    public synchronized void removeContentListener(IContentListener listener) {
+
+        if (mContentListeners != null) {
+            mContentListeners.remove(listener);
+        }
+    }
+
+    /**
+     * Get the content listeners of this container and of the containers above it.
+     *
+     * @return The listeners.
+     */
+    private List<IContentListener> getAncestorContentListeners() {
 
-        ListIterator<ContentContainer> contentContainerListIterator = getContentContainers()
-                .listIterator();
+        List<IContentListener> listeners = new ArrayList<>(1);
+        for (ContentContainer container = this; container != null;
+             container = container.mParent) {
+            if (container.mContentListeners != null) {
+                listeners.addAll(container.mContentListeners);
+            }
+        }
+        return listeners;
+    }
 
-        while (contentContainerListIterator.hasNext()) {
-            ContentContainer contentContainer = contentContainerListIterator.next();
-            if (contentContainer.getContentCount() == 0 &&
-                    contentContainer.getContentContainerCount() == 0) {
-                contentContainerListIterator.remove();
+    /**
+     * Remove empty sub containers from this container. A container whose
+     * {@link #EXTRA_PLAYLIST_ITEM_COUNT} announces contents that are not loaded yet is kept.
+     */
+    public void removeEmptySubContainers() {
+
+        synchronized (mContentContainers) {
+            for (int i = mContentContainers.size() - 1; i >= 0; i--) {
+                ContentContainer contentContainer = mContentContainers.get(i);
+                /* Zype, Evgeny Cherkasov */
+                if (contentContainer.getContentCount() == 0 &&
+                        contentContainer.getContentContainerCount() == 0 &&
+                        contentContainer.getExtraValueAsInt(EXTRA_PLAYLIST_ITEM_COUNT) <= 0) {
+                    mContentContainers.remove(i);
+                }
             }
         }
     }
@@ -319,6 +581,75 @@ public class ContentContainer implements Iterable<Content> {
         mExtras.put(key, value);
     }
 
+    /**
+     * Get the map of extra data.
+     *
+     * @return Extra data map, or null if no extra was set.
+     */
+    Map<String, Object> getExtras() {
+
+        return mExtras;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+
+        ContentCodec.writeContainer(out, this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+
+        ContentCodec.readContainer(in, this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int describeContents() {
+
+        return 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+
+        dest.writeByteArray(ContentCodec.encode(this));
+    }
+
+    /**
+     * Creates containers from parcels written by {@link #writeToParcel(Parcel, int)}.
+     */
+    public static final Parcelable.Creator<ContentContainer> CREATOR =
+            new Parcelable.Creator<ContentContainer>() {
+                @Override
+                public ContentContainer createFromParcel(Parcel source) {
+
+                    try {
+                        return ContentCodec.decodeContainer(source.createByteArray());
+                    }
+                    catch (IOException e) {
+                        throw new BadParcelableException(e);
+                    }
+                }
+
+                @Override
+                public ContentContainer[] newArray(int size) {
+
+                    return new ContentContainer[size];
+                }
+            };
+
     /**
      * String representation of this ContentContainer object.
      *
@@ -387,7 +718,7 @@ public class ContentContainer implements Iterable<Content> {
         /**
          * Current content list reference.
          */
-        private LinkedList<Content> icCurrentContents;
+        private List<Content> icCurrentContents;
 
         /**
          * Stack of all content containers under a container recursively.
@@ -425,7 +756,7 @@ public class ContentContainer implements Iterable<Content> {
             // Zero current content index.
             icCurrentContentsIndex = 0;
             // Set the current contents to root container's contents.
-            icCurrentContents = mContents;
+            icCurrentContents = mContents.getSnapshot();
 
             if (DEBUG) {
                 Log.d(TAG, "FlatContentIterator -> mContentContainers size:" + mContentContainers
@@ -482,7 +813,7 @@ public class ContentContainer implements Iterable<Content> {
                 // Get a sub container.
                 icCurrentContentContainer = icContentContainerStack.pop();
                 // Set current contents.
-                icCurrentContents = icCurrentContentContainer.mContents;
+                icCurrentContents = icCurrentContentContainer.mContents.getSnapshot();
                 // Zero current content index.
                 icCurrentContentsIndex = 0;
                 // Prev container has no content.
@@ -505,7 +836,8 @@ public class ContentContainer implements Iterable<Content> {
     }
 
     /**
-     * Searches the container and all sub-containers for specific content Id.
+     * Searches the container and all sub-containers for specific content Id. The lookup is
+     * answered by the id index of this container.
      *
      * @param contentId Id of content to search for
      * @return returns content object if one exists, else null
@@ -515,74 +847,467 @@ public class ContentContainer implements Iterable<Content> {
         if (contentId == null) {
             return null;
         }
-        Iterator<Content> contentIterator = iterator();
-        while (contentIterator.hasNext()) {
-            Content content = contentIterator.next();
-            if (StringManipulation.areStringsEqual(contentId, content.getId())) {
-                return content;
+        return getIndex().getContent(contentId);
+    }
+
+    /**
+     * Copy-on-write list of the children of this container. The children are published as an
+     * immutable {@link ContentListSnapshot} of a backing array in a single volatile write. Reads
+     * and iterations work on the snapshot that was current when they started, so they never lock
+     * and never see a half applied change, while writers are serialized by the list lock.
+     *
+     * The backing array grows by half its capacity when full. Appending writes behind the end of
+     * the published snapshots, which they never read, so it shares the array and copies only when
+     * the array has to grow. Any other change copies the array, as published snapshots still see
+     * the changed slots.
+     *
+     * Every change, including the ones made through the list returned by {@link #getContents()}
+     * or {@link #getContentContainers()}, is recorded in the change log of the list and reported
+     * to the list so the id indexes and content listeners stay up to date. Iterators work on a
+     * snapshot and their remove method removes the item from the list; they do not support set
+     * or add. Sub lists are read only views of a snapshot.
+     *
+     * @param <E> The child type.
+     */
+    private abstract static class ChildList<E> extends AbstractList<E> implements RandomAccess {
+
+        /**
+         * Log of the changes of this list.
+         */
+        private final ContentChangeLog mChangeLog = new ContentChangeLog();
+
+        /**
+         * The backing array of the current snapshot. Slots behind the size of the snapshot are
+         * free. Guarded by the list lock.
+         */
+        private Object[] mItems = new Object[0];
+
+        /**
+         * The current children.
+         */
+        private volatile ContentListSnapshot<E> mSnapshot =
+                new ContentListSnapshot<>(mItems, 0, 0, mChangeLog);
+
+        /**
+         * Called after a child was added.
+         *
+         * @param item The child.
+         */
+        abstract void onAdded(E item);
+
+        /**
+         * Called after a child was removed.
+         *
+         * @param item The child.
+         */
+        abstract void onRemoved(E item);
+
+        /**
+         * Get the current children.
+         *
+         * @return The snapshot.
+         */
+        ContentListSnapshot<E> getSnapshot() {
+
+            return mSnapshot;
+        }
+
+        /**
+         * Publish the children after a change.
+         *
+         * @param items The backing array, the first size slots are not to be modified afterwards.
+         * @param size  The number of children.
+         */
+        private void publish(Object[] items, int size) {
+
+            modCount++;
+            mItems = items;
+            mSnapshot = new ContentListSnapshot<>(items, size, mChangeLog.getVersion(),
+                                                  mChangeLog);
+        }
+
+        /**
+         * Get the capacity of a new backing array.
+         *
+         * @param minCapacity The number of children the array must hold.
+         * @return The capacity.
+         */
+        private int newCapacity(int minCapacity) {
+
+            return Math.max(minCapacity, mItems.length + (mItems.length >> 1));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+
+            return mSnapshot.size();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public E get(int index) {
+
+            return mSnapshot.get(index);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Iterator<E> iterator() {
+
+            return listIterator(0);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ListIterator<E> listIterator(int index) {
+
+            ContentListSnapshot<E> snapshot = mSnapshot;
+            if (index < 0 || index > snapshot.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " +
+                                                            snapshot.size());
             }
+            return new SnapshotIterator(snapshot, index);
         }
-        return null;
-    }
 
-    /* Zype, Evgeny Cherkasov */
-    private class FlatContentContainerIterator implements Iterator<ContentContainer> {
         /**
-         * Stack of all content containers under a container recursively.
+         * {@inheritDoc}
          */
-        private Stack<ContentContainer> contentContainerStack = new Stack<>();
+        @Override
+        public List<E> subList(int fromIndex, int toIndex) {
+
+            return mSnapshot.subList(fromIndex, toIndex);
+        }
 
         /**
-         * Constructors a FlatContentContainerIterator.
+         * {@inheritDoc}
          */
-        public FlatContentContainerIterator() {
-            // Add all sub containers of the root to the stack.
-            for (ContentContainer contentContainer : mContentContainers) {
-                addToStack(contentContainerStack, contentContainer);
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized E set(int index, E item) {
+
+            int size = mSnapshot.size();
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
             }
+            Object[] items = mItems.clone();
+            E previous = (E) items[index];
+            items[index] = item;
+            mChangeLog.onRemoved(index, 1);
+            mChangeLog.onInserted(index, 1);
+            publish(items, size);
+            onRemoved(previous);
+            onAdded(item);
+            return previous;
         }
 
         /**
-         * Recursively add all sub containers to a stack
+         * Appends the item to the backing array without copying it unless it is full.
          *
-         * @param stack            Stack in use for recursion.
-         * @param contentContainer ContentContainer to be traversed.
+         * {@inheritDoc}
          */
-        private void addToStack(Stack<ContentContainer> stack, ContentContainer contentContainer) {
-            stack.push(contentContainer);
-            // Add all the sub containers recursively.
-            for (ContentContainer subContentContainer : contentContainer.mContentContainers) {
-                addToStack(stack, subContentContainer);
+        @Override
+        public synchronized boolean add(E item) {
+
+            int size = mSnapshot.size();
+            Object[] items = mItems;
+            if (size == items.length) {
+                items = Arrays.copyOf(items, newCapacity(size + 1));
             }
+            items[size] = item;
+            mChangeLog.onInserted(size, 1);
+            publish(items, size + 1);
+            onAdded(item);
+            return true;
         }
 
         /**
          * {@inheritDoc}
+         */
+        @Override
+        public void add(int index, E item) {
+
+            addAll(index, Collections.singletonList(item));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public synchronized boolean addAll(Collection<? extends E> items) {
+
+            return addAll(mSnapshot.size(), items);
+        }
+
+        /**
+         * Adds all items with at most a single array copy and a single change log entry.
+         * Appending copies only if the backing array is full.
          *
-         * @return False if there are no {@link Content} objects left to be traversed.
+         * {@inheritDoc}
          */
         @Override
-        public boolean hasNext() {
-            // hasNext if stack still has containers
-            return !(contentContainerStack.size() == 0);
+        public synchronized boolean addAll(int index, Collection<? extends E> items) {
+
+            int size = mSnapshot.size();
+            if (index < 0 || index > size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            Object[] added = items.toArray();
+            if (added.length == 0) {
+                return false;
+            }
+            Object[] current = mItems;
+            Object[] updated = current;
+            if (index != size || size + added.length > current.length) {
+                updated = new Object[newCapacity(size + added.length)];
+                System.arraycopy(current, 0, updated, 0, index);
+                System.arraycopy(current, index, updated, index + added.length, size - index);
+            }
+            System.arraycopy(added, 0, updated, index, added.length);
+            mChangeLog.onInserted(index, added.length);
+            publish(updated, size + added.length);
+            notifyAdded(added);
+            return true;
         }
 
         /**
          * {@inheritDoc}
+         */
+        @Override
+        public synchronized E remove(int index) {
+
+            E removed = get(index);
+            removeRange(index, index + 1);
+            return removed;
+        }
+
+        /**
+         * Removes the range with a single array copy and a single change log entry. Used by
+         * {@link #clear()}.
          *
-         * @return The next {@link Content} object from the flattened list.
+         * {@inheritDoc}
          */
         @Override
-        public ContentContainer next() {
-            return contentContainerStack.pop();
+        protected synchronized void removeRange(int fromIndex, int toIndex) {
+
+            int size = mSnapshot.size();
+            if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+                throw new IndexOutOfBoundsException("From: " + fromIndex + ", To: " + toIndex +
+                                                            ", Size: " + size);
+            }
+            if (fromIndex == toIndex) {
+                return;
+            }
+            Object[] current = mItems;
+            Object[] updated = new Object[size - (toIndex - fromIndex)];
+            System.arraycopy(current, 0, updated, 0, fromIndex);
+            System.arraycopy(current, toIndex, updated, fromIndex, size - toIndex);
+            mChangeLog.onRemoved(fromIndex, toIndex - fromIndex);
+            publish(updated, updated.length);
+            notifyRemoved(Arrays.copyOfRange(current, fromIndex, toIndex));
         }
 
         /**
-         * Remove is unsupported!
+         * {@inheritDoc}
          */
         @Override
-        public void remove() {
-            throw new UnsupportedOperationException();
+        public synchronized void clear() {
+
+            removeRange(0, mSnapshot.size());
+        }
+
+        /**
+         * Replace all children. Readers see either the old or the new children, never a partly
+         * cleared list.
+         *
+         * @param items The new children.
+         */
+        synchronized void replace(Collection<? extends E> items) {
+
+            Object[] current = Arrays.copyOf(mItems, mSnapshot.size());
+            Object[] updated = items.toArray();
+            mChangeLog.onRemoved(0, current.length);
+            mChangeLog.onInserted(0, updated.length);
+            publish(updated, updated.length);
+            notifyRemoved(current);
+            notifyAdded(updated);
+        }
+
+        /**
+         * Remove an item that was in an older snapshot from the list.
+         *
+         * @param item The item.
+         * @throws ConcurrentModificationException if the item is not in the list anymore.
+         */
+        private synchronized void removeInstance(Object item) {
+
+            ContentListSnapshot<E> snapshot = mSnapshot;
+            for (int i = 0; i < snapshot.size(); i++) {
+                if (snapshot.get(i) == item) {
+                    remove(i);
+                    return;
+                }
+            }
+            throw new ConcurrentModificationException();
+        }
+
+        /**
+         * Iterator over a snapshot. Removing an item removes it from the list, other changes are
+         * not supported.
+         */
+        private class SnapshotIterator implements ListIterator<E> {
+
+            /**
+             * The iterated snapshot.
+             */
+            private final ContentListSnapshot<E> mIterated;
+
+            /**
+             * Index of the next item in the snapshot.
+             */
+            private int mCursor;
+
+            /**
+             * Index of the last returned item in the snapshot, -1 if there is none or it was
+             * removed.
+             */
+            private int mLastIndex = -1;
+
+            /**
+             * Constructor.
+             *
+             * @param iterated The iterated snapshot.
+             * @param index    Index of the first item.
+             */
+            SnapshotIterator(ContentListSnapshot<E> iterated, int index) {
+
+                mIterated = iterated;
+                mCursor = index;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public boolean hasNext() {
+
+                return mCursor < mIterated.size();
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public E next() {
+
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                mLastIndex = mCursor++;
+                return mIterated.get(mLastIndex);
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public boolean hasPrevious() {
+
+                return mCursor > 0;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public E previous() {
+
+                if (!hasPrevious()) {
+                    throw new NoSuchElementException();
+                }
+                mLastIndex = --mCursor;
+                return mIterated.get(mLastIndex);
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public int nextIndex() {
+
+                return mCursor;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public int previousIndex() {
+
+                return mCursor - 1;
+            }
+
+            /**
+             * Removes the last returned item from the list. The iterator keeps iterating the
+             * snapshot it started with.
+             */
+            @Override
+            public void remove() {
+
+                if (mLastIndex < 0) {
+                    throw new IllegalStateException();
+                }
+                removeInstance(mIterated.get(mLastIndex));
+                mLastIndex = -1;
+            }
+
+            /**
+             * Set is unsupported!
+             */
+            @Override
+            public void set(E item) {
+
+                throw new UnsupportedOperationException();
+            }
+
+            /**
+             * Add is unsupported!
+             */
+            @Override
+            public void add(E item) {
+
+                throw new UnsupportedOperationException();
+            }
+        }
+
+        /**
+         * Report added children.
+         */
+        @SuppressWarnings("unchecked")
+        private void notifyAdded(Object[] items) {
+
+            for (Object item : items) {
+                onAdded((E) item);
+            }
+        }
+
+        /**
+         * Report removed children.
+         */
+        @SuppressWarnings("unchecked")
+        private void notifyRemoved(Object[] items) {
+
+            for (Object item : items) {
+                onRemoved((E) item);
+            }
         }
     }
 
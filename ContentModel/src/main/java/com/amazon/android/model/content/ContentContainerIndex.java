@@ -0,0 +1,301 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.model.content;
+
+import com.amazon.android.recipe.Recipe;
+
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Id index of all {@link Content} and {@link ContentContainer} objects below a container. The
+ * index is created by the container on the first lookup and then kept up to date by the
+ * container tree as contents and sub containers are added and removed.
+ *
+ * If an id is present more than once, e.g. a video in several playlists, the index keeps the first
+ * one that was added. Removing an object whose id is present more than once marks the index stale,
+ * it is rebuilt on the next lookup.
+ */
+class ContentContainerIndex {
+
+    /**
+     * The container this index belongs to.
+     */
+    private final ContentContainer mOwner;
+
+    /**
+     * Contents by content id.
+     */
+    private final IdMap<Content> mContents = new IdMap<>();
+
+    /**
+     * Containers that directly hold the indexed contents, by content id.
+     */
+    private final HashMap<String, ContentContainer> mContentParents = new HashMap<>();
+
+    /**
+     * Sub containers by container id, see {@link Recipe#KEY_DATA_TYPE_TAG}.
+     */
+    private final IdMap<ContentContainer> mContainers = new IdMap<>();
+
+    /**
+     * True if the index needs to be rebuilt before the next lookup.
+     */
+    private boolean mStale = true;
+
+    /**
+     * Constructs an index for a container. The index is built on the first lookup.
+     *
+     * @param owner The container.
+     */
+    ContentContainerIndex(ContentContainer owner) {
+
+        mOwner = owner;
+    }
+
+    /**
+     * Get a content by id.
+     *
+     * @param contentId The content id.
+     * @return The content or null.
+     */
+    synchronized Content getContent(String contentId) {
+
+        ensureBuilt();
+        Content content = mContents.get(contentId);
+        if (content != null && !contentId.equals(content.getId())) {
+            // The id was changed after the content was added.
+            mStale = true;
+            ensureBuilt();
+            content = mContents.get(contentId);
+        }
+        return content;
+    }
+
+    /**
+     * Get the container that directly holds a content.
+     *
+     * @param contentId The content id.
+     * @return The container or null.
+     */
+    synchronized ContentContainer getContentParent(String contentId) {
+
+        return getContent(contentId) != null ? mContentParents.get(contentId) : null;
+    }
+
+    /**
+     * Get a sub container by id.
+     *
+     * @param containerId The container id.
+     * @return The container or null.
+     */
+    synchronized ContentContainer getContainer(String containerId) {
+
+        ensureBuilt();
+        ContentContainer container = mContainers.get(containerId);
+        if (container != null && !containerId.equals(getContainerId(container))) {
+            // The id was changed after the container was added.
+            mStale = true;
+            ensureBuilt();
+            container = mContainers.get(containerId);
+        }
+        return container;
+    }
+
+    /**
+     * Index a content that was added to a container below the owner.
+     *
+     * @param content The content.
+     * @param parent  The container the content was added to.
+     */
+    synchronized void onContentAdded(Content content, ContentContainer parent) {
+
+        if (!mStale) {
+            putContent(content, parent);
+        }
+    }
+
+    /**
+     * Drop a content that was removed from a container below the owner.
+     *
+     * @param content The content.
+     */
+    synchronized void onContentRemoved(Content content) {
+
+        if (!mStale && !mContents.remove(content.getId(), content)) {
+            mStale = true;
+        }
+        if (!mStale && content.getId() != null && mContents.get(content.getId()) == null) {
+            mContentParents.remove(content.getId());
+        }
+    }
+
+    /**
+     * Index a container and everything below it that was added to a container below the owner.
+     *
+     * @param container The container.
+     */
+    synchronized void onContainerAdded(ContentContainer container) {
+
+        if (!mStale) {
+            putContainer(container);
+        }
+    }
+
+    /**
+     * Drop a container and everything below it that was removed from a container below the owner.
+     *
+     * @param container The container.
+     */
+    synchronized void onContainerRemoved(ContentContainer container) {
+
+        if (mStale) {
+            return;
+        }
+        if (!mContainers.remove(getContainerId(container), container)) {
+            mStale = true;
+            return;
+        }
+        for (Content content : container.getContents()) {
+            onContentRemoved(content);
+        }
+        for (ContentContainer subContainer : container.getContentContainers()) {
+            onContainerRemoved(subContainer);
+        }
+    }
+
+    /**
+     * Rebuild the index from the container tree if it is stale.
+     */
+    private void ensureBuilt() {
+
+        if (!mStale) {
+            return;
+        }
+        mContents.clear();
+        mContentParents.clear();
+        mContainers.clear();
+        for (Content content : mOwner.getContents()) {
+            putContent(content, mOwner);
+        }
+        for (ContentContainer container : mOwner.getContentContainers()) {
+            putContainer(container);
+        }
+        mStale = false;
+    }
+
+    /**
+     * Add a content to the maps.
+     */
+    private void putContent(Content content, ContentContainer parent) {
+
+        if (mContents.put(content.getId(), content)) {
+            mContentParents.put(content.getId(), parent);
+        }
+    }
+
+    /**
+     * Add a container and everything below it to the maps.
+     */
+    private void putContainer(ContentContainer container) {
+
+        mContainers.put(getContainerId(container), container);
+        for (Content content : container.getContents()) {
+            putContent(content, container);
+        }
+        for (ContentContainer subContainer : container.getContentContainers()) {
+            putContainer(subContainer);
+        }
+    }
+
+    /**
+     * Get the id of a container.
+     *
+     * @param container The container.
+     * @return The id or null.
+     */
+    static String getContainerId(ContentContainer container) {
+
+        return container.getExtraStringValue(Recipe.KEY_DATA_TYPE_TAG);
+    }
+
+    /**
+     * Map from id to the first object added with this id, which also remembers the ids that were
+     * added more than once.
+     *
+     * @param <T> The object type.
+     */
+    private static class IdMap<T> {
+
+        /**
+         * Objects by id.
+         */
+        private final HashMap<String, T> mItems = new HashMap<>();
+
+        /**
+         * Ids added more than once.
+         */
+        private final HashSet<String> mDuplicateIds = new HashSet<>();
+
+        T get(String id) {
+
+            return mItems.get(id);
+        }
+
+        /**
+         * Add an object.
+         *
+         * @return True if the object is now the one mapped to the id.
+         */
+        boolean put(String id, T item) {
+
+            if (id == null) {
+                return false;
+            }
+            T current = mItems.get(id);
+            if (current == null) {
+                mItems.put(id, item);
+                return true;
+            }
+            mDuplicateIds.add(id);
+            return false;
+        }
+
+        /**
+         * Remove an object.
+         *
+         * @return False if the map can't tell which object the id maps to now.
+         */
+        boolean remove(String id, T item) {
+
+            if (id == null) {
+                return true;
+            }
+            if (mDuplicateIds.contains(id)) {
+                return false;
+            }
+            if (mItems.get(id) == item) {
+                mItems.remove(id);
+            }
+            return true;
+        }
+
+        void clear() {
+
+            mItems.clear();
+            mDuplicateIds.clear();
+        }
+    }
+}
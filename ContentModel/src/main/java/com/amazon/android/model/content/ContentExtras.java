@@ -0,0 +1,290 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.model.content;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Compact map for the extras of a {@link Content}. The values of the keys every content of the
+ * catalog has are kept in a fixed array of slots, any other key goes into a small overflow map
+ * that is only created when needed. A content with the usual extras therefore costs one small
+ * array instead of a hash map with a table and an entry object per key.
+ *
+ * String values are deduplicated with {@link String#intern()}, so e.g. the playlist id is stored
+ * only once for all contents of a playlist.
+ */
+final class ContentExtras extends AbstractMap<String, Object> implements Serializable {
+
+    /**
+     * Serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Keys stored in slots.
+     */
+    private static final String[] SLOT_KEYS = {
+            Content.EXTRA_PLAYLIST_ID,
+            Content.EXTRA_THUMBNAIL_POSTER_URL,
+            Content.EXTRA_IMAGE_POSTER_URL,
+            Content.EXTRA_PASS_REQUIRED,
+            Content.EXTRA_PURCHASE_REQUIRED,
+            Content.EXTRA_RENTAL_REQUIRED,
+            Content.EXTRA_ENTITLED,
+            Content.EXTRA_AD_TAGS,
+            Content.LIVE_TAG
+    };
+
+    /**
+     * Slot index by key.
+     */
+    private static final HashMap<String, Integer> SLOT_INDEXES = new HashMap<>();
+
+    static {
+        for (int i = 0; i < SLOT_KEYS.length; i++) {
+            SLOT_INDEXES.put(SLOT_KEYS[i], i);
+        }
+    }
+
+    /**
+     * Slot values.
+     */
+    private final Object[] mSlots = new Object[SLOT_KEYS.length];
+
+    /**
+     * Bit mask of the slots that hold a value, null values included.
+     */
+    private int mPresentSlots;
+
+    /**
+     * Values of the keys without slot, null until the first one is put.
+     */
+    private HashMap<String, Object> mOverflow;
+
+    /**
+     * Entry set view, see {@link #entrySet()}.
+     */
+    private transient Set<Map.Entry<String, Object>> mEntrySet;
+
+    /**
+     * Get the slot index of a key.
+     *
+     * @param key The key.
+     * @return The index, or -1 if the key has no slot.
+     */
+    private static int slotIndex(Object key) {
+
+        Integer index = SLOT_INDEXES.get(key);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object get(Object key) {
+
+        int index = slotIndex(key);
+        if (index >= 0) {
+            return mSlots[index];
+        }
+        return mOverflow != null ? mOverflow.get(key) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+
+        int index = slotIndex(key);
+        if (index >= 0) {
+            return (mPresentSlots & (1 << index)) != 0;
+        }
+        return mOverflow != null && mOverflow.containsKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object put(String key, Object value) {
+
+        if (value instanceof String) {
+            value = ((String) value).intern();
+        }
+        int index = slotIndex(key);
+        if (index >= 0) {
+            Object previous = mSlots[index];
+            mSlots[index] = value;
+            mPresentSlots |= 1 << index;
+            return previous;
+        }
+        if (mOverflow == null) {
+            mOverflow = new HashMap<>(4);
+        }
+        return mOverflow.put(key, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object remove(Object key) {
+
+        int index = slotIndex(key);
+        if (index >= 0) {
+            Object previous = mSlots[index];
+            mSlots[index] = null;
+            mPresentSlots &= ~(1 << index);
+            return previous;
+        }
+        return mOverflow != null ? mOverflow.remove(key) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+
+        return Integer.bitCount(mPresentSlots) + (mOverflow != null ? mOverflow.size() : 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+
+        for (int i = 0; i < mSlots.length; i++) {
+            mSlots[i] = null;
+        }
+        mPresentSlots = 0;
+        mOverflow = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+
+        if (mEntrySet == null) {
+            mEntrySet = new AbstractSet<Map.Entry<String, Object>>() {
+                @Override
+                public Iterator<Map.Entry<String, Object>> iterator() {
+
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+
+                    return ContentExtras.this.size();
+                }
+            };
+        }
+        return mEntrySet;
+    }
+
+    /**
+     * Iterates over the slots that hold a value and then over the overflow map.
+     */
+    private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+        /**
+         * Index of the next slot to look at.
+         */
+        private int mNextSlot;
+
+        /**
+         * Slot of the entry last returned, -1 if it came from the overflow map.
+         */
+        private int mLastSlot = -1;
+
+        /**
+         * Iterator of the overflow map, once all slots were returned.
+         */
+        private Iterator<Map.Entry<String, Object>> mOverflowIterator;
+
+        /**
+         * Move {@link #mNextSlot} to the next slot that holds a value.
+         */
+        private void skipEmptySlots() {
+
+            while (mNextSlot < SLOT_KEYS.length && (mPresentSlots & (1 << mNextSlot)) == 0) {
+                mNextSlot++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+
+            skipEmptySlots();
+            if (mNextSlot < SLOT_KEYS.length) {
+                return true;
+            }
+            if (mOverflowIterator == null && mOverflow != null) {
+                mOverflowIterator = mOverflow.entrySet().iterator();
+            }
+            return mOverflowIterator != null && mOverflowIterator.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (mNextSlot < SLOT_KEYS.length) {
+                final int slot = mNextSlot++;
+                mLastSlot = slot;
+                return new SimpleEntry<String, Object>(SLOT_KEYS[slot], mSlots[slot]) {
+                    @Override
+                    public Object setValue(Object value) {
+
+                        super.setValue(value);
+                        return put(SLOT_KEYS[slot], value);
+                    }
+                };
+            }
+            mLastSlot = -1;
+            return mOverflowIterator.next();
+        }
+
+        @Override
+        public void remove() {
+
+            if (mLastSlot >= 0) {
+                ContentExtras.this.remove(SLOT_KEYS[mLastSlot]);
+                mLastSlot = -1;
+            }
+            else if (mOverflowIterator != null) {
+                mOverflowIterator.remove();
+            }
+            else {
+                throw new IllegalStateException();
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.model.content;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable snapshot of a list of a {@link ContentContainer} at one version of its
+ * {@link ContentChangeLog}. Every change of the list publishes a new snapshot, so a snapshot can
+ * be read from any thread without locking while a loader keeps changing the container.
+ *
+ * @param <E> The item type.
+ */
+public final class ContentListSnapshot<E> extends AbstractList<E> implements RandomAccess {
+
+    /**
+     * The items, the first {@link #mSize} slots are never modified.
+     */
+    private final Object[] mItems;
+
+    /**
+     * The number of items.
+     */
+    private final int mSize;
+
+    /**
+     * Change log version of the list the items were taken from.
+     */
+    private final int mVersion;
+
+    /**
+     * Change log of the list.
+     */
+    private final ContentChangeLog mChangeLog;
+
+    /**
+     * Constructs a snapshot.
+     *
+     * @param items     The items. The first size slots of the array must not be modified
+     *                  afterwards.
+     * @param size      The number of items.
+     * @param version   Change log version of the items.
+     * @param changeLog Change log of the list.
+     */
+    ContentListSnapshot(Object[] items, int size, int version, ContentChangeLog changeLog) {
+
+        mItems = items;
+        mSize = size;
+        mVersion = version;
+        mChangeLog = changeLog;
+    }
+
+    /**
+     * Get the change log version of this snapshot.
+     *
+     * @return The version.
+     */
+    public int getVersion() {
+
+        return mVersion;
+    }
+
+    /**
+     * Get the changes made between a version and this snapshot, see
+     * {@link ContentChangeLog#getChangesSince(int)}.
+     *
+     * @param version The version.
+     * @return The changes, or null if the log does not reach back to the version.
+     */
+    public List<ContentChangeLog.Change> getChangesSince(int version) {
+
+        return mChangeLog.getChangesBetween(version, mVersion);
+    }
+
+    /**
+     * Get the number of items appended to the end of the list between a version and this
+     * snapshot. The appended items are the last items of this snapshot.
+     *
+     * @param version The version.
+     * @return The number of appended items, or -1 if the list was changed in any other way or the
+     * log does not reach back to the version.
+     */
+    public int getAppendedCountSince(int version) {
+
+        return mChangeLog.getAppendedCountBetween(version, mVersion, mSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+        }
+        return (E) mItems[index];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+
+        return mSize;
+    }
+}
@@ -0,0 +1,296 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.model.content;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Tag index of the contents below a root container, used to find the contents related to a
+ * content. The index is built when a root is set and then kept up to date by listening to the
+ * root's changes.
+ *
+ * Related contents are the contents that share at least one tag with a content, ranked by the
+ * number of shared tags and then by the order they were added to the index. A video present in
+ * several playlists is returned once.
+ */
+public class RelatedContentIndex implements ContentContainer.IContentListener {
+
+    /**
+     * Filter applied to the candidates of a lookup.
+     */
+    public interface IContentFilter {
+
+        /**
+         * Check whether a content may be returned.
+         *
+         * @param content The content.
+         * @return True if the content may be returned.
+         */
+        boolean accept(Content content);
+    }
+
+    /**
+     * Filter that accepts all contents.
+     */
+    public static final IContentFilter ACCEPT_ALL = new IContentFilter() {
+        @Override
+        public boolean accept(Content content) {
+
+            return true;
+        }
+    };
+
+    /**
+     * Contents by tag, in the order they were added.
+     */
+    private final HashMap<String, List<Content>> mContentsByTag = new HashMap<>();
+
+    /**
+     * Order the indexed contents were added in.
+     */
+    private final IdentityHashMap<Content, Integer> mOrdinals = new IdentityHashMap<>();
+
+    /**
+     * Ordinal of the next added content.
+     */
+    private int mNextOrdinal;
+
+    /**
+     * The root container the index was built from.
+     */
+    private ContentContainer mRoot;
+
+    /**
+     * Candidate of a lookup.
+     */
+    private static class Candidate {
+
+        /**
+         * The content.
+         */
+        final Content mContent;
+
+        /**
+         * Order the content was added in.
+         */
+        final int mOrdinal;
+
+        /**
+         * Number of shared tags.
+         */
+        int mScore;
+
+        /**
+         * Index of the last tag of the looked up content that was counted.
+         */
+        int mLastTag = -1;
+
+        /**
+         * Constructor.
+         *
+         * @param content The content.
+         * @param ordinal Order the content was added in.
+         */
+        Candidate(Content content, int ordinal) {
+
+            mContent = content;
+            mOrdinal = ordinal;
+        }
+    }
+
+    /**
+     * Orders candidates from the best to the worst.
+     */
+    private static final Comparator<Candidate> BEST_FIRST = new Comparator<Candidate>() {
+        @Override
+        public int compare(Candidate lhs, Candidate rhs) {
+
+            if (lhs.mScore != rhs.mScore) {
+                return lhs.mScore > rhs.mScore ? -1 : 1;
+            }
+            return lhs.mOrdinal < rhs.mOrdinal ? -1 : (lhs.mOrdinal == rhs.mOrdinal ? 0 : 1);
+        }
+    };
+
+    /**
+     * Point the index at a root container. The index is rebuilt from the contents of a new root,
+     * setting the current root again does nothing.
+     *
+     * @param root The root container, may be null.
+     */
+    public synchronized void setRoot(ContentContainer root) {
+
+        if (root == mRoot) {
+            return;
+        }
+        if (mRoot != null) {
+            mRoot.removeContentListener(this);
+        }
+        mContentsByTag.clear();
+        mOrdinals.clear();
+        mNextOrdinal = 0;
+        mRoot = root;
+        if (root != null) {
+            root.addContentListener(this);
+            for (Content content : root) {
+                add(content);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onContentAdded(Content content) {
+
+        add(content);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onContentRemoved(Content content) {
+
+        if (mOrdinals.remove(content) == null) {
+            return;
+        }
+        for (String tag : content.getTagArray()) {
+            List<Content> contents = mContentsByTag.get(tag);
+            if (contents == null) {
+                continue;
+            }
+            for (int i = 0; i < contents.size(); i++) {
+                if (contents.get(i) == content) {
+                    contents.remove(i);
+                    break;
+                }
+            }
+            if (contents.isEmpty()) {
+                mContentsByTag.remove(tag);
+            }
+        }
+    }
+
+    /**
+     * Get the contents related to a content. Only the best candidates are kept while the lookup
+     * runs, so the cost depends on the number of contents sharing a tag, not on the catalog size.
+     *
+     * @param content  The content.
+     * @param maxCount Maximum number of returned contents.
+     * @param filter   Filter applied to the candidates.
+     * @return The related contents, best first. The content itself and contents with the same id
+     * are not included.
+     */
+    public synchronized List<Content> getRelatedContents(Content content, int maxCount,
+                                                         IContentFilter filter) {
+
+        String[] tags = content.getTagArray();
+        if (tags.length == 0 || maxCount <= 0) {
+            return Collections.emptyList();
+        }
+        String contentId = content.getId();
+        // Candidates by content id; contents without an id are their own key.
+        HashMap<Object, Candidate> candidates = new HashMap<>();
+        IdentityHashMap<Content, Boolean> rejected = new IdentityHashMap<>();
+        for (int tagIndex = 0; tagIndex < tags.length; tagIndex++) {
+            List<Content> contents = mContentsByTag.get(tags[tagIndex]);
+            if (contents == null) {
+                continue;
+            }
+            for (Content candidateContent : contents) {
+                String id = candidateContent.getId();
+                if (candidateContent == content || (id != null && id.equals(contentId)) ||
+                        rejected.containsKey(candidateContent)) {
+                    continue;
+                }
+                Object key = id != null ? id : candidateContent;
+                Candidate candidate = candidates.get(key);
+                if (candidate == null) {
+                    if (!filter.accept(candidateContent)) {
+                        rejected.put(candidateContent, Boolean.TRUE);
+                        continue;
+                    }
+                    candidate = new Candidate(candidateContent, mOrdinals.get(candidateContent));
+                    candidates.put(key, candidate);
+                }
+                // Count each tag once, even if the video is present in several playlists.
+                if (candidate.mLastTag != tagIndex) {
+                    candidate.mLastTag = tagIndex;
+                    candidate.mScore++;
+                }
+            }
+        }
+        return selectBest(candidates.values(), maxCount);
+    }
+
+    /**
+     * Select the best candidates.
+     *
+     * @param candidates The candidates.
+     * @param maxCount   Maximum number of selected candidates.
+     * @return The contents of the best candidates, best first.
+     */
+    private static List<Content> selectBest(Iterable<Candidate> candidates, int maxCount) {
+
+        // Heap with the worst of the kept candidates on top.
+        PriorityQueue<Candidate> best =
+                new PriorityQueue<>(maxCount, Collections.reverseOrder(BEST_FIRST));
+        for (Candidate candidate : candidates) {
+            if (best.size() < maxCount) {
+                best.add(candidate);
+            }
+            else if (BEST_FIRST.compare(candidate, best.peek()) < 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+        List<Candidate> sorted = new ArrayList<>(best);
+        Collections.sort(sorted, BEST_FIRST);
+        List<Content> contents = new ArrayList<>(sorted.size());
+        for (Candidate candidate : sorted) {
+            contents.add(candidate.mContent);
+        }
+        return contents;
+    }
+
+    /**
+     * Add a content to the index.
+     *
+     * @param content The content.
+     */
+    private void add(Content content) {
+
+        if (mOrdinals.containsKey(content)) {
+            return;
+        }
+        mOrdinals.put(content, mNextOrdinal++);
+        for (String tag : content.getTagArray()) {
+            List<Content> contents = mContentsByTag.get(tag);
+            if (contents == null) {
+                contents = new ArrayList<>();
+                mContentsByTag.put(tag, contents);
+            }
+            contents.add(content);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.model.content;
+
+import com.amazon.android.recipe.Recipe;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Locale;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+/**
+ * Tests for the {@link ContentCodec} class.
+ */
+public class ContentCodecTest {
+
+    /**
+     * Create a content with every field set.
+     */
+    private static Content createContent(String id) throws Exception {
+
+        Content content = new Content("Title " + id);
+        content.setId(id);
+        content.setSubtitle("Subtitle");
+        content.setUrl("https://example.com/" + id + ".m3u8");
+        content.setDescription("Description with ünïcödé");
+        content.setCardImageUrl("https://example.com/card.jpg");
+        content.setBackgroundImageUrl("https://example.com/background.jpg");
+        content.setSubscriptionRequired(true);
+        content.setStudio("Studio");
+        content.setAvailableDate("2016-01-01");
+        content.setChannelId("channel");
+        content.setDuration(3600000L);
+        content.setFormat("hls");
+        content.setAdCuePoints(Arrays.asList(0, 60000));
+        content.setCloseCaptionUrls(Arrays.asList("https://example.com/cc.vtt"));
+        content.setTags("[\"drama\",\"news\"]");
+        content.setRecommendations("[\"2\",\"3\"]");
+        content.setLocale(Locale.GERMANY);
+        content.setExtraValue(Content.EXTRA_PLAYLIST_ID, "playlist");
+        content.setExtraValue(Content.EXTRA_PURCHASE_REQUIRED, false);
+        content.setExtraValue("rating", 4.5);
+        content.setExtraValue("views", 12L);
+        content.setExtraValue("nothing", null);
+        return content;
+    }
+
+    /**
+     * Tests that a content survives encoding and decoding.
+     */
+    @Test
+    public void testContentRoundTrip() throws Exception {
+
+        Content content = createContent("1");
+        Content decoded = ContentCodec.decodeContent(ContentCodec.encode(content));
+        assertEquals(content, decoded);
+        assertEquals(content.getTags(), decoded.getTags());
+        assertEquals(content.getRecommendations(), decoded.getRecommendations());
+        assertEquals(4.5, decoded.getExtraValue("rating"));
+        assertTrue(decoded.getExtras().containsKey("nothing"));
+
+        Content empty = new Content();
+        assertEquals(empty, ContentCodec.decodeContent(ContentCodec.encode(empty)));
+        // A new content has no fields to write.
+        assertEquals(2, ContentCodec.encode(empty).length);
+    }
+
+    /**
+     * Tests that a container tree survives encoding and decoding and that a content in several
+     * containers is written once.
+     */
+    @Test
+    public void testContainerRoundTrip() throws Exception {
+
+        Content shared = createContent("1");
+        ContentContainer root = new ContentContainer("Root");
+        ContentContainer p1 = new ContentContainer("p1");
+        p1.setExtraValue(Recipe.KEY_DATA_TYPE_TAG, "p1");
+        p1.setExtraValue(ContentContainer.EXTRA_PLAYLIST_ITEM_COUNT, 2);
+        ContentContainer p2 = new ContentContainer("p2");
+        p2.setExtraValue(Recipe.KEY_DATA_TYPE_TAG, "p2");
+        root.addContentContainer(p1).addContentContainer(p2);
+        p1.addContent(shared).addContent(createContent("2"));
+        p2.addContent(shared);
+
+        byte[] data = ContentCodec.encode(root);
+        ContentContainer decoded = ContentCodec.decodeContainer(data);
+        assertEquals("Root", decoded.getName());
+        assertEquals(2, decoded.getContentContainerCount());
+        ContentContainer decodedP1 = decoded.findContentContainerById("p1");
+        assertEquals(p1, decodedP1);
+        assertEquals(2, decodedP1.getExtraValueAsInt(ContentContainer.EXTRA_PLAYLIST_ITEM_COUNT));
+        assertEquals(Arrays.asList(shared, createContent("2")), decodedP1.getContents());
+        assertSame(decodedP1.getContents().get(0),
+                   decoded.findContentContainerById("p2").getContents().get(0));
+        assertEquals(decodedP1, decoded.findParentContainerByContentId("2"));
+
+        // The shared content and its strings are only written once.
+        assertTrue(data.length < ContentCodec.encode(shared).length * 2);
+    }
+
+    /**
+     * Tests that Java serialization uses the codec.
+     */
+    @Test
+    public void testExternalizable() throws Exception {
+
+        Content content = createContent("1");
+        ContentContainer container = new ContentContainer("p1");
+        container.addContent(content);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(content);
+        out.writeObject(container);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(content, in.readObject());
+        ContentContainer decoded = (ContentContainer) in.readObject();
+        assertEquals("p1", decoded.getName());
+        assertEquals(content, decoded.getContents().get(0));
+    }
+
+    /**
+     * Tests that malformed data is rejected.
+     */
+    @Test
+    public void testMalformedData() throws Exception {
+
+        byte[] data = ContentCodec.encode(createContent("1"));
+        try {
+            ContentCodec.decodeContent(Arrays.copyOf(data, data.length / 2));
+            fail("Truncated data must be rejected");
+        }
+        catch (IOException e) {
+            // Expected.
+        }
+        data[0] = 99;
+        try {
+            ContentCodec.decodeContent(data);
+            fail("Unknown versions must be rejected");
+        }
+        catch (IOException e) {
+            // Expected.
+        }
+    }
+}
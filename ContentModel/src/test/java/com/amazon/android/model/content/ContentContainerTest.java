@@ -14,16 +14,22 @@
  */
 package com.amazon.android.model.content;
 
+import com.amazon.android.recipe.Recipe;
+
 import org.junit.Test;
 
 import java.lang.Exception;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertNotNull;
 import static junit.framework.Assert.assertNull;
 import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
 
 /**
  * ContentContainerTest class is a test for ContentContainer class.
@@ -347,4 +353,214 @@ public class ContentContainerTest {
         // Now containers should be equal again.
         assertEquals(cc1, cc2);
     }
-}
\ No newline at end of file
+
+    /**
+     * Create a content with an id.
+     */
+    private static Content createContent(String id) {
+
+        Content content = new Content(id);
+        content.setId(id);
+        return content;
+    }
+
+    /**
+     * Create a container with an id.
+     */
+    private static ContentContainer createContainer(String id) {
+
+        ContentContainer contentContainer = new ContentContainer(id);
+        contentContainer.setExtraValue(Recipe.KEY_DATA_TYPE_TAG, id);
+        return contentContainer;
+    }
+
+    /**
+     * Test that lookups by id see contents and containers added after the index was built.
+     */
+    @Test
+    public void testFindByIdAfterAdd() throws Exception {
+
+        ContentContainer root = new ContentContainer("root");
+        ContentContainer playlist = createContainer("p1");
+        root.addContentContainer(playlist);
+        playlist.addContent(createContent("v1"));
+
+        // Builds the index.
+        assertNotNull(root.findContentById("v1"));
+        assertNull(root.findContentById("v2"));
+
+        // Add to a container that is already attached.
+        playlist.addContent(createContent("v2"));
+        assertEquals("v2", root.findContentById("v2").getId());
+        assertEquals(playlist, root.findParentContainerByContentId("v2"));
+
+        // Attach a container that already has children.
+        ContentContainer nested = createContainer("p2");
+        nested.addContentContainer(createContainer("p3").addContent(createContent("v3")));
+        playlist.getContentContainers().add(nested);
+        assertEquals("p3", root.findContentContainerById("p3").getName());
+        assertEquals("v3", root.findContentById("v3").getId());
+        assertEquals("p3", root.findParentContainerByContentId("v3").getName());
+        assertEquals(nested, playlist.findContentContainerById("p2"));
+    }
+
+    /**
+     * Test that lookups by id do not return removed contents and containers.
+     */
+    @Test
+    public void testFindByIdAfterRemove() throws Exception {
+
+        ContentContainer root = new ContentContainer("root");
+        ContentContainer p1 = createContainer("p1");
+        ContentContainer p2 = createContainer("p2");
+        root.addContentContainer(p1).addContentContainer(p2);
+        p1.addContent(createContent("v1")).addContent(createContent("v2"));
+        // The same video in two playlists.
+        p2.addContent(createContent("v2")).addContent(createContent("v3"));
+
+        assertEquals(p1, root.findParentContainerByContentId("v2"));
+
+        p1.getContents().clear();
+        assertNull(root.findContentById("v1"));
+        assertEquals(p2, root.findParentContainerByContentId("v2"));
+
+        root.getContentContainers().remove(1);
+        assertNull(root.findContentContainerById("p2"));
+        assertNull(root.findContentById("v3"));
+        assertEquals(p1, root.findContentContainerById("p1"));
+
+        root.removeEmptySubContainers();
+        assertNull(root.findContentContainerById("p1"));
+
+        // A playlist whose videos are loaded later is kept.
+        ContentContainer p3 = new ContentContainer("p3");
+        p3.setExtraValue(Recipe.KEY_DATA_TYPE_TAG, "p3");
+        p3.setExtraValue(ContentContainer.EXTRA_PLAYLIST_ITEM_COUNT, 10);
+        root.addContentContainer(p3);
+        root.removeEmptySubContainers();
+        assertEquals(p3, root.findContentContainerById("p3"));
+    }
+
+    /**
+     * Test the content change log.
+     */
+    @Test
+    public void testContentChangeLog() throws Exception {
+
+        ContentContainer cc = new ContentContainer("test");
+        ContentChangeLog changeLog = cc.getContentChangeLog();
+        cc.addContent(createContent("v1")).addContent(createContent("v2"));
+        int version = changeLog.getVersion();
+        assertEquals(2, version);
+
+        // Appending a page is a single change.
+        cc.getContents().addAll(Arrays.asList(createContent("v3"), createContent("v4")));
+        cc.addContent(createContent("v5"));
+        List<ContentChangeLog.Change> changes = changeLog.getChangesSince(version);
+        assertEquals(1, changes.size());
+        assertEquals(ContentChangeLog.Change.INSERTED, changes.get(0).getType());
+        assertEquals(2, changes.get(0).getStart());
+        assertEquals(3, changes.get(0).getCount());
+        assertEquals(3, changeLog.getAppendedCountSince(version));
+        assertEquals(1, changeLog.getAppendedCountSince(version + 2));
+        assertEquals(0, changeLog.getAppendedCountSince(changeLog.getVersion()));
+
+        // Anything else than appending is reported as such.
+        version = changeLog.getVersion();
+        cc.getContents().clear();
+        changes = changeLog.getChangesSince(version);
+        assertEquals(1, changes.size());
+        assertEquals(ContentChangeLog.Change.REMOVED, changes.get(0).getType());
+        assertEquals(0, changes.get(0).getStart());
+        assertEquals(5, changes.get(0).getCount());
+        assertEquals(-1, changeLog.getAppendedCountSince(version));
+
+        // Versions older than the log are not reported.
+        for (int i = 0; i < 100; i++) {
+            cc.getContents().add(0, createContent("v" + i));
+        }
+        assertNull(changeLog.getChangesSince(version));
+        assertEquals(-1, changeLog.getAppendedCountSince(version));
+    }
+
+    /**
+     * Test that snapshots do not change while the container is changed.
+     */
+    @Test
+    public void testSnapshots() throws Exception {
+
+        ContentContainer cc = createContainer("p1");
+        cc.addContent(createContent("v1"));
+        ContentListSnapshot<Content> snapshot = cc.getContentsSnapshot();
+        Iterator<Content> iterator = cc.getContents().iterator();
+
+        cc.getContents().addAll(Arrays.asList(createContent("v2"), createContent("v3")));
+        ContentListSnapshot<Content> next = cc.getContentsSnapshot();
+        cc.addContent(createContent("v4"));
+
+        // Iterating while the container changes sees the old items.
+        assertEquals("v1", iterator.next().getId());
+        assertFalse(iterator.hasNext());
+        assertEquals(1, snapshot.size());
+        assertEquals(3, next.size());
+        assertEquals(2, next.getAppendedCountSince(snapshot.getVersion()));
+        assertEquals(3, cc.getContentsSnapshot().getAppendedCountSince(snapshot.getVersion()));
+
+        // Replacing the contents is published in one step.
+        cc.replaceContents(Arrays.asList(createContent("v5"), createContent("v6")));
+        assertEquals(3, next.size());
+        assertEquals(2, cc.getContentCount());
+        assertEquals(-1, cc.getContentsSnapshot().getAppendedCountSince(next.getVersion()));
+        assertNull(cc.findContentById("v1"));
+        assertEquals("v6", cc.findContentById("v6").getId());
+
+        // Removing through an iterator removes from the container, the iteration goes on over
+        // the snapshot it started with.
+        Iterator<Content> removing = cc.getContents().iterator();
+        assertEquals("v5", removing.next().getId());
+        removing.remove();
+        cc.addContent(createContent("v7"));
+        assertEquals("v6", removing.next().getId());
+        assertFalse(removing.hasNext());
+        assertEquals(2, cc.getContentCount());
+        assertEquals("v6", cc.getContents().get(0).getId());
+        assertNull(cc.findContentById("v5"));
+        try {
+            removing.remove();
+            removing.remove();
+            fail("An item can only be removed once");
+        }
+        catch (IllegalStateException e) {
+            // Expected.
+        }
+        assertEquals(1, cc.getContentCount());
+        assertEquals("v7", cc.getContents().get(0).getId());
+    }
+
+    /**
+     * Test that appending shares the backing array without changing published snapshots.
+     */
+    @Test
+    public void testAppendKeepsSnapshots() throws Exception {
+
+        ContentContainer cc = createContainer("p1");
+        List<ContentListSnapshot<Content>> snapshots = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            cc.addContent(createContent("v" + i));
+            snapshots.add(cc.getContentsSnapshot());
+        }
+        cc.getContents().remove(50);
+        cc.addContent(createContent("v100"));
+
+        for (int i = 0; i < snapshots.size(); i++) {
+            ContentListSnapshot<Content> snapshot = snapshots.get(i);
+            assertEquals(i + 1, snapshot.size());
+            for (int j = 0; j <= i; j++) {
+                assertEquals("v" + j, snapshot.get(j).getId());
+            }
+        }
+        assertEquals(100, cc.getContentCount());
+        assertEquals("v51", cc.getContents().get(50).getId());
+        assertEquals("v100", cc.getContents().get(99).getId());
+    }
+}
@@ -17,7 +17,10 @@ package com.amazon.android.model.content;
 import org.junit.Test;
 
 import java.lang.Exception;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Locale;
+import java.util.Map;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
@@ -214,4 +217,53 @@ public class ContentTest {
         // Now the contents should not be equal.
         assertFalse(content1.equals(content2));
     }
+
+    /**
+     * Test the extras map with keys that have a slot and keys that don't.
+     */
+    @Test
+    public void testExtras() throws Exception {
+
+        Content content = new Content();
+        content.setExtraValue(Content.EXTRA_PLAYLIST_ID, "playlist");
+        content.setExtraValue(Content.EXTRA_AD_TAGS, null);
+        content.setExtraValue("key", "value");
+
+        Map<String, Object> expected = new HashMap<>();
+        expected.put(Content.EXTRA_PLAYLIST_ID, "playlist");
+        expected.put(Content.EXTRA_AD_TAGS, null);
+        expected.put("key", "value");
+
+        // The extras behave like a hash map, null values included.
+        assertEquals(expected, content.getExtras());
+        assertEquals(expected.hashCode(), content.getExtras().hashCode());
+        assertTrue(content.getExtras().containsKey(Content.EXTRA_AD_TAGS));
+        assertFalse(content.getExtras().containsKey(Content.EXTRA_ENTITLED));
+        assertEquals("playlist", content.getExtraValueAsString(Content.EXTRA_PLAYLIST_ID));
+
+        // Remove through the iterator.
+        Iterator<Map.Entry<String, Object>> iterator = content.getExtras().entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getKey().equals(Content.EXTRA_PLAYLIST_ID)) {
+                iterator.remove();
+            }
+        }
+        assertNull(content.getExtraValue(Content.EXTRA_PLAYLIST_ID));
+        assertEquals(2, content.getExtras().size());
+    }
+
+    /**
+     * Test that tags are parsed once and shared between contents.
+     */
+    @Test
+    public void testTagsAreDeduplicated() throws Exception {
+
+        Content content1 = new Content();
+        Content content2 = new Content();
+        content1.setTags("[\"drama\",\"comedy\"]");
+        content2.setTags(new String("[\"comedy\"]"));
+
+        assertTrue(content1.getTags().get(1) == content2.getTags().get(0));
+        assertTrue(content1.hasSimilarTags(content2));
+    }
 }
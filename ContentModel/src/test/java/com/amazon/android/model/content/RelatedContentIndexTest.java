@@ -0,0 +1,136 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.model.content;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Tests for the {@link RelatedContentIndex} class.
+ */
+public class RelatedContentIndexTest {
+
+    /**
+     * Create a content with tags.
+     */
+    private static Content createContent(String id, String... tags) {
+
+        Content content = new Content(id);
+        content.setId(id);
+        content.setTagArray(tags);
+        return content;
+    }
+
+    /**
+     * Tests that related contents are ranked by shared tags and limited to the maximum count.
+     */
+    @Test
+    public void testRanking() throws Exception {
+
+        Content content = createContent("c", "a", "b", "c");
+        Content oneTag = createContent("one", "a");
+        Content twoTags = createContent("two", "a", "b");
+        Content threeTags = createContent("three", "c", "b", "a");
+        Content otherOneTag = createContent("other", "c");
+        Content unrelated = createContent("unrelated", "x");
+
+        ContentContainer root = new ContentContainer("root");
+        root.addContent(content)
+            .addContent(oneTag)
+            .addContent(twoTags)
+            .addContent(threeTags)
+            .addContent(otherOneTag)
+            .addContent(unrelated);
+        RelatedContentIndex index = new RelatedContentIndex();
+        index.setRoot(root);
+
+        List<Content> related =
+                index.getRelatedContents(content, 10, RelatedContentIndex.ACCEPT_ALL);
+        assertEquals(4, related.size());
+        assertSame(threeTags, related.get(0));
+        assertSame(twoTags, related.get(1));
+        assertSame(oneTag, related.get(2));
+        assertSame(otherOneTag, related.get(3));
+
+        related = index.getRelatedContents(content, 2, RelatedContentIndex.ACCEPT_ALL);
+        assertEquals(2, related.size());
+        assertSame(threeTags, related.get(0));
+        assertSame(twoTags, related.get(1));
+    }
+
+    /**
+     * Tests that videos in several playlists are returned once and filtered contents are
+     * skipped.
+     */
+    @Test
+    public void testDuplicatesAndFilter() throws Exception {
+
+        Content content = createContent("c", "a");
+        ContentContainer first = new ContentContainer("first");
+        first.addContent(content).addContent(createContent("dup", "a"));
+        ContentContainer second = new ContentContainer("second");
+        second.addContent(createContent("dup", "a"))
+              .addContent(createContent("c", "a"))
+              .addContent(createContent("hidden", "a"));
+        ContentContainer root = new ContentContainer("root");
+        root.addContentContainer(first).addContentContainer(second);
+        RelatedContentIndex index = new RelatedContentIndex();
+        index.setRoot(root);
+
+        List<Content> related = index.getRelatedContents(
+                content, 10, new RelatedContentIndex.IContentFilter() {
+                    @Override
+                    public boolean accept(Content candidate) {
+
+                        return !"hidden".equals(candidate.getId());
+                    }
+                });
+        assertEquals(1, related.size());
+        assertEquals("dup", related.get(0).getId());
+    }
+
+    /**
+     * Tests that the index follows changes of the root.
+     */
+    @Test
+    public void testRootChanges() throws Exception {
+
+        Content content = createContent("c", "a");
+        ContentContainer root = new ContentContainer("root");
+        root.addContent(content);
+        RelatedContentIndex index = new RelatedContentIndex();
+        index.setRoot(root);
+        assertTrue(index.getRelatedContents(content, 10, RelatedContentIndex.ACCEPT_ALL)
+                        .isEmpty());
+
+        ContentContainer playlist = new ContentContainer("playlist");
+        Content added = createContent("added", "a");
+        playlist.addContent(added);
+        root.addContentContainer(playlist);
+        List<Content> related =
+                index.getRelatedContents(content, 10, RelatedContentIndex.ACCEPT_ALL);
+        assertEquals(1, related.size());
+        assertSame(added, related.get(0));
+
+        root.getContentContainers().remove(0);
+        assertTrue(index.getRelatedContents(content, 10, RelatedContentIndex.ACCEPT_ALL)
+                        .isEmpty());
+    }
+}
@@ -32,12 +32,19 @@ import java.security.NoSuchAlgorithmException;
 /**
  * This class is an adapter to be used in {@link com.amazon.dataloader.dataloadmanager
  * .DataLoadManager} to handle managing the cache. It uses {@link MemoryBasedCacheManager} as
- * underlying cache manager mechanism.
+ * underlying cache manager mechanism. Payloads are stored deflate compressed, see
+ * {@link #CACHE_PAYLOAD_ENCODING}; they are decoded when the cached data is read.
  */
 public class CacheManagerAdapter implements IDataLoader {
 
     private static final String TAG = CacheManagerAdapter.class.getName();
 
+    /**
+     * Encoding of the payloads kept in the cache. JSON feeds compress by several times, which
+     * matters more on memory constrained devices than the time to inflate them on a cache hit.
+     */
+    public static final Data.PayloadEncoding CACHE_PAYLOAD_ENCODING = Data.PayloadEncoding.DEFLATE;
+
     /**
      * The cache manager.
      */
@@ -122,7 +129,8 @@ public class CacheManagerAdapter implements IDataLoader {
     }
 
     /**
-     * Stores the data as specified by the {@link Recipe}.
+     * Stores the data as specified by the {@link Recipe}. A copy of the data with the payload
+     * encoded as {@link #CACHE_PAYLOAD_ENCODING} is stored, the data passed in is not changed.
      *
      * @param dataLoadRecipe The recipe.
      * @param params         Parameters that are required for the recipe.
@@ -132,7 +140,8 @@ public class CacheManagerAdapter implements IDataLoader {
             NoSuchAlgorithmException {
 
         String key = generateKey(dataLoadRecipe, params);
-        mCacheManager.put(key, data);
+        mCacheManager.put(key, data != null ? data.copyWithPayloadEncoding(CACHE_PAYLOAD_ENCODING)
+                                            : null);
     }
 
     /**
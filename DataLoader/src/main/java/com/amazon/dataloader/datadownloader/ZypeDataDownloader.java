@@ -53,6 +53,9 @@ public class ZypeDataDownloader extends ADataDownloader {
     protected static final String URL_GENERATOR_IMPL = "url_generator_impl";
     // Key to locate the URL generator.
     protected static final String URL_GENERATOR_RECIPE = "url_generator";
+    // Number of top rows whose first page of videos is loaded with the playlists. The videos of
+    // the other rows are loaded when the rows come into view.
+    public static final int INITIAL_ROW_COUNT = 4;
 
     /**
      * {@link AUrlGenerator} instance.
@@ -129,11 +132,31 @@ public class ZypeDataDownloader extends ADataDownloader {
         GsonBuilder builder = new GsonBuilder();
         Gson gson = builder.create();
 
+        // Sort first, the rows are shown in this order
+        Collections.sort(playlists, (a, b) -> {
+            Integer valA;
+            Integer valB;
+            try {
+                valA = a.priority;
+                valB = b.priority;
+            }
+            catch (Exception e) {
+                return 0;
+            }
+            return valA.compareTo(valB);
+        });
+
+        // Load videos of the top rows only, the browse screen loads the other rows when they
+        // come into view
+        int rowCount = 0;
         for (PlaylistData playlistData : playlists) {
             // Skip playlist that are not direct child of the root playlist
             if (TextUtils.isEmpty(playlistData.parentId) || !playlistData.parentId.equals(ZypeSettings.ROOT_PLAYLIST_ID)) {
                 continue;
             }
+            if (rowCount++ >= INITIAL_ROW_COUNT) {
+                break;
+            }
 
             if (playlistData.playlistItemCount > 0) {
                 Log.d(TAG, "fetchData(): Loading videos for " + playlistData.title);
@@ -148,19 +171,6 @@ public class ZypeDataDownloader extends ADataDownloader {
         }
         Log.d(TAG, "fetchData(): Videos loaded");
 
-        Collections.sort(playlists, (a, b) -> {
-            Integer valA;
-            Integer valB;
-            try {
-                valA = a.priority;
-                valB = b.priority;
-            }
-            catch (Exception e) {
-                return 0;
-            }
-            return valA.compareTo(valB);
-        });
-
         for (PlaylistData playlistData : playlists) {
             String playlistId = playlistData.id;
             if (playlistId.equals(ZypeSettings.ROOT_PLAYLIST_ID) || TextUtils.isEmpty(playlistData.parentId)) {
@@ -196,6 +196,15 @@ public class FacebookAuthentication implements IAuthentication {
         responseHandler.onSuccess(new Bundle());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getUserId() {
+
+        return null;
+    }
+
     /**
      * {@inheritDoc}
      */
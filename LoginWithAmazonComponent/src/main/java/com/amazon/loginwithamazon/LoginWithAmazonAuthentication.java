@@ -153,6 +153,15 @@ public class LoginWithAmazonAuthentication implements IAuthentication {
         });
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getUserId() {
+
+        return null;
+    }
+
     /**
      * This concept does not exist with Login with Amazon, so we will leave it blank.
      */
@@ -0,0 +1,37 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.module;
+
+import java.util.List;
+
+/**
+ * Index of the module implementations of the app. The build generates it from the merged
+ * manifest as {@value #GENERATED_CLASS_NAME}, so the app does not have to read the manifest
+ * meta-data on start.
+ */
+public interface IModuleIndex {
+
+    /**
+     * Class name of the generated index.
+     */
+    String GENERATED_CLASS_NAME = "com.amazon.android.module.GeneratedModuleIndex";
+
+    /**
+     * Get the module implementations in manifest order.
+     *
+     * @return The module entries.
+     */
+    List<ModuleEntry> getEntries();
+}
@@ -19,9 +19,14 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
+import android.os.AsyncTask;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.Log;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Base class for a modular application.
  */
@@ -92,13 +97,100 @@ public abstract class ModularApplication extends Application {
     abstract public void onModulesLoaded();
 
     /**
-     * Initialize the modules to the module manager.
+     * Initialize the modules to the module manager. The implementation creators are registered by
+     * class name and loaded with their first use; the creators of the implementations marked for
+     * warm-up are loaded in the background once {@link #onModulesLoaded()} returned.
      *
      * @param context Application context.
      */
     protected void initAllModules(Context context) {
 
-        initPluginsByManifestMetadata(context);
+        List<ModuleEntry> entries = readGeneratedIndex();
+        if (entries == null) {
+            entries = readManifestIndex(context);
+        }
+        if (entries == null) {
+            return;
+        }
+
+        for (ModuleEntry entry : entries) {
+            Log.d(TAG, "pluginName:" + entry.getPluginName() +
+                    " interfaceName:" + entry.getInterfaceName() +
+                    " implCreatorName:" + entry.getImplCreatorName());
+
+            if (ModuleManager.getInstance().getModule(entry.getInterfaceName()) == null) {
+                setModuleForInterface(entry.getInterfaceName());
+            }
+
+            ModuleManager.getInstance()
+                         .getModule(entry.getInterfaceName())
+                         .setImplCreator(entry.getPluginName(), entry.getImplCreatorName());
+        }
+        Log.i(TAG, "All Modules Initialized!");
+        mModulesLoaded = true;
+        onModulesLoaded();
+
+        for (ModuleEntry entry : entries) {
+            if (entry.isWarmUp()) {
+                warmUpModule(entry.getInterfaceName());
+            }
+        }
+    }
+
+    /**
+     * Load the implementation creator class of a module in the background, so its first use does
+     * not have to wait for the class loading. The implementation itself is still created with its
+     * first use, on the thread of that use, as implementations may need to be initialized on the
+     * main thread.
+     *
+     * @param interfaceName Simple name of the interface of the module.
+     */
+    protected void warmUpModule(final String interfaceName) {
+
+        final Module module = ModuleManager.getInstance().getModule(interfaceName);
+        if (module == null) {
+            Log.w(TAG, "No module to warm up for interface " + interfaceName);
+            return;
+        }
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+
+                long start = SystemClock.elapsedRealtime();
+                try {
+                    module.loadImplCreator();
+                    Log.i(TAG, "Warmed up " + interfaceName + " in " +
+                            (SystemClock.elapsedRealtime() - start) + " ms");
+                }
+                catch (Exception e) {
+                    Log.e(TAG, "Warming up " + interfaceName + " failed", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads the module index the build generated from the merged manifest.
+     *
+     * @return The module entries, or null if the build did not generate an index.
+     */
+    private List<ModuleEntry> readGeneratedIndex() {
+
+        try {
+            IModuleIndex index =
+                    (IModuleIndex) Class.forName(IModuleIndex.GENERATED_CLASS_NAME).newInstance();
+            return index.getEntries();
+        }
+        catch (ClassNotFoundException e) {
+            Log.d(TAG, "No generated module index, reading the manifest");
+        }
+        catch (InstantiationException e) {
+            Log.e(TAG, "InstantiationException while reading the module index", e);
+        }
+        catch (IllegalAccessException e) {
+            Log.e(TAG, "IllegalAccessException while reading the module index", e);
+        }
+        return null;
     }
 
     /**
@@ -106,8 +198,9 @@ public abstract class ModularApplication extends Application {
      * plugins to initialize.
      *
      * @param context Application context.
+     * @return The module entries, or null if the metadata could not be read.
      */
-    private void initPluginsByManifestMetadata(Context context) {
+    private List<ModuleEntry> readManifestIndex(Context context) {
 
         try {
             ApplicationInfo applicationInfo = context.getPackageManager()
@@ -115,51 +208,26 @@ public abstract class ModularApplication extends Application {
                                                              , PackageManager.GET_META_DATA);
 
             Bundle bundle = applicationInfo.metaData;
+            List<ModuleEntry> entries = new ArrayList<>();
 
             for (String key : bundle.keySet()) {
                 if (key.startsWith(AMZN_ANDROID_PLUGIN_TAG)) {
                     String pluginName = key.substring(key.indexOf(AMZN_PLUGIN_DATA_SEPARATOR) + 1);
 
-                    String keyValue = bundle.getString(key);
-                    if (keyValue == null) {
-                        Log.e(TAG, "Null value received for key: " + key);
+                    ModuleEntry entry = ModuleEntry.parse(pluginName, bundle.getString(key));
+                    if (entry == null) {
+                        Log.e(TAG, "Invalid value received for key: " + key);
                         continue;
                     }
-                    String interfaceName = keyValue.substring(0, keyValue.indexOf
-                            (AMZN_PLUGIN_DATA_SEPARATOR));
-                    String implCreatorName = keyValue.substring(keyValue.indexOf
-                            (AMZN_PLUGIN_DATA_SEPARATOR) + 1);
-                    Log.d(TAG, "pluginName:" + pluginName +
-                            " interfaceName:" + interfaceName +
-                            " implCreatorName:" + implCreatorName);
-
-                    Class<?> clazz = Class.forName(implCreatorName);
-
-                    if (ModuleManager.getInstance().getModule(interfaceName) == null) {
-                        setModuleForInterface(interfaceName);
-                    }
-
-                    ModuleManager.getInstance()
-                                 .getModule(interfaceName)
-                                 .setImplCreator(pluginName, (IImplCreator) clazz.newInstance());
+                    entries.add(entry);
                 }
             }
-            Log.i(TAG, "All Modules Initialized!");
-            mModulesLoaded = true;
-            onModulesLoaded();
+            return entries;
         }
         catch (PackageManager.NameNotFoundException e) {
             Log.e(TAG, "PackageManager.NameNotFoundException during plugin initialization", e);
         }
-        catch (ClassNotFoundException e) {
-            Log.e(TAG, "ClassNotFoundException during plugin initialization", e);
-        }
-        catch (InstantiationException e) {
-            Log.e(TAG, "InstantiationException during plugin initialization", e);
-        }
-        catch (IllegalAccessException e) {
-            Log.e(TAG, "IllegalAccessException during plugin initialization", e);
-        }
+        return null;
     }
 
     /**
@@ -21,6 +21,10 @@ import java.util.Map;
  * Module class handles implementation creator(s) and implementations of
  * interface which defined by I.
  *
+ * Implementation creators registered by class name are loaded with the first implementation they
+ * create, and the default implementation is created with the first {@link #getImpl(boolean)}
+ * call, so modules the app never uses cost nothing. A module may be used from any thread.
+ *
  * @param <I> Interface which this module responsible for.
  */
 public class Module<I> {
@@ -50,6 +54,85 @@ public class Module<I> {
      */
     private HashMap<String, IImplCreator> mImplCreators = new HashMap<>();
 
+    /**
+     * Listener for the creation of the default implementation.
+     */
+    private IImplListener<I> mImplListener;
+
+    /**
+     * Listener interface for the creation of the default implementation.
+     *
+     * @param <I> Interface of the implementation.
+     */
+    public interface IImplListener<I> {
+
+        /**
+         * Called when the default implementation was created, on the thread that created it.
+         *
+         * @param impl The implementation.
+         */
+        void onImplCreated(I impl);
+    }
+
+    /**
+     * Implementation creator that loads the actual creator class with the first implementation it
+     * creates.
+     */
+    private static final class LazyImplCreator implements IImplCreator {
+
+        /**
+         * Class name of the actual creator.
+         */
+        private final String mClassName;
+
+        /**
+         * The actual creator, once loaded.
+         */
+        private IImplCreator mImplCreator;
+
+        /**
+         * Constructor.
+         *
+         * @param className Class name of the actual creator.
+         */
+        LazyImplCreator(String className) {
+
+            mClassName = className;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @throws IllegalStateException If the creator class can not be instantiated.
+         */
+        @Override
+        public Object createImpl() {
+
+            return load().createImpl();
+        }
+
+        /**
+         * Load and instantiate the actual creator, if it is not loaded yet.
+         *
+         * @return The actual creator.
+         * @throws IllegalStateException If the creator class can not be instantiated.
+         */
+        synchronized IImplCreator load() {
+
+            if (mImplCreator == null) {
+                try {
+                    mImplCreator = (IImplCreator) Class.forName(mClassName).newInstance();
+                }
+                catch (ClassNotFoundException | InstantiationException |
+                        IllegalAccessException e) {
+                    throw new IllegalStateException("Could not load implementation creator " +
+                                                            mClassName, e);
+                }
+            }
+            return mImplCreator;
+        }
+    }
+
     /**
      * Default constructor.
      */
@@ -63,7 +146,7 @@ public class Module<I> {
      * @param name        Name of the implementation creator which is set by the module.
      * @param implCreator Implementation creator instance.
      */
-    public void setImplCreator(String name, IImplCreator implCreator) {
+    public synchronized void setImplCreator(String name, IImplCreator implCreator) {
         // Set the first one as default.
         if (mImplCreator == null) {
             mImplCreator = implCreator;
@@ -71,12 +154,55 @@ public class Module<I> {
         mImplCreators.put(name, implCreator);
     }
 
+    /**
+     * Set ImplCreator by class name. The class is loaded with the first implementation the
+     * creator creates.
+     *
+     * @param name                 Name of the implementation creator which is set by the module.
+     * @param implCreatorClassName Class name of the implementation creator.
+     */
+    public void setImplCreator(String name, String implCreatorClassName) {
+
+        setImplCreator(name, new LazyImplCreator(implCreatorClassName));
+    }
+
+    /**
+     * Set the listener for the creation of the default implementation. Use it to configure the
+     * implementation where it is created, instead of creating it up front. If the default
+     * implementation exists already, the listener is called right away.
+     *
+     * @param listener The listener.
+     */
+    public synchronized void setImplListener(IImplListener<I> listener) {
+
+        mImplListener = listener;
+        if (mImpl != null) {
+            listener.onImplCreated(mImpl);
+        }
+    }
+
+    /**
+     * Load the class of the default implementation creator if it was set by class name. The
+     * implementation is not created and the module lock is not held while the class loads, so
+     * this may run in the background while the module is used; the implementation and the
+     * listener still run with the first {@link #getImpl(boolean)} call.
+     *
+     * @throws IllegalStateException If the creator class can not be instantiated.
+     */
+    public void loadImplCreator() {
+
+        IImplCreator implCreator = getImplCreator();
+        if (implCreator instanceof LazyImplCreator) {
+            ((LazyImplCreator) implCreator).load();
+        }
+    }
+
     /**
      * Get the default ImplCreator.
      *
      * @return Implementation creator instance.
      */
-    public IImplCreator getImplCreator() {
+    public synchronized IImplCreator getImplCreator() {
 
         return mImplCreator;
     }
@@ -87,7 +213,7 @@ public class Module<I> {
      * @param name Implementation creator name.
      * @return Implementation creator instance.
      */
-    public IImplCreator getImplCreator(String name) {
+    public synchronized IImplCreator getImplCreator(String name) {
 
         return mImplCreators.get(name);
     }
@@ -97,7 +223,7 @@ public class Module<I> {
      *
      * @return Implementation of interface I.
      */
-    public I createImpl() {
+    public synchronized I createImpl() {
 
         return (I) mImplCreator.createImpl();
     }
@@ -108,7 +234,7 @@ public class Module<I> {
      * @param name Implementation creator name.
      * @return Implementation of interface I.
      */
-    public I createImpl(String name) {
+    public synchronized I createImpl(String name) {
 
         return (I) mImplCreators.get(name).createImpl();
     }
@@ -119,7 +245,7 @@ public class Module<I> {
      * @param name Implementation name.
      * @param i    Implementation interface.
      */
-    public void setImpl(String name, I i) {
+    public synchronized void setImpl(String name, I i) {
         // Set the first one as default.
         if (mImpl == null) {
             mImpl = i;
@@ -133,10 +259,13 @@ public class Module<I> {
      * @param createIfNExists Defines if impl will be created if it does not exists.
      * @return Implementation interface.
      */
-    public I getImpl(boolean createIfNExists) {
+    public synchronized I getImpl(boolean createIfNExists) {
 
         if (createIfNExists && mImpl == null) {
             mImpl = createImpl();
+            if (mImplListener != null) {
+                mImplListener.onImplCreated(mImpl);
+            }
         }
         return mImpl;
     }
@@ -147,7 +276,7 @@ public class Module<I> {
      * @param name Implementation name.
      * @return Implementation interface.
      */
-    public I getImpl(String name) {
+    public synchronized I getImpl(String name) {
 
         return mImpls.get(name);
     }
@@ -167,7 +296,7 @@ public class Module<I> {
      *
      * @param listener Implementation iterator listener function.
      */
-    public void iterateImpls(ImplIteratorListener listener) {
+    public synchronized void iterateImpls(ImplIteratorListener listener) {
 
         for (Map.Entry<String, I> impl : mImpls.entrySet()) {
             listener.onImpl(impl.getValue());
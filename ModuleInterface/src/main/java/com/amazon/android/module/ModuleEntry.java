@@ -0,0 +1,148 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.module;
+
+/**
+ * A module implementation declared by a component. Components declare their implementation with
+ * a manifest meta-data entry named {@code AMZNAP@<pluginName>} and the value
+ * {@code <interfaceName>@<implCreatorClassName>}, optionally followed by {@code @warmUp} if the
+ * implementation creator class is slow to load and should be loaded in the background when the
+ * app starts. The implementation itself is always created with its first use.
+ */
+public final class ModuleEntry {
+
+    /**
+     * Flag that marks an implementation for background warm-up.
+     */
+    public static final String WARM_UP_FLAG = "warmUp";
+
+    /**
+     * Data separator of the meta-data entries.
+     */
+    private static final String SEPARATOR = "@";
+
+    /**
+     * Name of the plugin.
+     */
+    private final String mPluginName;
+
+    /**
+     * Simple name of the interface the plugin implements.
+     */
+    private final String mInterfaceName;
+
+    /**
+     * Class name of the implementation creator.
+     */
+    private final String mImplCreatorName;
+
+    /**
+     * True if the implementation creator is loaded in the background when the app starts.
+     */
+    private final boolean mWarmUp;
+
+    /**
+     * Constructor.
+     *
+     * @param pluginName      Name of the plugin.
+     * @param interfaceName   Simple name of the interface the plugin implements.
+     * @param implCreatorName Class name of the implementation creator.
+     * @param warmUp          True if the implementation creator is loaded in the background
+     *                        when the app starts.
+     */
+    public ModuleEntry(String pluginName, String interfaceName, String implCreatorName,
+                       boolean warmUp) {
+
+        mPluginName = pluginName;
+        mInterfaceName = interfaceName;
+        mImplCreatorName = implCreatorName;
+        mWarmUp = warmUp;
+    }
+
+    /**
+     * Parse a manifest meta-data value.
+     *
+     * @param pluginName Name of the plugin, the meta-data key without the prefix.
+     * @param value      The meta-data value.
+     * @return The entry, or null if the value is malformed.
+     */
+    public static ModuleEntry parse(String pluginName, String value) {
+
+        if (value == null) {
+            return null;
+        }
+        String[] parts = value.split(SEPARATOR);
+        if (parts.length < 2 || parts.length > 3 ||
+                (parts.length == 3 && !WARM_UP_FLAG.equals(parts[2]))) {
+            return null;
+        }
+        return new ModuleEntry(pluginName, parts[0], parts[1], parts.length == 3);
+    }
+
+    /**
+     * Get the plugin name.
+     *
+     * @return Name of the plugin.
+     */
+    public String getPluginName() {
+
+        return mPluginName;
+    }
+
+    /**
+     * Get the interface name.
+     *
+     * @return Simple name of the interface the plugin implements.
+     */
+    public String getInterfaceName() {
+
+        return mInterfaceName;
+    }
+
+    /**
+     * Get the implementation creator name.
+     *
+     * @return Class name of the implementation creator.
+     */
+    public String getImplCreatorName() {
+
+        return mImplCreatorName;
+    }
+
+    /**
+     * Check whether the implementation is warmed up.
+     *
+     * @return True if the implementation creator is loaded in the background when the app
+     * starts.
+     */
+    public boolean isWarmUp() {
+
+        return mWarmUp;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+
+        return "ModuleEntry{" +
+                "mPluginName='" + mPluginName + '\'' +
+                ", mInterfaceName='" + mInterfaceName + '\'' +
+                ", mImplCreatorName='" + mImplCreatorName + '\'' +
+                ", mWarmUp=" + mWarmUp +
+                '}';
+    }
+}
@@ -56,7 +56,7 @@ public class ModuleManager {
      * @param name   Module name.
      * @param module Module instance.
      */
-    public void setModule(String name, Module module) {
+    public synchronized void setModule(String name, Module module) {
 
         mModules.put(name, module);
     }
@@ -67,7 +67,7 @@ public class ModuleManager {
      * @param name Module name.
      * @return Module instance.
      */
-    public Module getModule(String name) {
+    public synchronized Module getModule(String name) {
 
         return mModules.get(name);
     }
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.module;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Tests for the {@link ModuleEntry} class.
+ */
+public class ModuleEntryTest {
+
+    /**
+     * Tests parsing an entry without flags.
+     */
+    @Test
+    public void testParse() throws Exception {
+
+        ModuleEntry entry = ModuleEntry.parse("VastAds",
+                                              "IAds@com.amazon.ads.vast.VastImplCreator");
+
+        assertEquals("VastAds", entry.getPluginName());
+        assertEquals("IAds", entry.getInterfaceName());
+        assertEquals("com.amazon.ads.vast.VastImplCreator", entry.getImplCreatorName());
+        assertFalse(entry.isWarmUp());
+    }
+
+    /**
+     * Tests parsing an entry with the warm-up flag.
+     */
+    @Test
+    public void testParseWarmUp() throws Exception {
+
+        ModuleEntry entry = ModuleEntry.parse("FreeWheel",
+                                              "IAds@com.amazon.ads.FreeWheelImplCreator@warmUp");
+
+        assertEquals("IAds", entry.getInterfaceName());
+        assertEquals("com.amazon.ads.FreeWheelImplCreator", entry.getImplCreatorName());
+        assertTrue(entry.isWarmUp());
+    }
+
+    /**
+     * Tests that malformed entries are rejected.
+     */
+    @Test
+    public void testParseMalformed() throws Exception {
+
+        assertNull(ModuleEntry.parse("Plugin", null));
+        assertNull(ModuleEntry.parse("Plugin", ""));
+        assertNull(ModuleEntry.parse("Plugin", "IAds"));
+        assertNull(ModuleEntry.parse("Plugin", "IAds@Creator@unknownFlag"));
+        assertNull(ModuleEntry.parse("Plugin", "IAds@Creator@warmUp@extra"));
+    }
+
+    /**
+     * Tests that the entries the build generates, with the flag split off by the index script,
+     * match the entries parsed from the manifest meta-data value.
+     */
+    @Test
+    public void testGeneratedEntryMatchesParsedEntry() throws Exception {
+
+        String[] values = {"IAnalytics@com.amazon.analytics.OmnitureImplCreator@warmUp",
+                "UAMP@com.amazon.android.uamp.ExoImplCreator"};
+        for (String value : values) {
+            String[] parts = value.split("@");
+            ModuleEntry generated = new ModuleEntry("Plugin", parts[0], parts[1],
+                                                    parts.length == 3);
+            ModuleEntry parsed = ModuleEntry.parse("Plugin", value);
+
+            assertEquals(generated.getInterfaceName(), parsed.getInterfaceName());
+            assertEquals(generated.getImplCreatorName(), parsed.getImplCreatorName());
+            assertEquals(generated.isWarmUp(), parsed.isWarmUp());
+        }
+    }
+}
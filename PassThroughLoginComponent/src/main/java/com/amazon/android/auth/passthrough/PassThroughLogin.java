@@ -73,6 +73,12 @@ public class PassThroughLogin implements IAuthentication {
         responseHandler.onSuccess(new Bundle());
     }
 
+    @Override
+    public String getUserId() {
+
+        return null;
+    }
+
     @Override
     public void cancelAllRequests() {
 
@@ -37,8 +37,8 @@ import com.amazon.android.ui.constants.ConfigurationConstants;
 import com.amazon.android.utils.Helpers;
 import com.amazon.android.tv.tenfoot.R;
 import com.amazon.android.tv.tenfoot.base.BaseActivity;
+import com.amazon.utils.StartupPipeline;
 
-import android.app.Activity;
 import android.content.Intent;
 import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
@@ -46,12 +46,12 @@ import android.content.res.Resources;
 import android.os.AsyncTask;
 import android.os.Bundle;
 import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
 import android.widget.ImageView;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 
-import java.util.Map;
-
 import uk.co.chrisjenx.calligraphy.CalligraphyConfig;
 
 /**
@@ -60,10 +60,56 @@ import uk.co.chrisjenx.calligraphy.CalligraphyConfig;
 public class SplashActivity extends BaseActivity implements ICancellableLoad {
 
     private static final String TAG = SplashActivity.class.getSimpleName();
+
+    /**
+     * Names of the startup steps.
+     */
+    private static final String STEP_CONTENT_BROWSER = "contentBrowser";
+    private static final String STEP_MODULES = "modules";
+    private static final String STEP_FONTS = "fonts";
+    private static final String STEP_RECIPES = "globalRecipes";
+    private static final String STEP_RECOMMENDATIONS = "recommendations";
+    private static final String STEP_RESUME_STATES = "resumeStates";
+
+    /**
+     * Logs the timings of the startup steps.
+     */
+    private final StartupPipeline.IStepListener mStepListener =
+            new StartupPipeline.IStepListener() {
+                @Override
+                public void onStepCompleted(String name, long waitMillis, long runMillis) {
+
+                    Log.i(TAG, "Startup step " + name + " took " + runMillis + " ms, started " +
+                            waitMillis + " ms after launch");
+                }
+
+                @Override
+                public void onStepFailed(String name, Throwable throwable) {
+
+                    Log.e(TAG, "Startup step " + name + " failed", throwable);
+                }
+
+                @Override
+                public void onPipelineCompleted(long totalMillis) {
+
+                    Log.i(TAG, "Startup steps completed in " + totalMillis + " ms");
+                }
+            };
+
     private ImageView mAppLogo;
     private ProgressBar mProgress;
     private boolean isLoadingCancelled = false;
 
+    /**
+     * The startup steps of the last load.
+     */
+    private StartupPipeline mPipeline;
+
+    /**
+     * True once the first frame of the splash screen was drawn.
+     */
+    private boolean mFirstFrameDrawn = false;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
 
@@ -85,6 +131,25 @@ public class SplashActivity extends BaseActivity implements ICancellableLoad {
         catch (PackageManager.NameNotFoundException exception) {
             Log.e(TAG, "Package name not found: ", exception);
         }
+        // Release the deferred startup steps once the first frame was drawn.
+        View decorView = getWindow().getDecorView();
+        decorView.getViewTreeObserver().addOnPreDrawListener(
+                new ViewTreeObserver.OnPreDrawListener() {
+                    @Override
+                    public boolean onPreDraw() {
+
+                        decorView.getViewTreeObserver().removeOnPreDrawListener(this);
+                        // Posted messages run after the frame being drawn now.
+                        decorView.post(() -> {
+                            mFirstFrameDrawn = true;
+                            if (mPipeline != null) {
+                                mPipeline.onFirstFrame();
+                            }
+                        });
+                        return true;
+                    }
+                });
+
         // Check to see if this activity is not called from the TenFootApp.
         if (!getIntent().hasExtra(ContentBrowser.CONTENT_WILL_UPDATE)) {
             mProgressText.setText(R.string.feed_loading);
@@ -111,25 +176,41 @@ public class SplashActivity extends BaseActivity implements ICancellableLoad {
         isLoadingCancelled = false;
         if (!getIntent().hasExtra(ContentBrowser.CONTENT_WILL_UPDATE)) {
             Log.d(TAG, "First loading");
-            new AsyncTask<Activity, Void, Void>() {
-
-                @Override
-                protected Void doInBackground(Activity... activity) {
-
-                    ContentBrowser contentBrowser = ContentBrowser.getInstance(activity[0]);
-                    try {
-                        configureFonts(contentBrowser);
-                        contentBrowser.onAllModulesLoaded();
-                        contentBrowser.runGlobalRecipes(activity[0], (SplashActivity) activity[0]);
-                    }
-                    catch (Exception e) {
-                        Log.e(TAG, "Failed to put data in cache for recipe ", e);
-                    }
-
-                    return null;
-                }
-            }.execute(this);
+            startLoading();
+        }
+    }
 
+    /**
+     * Run the startup steps. The content browser is created first; the modules and the fonts are
+     * then set up in parallel, and the global recipes run once both are done, so the fonts are
+     * configured before the home screen inflates. The fonts, the recommendation database cleanup
+     * and the preload of the playback progress that follows it wait for the first frame of the
+     * splash screen. The step timings are logged.
+     */
+    private void startLoading() {
+
+        StartupPipeline pipeline = new StartupPipeline(AsyncTask.THREAD_POOL_EXECUTOR);
+        pipeline.setListener(mStepListener);
+        pipeline.addStep(STEP_CONTENT_BROWSER, () -> ContentBrowser.getInstance(this));
+        pipeline.addStep(STEP_MODULES,
+                         () -> ContentBrowser.getInstance(this).onAllModulesLoaded(),
+                         STEP_CONTENT_BROWSER);
+        pipeline.addDeferredStep(STEP_FONTS,
+                                 () -> configureFonts(ContentBrowser.getInstance(this)),
+                                 STEP_CONTENT_BROWSER);
+        pipeline.addStep(STEP_RECIPES,
+                         () -> ContentBrowser.getInstance(this).runGlobalRecipes(this, this),
+                         STEP_MODULES, STEP_FONTS);
+        pipeline.addDeferredStep(STEP_RECOMMENDATIONS,
+                                 () -> ContentBrowser.getInstance(this).cleanRecommendations(),
+                                 STEP_MODULES);
+        pipeline.addDeferredStep(STEP_RESUME_STATES,
+                                 () -> ContentBrowser.getInstance(this).preloadResumeStates(),
+                                 STEP_RECOMMENDATIONS);
+        mPipeline = pipeline;
+        pipeline.start();
+        if (mFirstFrameDrawn) {
+            pipeline.onFirstFrame();
         }
     }
 
@@ -195,16 +276,14 @@ public class SplashActivity extends BaseActivity implements ICancellableLoad {
 
         ConfigurationManager manager = ConfigurationManager.getInstance(this);
 
-        // Get all device local fonts.
-        Map<String, String> fonts = FontManager.enumerateFonts();
-
         // Figure out if default font path is needed.
         String fontPath = settingFontPath == null ? defaultFontPath : settingFontPath;
 
         // If the font path specifies a local device font name, replace it with the
         // absolute path of the font. Otherwise, just handle it as a custom font path.
-        if (fonts.containsKey(fontPath)) {
-            fontPath = fonts.get(fontPath);
+        String deviceFontPath = FontManager.findFont(fontPath);
+        if (deviceFontPath != null) {
+            fontPath = deviceFontPath;
         }
 
         manager.setTypefacePathValue(pathKey, fontPath);
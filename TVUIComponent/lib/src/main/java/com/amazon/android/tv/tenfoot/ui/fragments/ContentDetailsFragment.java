@@ -155,6 +155,9 @@ public class ContentDetailsFragment extends android.support.v17.leanback.app.Det
             setupContentListRowPresenter();
             updateBackground(mSelectedContent.getBackgroundImageUrl());
             setOnItemViewClickedListener(new ItemViewClickedListener());
+            // Resolve the player data while the user reads the details.
+            ContentBrowser.getInstance(getActivity()).getPlaybackPrefetcher()
+                          .prefetch(mSelectedContent);
         }
         else {
             Log.v(TAG, "Start CONTENT_HOME_SCREEN.");
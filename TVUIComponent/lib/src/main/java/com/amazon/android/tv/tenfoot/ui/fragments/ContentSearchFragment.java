@@ -32,6 +32,7 @@ package com.amazon.android.tv.tenfoot.ui.fragments;
 import com.amazon.android.contentbrowser.ContentBrowser;
 import com.amazon.android.contentbrowser.helper.AnalyticsHelper;
 import com.amazon.android.model.content.Content;
+import com.amazon.android.search.IUpdatableSearchResult;
 import com.amazon.android.search.SearchManager;
 import com.amazon.android.utils.Helpers;
 import com.amazon.android.tv.tenfoot.BuildConfig;
@@ -83,7 +84,7 @@ public class ContentSearchFragment extends android.support.v17.leanback.app.Sear
 
     private static final String TAG = ContentSearchFragment.class.getSimpleName();
     private static final boolean DEBUG = BuildConfig.DEBUG;
-    private static final long SEARCH_DELAY_MS = 1000L;
+    private static final long SEARCH_DELAY_MS = 300L;
 
     private final Handler mHandler = new Handler();
     private final Runnable mDelayedLoad = new Runnable() {
@@ -371,10 +372,27 @@ public class ContentSearchFragment extends android.support.v17.leanback.app.Sear
 
     private void loadRows() {
 
-        mListRowAdapter = new ArrayObjectAdapter(new CardPresenter());
+        final ArrayObjectAdapter listRowAdapter = new ArrayObjectAdapter(new CardPresenter());
+        mListRowAdapter = listRowAdapter;
 
-        ContentBrowser.getInstance(getActivity())
-                      .search(mQuery, (t, done) -> updateResults(t, done));
+        // Results of a query that was replaced by a newer one are dropped.
+        ContentBrowser.getInstance(getActivity()).search(mQuery, new IUpdatableSearchResult() {
+            @Override
+            public void onSearchResultsCleared() {
+
+                if (listRowAdapter == mListRowAdapter) {
+                    listRowAdapter.clear();
+                }
+            }
+
+            @Override
+            public void onSearchResult(Object t, boolean done) {
+
+                if (listRowAdapter == mListRowAdapter) {
+                    updateResults(t, done);
+                }
+            }
+        });
     }
 
     /**
@@ -39,6 +39,7 @@ import android.support.v17.leanback.app.RowsFragment;
 import android.support.v17.leanback.widget.ArrayObjectAdapter;
 import android.support.v17.leanback.widget.HeaderItem;
 import android.support.v17.leanback.widget.ListRow;
+import android.support.v17.leanback.widget.ObjectAdapter;
 import android.support.v17.leanback.widget.OnItemViewClickedListener;
 import android.support.v17.leanback.widget.OnItemViewSelectedListener;
 import android.support.v17.leanback.widget.Presenter;
@@ -52,6 +53,8 @@ import android.util.Log;
 import com.amazon.android.contentbrowser.ContentBrowser;
 import com.amazon.android.contentbrowser.ContentLoader;
 import com.amazon.android.contentbrowser.helper.AuthHelper;
+import com.amazon.android.contentbrowser.helper.EntitlementCache;
+import com.amazon.android.contentbrowser.helper.PlaybackPrefetcher;
 import com.amazon.android.model.Action;
 import com.amazon.android.model.PlaylistAction;
 import com.amazon.android.model.content.Content;
@@ -63,23 +66,18 @@ import com.amazon.android.tv.tenfoot.presenter.CardPresenter;
 import com.amazon.android.tv.tenfoot.presenter.CustomListRowPresenter;
 import com.amazon.android.tv.tenfoot.presenter.PosterCardPresenter;
 import com.amazon.android.tv.tenfoot.presenter.SettingsCardPresenter;
+import com.amazon.android.tv.tenfoot.utils.LeanbackHelpers;
 import com.amazon.android.ui.fragments.ErrorDialogFragment;
 import com.amazon.android.utils.ErrorUtils;
-import com.amazon.android.utils.Preferences;
-import com.zype.fire.api.ZypeApi;
 import com.zype.fire.api.ZypeSettings;
-import com.zype.fire.auth.ZypeAuthentication;
 
 import org.greenrobot.eventbus.EventBus;
 import org.greenrobot.eventbus.Subscribe;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-
-import okhttp3.ResponseBody;
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import java.util.Map;
 
 /* Zype, Evgeny Cherkasov */
 
@@ -94,6 +92,10 @@ public class ZypePlaylistContentBrowseFragment extends RowsFragment {
     private OnBrowseRowListener mCallback;
     private ArrayObjectAdapter settingsAdapter = null;
     ArrayObjectAdapter mRowsAdapter = null;
+    // Content change log versions the row adapters were built from
+    private final Map<ObjectAdapter, Integer> mRowContentVersions = new HashMap<>();
+    // Content containers of the rows whose pages are loaded by the page loader, in row order
+    private final List<ContentContainer> mRowContainers = new ArrayList<>();
 
     private ErrorDialogFragment dialogError = null;
     private BroadcastReceiver receiver;
@@ -164,6 +166,9 @@ public class ZypePlaylistContentBrowseFragment extends RowsFragment {
                 }
                 else {
                     loadRootContentContainer(mRowsAdapter);
+                    // Load the rows on screen whose videos did not come with the playlists
+                    ContentBrowser.getInstance(getActivity()).getPlaylistPageLoader()
+                                  .onRowFocused(mRowContainers, 0);
                 }
                 isDataLoaded = true;
             }
@@ -209,6 +214,8 @@ public class ZypePlaylistContentBrowseFragment extends RowsFragment {
 
     private void loadRootContentContainer(ArrayObjectAdapter rowsAdapter) {
         rowsAdapter.clear();
+        mRowContentVersions.clear();
+        mRowContainers.clear();
 
         ContentContainer rootContentContainer = ContentBrowser.getInstance(getActivity()).getLastSelectedContentContainer();
         boolean isMyLibrary = rootContentContainer.getExtraStringValue(Recipe.KEY_DATA_TYPE_TAG).equals(ZypeSettings.ROOT_MY_LIBRARY_PLAYLIST_ID);
@@ -235,9 +242,8 @@ public class ZypePlaylistContentBrowseFragment extends RowsFragment {
                 listRowAdapter.add(innerContentContainer);
             }
 
-            for (Content content : contentContainer.getContents()) {
-                listRowAdapter.add(content);
-            }
+            mRowContentVersions.put(listRowAdapter, LeanbackHelpers.updateRowContents(
+                    listRowAdapter, contentContainer, -1));
 
             if (isMyLibrary) {
                 if (rootContentContainer.getExtraValueAsInt(ExtraKeys.NEXT_PAGE) > 0) {
@@ -260,6 +266,10 @@ public class ZypePlaylistContentBrowseFragment extends RowsFragment {
             }
 
             rowsAdapter.add(new ListRow(header, listRowAdapter));
+            // My Library is paged as a whole by the recipe chain
+            if (!isMyLibrary) {
+                mRowContainers.add(contentContainer);
+            }
         }
 
 //        addSettingsActionsToRowAdapter(rowsAdapter);
@@ -291,9 +301,9 @@ public class ZypePlaylistContentBrowseFragment extends RowsFragment {
                 listRowAdapter.remove(listRowAdapter.get(listRowAdapter.size() - 1));
             }
             // Add new contents
-            for (int i = listRowAdapter.size() - contentContainer.getContentContainerCount(); i < contentContainer.getContentCount(); i++) {
-                listRowAdapter.add(contentContainer.getContents().get(i));
-            }
+            Integer version = mRowContentVersions.get(listRowAdapter);
+            mRowContentVersions.put(listRowAdapter, LeanbackHelpers.updateRowContents(
+                    listRowAdapter, contentContainer, version != null ? version : -1));
             // Add a button for loading next page of playlist videos
             if (isMyLibrary) {
                 if (rootContentContainer.getExtraValueAsInt(ExtraKeys.NEXT_PAGE) > 0) {
@@ -379,42 +389,18 @@ public class ZypePlaylistContentBrowseFragment extends RowsFragment {
                 Log.d(TAG, "Content with title " + content.getTitle() + " was clicked");
 
                 /* Zype, Evgeny Cherkasov */
-                // Get video entitlement
-                if (ZypeSettings.UNIVERSAL_TVOD) {
-                    if (!content.getExtras().containsKey(Content.EXTRA_ENTITLED)) {
-                        String accessToken = Preferences.getString(ZypeAuthentication.ACCESS_TOKEN);
-                        HashMap<String, String> params = new HashMap<>();
-                        params.put(ZypeApi.ACCESS_TOKEN, accessToken);
-                        ZypeApi.getInstance().getApi().checkVideoEntitlement(content.getId(), params).enqueue(new Callback<ResponseBody>() {
-                            @Override
-                            public void onResponse(Call<ResponseBody> call, Response<ResponseBody> response) {
-                                Log.e(TAG, "onItemClicked(): check video entitlement: code=" + response.code());
-                                if (response.isSuccessful()) {
-                                    content.setExtraValue(Content.EXTRA_ENTITLED, true);
-                                }
-                                else {
-                                    content.setExtraValue(Content.EXTRA_ENTITLED, false);
+                // Get video entitlement. Results of the focused rows are usually cached already.
+                if (EntitlementCache.isEntitlementRequired(content)) {
+                    ContentBrowser.getInstance(getActivity())
+                            .getEntitlementCache()
+                            .getEntitlement(content, entitled -> {
+                                if (getActivity() == null) {
+                                    return;
                                 }
                                 ContentBrowser.getInstance(getActivity())
                                         .setLastSelectedContent(content)
                                         .switchToScreen(ContentBrowser.CONTENT_DETAILS_SCREEN);
-                            }
-
-                            @Override
-                            public void onFailure(Call<ResponseBody> call, Throwable t) {
-                                Log.e(TAG, "onItemClicked(): check video entitlement: failed");
-                                content.setExtraValue(Content.EXTRA_ENTITLED, false);
-                                ContentBrowser.getInstance(getActivity())
-                                        .setLastSelectedContent(content)
-                                        .switchToScreen(ContentBrowser.CONTENT_DETAILS_SCREEN);
-                            }
-                        });
-                    }
-                    else {
-                        ContentBrowser.getInstance(getActivity())
-                                .setLastSelectedContent(content)
-                                .switchToScreen(ContentBrowser.CONTENT_DETAILS_SCREEN);
-                    }
+                            });
                 }
                 else {
                     ContentBrowser.getInstance(getActivity())
@@ -460,11 +446,45 @@ public class ZypePlaylistContentBrowseFragment extends RowsFragment {
 
     private final class ItemViewSelectedListener implements OnItemViewSelectedListener {
 
+        /**
+         * Row whose entitlements were requested last.
+         */
+        private Row mEntitlementRow;
+
         @Override
         public void onItemSelected(Presenter.ViewHolder itemViewHolder, Object item,
                                    RowPresenter.ViewHolder rowViewHolder, Row row) {
 
             mCallback.onItemSelected(item);
+            // Resolve the player data of a content the user settles on before play is pressed.
+            PlaybackPrefetcher prefetcher =
+                    ContentBrowser.getInstance(getActivity()).getPlaybackPrefetcher();
+            if (item instanceof Content) {
+                prefetcher.prefetchOnFocus((Content) item);
+            }
+            else {
+                prefetcher.cancelPendingPrefetch();
+            }
+            // Check the entitlement of the contents in the focused row before one is clicked.
+            if (row != mEntitlementRow && row instanceof ListRow) {
+                mEntitlementRow = row;
+                ObjectAdapter adapter = ((ListRow) row).getAdapter();
+                List<Content> contents = new ArrayList<>();
+                for (int i = 0; i < adapter.size(); i++) {
+                    if (adapter.get(i) instanceof Content) {
+                        contents.add((Content) adapter.get(i));
+                    }
+                }
+                ContentBrowser.getInstance(getActivity())
+                              .getEntitlementCache()
+                              .prefetchOnFocus(contents);
+            }
+            // Load the rows coming into view and the next page of the focused row near its end
+            if (isDataLoaded) {
+                LeanbackHelpers.loadPagesForSelection(
+                        ContentBrowser.getInstance(getActivity()).getPlaylistPageLoader(),
+                        mRowsAdapter, mRowContainers, row, item);
+            }
         }
     }
 }
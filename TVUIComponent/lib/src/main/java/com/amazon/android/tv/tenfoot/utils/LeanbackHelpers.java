@@ -14,7 +14,18 @@
  */
 package com.amazon.android.tv.tenfoot.utils;
 
+import com.amazon.android.contentbrowser.helper.PlaylistPageLoader;
 import com.amazon.android.model.Action;
+import com.amazon.android.model.PlaylistAction;
+import com.amazon.android.model.content.Content;
+import com.amazon.android.model.content.ContentContainer;
+import com.amazon.android.model.content.ContentListSnapshot;
+
+import android.support.v17.leanback.widget.ArrayObjectAdapter;
+import android.support.v17.leanback.widget.ListRow;
+import android.support.v17.leanback.widget.Row;
+
+import java.util.List;
 
 /**
  * Class for Utils which are related to Leanback.
@@ -55,4 +66,68 @@ public class LeanbackHelpers {
 
         return leanbackAction;
     }
+
+    /**
+     * Bring the contents of a row adapter up to date with a container. The adapter holds the sub
+     * containers of the container followed by its contents, as they were at the given version of
+     * the content change log of the container. Contents appended since then are added to the end
+     * of the adapter, any other change replaces all contents of the adapter. Items after the
+     * contents, like a 'Load more' action, must be removed before.
+     *
+     * @param adapter          The row adapter.
+     * @param contentContainer The container.
+     * @param version          The change log version the adapter was built from, or -1 if it is
+     *                         not known.
+     * @return The change log version the adapter is built from now.
+     */
+    public static int updateRowContents(ArrayObjectAdapter adapter,
+                                        ContentContainer contentContainer, int version) {
+
+        // Work on one snapshot so the version and the contents match while the loader goes on.
+        ContentListSnapshot<Content> contents = contentContainer.getContentsSnapshot();
+        int appended = version >= 0 ? contents.getAppendedCountSince(version) : -1;
+        int contentCount = contents.size();
+        if (appended >= 0) {
+            adapter.addAll(adapter.size(), contents.subList(contentCount - appended, contentCount));
+        }
+        else {
+            int containerCount = contentContainer.getContentContainerCount();
+            if (adapter.size() > containerCount) {
+                adapter.removeItems(containerCount, adapter.size() - containerCount);
+            }
+            adapter.addAll(adapter.size(), contents);
+        }
+        return contents.getVersion();
+    }
+
+    /**
+     * Load the pages a browse screen needs when an item is selected: the first page of the rows
+     * coming into view and the next page of the selected row when the item is near its end.
+     *
+     * @param pageLoader    The playlist page loader.
+     * @param rowsAdapter   The adapter of the rows.
+     * @param rowContainers The containers of the playlist rows, in row order. The rows after them,
+     *                      like the settings row, have no pages.
+     * @param row           The row of the selected item.
+     * @param item          The selected item.
+     */
+    public static void loadPagesForSelection(PlaylistPageLoader pageLoader,
+                                             ArrayObjectAdapter rowsAdapter,
+                                             List<ContentContainer> rowContainers, Row row,
+                                             Object item) {
+
+        int rowIndex = rowsAdapter.indexOf(row);
+        if (rowIndex < 0 || rowIndex >= rowContainers.size()) {
+            return;
+        }
+        pageLoader.onRowFocused(rowContainers, rowIndex);
+        ArrayObjectAdapter listRowAdapter = (ArrayObjectAdapter) ((ListRow) row).getAdapter();
+        int itemCount = listRowAdapter.size();
+        // The 'Load more' action is not a content of the row.
+        if (itemCount > 0 && listRowAdapter.get(itemCount - 1) instanceof PlaylistAction) {
+            itemCount--;
+        }
+        pageLoader.onItemFocused(rowContainers.get(rowIndex), listRowAdapter.indexOf(item),
+                                 itemCount);
+    }
 }
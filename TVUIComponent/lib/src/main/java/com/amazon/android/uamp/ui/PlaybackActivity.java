@@ -34,6 +34,7 @@ import com.amazon.ads.IAds;
 import com.amazon.analytics.AnalyticsTags;
 import com.amazon.android.contentbrowser.ContentBrowser;
 import com.amazon.android.contentbrowser.database.ContentDatabaseHelper;
+import com.amazon.android.contentbrowser.database.PlaybackPositionJournal;
 import com.amazon.android.contentbrowser.database.RecentRecord;
 import com.amazon.android.contentbrowser.helper.AnalyticsHelper;
 import com.amazon.android.contentbrowser.helper.AuthHelper;
@@ -56,16 +57,12 @@ import com.amazon.mediaplayer.AMZNMediaPlayer;
 import com.amazon.mediaplayer.AMZNMediaPlayer.PlayerState;
 import com.amazon.mediaplayer.playback.text.Cue;
 import com.amazon.mediaplayer.tracks.TrackType;
-import com.zype.fire.api.IZypeApi;
 import com.zype.fire.api.Model.AdvertisingSchedule;
 import com.zype.fire.api.Model.ErrorBody;
 import com.zype.fire.api.Model.PlayerData;
 import com.zype.fire.api.Model.PlayerResponse;
 import com.zype.fire.api.Util.AdMacrosHelper;
 import com.zype.fire.api.Util.ErrorHelper;
-import com.zype.fire.api.ZypeApi;
-import com.zype.fire.api.ZypeSettings;
-import com.zype.fire.auth.ZypeAuthentication;
 import com.amazon.utils.DateAndTimeHelper;
 
 import android.app.Activity;
@@ -92,7 +89,6 @@ import java.net.CookieHandler;
 import java.net.CookieManager;
 import java.net.CookiePolicy;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
 
@@ -221,6 +217,11 @@ public class PlaybackActivity extends Activity implements
                 try {
                     // If player exists and playing then set video position to ads implementation.
                     if (mPlayer != null && isPlaying()) {
+                        // Keep the position in the journal, so it survives the process being
+                        // killed. Positions of the same content are written once per interval.
+                        if (!isContentLive(mSelectedContent)) {
+                            recordPlaybackPosition();
+                        }
                         if (mAdsImplementation != null) {
                             mAdsImplementation.setCurrentVideoPosition(
                                     mPlayer.getCurrentPosition());
@@ -261,8 +262,7 @@ public class PlaybackActivity extends Activity implements
                 (PlaybackOverlayFragment) getFragmentManager()
                         .findFragmentById(R.id.playback_controls_fragment);
 
-        mSelectedContent =
-                (Content) getIntent().getSerializableExtra(Content.class.getSimpleName());
+        mSelectedContent = getIntent().getParcelableExtra(Content.class.getSimpleName());
 
         if (mSelectedContent == null || TextUtils.isEmpty(mSelectedContent.getUrl())) {
             AnalyticsHelper.trackError(TAG, "Received an Intent to play content without a " +
@@ -471,6 +471,12 @@ public class PlaybackActivity extends Activity implements
 
         super.onStop();
 
+        // Write the recorded playback positions now, the app may be killed once it is hidden.
+        ContentDatabaseHelper database = ContentDatabaseHelper.getInstance(getApplicationContext());
+        if (database != null) {
+            database.getPlaybackPositionJournal().flush();
+        }
+
         unregisterHDMIUnpluggedStateChangeBroadcast();
         abandonAudioFocus();
         mIsContentChangeRequested = false;
@@ -732,14 +738,11 @@ public class PlaybackActivity extends Activity implements
         ContentDatabaseHelper database = ContentDatabaseHelper.getInstance(getApplicationContext());
         if (database != null) {
             // Check database for content's previously watched position.
-            if (database.recentRecordExists(mSelectedContent.getId())) {
-
-                RecentRecord record = database.getRecent(mSelectedContent.getId());
-                // Set the playback position to the stored position if a recent position
-                // exists for this content and playback is not complete.
-                if (record != null && !record.isPlaybackComplete()) {
-                    mCurrentPlaybackPosition = record.getPlaybackLocation();
-                }
+            RecentRecord record = database.getRecent(mSelectedContent.getId());
+            // Set the playback position to the stored position if a recent position
+            // exists for this content and playback is not complete.
+            if (record != null && !record.isPlaybackComplete()) {
+                mCurrentPlaybackPosition = record.getPlaybackLocation();
             }
         }
         else {
@@ -751,32 +754,41 @@ public class PlaybackActivity extends Activity implements
      * Store the current playback state of the selected content to the database. Calculates if
      * playback was finished or not using the  {@link ContentBrowser#GRACE_TIME_MS}.
      * If the content playback is finished, recommendation manager will dismiss the recommendation
-     * for this content (if it exists).
+     * for this content (if it exists). The state is written in the background by the
+     * {@link PlaybackPositionJournal}, this method does not block on the database.
      */
     private void storeContentPlaybackState() {
 
-        // Save the recently played content to database
+        if (recordPlaybackPosition()) {
+            // Dismiss the notification for content (if exists)
+            ContentBrowser.getInstance(this).getRecommendationManager()
+                          .executeDismissCompletedContentTask(mSelectedContent);
+        }
+    }
+
+    /**
+     * Record the current playback position of the selected content in the
+     * {@link PlaybackPositionJournal}. Positions of live content are not recorded.
+     *
+     * @return True if the content has finished playing; false otherwise.
+     */
+    private boolean recordPlaybackPosition() {
+
         ContentDatabaseHelper database = ContentDatabaseHelper.getInstance(getApplicationContext());
         if (database != null && !isContentLive(mSelectedContent)) {
             // Calculate if the content has finished playing
-            boolean isFinished = (mPlayer.getDuration() - ContentBrowser.GRACE_TIME_MS)
-                    <= mPlayer.getCurrentPosition();
-
-            if (isFinished) {
-                // Dismiss the notification for content (if exists)
-                if (database.recommendationWithContentIdExists(mSelectedContent.getId())) {
-                    ContentBrowser.getInstance(this).getRecommendationManager()
-                                  .dismissRecommendation(mSelectedContent.getId());
-                    AnalyticsHelper.trackDismissRecommendationForCompleteContent(mSelectedContent);
-                }
-            }
+            long position = mPlayer.getCurrentPosition();
+            boolean isFinished = (mPlayer.getDuration() - ContentBrowser.GRACE_TIME_MS) <= position;
 
-            database.addRecent(mSelectedContent.getId(), mPlayer.getCurrentPosition(), isFinished,
-                               DateAndTimeHelper.getCurrentDate().getTime());
+            database.getPlaybackPositionJournal()
+                    .record(mSelectedContent.getId(), position, isFinished,
+                            DateAndTimeHelper.getCurrentDate().getTime());
+            return isFinished;
         }
         else {
             Log.e(TAG, "Cannot update recent content playback state. Database is null");
         }
+        return false;
     }
 
     /**
@@ -1098,11 +1110,11 @@ public class PlaybackActivity extends Activity implements
             mPrevState = PlayerState.IDLE;
             mCurrentState = PlayerState.IDLE;
             Bundle playerExtras = new Bundle();
-            // Get default Ads implementation without creating a new one.
+            // Get the default Ads implementation, it is created with its first use.
             try {
                 mAdsImplementation = (IAds) ModuleManager.getInstance()
                                                          .getModule(IAds.class.getSimpleName())
-                                                         .getImpl(false);
+                                                         .getImpl(true);
                 playerExtras.putBundle("ads", mAdsImplementation.getExtra());
             }
             catch (Exception e) {
@@ -1393,20 +1405,9 @@ public class PlaybackActivity extends Activity implements
         mAdsImplementation.getExtra().putBundle("video", videoExtras);
         /* Zype, Evgeny Cherkasov */
         // Before playing video load player data from Zype API and update content object with
-        // player url and ad tags
-        String accessToken = Preferences.getString(ZypeAuthentication.ACCESS_TOKEN);
-        HashMap<String, String> params = new HashMap<>();
-        if (!TextUtils.isEmpty(accessToken)) {
-            params.put(ZypeApi.ACCESS_TOKEN, accessToken);
-        }
-        else {
-            params.put(ZypeApi.APP_KEY, ZypeSettings.APP_KEY);
-        }
-        String uuid = AdMacrosHelper.getAdvertisingId(this);
-        if (!TextUtils.isEmpty(uuid)) {
-            params.put(ZypeApi.UUID, uuid);
-        }
-        ZypeApi.getInstance().getApi().getPlayer(IZypeApi.HEADER_USER_AGENT, mSelectedContent.getId(), params).enqueue(new Callback<PlayerResponse>() {
+        // player url and ad tags. The data is usually prefetched while the content was focused
+        // or its details screen was open, so this does not wait for a full API round trip.
+        ContentBrowser.getInstance(this).getPlaybackPrefetcher().getPlayer(mSelectedContent.getId(), new Callback<PlayerResponse>() {
             @Override
             public void onResponse(Call<PlayerResponse> call, Response<PlayerResponse> response) {
                 if (response.isSuccessful()) {
@@ -214,9 +214,8 @@ public class PlaybackOverlayFragment extends TenFootPlaybackOverlayFragment {
 
         super.onCreate(savedInstanceState);
 
-        mSelectedContent = (Content) getActivity().getIntent()
-                                                  .getSerializableExtra(
-                                                          Content.class.getSimpleName());
+        mSelectedContent = getActivity().getIntent()
+                                        .getParcelableExtra(Content.class.getSimpleName());
 
         mShowRelatedContent = ContentBrowser.getInstance(getActivity()).isShowRelatedContent();
 
@@ -938,9 +937,9 @@ public class PlaybackOverlayFragment extends TenFootPlaybackOverlayFragment {
                 Content content = (Content) item;
                 trackAnalyticsAction(AnalyticsTags.ACTION_RECOMMENDED_CONTENT_CLICKED, content);
 
-                ContentBrowser.getInstance(getActivity()).verifyScreenSwitch(ContentBrowser
-                                                                                     .CONTENT_RENDERER_SCREEN, extra ->
-                        mCallback.changeContent(content));
+                ContentBrowser.getInstance(getActivity()).verifyScreenSwitch(
+                        ContentBrowser.CONTENT_RENDERER_SCREEN, content.getId(),
+                        extra -> mCallback.changeContent(content));
             }
         }
     }
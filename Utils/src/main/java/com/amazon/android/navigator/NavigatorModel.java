@@ -94,6 +94,12 @@ public class NavigatorModel {
          * recipe includes the recommendation item in the match list.
          */
         public int numberOfRelatedRecommendations = -1;
+
+        /**
+         * The maximum number of playlists and recipes the content loader fetches and parses at
+         * the same time. Rows keep their order regardless of this value.
+         */
+        public int recipeConcurrency = -1;
     }
 
     /**
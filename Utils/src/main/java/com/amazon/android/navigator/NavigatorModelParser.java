@@ -14,7 +14,7 @@
  */
 package com.amazon.android.navigator;
 
-import com.amazon.android.recipe.Recipe;
+import com.amazon.android.recipe.RecipeRegistry;
 import com.amazon.android.utils.FileHelper;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -57,19 +57,22 @@ public class NavigatorModelParser {
                         globalRecipes.getCategories().name == null) {
 
                     globalRecipes.getCategories().dataLoaderRecipe =
-                            Recipe.newInstance(context, globalRecipes.getCategories().dataLoader);
+                            RecipeRegistry.getRecipe(context,
+                                                     globalRecipes.getCategories().dataLoader);
 
                     globalRecipes.getCategories().dynamicParserRecipe =
-                            Recipe.newInstance(context,
-                                               globalRecipes.getCategories().dynamicParser);
+                            RecipeRegistry.getRecipe(context,
+                                                     globalRecipes.getCategories().dynamicParser);
                 }
 
                 if (globalRecipes.getContents() != null) {
                     globalRecipes.getContents().dataLoaderRecipe =
-                            Recipe.newInstance(context, globalRecipes.getContents().dataLoader);
+                            RecipeRegistry.getRecipe(context,
+                                                     globalRecipes.getContents().dataLoader);
 
                     globalRecipes.getContents().dynamicParserRecipe =
-                            Recipe.newInstance(context, globalRecipes.getContents().dynamicParser);
+                            RecipeRegistry.getRecipe(context,
+                                                     globalRecipes.getContents().dynamicParser);
                 }
             }
             // Preload Recommendation recipes
@@ -79,13 +82,14 @@ public class NavigatorModelParser {
 
                     if (recommendationRecipes.getContents() != null) {
                         recommendationRecipes.getContents().dataLoaderRecipe =
-                                Recipe.newInstance(context,
-                                                   recommendationRecipes.getContents().dataLoader);
+                                RecipeRegistry.getRecipe(context,
+                                                         recommendationRecipes.getContents()
+                                                                 .dataLoader);
 
                         recommendationRecipes.getContents().dynamicParserRecipe =
-                                Recipe.newInstance(context,
-                                                   recommendationRecipes.getContents()
-                                                           .dynamicParser);
+                                RecipeRegistry.getRecipe(context,
+                                                         recommendationRecipes.getContents()
+                                                                 .dynamicParser);
 
                     }
                 }
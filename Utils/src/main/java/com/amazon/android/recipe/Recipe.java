@@ -21,12 +21,20 @@ import com.amazon.android.utils.PathHelper;
 import android.content.Context;
 import android.util.Log;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Recipe class is a representation of Json based Recipes which is a set of
  * instructions that describes how to achieve certain task.
+ *
+ * A recipe is either mutable, as created by {@link #newInstance(String)}, or immutable, as created
+ * by {@link #newImmutableInstance(String)} and handed out by {@link RecipeRegistry}. Immutable
+ * recipes can be shared between threads and cache the result of their item lookups.
  */
 public class Recipe {
 
@@ -50,13 +58,23 @@ public class Recipe {
      */
     private Map mMap;
 
+    /**
+     * Maps the items of an immutable recipe are found in, by item name or path. Null for mutable
+     * recipes.
+     */
+    private Map<String, Map> mItemMaps;
+
     /**
      * Set map of recipe items.
      *
      * @param map Recipe items map.
+     * @throws UnsupportedOperationException If the recipe is immutable.
      */
     public void setMap(Map map) {
 
+        if (mItemMaps != null) {
+            throw new UnsupportedOperationException("Recipe is immutable");
+        }
         mMap = map;
     }
 
@@ -70,6 +88,16 @@ public class Recipe {
         return mMap;
     }
 
+    /**
+     * Check if the recipe is immutable.
+     *
+     * @return True if the recipe and its items can not be modified.
+     */
+    public boolean isImmutable() {
+
+        return mItemMaps != null;
+    }
+
     /**
      * Check if recipe is empty or not.
      *
@@ -101,7 +129,7 @@ public class Recipe {
         boolean result = false;
 
         try {
-            Map map = PathHelper.getMapByPath(mMap, name);
+            Map map = getMapByPath(name);
             result = map.containsKey(name);
         }
         catch (Exception e) {
@@ -123,7 +151,7 @@ public class Recipe {
      */
     public boolean getItemAsBoolean(String name) {
 
-        Map map = PathHelper.getMapByPath(mMap, name);
+        Map map = getMapByPath(name);
         return (boolean) map.get(name);
     }
 
@@ -138,7 +166,7 @@ public class Recipe {
      */
     public int getItemAsInt(String name) {
 
-        Map map = PathHelper.getMapByPath(mMap, name);
+        Map map = getMapByPath(name);
         return (int) map.get(name);
     }
 
@@ -153,7 +181,7 @@ public class Recipe {
      */
     public String getItemAsString(String name) {
 
-        Map map = PathHelper.getMapByPath(mMap, name);
+        Map map = getMapByPath(name);
         return (String) map.get(name);
     }
 
@@ -168,7 +196,7 @@ public class Recipe {
      */
     public List<String> getItemAsStringList(String name) {
 
-        Map map = PathHelper.getMapByPath(mMap, name);
+        Map map = getMapByPath(name);
         return (List<String>) map.get(name);
     }
 
@@ -185,11 +213,87 @@ public class Recipe {
      */
     public <T> T getItem(String name) {
 
-        Map map = PathHelper.getMapByPath(mMap, name);
+        Map map = getMapByPath(name);
         name = PathHelper.getKeyFromPath(name);
         return (T) map.get(name);
     }
 
+    /**
+     * Get the map an item is found in. The maps of immutable recipes are looked up once per item.
+     *
+     * @param name Item name or path.
+     * @return The map.
+     */
+    private Map getMapByPath(String name) {
+
+        if (mItemMaps == null) {
+            return PathHelper.getMapByPath(mMap, name);
+        }
+        Map map = mItemMaps.get(name);
+        if (map == null) {
+            map = PathHelper.getMapByPath(mMap, name);
+            if (map != null) {
+                mItemMaps.put(name, map);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Get an immutable copy of this recipe with a root item added or replaced. The other items
+     * are shared with this recipe.
+     *
+     * @param name  Item name.
+     * @param value Item value.
+     * @return The recipe copy.
+     */
+    public Recipe withItem(String name, Object value) {
+
+        Map<String, Object> map = new LinkedHashMap<>(mMap);
+        map.put(name, value);
+        return newImmutableInstance(map);
+    }
+
+    /**
+     * Create an immutable recipe of the given items.
+     *
+     * @param map Recipe items map; it must not be modified afterwards.
+     * @return Recipe object.
+     */
+    static Recipe newImmutableInstance(Map map) {
+
+        Recipe recipe = new Recipe();
+        recipe.mMap = (Map) freeze(map);
+        recipe.mItemMaps = new ConcurrentHashMap<>();
+        return recipe;
+    }
+
+    /**
+     * Make a parsed JSON value unmodifiable, including all maps and lists it contains.
+     *
+     * @param value The value.
+     * @return The unmodifiable value.
+     */
+    private static Object freeze(Object value) {
+
+        if (value instanceof Map) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            for (Object entry : ((Map) value).entrySet()) {
+                Map.Entry item = (Map.Entry) entry;
+                map.put(item.getKey(), freeze(item.getValue()));
+            }
+            return Collections.unmodifiableMap(map);
+        }
+        if (value instanceof List) {
+            List<Object> list = new ArrayList<>();
+            for (Object item : (List) value) {
+                list.add(freeze(item));
+            }
+            return Collections.unmodifiableList(list);
+        }
+        return value;
+    }
+
     /**
      * Create new instance of Recipe class.
      *
@@ -230,4 +334,22 @@ public class Recipe {
         }
         return recipe;
     }
+
+    /**
+     * Create new immutable instance of Recipe class.
+     *
+     * @param jsonRecipeString Json string of Recipe.
+     * @return Recipe object.
+     */
+    public static Recipe newImmutableInstance(String jsonRecipeString) {
+
+        try {
+            return newImmutableInstance(
+                    JsonHelper.stringToMap(JsonHelper.escapeComments(jsonRecipeString)));
+        }
+        catch (Exception e) {
+            Log.e(TAG, "Recipe parsing failed!!!", e);
+            throw new RuntimeException("Recipe is invalid!", e);
+        }
+    }
 }
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.recipe;
+
+import com.amazon.android.utils.FileHelper;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the recipe files of the app. Each file is read and parsed once, with the first
+ * request for it, into an immutable {@link Recipe} that is shared by all callers. Callers that
+ * need a recipe with a changed item use {@link Recipe#withItem(String, Object)}.
+ */
+public class RecipeRegistry {
+
+    /**
+     * Debug tag.
+     */
+    private static final String TAG = RecipeRegistry.class.getSimpleName();
+
+    /**
+     * Parsed recipes by file name.
+     */
+    private static final ConcurrentHashMap<String, Recipe> sRecipes = new ConcurrentHashMap<>();
+
+    /**
+     * Get the recipe of a file, reading and parsing it if it was not requested before.
+     *
+     * @param context  The context.
+     * @param fileName The recipe file.
+     * @return The immutable recipe.
+     * @throws RuntimeException If the file can not be read or parsed.
+     */
+    public static Recipe getRecipe(Context context, String fileName) {
+
+        Recipe recipe = sRecipes.get(fileName);
+        if (recipe == null) {
+            String jsonRecipeString;
+            try {
+                jsonRecipeString = FileHelper.readFile(context, fileName);
+            }
+            catch (IOException e) {
+                Log.e(TAG, "Reading recipe " + fileName + " failed", e);
+                throw new RuntimeException("Recipe is invalid!", e);
+            }
+            // Two threads may parse the same file at once; both get the recipe that was stored
+            // first.
+            recipe = Recipe.newImmutableInstance(jsonRecipeString);
+            Recipe stored = sRecipes.putIfAbsent(fileName, recipe);
+            if (stored != null) {
+                recipe = stored;
+            }
+        }
+        return recipe;
+    }
+}
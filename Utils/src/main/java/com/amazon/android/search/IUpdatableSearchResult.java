@@ -0,0 +1,30 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.search;
+
+/**
+ * Search callback that accepts provisional results. A search may first deliver results that are
+ * known early, for example filtered from the cached results of a broader query, and later replace
+ * them with the final results. Callbacks that do not implement this interface only get the final
+ * results.
+ */
+public interface IUpdatableSearchResult<Model> extends ISearchResult<Model> {
+
+    /**
+     * Called before the final results replace the results delivered so far. The results that
+     * follow, up to and including the next call with done set to true, replace all earlier ones.
+     */
+    void onSearchResultsCleared();
+}
@@ -0,0 +1,400 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index search algorithm. Models are added to the index as they become available; the
+ * text fields returned by the {@link IFieldReader} are split into normalized tokens (lower case,
+ * without accents) and every token gets a posting list of the models that contain it.
+ *
+ * A query matches a model if every token of the query is a prefix of a token of the model. The
+ * posting lists of the query tokens are intersected, so the cost of a query depends on the number
+ * of matches rather than on the number of indexed models. Results are ranked by the field the
+ * tokens matched in, earlier fields first, and whole token matches rank above prefix matches.
+ *
+ * When registered with {@link SearchManager} the index answers the search itself instead of
+ * calling {@link #onCompare(String, Object)} for every model of the input data. All methods are
+ * thread safe.
+ *
+ * @param <Model> The model type.
+ */
+public class SearchIndex<Model> implements ISearchAlgo<Model> {
+
+    /**
+     * Maximum number of fields of a model.
+     */
+    public static final int MAX_FIELDS = 8;
+
+    /**
+     * Number of removed models that triggers a compaction of the posting lists, if they are also
+     * more than the remaining models.
+     */
+    private static final int COMPACTION_THRESHOLD = 256;
+
+    /**
+     * Combining marks left over after decomposing accented characters.
+     */
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Reads the searchable text fields of a model.
+     *
+     * @param <Model> The model type.
+     */
+    public interface IFieldReader<Model> {
+
+        /**
+         * Get the searchable fields of a model, most important first. Null fields are skipped.
+         *
+         * @param model The model.
+         * @return At most {@link #MAX_FIELDS} fields.
+         */
+        String[] getFields(Model model);
+    }
+
+    /**
+     * The models that contain a term, by ascending document id.
+     */
+    private static class Postings {
+
+        /**
+         * Document ids.
+         */
+        int[] mDocuments = new int[2];
+
+        /**
+         * Bit mask of the fields that contain the term, per document.
+         */
+        byte[] mFields = new byte[2];
+
+        /**
+         * Number of documents.
+         */
+        int mSize;
+
+        void add(int document, int fields) {
+
+            if (mSize == mDocuments.length) {
+                mDocuments = Arrays.copyOf(mDocuments, mSize * 2);
+                mFields = Arrays.copyOf(mFields, mSize * 2);
+            }
+            mDocuments[mSize] = document;
+            mFields[mSize] = (byte) fields;
+            mSize++;
+        }
+    }
+
+    /**
+     * Field reader.
+     */
+    private final IFieldReader<Model> mFieldReader;
+
+    /**
+     * Posting lists by term, sorted so the terms with a prefix form a range.
+     */
+    private final TreeMap<String, Postings> mTerms = new TreeMap<>();
+
+    /**
+     * Models by document id, null once removed.
+     */
+    private final ArrayList<Model> mDocuments = new ArrayList<>();
+
+    /**
+     * Document ids by model.
+     */
+    private final IdentityHashMap<Model, Integer> mDocumentIds = new IdentityHashMap<>();
+
+    /**
+     * Number of removed documents that are still referenced by the posting lists.
+     */
+    private int mRemovedCount;
+
+    /**
+     * Constructs an empty index.
+     *
+     * @param fieldReader Reads the searchable fields of a model.
+     */
+    public SearchIndex(IFieldReader<Model> fieldReader) {
+
+        mFieldReader = fieldReader;
+    }
+
+    /**
+     * Add a model to the index. Adding a model that is already indexed has no effect.
+     *
+     * @param model The model.
+     */
+    public synchronized void add(Model model) {
+
+        if (model == null || mDocumentIds.containsKey(model)) {
+            return;
+        }
+        int document = mDocuments.size();
+        mDocuments.add(model);
+        mDocumentIds.put(model, document);
+
+        Map<String, Integer> termFields = new HashMap<>();
+        String[] fields = mFieldReader.getFields(model);
+        for (int field = 0; fields != null && field < fields.length && field < MAX_FIELDS;
+             field++) {
+            for (String term : tokenize(fields[field])) {
+                Integer mask = termFields.get(term);
+                termFields.put(term, (mask != null ? mask : 0) | (1 << field));
+            }
+        }
+        for (Map.Entry<String, Integer> entry : termFields.entrySet()) {
+            Postings postings = mTerms.get(entry.getKey());
+            if (postings == null) {
+                postings = new Postings();
+                mTerms.put(entry.getKey(), postings);
+            }
+            postings.add(document, entry.getValue());
+        }
+    }
+
+    /**
+     * Remove a model from the index.
+     *
+     * @param model The model.
+     */
+    public synchronized void remove(Model model) {
+
+        Integer document = mDocumentIds.remove(model);
+        if (document == null) {
+            return;
+        }
+        mDocuments.set(document, null);
+        mRemovedCount++;
+        if (mRemovedCount > COMPACTION_THRESHOLD && mRemovedCount > mDocumentIds.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Remove all models from the index.
+     */
+    public synchronized void clear() {
+
+        mTerms.clear();
+        mDocuments.clear();
+        mDocumentIds.clear();
+        mRemovedCount = 0;
+    }
+
+    /**
+     * Get the number of indexed models.
+     *
+     * @return The number of models.
+     */
+    public synchronized int size() {
+
+        return mDocumentIds.size();
+    }
+
+    /**
+     * Find the models that match a query.
+     *
+     * @param query The query.
+     * @return The matching models, best match first. Empty if the query has no tokens.
+     */
+    public synchronized List<Model> search(String query) {
+
+        List<String> tokens = new ArrayList<>(tokenize(query));
+        if (tokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // Start with the most selective token to keep the candidate set small.
+        final Map<String, Integer> estimates = new HashMap<>();
+        for (String token : tokens) {
+            int estimate = 0;
+            for (Postings postings : getPrefixRange(token).values()) {
+                estimate += postings.mSize;
+            }
+            estimates.put(token, estimate);
+        }
+        Collections.sort(tokens, new Comparator<String>() {
+            @Override
+            public int compare(String lhs, String rhs) {
+
+                return estimates.get(lhs) - estimates.get(rhs);
+            }
+        });
+
+        Map<Integer, Integer> scores = null;
+        for (String token : tokens) {
+            Map<Integer, Integer> tokenScores = new HashMap<>();
+            for (Map.Entry<String, Postings> entry : getPrefixRange(token).entrySet()) {
+                int exactMatchFactor = entry.getKey().equals(token) ? 2 : 1;
+                Postings postings = entry.getValue();
+                for (int i = 0; i < postings.mSize; i++) {
+                    int document = postings.mDocuments[i];
+                    if (mDocuments.get(document) == null ||
+                            (scores != null && !scores.containsKey(document))) {
+                        continue;
+                    }
+                    int score = getFieldWeight(postings.mFields[i]) * exactMatchFactor;
+                    Integer current = tokenScores.get(document);
+                    if (current == null || current < score) {
+                        tokenScores.put(document, score);
+                    }
+                }
+            }
+            if (scores != null) {
+                for (Map.Entry<Integer, Integer> entry : tokenScores.entrySet()) {
+                    entry.setValue(entry.getValue() + scores.get(entry.getKey()));
+                }
+            }
+            scores = tokenScores;
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+
+        final Map<Integer, Integer> finalScores = scores;
+        List<Integer> documents = new ArrayList<>(finalScores.keySet());
+        Collections.sort(documents, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer lhs, Integer rhs) {
+
+                int result = finalScores.get(rhs) - finalScores.get(lhs);
+                return result != 0 ? result : lhs - rhs;
+            }
+        });
+        List<Model> results = new ArrayList<>(documents.size());
+        for (Integer document : documents) {
+            results.add(mDocuments.get(document));
+        }
+        return results;
+    }
+
+    /**
+     * Check a single model against a query without using the index.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean onCompare(String query, Model model) {
+
+        Set<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return false;
+        }
+        List<String> terms = new ArrayList<>();
+        String[] fields = mFieldReader.getFields(model);
+        for (int field = 0; fields != null && field < fields.length && field < MAX_FIELDS;
+             field++) {
+            terms.addAll(tokenize(fields[field]));
+        }
+        for (String token : tokens) {
+            boolean found = false;
+            for (String term : terms) {
+                if (term.startsWith(token)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Split a text into normalized tokens: runs of letters and digits, in lower case and without
+     * accents.
+     *
+     * @param text The text.
+     * @return The distinct tokens in order of appearance.
+     */
+    static Set<String> tokenize(String text) {
+
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = text;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7f) {
+                String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+                normalized = COMBINING_MARKS.matcher(decomposed).replaceAll("");
+                break;
+            }
+        }
+        normalized = normalized.toLowerCase(Locale.ROOT);
+
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean tokenChar = i < normalized.length() &&
+                    Character.isLetterOrDigit(normalized.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            }
+            else if (!tokenChar && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Get the posting lists of all terms that start with a prefix.
+     */
+    private Map<String, Postings> getPrefixRange(String prefix) {
+
+        return mTerms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * Get the weight of a match in the given fields; a match in the first field weighs most.
+     */
+    private static int getFieldWeight(int fields) {
+
+        return MAX_FIELDS - Integer.numberOfTrailingZeros(fields & 0xff);
+    }
+
+    /**
+     * Rebuild the posting lists without the removed documents.
+     */
+    private void compact() {
+
+        List<Model> models = new ArrayList<>(mDocumentIds.size());
+        for (Model model : mDocuments) {
+            if (model != null) {
+                models.add(model);
+            }
+        }
+        clear();
+        for (Model model : models) {
+            add(model);
+        }
+    }
+}
@@ -152,10 +152,10 @@ public class SearchManager<ContainerModel extends Iterable<Model>, Model> {
 
         setSearchAlgoByName(searchAlgoName);
 
-        for (Model entry : inputData) {
+        for (Model entry : getCandidates(queryString, inputData)) {
 
             // Use the search algorithm that is currently set at mSearchAlgo
-            if (mSearchAlgo.onCompare(queryString, entry)) {
+            if (isIndexSearch() || mSearchAlgo.onCompare(queryString, entry)) {
 
                 resultCallback.onSearchResult(entry, false);
             }
@@ -166,6 +166,34 @@ public class SearchManager<ContainerModel extends Iterable<Model>, Model> {
 
     }
 
+    /**
+     * Check if the current search algorithm is a {@link SearchIndex}.
+     *
+     * @return True if the search is answered by an index.
+     */
+    private boolean isIndexSearch() {
+
+        return mSearchAlgo instanceof SearchIndex;
+    }
+
+    /**
+     * Get the models the current search algorithm has to look at. A {@link SearchIndex} returns
+     * exactly the matches of the query, ranked, and the input data is not iterated. Any other
+     * algorithm has to compare every model of the input data.
+     *
+     * @param queryString The query string.
+     * @param inputData   The content data.
+     * @return The candidate models.
+     */
+    @SuppressWarnings("unchecked")
+    private Iterable<Model> getCandidates(String queryString, ContainerModel inputData) {
+
+        if (isIndexSearch()) {
+            return ((SearchIndex<Model>) mSearchAlgo).search(queryString);
+        }
+        return inputData;
+    }
+
     /**
      * This helper method checks the input of the searches to ensure none are null.
      *
@@ -233,14 +261,14 @@ public class SearchManager<ContainerModel extends Iterable<Model>, Model> {
 
             setSearchAlgoByName((String) params[0]);
 
-            for (Model entry : (ContainerModel) params[2]) {
+            for (Model entry : getCandidates((String) params[1], (ContainerModel) params[2])) {
 
                 // Check to see if this async task has been cancelled.
                 if (this.isCancelled()) {
                     return null;
                 }
 
-                if (mSearchAlgo.onCompare((String) params[1], entry)) {
+                if (isIndexSearch() || mSearchAlgo.onCompare((String) params[1], entry)) {
 
                     mISearchResult.onSearchResult(entry, false);
                 }
@@ -46,6 +46,14 @@ public class JsonHelper {
      */
     private static final String COMMENT_STOP_SEQUENCE_ESCAPED = "\\*\\/";
 
+    /**
+     * Pattern matching a comment, compiled once as every recipe is run through it.
+     */
+    private static final Pattern COMMENT_PATTERN =
+            Pattern.compile(COMMENT_START_SEQUENCE_ESCAPED +
+                                    "(.*?|\n)" + // Match all type of cases including new line.
+                                    COMMENT_STOP_SEQUENCE_ESCAPED);
+
     /**
      * Turns a Map object into a JSON-encoded string. Uses the JSONObject from org.json to create
      * the string.
@@ -198,13 +206,8 @@ public class JsonHelper {
             return null;
         }
 
-        String regex = COMMENT_START_SEQUENCE_ESCAPED +
-                "(.*?|\n)" + // Match all type of cases including new line.
-                COMMENT_STOP_SEQUENCE_ESCAPED;
-
         StringBuffer stringBuffer = new StringBuffer(jsonString.length());
-        Pattern pattern = Pattern.compile(regex);
-        Matcher matcher = pattern.matcher(jsonString);
+        Matcher matcher = COMMENT_PATTERN.matcher(jsonString);
         while (matcher.find()) {
             matcher.appendReplacement(stringBuffer, "");
         }
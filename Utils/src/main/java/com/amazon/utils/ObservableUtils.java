@@ -0,0 +1,183 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Func1;
+
+/**
+ * Utilities for Rx Observables.
+ */
+public class ObservableUtils {
+
+    /**
+     * Returns a transformer that maps every item of an observable to an inner observable and
+     * emits the items of the inner observables in the order of the source items, like
+     * {@link Observable#concatMap(Func1)}. Unlike concatMap, up to {@code maxConcurrent} inner
+     * observables are subscribed at the same time. Items of an inner observable that runs ahead
+     * of its turn are buffered until all inner observables before it completed.
+     *
+     * @param mapper        Function that returns the inner observable of an item. It is called on
+     *                      the scheduler, so it may block.
+     * @param maxConcurrent Maximum number of inner observables subscribed at the same time. With
+     *                      1 or less the inner observables run one after another.
+     * @param scheduler     Scheduler the inner observables are subscribed on.
+     * @param <T>           Source item type.
+     * @param <R>           Result item type.
+     * @return The transformer.
+     */
+    public static <T, R> Observable.Transformer<T, R> concatMapEager(
+            Func1<? super T, Observable<R>> mapper, int maxConcurrent, Scheduler scheduler) {
+
+        if (maxConcurrent <= 1) {
+            return source -> source.concatMap(mapper);
+        }
+        return source -> Observable.defer(() -> {
+            OrderedMerge<R> merge = new OrderedMerge<>();
+            return source
+                    .map(item -> new Slot<>(merge.nextIndex(), item, false))
+                    .flatMap(slot -> Observable.defer(() -> mapper.call(slot.mValue))
+                                               .subscribeOn(scheduler)
+                                               .map(result -> new Slot<>(slot.mIndex, result,
+                                                                         false))
+                                               .concatWith(Observable.just(
+                                                       new Slot<R>(slot.mIndex, null, true))),
+                             maxConcurrent)
+                    .concatMap(slot -> Observable.from(merge.offer(slot)));
+        });
+    }
+
+    /**
+     * An item of an inner observable, or the completion of an inner observable, tagged with the
+     * index of the source item it belongs to.
+     *
+     * @param <V> Value type.
+     */
+    private static final class Slot<V> {
+
+        /**
+         * Index of the source item.
+         */
+        final int mIndex;
+
+        /**
+         * The item, null for the completion.
+         */
+        final V mValue;
+
+        /**
+         * True if the inner observable completed.
+         */
+        final boolean mCompleted;
+
+        /**
+         * Constructs a slot.
+         *
+         * @param index     Index of the source item.
+         * @param value     The item.
+         * @param completed True if the inner observable completed.
+         */
+        Slot(int index, V value, boolean completed) {
+
+            mIndex = index;
+            mValue = value;
+            mCompleted = completed;
+        }
+    }
+
+    /**
+     * Puts the items of concurrently running inner observables back into source order.
+     *
+     * @param <R> Result item type.
+     */
+    private static final class OrderedMerge<R> {
+
+        /**
+         * Index assigned to the next source item.
+         */
+        private int mNextIndex;
+
+        /**
+         * Index of the inner observable whose items are emitted right away.
+         */
+        private int mHead;
+
+        /**
+         * Buffered items of inner observables after the head, by index.
+         */
+        private final Map<Integer, List<R>> mPending = new HashMap<>();
+
+        /**
+         * Indexes of inner observables after the head that already completed.
+         */
+        private final Set<Integer> mCompleted = new HashSet<>();
+
+        /**
+         * Get the index of the next source item.
+         *
+         * @return The index.
+         */
+        synchronized int nextIndex() {
+
+            return mNextIndex++;
+        }
+
+        /**
+         * Accept an item or completion of an inner observable.
+         *
+         * @param slot The slot.
+         * @return The items that can be emitted now, in order.
+         */
+        synchronized List<R> offer(Slot<R> slot) {
+
+            if (slot.mIndex != mHead) {
+                if (slot.mCompleted) {
+                    mCompleted.add(slot.mIndex);
+                }
+                else {
+                    List<R> items = mPending.get(slot.mIndex);
+                    if (items == null) {
+                        items = new ArrayList<>();
+                        mPending.put(slot.mIndex, items);
+                    }
+                    items.add(slot.mValue);
+                }
+                return Collections.emptyList();
+            }
+            if (!slot.mCompleted) {
+                return Collections.singletonList(slot.mValue);
+            }
+            // The head completed, release what the following inner observables buffered.
+            List<R> released = new ArrayList<>();
+            do {
+                mHead++;
+                List<R> items = mPending.remove(mHead);
+                if (items != null) {
+                    released.addAll(items);
+                }
+            } while (mCompleted.remove(mHead));
+            return released;
+        }
+    }
+}
@@ -0,0 +1,427 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the initialization steps of the app with declared dependencies between them. A step is
+ * submitted to the executor as soon as all steps it depends on completed, so independent steps run
+ * in parallel. Deferred steps are not submitted before {@link #onFirstFrame()} was called, to keep
+ * work that is not needed for the first screen from competing with it. If a step fails, the steps
+ * depending on it are skipped.
+ *
+ * Steps are added before {@link #start()}; after that the pipeline may be used from any thread.
+ */
+public class StartupPipeline {
+
+    /**
+     * Step listener interface. It is called on the thread the step ran on.
+     */
+    public interface IStepListener {
+
+        /**
+         * Called when a step completed.
+         *
+         * @param name       Name of the step.
+         * @param waitMillis Time between the start of the pipeline and the start of the step.
+         * @param runMillis  Time the step ran.
+         */
+        void onStepCompleted(String name, long waitMillis, long runMillis);
+
+        /**
+         * Called when a step failed or was skipped because a step it depends on failed.
+         *
+         * @param name      Name of the step.
+         * @param throwable The error.
+         */
+        void onStepFailed(String name, Throwable throwable);
+
+        /**
+         * Called when all steps completed, failed or were skipped.
+         *
+         * @param totalMillis Time between the start of the pipeline and the end of the last step.
+         */
+        void onPipelineCompleted(long totalMillis);
+    }
+
+    /**
+     * A step of the pipeline.
+     */
+    private static final class Step {
+
+        /**
+         * Name of the step.
+         */
+        final String mName;
+
+        /**
+         * The work of the step.
+         */
+        final Runnable mTask;
+
+        /**
+         * True if the step waits for the first frame.
+         */
+        final boolean mDeferred;
+
+        /**
+         * Names of the steps this step depends on.
+         */
+        final List<String> mDependencies;
+
+        /**
+         * Steps that depend on this step.
+         */
+        final List<Step> mDependents = new ArrayList<>();
+
+        /**
+         * Number of dependencies that did not complete yet.
+         */
+        int mPending;
+
+        /**
+         * True once the step was submitted or skipped.
+         */
+        boolean mScheduled;
+
+        /**
+         * Constructs a step.
+         *
+         * @param name         Name of the step.
+         * @param task         The work of the step.
+         * @param deferred     True if the step waits for the first frame.
+         * @param dependencies Names of the steps this step depends on.
+         */
+        Step(String name, Runnable task, boolean deferred, List<String> dependencies) {
+
+            mName = name;
+            mTask = task;
+            mDeferred = deferred;
+            mDependencies = dependencies;
+        }
+    }
+
+    /**
+     * Executor the steps run on.
+     */
+    private final Executor mExecutor;
+
+    /**
+     * Steps by name, in the order they were added.
+     */
+    private final Map<String, Step> mSteps = new LinkedHashMap<>();
+
+    /**
+     * The listener.
+     */
+    private IStepListener mListener;
+
+    /**
+     * Start time of the pipeline in nanoseconds.
+     */
+    private long mStartTime;
+
+    /**
+     * True once the pipeline was started.
+     */
+    private boolean mStarted;
+
+    /**
+     * True once the first frame was drawn.
+     */
+    private boolean mFirstFrameDrawn;
+
+    /**
+     * Number of steps that were not completed, failed or skipped yet.
+     */
+    private int mRemaining;
+
+    /**
+     * Constructor.
+     *
+     * @param executor Executor the steps run on. It must run tasks in parallel for independent
+     *                 steps to run in parallel.
+     */
+    public StartupPipeline(Executor executor) {
+
+        mExecutor = executor;
+    }
+
+    /**
+     * Set the listener.
+     *
+     * @param listener The listener.
+     * @return This pipeline.
+     */
+    public StartupPipeline setListener(IStepListener listener) {
+
+        mListener = listener;
+        return this;
+    }
+
+    /**
+     * Add a step that runs as soon as the steps it depends on completed.
+     *
+     * @param name         Unique name of the step.
+     * @param task         The work of the step.
+     * @param dependencies Names of the steps this step depends on.
+     * @return This pipeline.
+     */
+    public StartupPipeline addStep(String name, Runnable task, String... dependencies) {
+
+        return addStep(name, task, false, dependencies);
+    }
+
+    /**
+     * Add a step that runs after the first frame was drawn and the steps it depends on completed.
+     *
+     * @param name         Unique name of the step.
+     * @param task         The work of the step.
+     * @param dependencies Names of the steps this step depends on.
+     * @return This pipeline.
+     */
+    public StartupPipeline addDeferredStep(String name, Runnable task, String... dependencies) {
+
+        return addStep(name, task, true, dependencies);
+    }
+
+    /**
+     * Add a step.
+     *
+     * @param name         Unique name of the step.
+     * @param task         The work of the step.
+     * @param deferred     True if the step waits for the first frame.
+     * @param dependencies Names of the steps this step depends on.
+     * @return This pipeline.
+     */
+    private synchronized StartupPipeline addStep(String name, Runnable task, boolean deferred,
+                                                 String... dependencies) {
+
+        if (mStarted) {
+            throw new IllegalStateException("Steps must be added before the pipeline starts");
+        }
+        if (mSteps.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate step " + name);
+        }
+        mSteps.put(name, new Step(name, task, deferred, Arrays.asList(dependencies)));
+        return this;
+    }
+
+    /**
+     * Start the pipeline. The steps without dependencies are submitted to the executor.
+     *
+     * @throws IllegalStateException If a step depends on an unknown step or the dependencies form
+     *                               a cycle.
+     */
+    public void start() {
+
+        List<Step> ready = new ArrayList<>();
+        synchronized (this) {
+            if (mStarted) {
+                throw new IllegalStateException("The pipeline was started already");
+            }
+            for (Step step : mSteps.values()) {
+                for (String dependency : step.mDependencies) {
+                    Step required = mSteps.get(dependency);
+                    if (required == null) {
+                        throw new IllegalStateException("Step " + step.mName +
+                                                                " depends on unknown step " +
+                                                                dependency);
+                    }
+                    required.mDependents.add(step);
+                }
+                step.mPending = step.mDependencies.size();
+            }
+            verifyAcyclic();
+            mStarted = true;
+            mRemaining = mSteps.size();
+            mStartTime = System.nanoTime();
+            collectReady(mSteps.values(), ready);
+        }
+        submit(ready);
+        if (mSteps.isEmpty()) {
+            notifyPipelineCompleted();
+        }
+    }
+
+    /**
+     * Release the deferred steps. Call it once the first frame was drawn.
+     */
+    public void onFirstFrame() {
+
+        List<Step> ready = new ArrayList<>();
+        synchronized (this) {
+            if (mFirstFrameDrawn) {
+                return;
+            }
+            mFirstFrameDrawn = true;
+            if (mStarted) {
+                collectReady(mSteps.values(), ready);
+            }
+        }
+        submit(ready);
+    }
+
+    /**
+     * Check that the dependencies do not form a cycle, by removing steps without pending
+     * dependencies until none are left.
+     */
+    private void verifyAcyclic() {
+
+        Map<Step, Integer> pending = new LinkedHashMap<>();
+        List<Step> free = new ArrayList<>();
+        for (Step step : mSteps.values()) {
+            pending.put(step, step.mDependencies.size());
+            if (step.mDependencies.isEmpty()) {
+                free.add(step);
+            }
+        }
+        int visited = 0;
+        while (!free.isEmpty()) {
+            Step step = free.remove(free.size() - 1);
+            visited++;
+            for (Step dependent : step.mDependents) {
+                int left = pending.get(dependent) - 1;
+                pending.put(dependent, left);
+                if (left == 0) {
+                    free.add(dependent);
+                }
+            }
+        }
+        if (visited != mSteps.size()) {
+            throw new IllegalStateException("The step dependencies form a cycle");
+        }
+    }
+
+    /**
+     * Collect the steps that can be submitted now. Must be called with the lock held.
+     *
+     * @param candidates The steps to check.
+     * @param ready      List the steps are added to.
+     */
+    private void collectReady(Iterable<Step> candidates, List<Step> ready) {
+
+        for (Step step : candidates) {
+            if (!step.mScheduled && step.mPending == 0 && (!step.mDeferred || mFirstFrameDrawn)) {
+                step.mScheduled = true;
+                ready.add(step);
+            }
+        }
+    }
+
+    /**
+     * Submit steps to the executor.
+     *
+     * @param steps The steps.
+     */
+    private void submit(List<Step> steps) {
+
+        for (Step step : steps) {
+            mExecutor.execute(() -> run(step));
+        }
+    }
+
+    /**
+     * Run a step and submit the steps that became ready.
+     *
+     * @param step The step.
+     */
+    private void run(Step step) {
+
+        long start = System.nanoTime();
+        Throwable error = null;
+        try {
+            step.mTask.run();
+        }
+        catch (Throwable throwable) {
+            error = throwable;
+        }
+        long end = System.nanoTime();
+
+        List<Step> ready = new ArrayList<>();
+        List<Step> skipped = new ArrayList<>();
+        boolean completed;
+        synchronized (this) {
+            if (error == null) {
+                for (Step dependent : step.mDependents) {
+                    dependent.mPending--;
+                }
+                collectReady(step.mDependents, ready);
+            }
+            else {
+                collectSkipped(step, skipped);
+            }
+            mRemaining -= 1 + skipped.size();
+            completed = mRemaining == 0;
+        }
+
+        if (mListener != null) {
+            if (error == null) {
+                mListener.onStepCompleted(step.mName, (start - mStartTime) / 1000000,
+                                          (end - start) / 1000000);
+            }
+            else {
+                mListener.onStepFailed(step.mName, error);
+                for (Step dependent : skipped) {
+                    mListener.onStepFailed(dependent.mName, new IllegalStateException(
+                            "Skipped because step " + step.mName + " failed", error));
+                }
+            }
+        }
+        submit(ready);
+        if (completed) {
+            notifyPipelineCompleted();
+        }
+    }
+
+    /**
+     * Collect the steps that depend directly or indirectly on a failed step and mark them as
+     * scheduled so they never run. Must be called with the lock held.
+     *
+     * @param failed  The failed step.
+     * @param skipped List the skipped steps are added to.
+     */
+    private void collectSkipped(Step failed, List<Step> skipped) {
+
+        Set<Step> seen = new HashSet<>();
+        List<Step> queue = new ArrayList<>(failed.mDependents);
+        while (!queue.isEmpty()) {
+            Step step = queue.remove(queue.size() - 1);
+            if (seen.add(step) && !step.mScheduled) {
+                step.mScheduled = true;
+                skipped.add(step);
+                queue.addAll(step.mDependents);
+            }
+        }
+    }
+
+    /**
+     * Notify the listener that the pipeline completed.
+     */
+    private void notifyPipelineCompleted() {
+
+        if (mListener != null) {
+            mListener.onPipelineCompleted((System.nanoTime() - mStartTime) / 1000000);
+        }
+    }
+}
@@ -16,6 +16,17 @@ package com.amazon.utils.model;
 
 import android.support.annotation.NonNull;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
 /**
  * Data structure used to carry the raw data received from external sources.
  * Besides the data itself, it also provides member variables to represent different
@@ -27,6 +38,29 @@ import android.support.annotation.NonNull;
  */
 public class Data {
 
+    /**
+     * Charset of encoded payloads.
+     */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Enum to represent how the payload of a {@link Record} is held in memory.
+     */
+    public enum PayloadEncoding {
+        /**
+         * The payload is a Java string, two bytes per character.
+         */
+        STRING,
+        /**
+         * The payload is held as UTF-8 bytes and decoded on access.
+         */
+        UTF_8,
+        /**
+         * The payload is held as deflate compressed UTF-8 bytes and decoded on access.
+         */
+        DEFLATE
+    }
+
     /**
      * Data structure to represent the raw data. It also includes member variables to represent
      * different characteristics of the data like payload size, type of data etc.
@@ -37,9 +71,17 @@ public class Data {
     public static class Record {
 
         /**
-         * Raw data in string format.
+         * Raw data in string format, null if the payload is encoded.
          */
         private String mPayload;
+        /**
+         * Raw data in encoded format, null if the payload is a string.
+         */
+        private byte[] mEncodedPayload;
+        /**
+         * Encoding of the payload.
+         */
+        private PayloadEncoding mPayloadEncoding = PayloadEncoding.STRING;
         /**
          * Data type of the data.
          */
@@ -54,13 +96,24 @@ public class Data {
         private long mPayloadSizeInBytes;
 
         /**
-         * Getter for payload, the raw data in string format.
+         * Getter for payload, the raw data in string format. An encoded payload is decoded on
+         * every call and the result is not kept, so callers that need the payload more than once
+         * should hold on to the returned string, and parsers that can read a stream should use
+         * {@link #openPayloadReader()} instead.
          *
          * @return The payload, the raw data in string format.
          */
         public String getPayload() {
 
-            return mPayload;
+            if (mEncodedPayload == null) {
+                return mPayload;
+            }
+            try {
+                return new String(readFully(openPayloadStream()), UTF_8);
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("Could not decode payload", e);
+            }
         }
 
         /**
@@ -71,6 +124,112 @@ public class Data {
         public void setPayload(String payload) {
 
             this.mPayload = payload;
+            this.mEncodedPayload = null;
+            this.mPayloadEncoding = PayloadEncoding.STRING;
+        }
+
+        /**
+         * Setter for an encoded payload. The bytes are not copied.
+         *
+         * @param payload  Value of payload in the given encoding.
+         * @param encoding Encoding of the payload, {@link PayloadEncoding#UTF_8} or
+         *                 {@link PayloadEncoding#DEFLATE}.
+         */
+        public void setEncodedPayload(byte[] payload, PayloadEncoding encoding) {
+
+            if (encoding == PayloadEncoding.STRING) {
+                throw new IllegalArgumentException("Use setPayload for string payloads");
+            }
+            this.mPayload = null;
+            this.mEncodedPayload = payload;
+            this.mPayloadEncoding = payload != null ? encoding : PayloadEncoding.STRING;
+        }
+
+        /**
+         * Getter for the encoding of the payload.
+         *
+         * @return {@link PayloadEncoding} of payload.
+         */
+        public PayloadEncoding getPayloadEncoding() {
+
+            return mPayloadEncoding;
+        }
+
+        /**
+         * Open a stream over the UTF-8 bytes of the payload. Compressed payloads are inflated
+         * while the stream is read, without materializing the whole string.
+         *
+         * @return The stream, or null if there is no payload.
+         */
+        public InputStream openPayloadStream() {
+
+            if (mEncodedPayload == null) {
+                return mPayload != null ? new ByteArrayInputStream(mPayload.getBytes(UTF_8))
+                                        : null;
+            }
+            InputStream stream = new ByteArrayInputStream(mEncodedPayload);
+            if (mPayloadEncoding == PayloadEncoding.DEFLATE) {
+                stream = new InflaterInputStream(stream);
+            }
+            return stream;
+        }
+
+        /**
+         * Open a character reader over the payload, for parsers that support streaming input.
+         *
+         * @return The reader, or null if there is no payload.
+         */
+        public Reader openPayloadReader() {
+
+            if (mEncodedPayload == null) {
+                return mPayload != null ? new StringReader(mPayload) : null;
+            }
+            return new InputStreamReader(openPayloadStream(), UTF_8);
+        }
+
+        /**
+         * Create a copy of this record with the payload in the given encoding. The record itself
+         * is not changed.
+         *
+         * @param encoding The encoding of the copy.
+         * @return The copy.
+         */
+        public Record copyWithPayloadEncoding(PayloadEncoding encoding) {
+
+            Record copy = new Record();
+            copy.mDataType = mDataType;
+            copy.mHashValue = mHashValue;
+            copy.mPayloadSizeInBytes = mPayloadSizeInBytes;
+            if (encoding == mPayloadEncoding) {
+                copy.mPayload = mPayload;
+                copy.mEncodedPayload = mEncodedPayload;
+                copy.mPayloadEncoding = mPayloadEncoding;
+                return copy;
+            }
+            String payload = getPayload();
+            if (encoding == PayloadEncoding.STRING || payload == null) {
+                copy.setPayload(payload);
+                return copy;
+            }
+            byte[] bytes = payload.getBytes(UTF_8);
+            if (encoding == PayloadEncoding.DEFLATE) {
+                bytes = deflate(bytes);
+            }
+            copy.setEncodedPayload(bytes, encoding);
+            return copy;
+        }
+
+        /**
+         * Get the number of heap bytes used by the payload, not counting object overhead.
+         *
+         * @return The payload footprint in bytes.
+         */
+        public long getPayloadFootprintInBytes() {
+
+            if (mEncodedPayload != null) {
+                return mEncodedPayload.length;
+            }
+            return mPayload != null ? 2L * mPayload.length() : 0;
         }
 
         /**
@@ -188,7 +347,7 @@ public class Data {
         public String toString() {
 
             return "{\n" +
-                    "\"mPayload\" :\"" + mPayload + "\",\n" +
+                    "\"mPayload\" :\"" + getPayload() + "\",\n" +
                     "\"mDataType\" :\"" + mDataType + "\",\n" +
                     "\"mHashValue\" :\"" + mHashValue + "\",\n" +
                     "\"mPayloadSizeInBytes\" :\"" + mPayloadSizeInBytes + "\"\n" +
@@ -196,6 +355,45 @@ public class Data {
         }
     }
 
+    /**
+     * Compress bytes with deflate.
+     *
+     * @param bytes The bytes.
+     * @return The compressed bytes.
+     */
+    private static byte[] deflate(byte[] bytes) {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out)) {
+            deflater.write(bytes);
+        }
+        catch (IOException e) {
+            // Not thrown by in-memory streams.
+            throw new IllegalStateException("Could not compress payload", e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Read a stream to the end and close it.
+     *
+     * @param stream The stream.
+     * @return The bytes read.
+     * @throws IOException If the stream could not be read.
+     */
+    private static byte[] readFully(InputStream stream) throws IOException {
+
+        try (InputStream in = stream) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, in.available()));
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        }
+    }
+
     /**
      * Enum to represent type of Data.
      */
@@ -397,6 +595,25 @@ public class Data {
                 "\"mIsComplete\" : \"" + mIsComplete + "\"\n}";
     }
 
+    /**
+     * Create a copy of this data with the payloads of the content and the metadata in the given
+     * encoding, e.g. to keep it in a cache with a smaller heap footprint. This data is not
+     * changed.
+     *
+     * @param encoding The payload encoding of the copy.
+     * @return The copy.
+     */
+    public Data copyWithPayloadEncoding(PayloadEncoding encoding) {
+
+        Data data = new Data();
+        data.mRequestId = mRequestId;
+        data.mContent = mContent != null ? mContent.copyWithPayloadEncoding(encoding) : null;
+        data.mMetadata = mMetadata != null ? mMetadata.copyWithPayloadEncoding(encoding) : null;
+        data.mDownloadedTimeInMs = mDownloadedTimeInMs;
+        data.mIsComplete = mIsComplete;
+        return data;
+    }
+
     /**
      * Creates basic data object with payload received from the URL.
      *
@@ -0,0 +1,131 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.search;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Tests for the {@link SearchIndex} class.
+ */
+public class SearchIndexTest {
+
+    /**
+     * Searchable test model with a title and a description.
+     */
+    private static class Item {
+
+        final String mTitle;
+
+        final String mDescription;
+
+        Item(String title, String description) {
+
+            mTitle = title;
+            mDescription = description;
+        }
+    }
+
+    private static SearchIndex<Item> createIndex() {
+
+        return new SearchIndex<>(item -> new String[]{item.mTitle, item.mDescription});
+    }
+
+    /**
+     * Tests that tokens are lower case, without accents and split at non letters.
+     */
+    @Test
+    public void testTokenize() {
+
+        assertEquals(Arrays.asList("cafe", "creme", "brulee", "2"),
+                     new ArrayList<>(SearchIndex.tokenize("Café  Crème-BRÛLÉE, 2 café")));
+        assertTrue(SearchIndex.tokenize(null).isEmpty());
+        assertTrue(SearchIndex.tokenize(" - ").isEmpty());
+    }
+
+    /**
+     * Tests that every query token has to be a prefix of a token of the model.
+     */
+    @Test
+    public void testPrefixMatch() {
+
+        SearchIndex<Item> index = createIndex();
+        Item news = new Item("Evening News", "Today's headlines");
+        Item sports = new Item("Sports Tonight", "Evening highlights");
+        index.add(news);
+        index.add(sports);
+
+        assertEquals(Arrays.asList(news, sports), index.search("eve"));
+        assertEquals(Arrays.asList(sports), index.search("EVE high"));
+        assertEquals(Arrays.asList(news), index.search("évening new"));
+        assertTrue(index.search("ening").isEmpty());
+        assertTrue(index.search("").isEmpty());
+        assertTrue(index.onCompare("sport tonig", sports));
+        assertFalse(index.onCompare("sport news", sports));
+    }
+
+    /**
+     * Tests that title matches rank above description matches and whole token matches above
+     * prefix matches.
+     */
+    @Test
+    public void testRanking() {
+
+        SearchIndex<Item> index = createIndex();
+        Item description = new Item("Weekly Show", "All about cooking");
+        Item prefix = new Item("Cookies", null);
+        Item title = new Item("Cook", "Recipes");
+        index.add(description);
+        index.add(prefix);
+        index.add(title);
+
+        assertEquals(Arrays.asList(title, prefix, description), index.search("cook"));
+    }
+
+    /**
+     * Tests that removed models are no longer found, also after a compaction.
+     */
+    @Test
+    public void testRemove() {
+
+        SearchIndex<Item> index = createIndex();
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Item item = new Item("Video " + i, null);
+            items.add(item);
+            index.add(item);
+        }
+        index.remove(items.get(0));
+        assertEquals(999, index.size());
+        assertTrue(index.search("video 0").isEmpty());
+
+        for (int i = 1; i < 900; i++) {
+            index.remove(items.get(i));
+        }
+        assertEquals(100, index.size());
+        assertEquals(100, index.search("video").size());
+        assertEquals(Arrays.asList(items.get(950)), index.search("video 950"));
+
+        index.add(items.get(0));
+        assertEquals(Arrays.asList(items.get(0)), index.search("video 0"));
+    }
+}
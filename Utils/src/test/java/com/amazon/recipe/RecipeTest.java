@@ -18,11 +18,13 @@ import org.junit.Test;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertNotNull;
 import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
 
 /**
  * RecipeTest class is a test for Recipe class.
@@ -210,4 +212,60 @@ public class RecipeTest {
         String mapStr = recipe.getItem("level1/level2/level2String");
         assertEquals("level2String", mapStr);
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that an immutable recipe can not be modified and returns the same items.
+     */
+    @Test
+    public void testImmutableInstance() throws Exception {
+
+        Recipe recipe = Recipe.newImmutableInstance(mRecipeExample);
+        assertTrue(recipe.isImmutable());
+        assertFalse(Recipe.newInstance(mRecipeExample).isImmutable());
+
+        assertEquals(ITEM_COUNT_OF_ROOT_IN_RECIPE_EXAMPLE, recipe.getItemCountOfRoot());
+        assertTrue(recipe.containsItem("model"));
+        assertFalse(recipe.containsItem("badItem"));
+        // Cached lookups return the same results.
+        assertEquals("level2String", recipe.getItem("level1/level2/level2String"));
+        assertEquals("level2String", recipe.getItem("level1/level2/level2String"));
+        assertEquals(3, recipe.getItemAsStringList("stringArray").size());
+
+        try {
+            recipe.getMap().put("model", "Other");
+            fail("The items must not be modifiable");
+        }
+        catch (UnsupportedOperationException e) {
+            // Expected.
+        }
+        try {
+            ((Map) recipe.getMap().get("level1")).put("level1String", "other");
+            fail("Nested items must not be modifiable");
+        }
+        catch (UnsupportedOperationException e) {
+            // Expected.
+        }
+        try {
+            recipe.setMap(new HashMap());
+            fail("The map must not be replaceable");
+        }
+        catch (UnsupportedOperationException e) {
+            // Expected.
+        }
+    }
+
+    /**
+     * Test that with item returns a changed copy and leaves the recipe as it is.
+     */
+    @Test
+    public void testWithItem() throws Exception {
+
+        Recipe recipe = Recipe.newImmutableInstance(mRecipeExample);
+        Recipe live = recipe.withItem(Recipe.LIVE_FEED_TAG, true);
+
+        assertTrue(live.isImmutable());
+        assertTrue(live.getItemAsBoolean(Recipe.LIVE_FEED_TAG));
+        assertEquals("Content", live.getItemAsString("model"));
+        assertFalse(recipe.containsItem(Recipe.LIVE_FEED_TAG));
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+/**
+ * Tests for the {@link ObservableUtils} class.
+ */
+public class ObservableUtilsTest {
+
+    /**
+     * Tests that items are emitted in source order although later inner observables finish
+     * first.
+     */
+    @Test
+    public void testConcatMapEagerKeepsOrder() {
+
+        List<Integer> result =
+                Observable.range(0, 5)
+                          .compose(ObservableUtils.<Integer, Integer>concatMapEager(
+                                  i -> Observable.just(i * 10, i * 10 + 1)
+                                                 .delay((5 - i) * 20, TimeUnit.MILLISECONDS),
+                                  3, Schedulers.io()))
+                          .toList()
+                          .toBlocking()
+                          .single();
+
+        assertEquals(Arrays.asList(0, 1, 10, 11, 20, 21, 30, 31, 40, 41), result);
+    }
+
+    /**
+     * Tests that no more than the given number of inner observables run at the same time.
+     */
+    @Test
+    public void testConcatMapEagerConcurrencyLimit() {
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Integer> result =
+                Observable.range(0, 10)
+                          .compose(ObservableUtils.<Integer, Integer>concatMapEager(i -> {
+                              int now = running.incrementAndGet();
+                              maxRunning.set(Math.max(maxRunning.get(), now));
+                              try {
+                                  Thread.sleep(20);
+                              }
+                              catch (InterruptedException e) {
+                                  Thread.currentThread().interrupt();
+                              }
+                              running.decrementAndGet();
+                              return Observable.just(i);
+                          }, 2, Schedulers.io()))
+                          .toList()
+                          .toBlocking()
+                          .single();
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), result);
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    /**
+     * Tests that inner observables without items and errors are handled.
+     */
+    @Test
+    public void testConcatMapEagerEmptyAndError() {
+
+        List<Integer> result =
+                Observable.range(0, 4)
+                          .compose(ObservableUtils.<Integer, Integer>concatMapEager(
+                                  i -> i % 2 == 0 ? Observable.<Integer>empty()
+                                                  : Observable.just(i),
+                                  4, Schedulers.io()))
+                          .toList()
+                          .toBlocking()
+                          .single();
+        assertEquals(Arrays.asList(1, 3), result);
+
+        try {
+            Observable.range(0, 4)
+                      .compose(ObservableUtils.<Integer, Integer>concatMapEager(
+                              i -> i == 2 ? Observable.<Integer>error(new IllegalStateException())
+                                          : Observable.just(i),
+                              4, Schedulers.io()))
+                      .toList()
+                      .toBlocking()
+                      .single();
+            fail("The error must be delivered");
+        }
+        catch (IllegalStateException e) {
+            // Expected.
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+/**
+ * Tests for the {@link StartupPipeline} class.
+ */
+public class StartupPipelineTest {
+
+    /**
+     * Listener that records the finished steps.
+     */
+    private static class RecordingListener implements StartupPipeline.IStepListener {
+
+        final List<String> mCompleted = Collections.synchronizedList(new ArrayList<>());
+
+        final List<String> mFailed = Collections.synchronizedList(new ArrayList<>());
+
+        final CountDownLatch mDone = new CountDownLatch(1);
+
+        @Override
+        public void onStepCompleted(String name, long waitMillis, long runMillis) {
+
+            mCompleted.add(name);
+        }
+
+        @Override
+        public void onStepFailed(String name, Throwable throwable) {
+
+            mFailed.add(name);
+        }
+
+        @Override
+        public void onPipelineCompleted(long totalMillis) {
+
+            mDone.countDown();
+        }
+    }
+
+    /**
+     * Tests that steps run after their dependencies and independent steps run in parallel.
+     */
+    @Test
+    public void testDependenciesAndParallelSteps() throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        RecordingListener listener = new RecordingListener();
+        // Both branches wait for each other, so they only complete if they run in parallel.
+        CountDownLatch branches = new CountDownLatch(2);
+        Runnable branch = () -> {
+            branches.countDown();
+            try {
+                assertTrue(branches.await(5, TimeUnit.SECONDS));
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        new StartupPipeline(executor)
+                .setListener(listener)
+                .addStep("last", () -> {
+                }, "left", "right")
+                .addStep("left", branch, "first")
+                .addStep("right", branch, "first")
+                .addStep("first", () -> {
+                })
+                .start();
+
+        assertTrue(listener.mDone.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(4, listener.mCompleted.size());
+        assertEquals("first", listener.mCompleted.get(0));
+        assertEquals("last", listener.mCompleted.get(3));
+        assertTrue(listener.mFailed.isEmpty());
+    }
+
+    /**
+     * Tests that deferred steps wait for the first frame.
+     */
+    @Test
+    public void testDeferredStep() throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        RecordingListener listener = new RecordingListener();
+        CountDownLatch critical = new CountDownLatch(1);
+        StartupPipeline pipeline = new StartupPipeline(executor)
+                .setListener(listener)
+                .addStep("critical", critical::countDown)
+                .addDeferredStep("deferred", () -> {
+                });
+        pipeline.start();
+
+        assertTrue(critical.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(1, listener.mDone.getCount());
+        assertTrue(!listener.mCompleted.contains("deferred"));
+
+        pipeline.onFirstFrame();
+        assertTrue(listener.mDone.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(listener.mCompleted.contains("deferred"));
+    }
+
+    /**
+     * Tests that the steps depending on a failed step are skipped.
+     */
+    @Test
+    public void testFailedStep() throws Exception {
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        RecordingListener listener = new RecordingListener();
+        new StartupPipeline(executor)
+                .setListener(listener)
+                .addStep("broken", () -> {
+                    throw new IllegalStateException();
+                })
+                .addStep("dependent", () -> fail("Must be skipped"), "broken")
+                .addStep("transitive", () -> fail("Must be skipped"), "dependent")
+                .addStep("independent", () -> {
+                })
+                .start();
+
+        assertTrue(listener.mDone.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(Collections.singletonList("independent"), listener.mCompleted);
+        assertEquals(3, listener.mFailed.size());
+    }
+
+    /**
+     * Tests that unknown dependencies and cycles are rejected.
+     */
+    @Test
+    public void testInvalidDependencies() throws Exception {
+
+        Runnable noop = () -> {
+        };
+        try {
+            new StartupPipeline(Runnable::run).addStep("a", noop, "missing").start();
+            fail("Unknown dependencies must be rejected");
+        }
+        catch (IllegalStateException e) {
+            // Expected.
+        }
+        try {
+            new StartupPipeline(Runnable::run)
+                    .addStep("a", noop, "b")
+                    .addStep("b", noop, "a")
+                    .addStep("c", noop)
+                    .start();
+            fail("Cycles must be rejected");
+        }
+        catch (IllegalStateException e) {
+            // Expected.
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.utils.model;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.Reader;
+
+/**
+ * DataTest class is a test for the payload encodings of the Data class.
+ */
+public class DataTest extends TestCase {
+
+    /**
+     * Create a JSON payload that compresses well, like a real feed.
+     */
+    private static String createPayload() {
+
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < 500; i++) {
+            builder.append("{\"_id\":\"").append(i).append("\",\"title\":\"Video é ")
+                   .append(i).append("\"},");
+        }
+        return builder.append("{}]").toString();
+    }
+
+    /**
+     * Test that encoded copies decode to the original payload and compare equal to the original.
+     */
+    @Test
+    public void testCopyWithPayloadEncoding() throws Exception {
+
+        String payload = createPayload();
+        Data data = Data.createDataForPayload(payload);
+
+        for (Data.PayloadEncoding encoding : Data.PayloadEncoding.values()) {
+            Data copy = data.copyWithPayloadEncoding(encoding);
+            assertEquals(encoding, copy.getContent().getPayloadEncoding());
+            assertEquals(payload, copy.getContent().getPayload());
+            assertEquals(data, copy);
+            assertEquals(data.hashCode(), copy.hashCode());
+        }
+        // The original is not changed.
+        assertEquals(Data.PayloadEncoding.STRING, data.getContent().getPayloadEncoding());
+    }
+
+    /**
+     * Test that the compressed payload is smaller than the string payload.
+     */
+    @Test
+    public void testDeflateFootprint() throws Exception {
+
+        Data data = Data.createDataForPayload(createPayload());
+        Data compressed = data.copyWithPayloadEncoding(Data.PayloadEncoding.DEFLATE);
+
+        assertTrue(compressed.getContent().getPayloadFootprintInBytes() * 4 <
+                           data.getContent().getPayloadFootprintInBytes());
+    }
+
+    /**
+     * Test streaming access to a compressed payload.
+     */
+    @Test
+    public void testOpenPayloadReader() throws Exception {
+
+        String payload = createPayload();
+        Data.Record record = Data.createDataForPayload(payload).getContent()
+                                 .copyWithPayloadEncoding(Data.PayloadEncoding.DEFLATE);
+
+        StringBuilder builder = new StringBuilder();
+        try (Reader reader = new BufferedReader(record.openPayloadReader())) {
+            char[] buffer = new char[256];
+            int count;
+            while ((count = reader.read(buffer)) != -1) {
+                builder.append(buffer, 0, count);
+            }
+        }
+        assertEquals(payload, builder.toString());
+    }
+
+    /**
+     * Test records without payload.
+     */
+    @Test
+    public void testNullPayload() throws Exception {
+
+        Data data = Data.createDataForPayload(null);
+        Data copy = data.copyWithPayloadEncoding(Data.PayloadEncoding.DEFLATE);
+
+        assertNull(copy.getContent().getPayload());
+        assertNull(copy.getContent().openPayloadStream());
+        assertEquals(data, copy);
+    }
+}